@@ -0,0 +1,114 @@
+package com.docflow.benchmarks;
+
+import com.docflow.analysis.AnalysisService;
+import com.docflow.analysis.ChunkScore;
+import com.docflow.analysis.KeywordAnalysisEngine;
+import com.docflow.config.AnalysisConfig;
+import com.docflow.service.DocumentPriorityPolicy;
+import com.docflow.workflow.AIAnalysisResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AI analysis scoring with the in-process keyword engine: a single chunk
+ * scored by the engine, and a whole text document through
+ * {@link AnalysisService}, with and without micro-batching. With batching a
+ * lone caller waits out the linger; run with {@code -t} above 1 to see the
+ * batched throughput.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalysisBenchmark {
+    
+    private static final String[] WORDS = {
+        "the", "invoice", "total", "amount", "payment", "due", "within", "days", "of", "receipt",
+        "customer", "account", "signed", "agreement", "delivery", "shipping", "order", "and",
+        "suspicious", "password", "reference", "number", "please", "contact", "support"
+    };
+    
+    @State(Scope.Benchmark)
+    public static class EngineState {
+        
+        private KeywordAnalysisEngine engine;
+        private String chunk;
+        
+        @Setup
+        public void setUp() {
+            engine = new KeywordAnalysisEngine();
+            chunk = generateText(64 * 1024);
+        }
+    }
+    
+    @State(Scope.Benchmark)
+    public static class ServiceState {
+        
+        @Param({"4", "1024"})
+        private int documentKb;
+        
+        @Param({"true", "false"})
+        private boolean batching;
+        
+        private AnnotationConfigApplicationContext context;
+        private AnalysisService analysisService;
+        private Path document;
+        
+        @Setup
+        public void setUp() throws IOException {
+            context = BenchmarkContexts.start(
+                Map.of("docflow.analysis.batch.enabled", batching),
+                AnalysisConfig.class, KeywordAnalysisEngine.class, AnalysisService.class,
+                DocumentPriorityPolicy.class);
+            analysisService = context.getBean(AnalysisService.class);
+            document = Files.createTempFile("docflow-analysis-", ".txt");
+            Files.writeString(document, generateText(documentKb * 1024), StandardCharsets.UTF_8);
+        }
+        
+        @TearDown
+        public void tearDown() throws IOException {
+            context.close();
+            Files.deleteIfExists(document);
+        }
+    }
+    
+    @Benchmark
+    public ChunkScore scoreChunk(EngineState state) {
+        return state.engine.scoreChunk(state.chunk);
+    }
+    
+    @Benchmark
+    public AIAnalysisResult analyzeDocument(ServiceState state) throws IOException {
+        return state.analysisService.analyze("invoice-2024.txt", state.document.toString(), "text/plain");
+    }
+    
+    private static String generateText(int chars) {
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder(chars + 16);
+        while (text.length() < chars) {
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+            text.append(random.nextInt(12) == 0 ? ".\n" : " ");
+        }
+        return text.substring(0, chars);
+    }
+}
@@ -0,0 +1,32 @@
+package com.docflow.benchmarks;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+
+/**
+ * Builds minimal Spring contexts around the beans under test, so they get
+ * their {@code @Value} defaults and lifecycle exactly as in the application
+ * without a database or Temporal.
+ */
+public final class BenchmarkContexts {
+    
+    private BenchmarkContexts() {
+    }
+    
+    public static AnnotationConfigApplicationContext start(Map<String, Object> properties, Class<?>... components) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        // Converts values such as "20ms" and "5GB" the way Spring Boot does
+        context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance());
+        context.getEnvironment().getPropertySources()
+            .addFirst(new MapPropertySource("benchmark", properties));
+        context.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+        context.register(components);
+        context.refresh();
+        return context;
+    }
+}
@@ -0,0 +1,98 @@
+package com.docflow.benchmarks;
+
+import com.docflow.dto.DocumentPageResponse;
+import com.docflow.dto.DocumentResponse;
+import com.docflow.model.Document;
+import com.docflow.model.Document.DocumentStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a page of entities into the list response body: the
+ * {@link DocumentResponse#fromDocument} mapping and its JSON serialization.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DocumentMappingBenchmark {
+    
+    @Param({"50", "200"})
+    private int pageSize;
+    
+    private List<Document> documents;
+    private DocumentPageResponse page;
+    private ObjectMapper objectMapper;
+    
+    @Setup
+    public void setUp() {
+        // Same defaults as the ObjectMapper Spring Boot configures for MVC
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        
+        Random random = new Random(42);
+        documents = new ArrayList<>(pageSize);
+        LocalDateTime now = LocalDateTime.of(2024, 6, 1, 12, 0);
+        for (int i = 0; i < pageSize; i++) {
+            Document document = new Document();
+            document.setId(UUID.randomUUID().toString());
+            document.setFilename("invoice-2024-" + i + ".pdf");
+            document.setContentType("application/pdf");
+            document.setFileSize(10_000L + random.nextInt(5_000_000));
+            document.setFilePath("./uploads/blobs/ab/" + UUID.randomUUID());
+            document.setStatus(i % 3 == 0 ? DocumentStatus.PENDING : DocumentStatus.APPROVED);
+            document.setAiSuggestion(random.nextBoolean() ? "approve" : "reject");
+            document.setAiConfidence(0.5 + random.nextDouble() / 2);
+            document.setAiReasoning("Document contains standard business content (invoice, payment, total)");
+            if (document.getStatus() != DocumentStatus.PENDING) {
+                document.setReviewerNotes("Checked against purchase order");
+                document.setReviewedBy("reviewer" + random.nextInt(10));
+                document.setReviewedAt(now.plusMinutes(i));
+            }
+            document.setWorkflowId("document-approval-" + document.getId());
+            document.setCreatedAt(now.minusMinutes(i));
+            document.setUpdatedAt(now);
+            documents.add(document);
+        }
+        page = map();
+    }
+    
+    @Benchmark
+    public DocumentPageResponse map() {
+        List<DocumentResponse> items = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            items.add(DocumentResponse.fromDocument(document));
+        }
+        return new DocumentPageResponse(items, "cursor");
+    }
+    
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+    
+    @Benchmark
+    public byte[] mapAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(map());
+    }
+}
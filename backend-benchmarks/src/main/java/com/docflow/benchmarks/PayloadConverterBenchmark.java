@@ -0,0 +1,106 @@
+package com.docflow.benchmarks;
+
+import com.docflow.workflow.AIAnalysisResult;
+import com.docflow.workflow.CompactPayloadConverter;
+import com.docflow.workflow.CompressionPayloadCodec;
+import com.docflow.workflow.DocumentApprovalWorkflow;
+import com.docflow.workflow.PolicyDecision;
+import io.temporal.api.common.v1.Payloads;
+import io.temporal.common.converter.CodecDataConverter;
+import io.temporal.common.converter.DataConverter;
+import io.temporal.common.converter.DefaultDataConverter;
+import io.temporal.common.converter.PayloadConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode cost of the payloads one approval workflow writes to its
+ * history (AI result, policy decision, approval result) with the SDK's JSON
+ * converter, the compact converter, and compact plus compression. The
+ * encoded size of each is printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadConverterBenchmark {
+    
+    @Param({"json", "compact", "compressed"})
+    private String converter;
+    
+    // Reviewer notes are free text and the only field that grows
+    @Param({"64", "4096"})
+    private int notesChars;
+    
+    private DataConverter dataConverter;
+    private AIAnalysisResult analysis;
+    private PolicyDecision decision;
+    private DocumentApprovalWorkflow.ApprovalResult approval;
+    private List<Optional<Payloads>> encoded;
+    
+    @Setup
+    public void setUp() {
+        dataConverter = switch (converter) {
+            case "json" -> DefaultDataConverter.newDefaultInstance();
+            case "compact" -> compact();
+            case "compressed" -> new CodecDataConverter(compact(), List.of(new CompressionPayloadCodec(1024)));
+            default -> throw new IllegalArgumentException(converter);
+        };
+        analysis = new AIAnalysisResult("approve", 0.87,
+            "Document contains standard business content (invoice, payment, total, amount, order)");
+        decision = new PolicyDecision(null, "1", "confidence 0.87 below approve threshold 0.90");
+        StringBuilder notes = new StringBuilder(notesChars);
+        while (notes.length() < notesChars) {
+            notes.append("Checked against the purchase order; amounts and VAT match. ");
+        }
+        approval = new DocumentApprovalWorkflow.ApprovalResult(
+            DocumentApprovalWorkflow.APPROVED, notes.substring(0, notesChars), "reviewer1");
+        
+        encoded = encode();
+        long bytes = encoded.stream().mapToLong(payloads -> payloads.orElseThrow().getSerializedSize()).sum();
+        System.out.printf("%n%s, %d note chars: %d payload bytes per workflow%n", converter, notesChars, bytes);
+    }
+    
+    private static DataConverter compact() {
+        PayloadConverter[] standard = DefaultDataConverter.STANDARD_PAYLOAD_CONVERTERS;
+        PayloadConverter[] converters = new PayloadConverter[standard.length + 1];
+        converters[0] = new CompactPayloadConverter(true);
+        System.arraycopy(standard, 0, converters, 1, standard.length);
+        return new DefaultDataConverter(converters);
+    }
+    
+    @Benchmark
+    public List<Optional<Payloads>> encode() {
+        return List.of(
+            dataConverter.toPayloads(analysis),
+            dataConverter.toPayloads(decision),
+            dataConverter.toPayloads(approval)
+        );
+    }
+    
+    @Benchmark
+    public void decode(Blackhole blackhole) {
+        blackhole.consume(dataConverter.fromPayloads(
+            0, encoded.get(0), AIAnalysisResult.class, AIAnalysisResult.class));
+        blackhole.consume(dataConverter.fromPayloads(
+            0, encoded.get(1), PolicyDecision.class, PolicyDecision.class));
+        blackhole.consume(dataConverter.fromPayloads(0, encoded.get(2),
+            DocumentApprovalWorkflow.ApprovalResult.class, DocumentApprovalWorkflow.ApprovalResult.class));
+    }
+}
@@ -0,0 +1,93 @@
+package com.docflow.benchmarks;
+
+import com.docflow.service.FileStorageService;
+import com.docflow.service.StoredFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upload I/O through {@link FileStorageService#store}: streaming to a
+ * temporary file while hashing, then either moving it into the blob store
+ * (new content) or discarding it (a deduplicated repeat).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UploadBenchmark {
+    
+    @Param({"65536", "4194304"})
+    private int fileBytes;
+    
+    @Param({"false", "true"})
+    private boolean duplicate;
+    
+    private AnnotationConfigApplicationContext context;
+    private FileStorageService storage;
+    private Path uploadDir;
+    private byte[] content;
+    private long sequence;
+    private StoredFile stored;
+    
+    @Setup
+    public void setUp() throws IOException {
+        uploadDir = Files.createTempDirectory("docflow-upload-");
+        context = BenchmarkContexts.start(
+            Map.of("file.upload.dir", uploadDir.toString()),
+            FileStorageService.class);
+        storage = context.getBean(FileStorageService.class);
+        
+        content = new byte[fileBytes];
+        new Random(42).nextBytes(content);
+        storage.store(new ByteArrayInputStream(content));
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(uploadDir);
+    }
+    
+    @Benchmark
+    public StoredFile store() throws IOException {
+        if (!duplicate) {
+            // A distinct prefix makes every upload new content
+            ByteBuffer.wrap(content).putLong(0, ++sequence);
+        }
+        stored = storage.store(new ByteArrayInputStream(content));
+        return stored;
+    }
+    
+    /** Keeps the disk from filling up with unique blobs. */
+    @TearDown(Level.Invocation)
+    public void deleteNewBlob() throws IOException {
+        if (!duplicate && stored != null) {
+            Files.deleteIfExists(Paths.get(stored.getFilePath()));
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.docflow.benchmarks.load;
+
+import com.docflow.service.UploadAdmission;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Upload latency under overload, with and without {@link UploadAdmission}.
+ * Uploads arrive open-loop at a multiple of what a simulated connection pool
+ * can serve and run on a fixed pool of request threads, like Tomcat's. Each
+ * admitted upload holds a connection for the service time; the mean wait
+ * for a connection is sampled and reported to the admission control as
+ * overload, as the upload load monitor does with the Hikari metrics. The
+ * run goes through chaos phases:
+ * <ul>
+ *   <li>{@code overload} - steady arrivals at the overload factor</li>
+ *   <li>{@code slow-db} - the service time triples</li>
+ *   <li>{@code disk-full} - the upload volume is reported full; without
+ *       admission control the uploads fail after using their connection</li>
+ *   <li>{@code recovery} - back to the first phase</li>
+ * </ul>
+ * A fifth of the arrivals come from one greedy client, the rest are spread
+ * over the other clients. Uploads still queued for a request thread after
+ * the client timeout are counted as timed out and skipped.
+ * Settings are system properties:
+ * <ul>
+ *   <li>{@code overload.connections} - simulated pool size (10)</li>
+ *   <li>{@code overload.service-time} - connection hold per upload (20ms)</li>
+ *   <li>{@code overload.factor} - arrival rate over pool capacity (5)</li>
+ *   <li>{@code overload.phase} - length of each phase (10s)</li>
+ *   <li>{@code overload.clients} - clients besides the greedy one (20)</li>
+ *   <li>{@code overload.request-threads} - request threads (200)</li>
+ *   <li>{@code overload.client-timeout} - client timeout (30s)</li>
+ *   <li>{@code overload.max-pool-wait} - pool wait counted as overload (service time)</li>
+ *   <li>{@code overload.latency-target} - admission latency target (250ms)</li>
+ *   <li>{@code overload.client-rate} - per-client uploads per second (50)</li>
+ *   <li>{@code overload.report} - report path (target/overload-report.json)</li>
+ * </ul>
+ */
+public class AdmissionOverloadSimulation {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionOverloadSimulation.class);
+    
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+    
+    private static final String[] PHASES = {"overload", "slow-db", "disk-full", "recovery"};
+    
+    private final int connections;
+    private final Duration serviceTime;
+    private final double factor;
+    private final Duration phase;
+    private final int clients;
+    private final int requestThreads;
+    private final Duration clientTimeout;
+    private final Duration maxPoolWait;
+    private final Duration latencyTarget;
+    private final double clientRate;
+    private final Duration sampleInterval = Duration.ofMillis(250);
+    
+    public AdmissionOverloadSimulation() {
+        this.connections = Integer.getInteger("overload.connections", 10);
+        this.serviceTime = DurationStyle.detectAndParse(System.getProperty("overload.service-time", "20ms"));
+        this.factor = Double.parseDouble(System.getProperty("overload.factor", "5"));
+        this.phase = DurationStyle.detectAndParse(System.getProperty("overload.phase", "10s"));
+        this.clients = Integer.getInteger("overload.clients", 20);
+        this.requestThreads = Integer.getInteger("overload.request-threads", 200);
+        this.clientTimeout = DurationStyle.detectAndParse(System.getProperty("overload.client-timeout", "30s"));
+        this.maxPoolWait = DurationStyle.detectAndParse(
+            System.getProperty("overload.max-pool-wait", serviceTime.toMillis() + "ms"));
+        this.latencyTarget = DurationStyle.detectAndParse(System.getProperty("overload.latency-target", "250ms"));
+        this.clientRate = Double.parseDouble(System.getProperty("overload.client-rate", "50"));
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Path report = Paths.get(System.getProperty("overload.report", "target/overload-report.json"));
+        new AdmissionOverloadSimulation().run(report);
+    }
+    
+    public void run(Path report) throws Exception {
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("unprotected", simulate(false));
+        results.put("admission", simulate(true));
+        writeReport(report, results);
+    }
+    
+    private Map<String, Object> simulate(boolean protectedByAdmission) throws Exception {
+        String label = protectedByAdmission ? "admission" : "unprotected";
+        UploadAdmission admission = new UploadAdmission(protectedByAdmission, clientRate, (int) clientRate,
+            50, 4, 200, 0.9, latencyTarget, Duration.ofMillis(100), Duration.ofSeconds(1), Duration.ofSeconds(60),
+            DataSize.ofKilobytes(256), new SimpleMeterRegistry());
+        Run run = new Run(admission);
+        ThreadPoolExecutor requests = new ThreadPoolExecutor(requestThreads, requestThreads, 0, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>());
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(run::sample, 0, sampleInterval.toMillis(), TimeUnit.MILLISECONDS);
+        
+        List<PhaseStats> phases = new ArrayList<>();
+        try {
+            double arrivalsPerSecond = factor * connections * 1000.0 / serviceTime.toMillis();
+            for (String name : PHASES) {
+                PhaseStats stats = new PhaseStats(name);
+                phases.add(stats);
+                run.phase = stats;
+                long end = System.nanoTime() + phase.toNanos();
+                long next = System.nanoTime();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (next < end) {
+                    // Poisson arrivals
+                    next += (long) (-Math.log(1 - random.nextDouble()) / arrivalsPerSecond * 1e9);
+                    long delay = next - System.nanoTime();
+                    if (delay > 0) {
+                        LockSupport.parkNanos(delay);
+                    }
+                    String client = random.nextInt(5) == 0 ? "greedy" : "client-" + random.nextInt(clients);
+                    long arrived = System.nanoTime();
+                    requests.execute(() -> run.handle(stats, client, arrived));
+                }
+                stats.queuedAtEnd = requests.getQueue().size();
+                stats.endNanos = System.nanoTime();
+            }
+            requests.shutdown();
+            requests.awaitTermination(clientTimeout.toMillis() * 2, TimeUnit.MILLISECONDS);
+        } finally {
+            requests.shutdownNow();
+            sampler.shutdownNow();
+        }
+        
+        List<Map<String, Object>> summaries = new ArrayList<>();
+        for (PhaseStats stats : phases) {
+            Map<String, Object> summary = stats.summary(protectedByAdmission);
+            logger.info("{} {}: {}", label, stats.name, summary);
+            summaries.add(summary);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("phases", summaries);
+        return result;
+    }
+    
+    private void writeReport(Path path, Map<String, Object> results) throws IOException {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("connections", connections);
+        config.put("serviceTimeMs", serviceTime.toMillis());
+        config.put("factor", factor);
+        config.put("arrivalsPerSecond", factor * connections * 1000.0 / serviceTime.toMillis());
+        config.put("phaseMs", phase.toMillis());
+        config.put("clients", clients);
+        config.put("requestThreads", requestThreads);
+        config.put("clientTimeoutMs", clientTimeout.toMillis());
+        config.put("maxPoolWaitMs", maxPoolWait.toMillis());
+        config.put("latencyTargetMs", latencyTarget.toMillis());
+        config.put("clientRate", clientRate);
+        
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("config", config);
+        report.putAll(results);
+        
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+        logger.info("Overload report written to {}", path.toAbsolutePath());
+    }
+    
+    /** The simulated node: connection pool, load sampling and request handling. */
+    private final class Run {
+        
+        final UploadAdmission admission;
+        final Semaphore pool = new Semaphore(connections, true);
+        final AtomicLong waitNanos = new AtomicLong();
+        final AtomicLong acquired = new AtomicLong();
+        volatile PhaseStats phase;
+        
+        Run(UploadAdmission admission) {
+            this.admission = admission;
+        }
+        
+        /** What the upload load monitor does, with the simulated pool's wait. */
+        void sample() {
+            long waited = waitNanos.getAndSet(0);
+            long count = acquired.getAndSet(0);
+            double meanWait = count > 0 ? (double) waited / count : 0;
+            PhaseStats current = phase;
+            boolean diskFull = current != null && "disk-full".equals(current.name);
+            admission.update(meanWait > maxPoolWait.toNanos(), diskFull);
+            if (current != null) {
+                synchronized (current.limits) {
+                    current.limits.add(admission.getLimit());
+                }
+            }
+        }
+        
+        void handle(PhaseStats stats, String client, long arrived) {
+            if (System.nanoTime() - arrived > clientTimeout.toNanos()) {
+                stats.timedOut.incrementAndGet();
+                return;
+            }
+            try (UploadAdmission.Ticket ticket = admission.admit(client)) {
+                if (!ticket.isAdmitted()) {
+                    stats.rejected.get(ticket.getRejection()).incrementAndGet();
+                    return;
+                }
+                // Chaos follows the current phase, not the one the upload arrived in
+                String now = phase.name;
+                long waitStart = System.nanoTime();
+                pool.acquireUninterruptibly();
+                try {
+                    waitNanos.addAndGet(System.nanoTime() - waitStart);
+                    acquired.incrementAndGet();
+                    long hold = "slow-db".equals(now) ? serviceTime.toNanos() * 3 : serviceTime.toNanos();
+                    LockSupport.parkNanos(hold);
+                } finally {
+                    pool.release();
+                }
+                if ("disk-full".equals(now)) {
+                    stats.failed.incrementAndGet();
+                    return;
+                }
+                long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - arrived);
+                synchronized (stats.latency) {
+                    stats.latency.recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+                }
+            }
+        }
+    }
+    
+    private static final class PhaseStats {
+        
+        final String name;
+        final long startNanos = System.nanoTime();
+        volatile long endNanos;
+        final Histogram latency = new Histogram(MAX_LATENCY_MICROS, 3);
+        final Map<UploadAdmission.Rejection, AtomicLong> rejected = new EnumMap<>(UploadAdmission.Rejection.class);
+        final AtomicLong timedOut = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final List<Double> limits = new ArrayList<>();
+        volatile int queuedAtEnd;
+        
+        PhaseStats(String name) {
+            this.name = name;
+            for (UploadAdmission.Rejection rejection : UploadAdmission.Rejection.values()) {
+                rejected.put(rejection, new AtomicLong());
+            }
+        }
+        
+        /** Outcome of the uploads that arrived during the phase, taken after all of them finished. */
+        Map<String, Object> summary(boolean withLimit) {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            double seconds = (endNanos - startNanos) / 1e9;
+            synchronized (latency) {
+                summary.put("phase", name);
+                summary.put("completed", latency.getTotalCount());
+                summary.put("goodputPerSecond", Math.round(latency.getTotalCount() / seconds));
+                summary.put("p50Ms", latency.getValueAtPercentile(50) / 1000.0);
+                summary.put("p99Ms", latency.getValueAtPercentile(99) / 1000.0);
+                summary.put("maxMs", latency.getMaxValue() / 1000.0);
+            }
+            Map<String, Long> refused = new LinkedHashMap<>();
+            rejected.forEach((rejection, count) -> refused.put(rejection.name().toLowerCase(), count.get()));
+            summary.put("rejected", refused);
+            summary.put("failed", failed.get());
+            summary.put("timedOut", timedOut.get());
+            summary.put("queuedAtEnd", queuedAtEnd);
+            synchronized (limits) {
+                summary.put("meanLimit", !withLimit || limits.isEmpty() ? null
+                    : Math.round(limits.stream().mapToDouble(Double::doubleValue).average().orElse(0)));
+            }
+            return summary;
+        }
+    }
+}
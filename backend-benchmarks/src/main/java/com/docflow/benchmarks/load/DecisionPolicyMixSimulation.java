@@ -0,0 +1,374 @@
+package com.docflow.benchmarks.load;
+
+import com.docflow.service.DecisionPolicy;
+import com.docflow.workflow.AIAnalysisResult;
+import com.docflow.workflow.DocumentActivities;
+import com.docflow.workflow.DocumentApprovalWorkflow;
+import com.docflow.workflow.DocumentApprovalWorkflowImpl;
+import com.docflow.workflow.PolicyDecision;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.worker.Worker;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Open workflows and upload-to-decision latency with and without the
+ * auto-decision policy, for the same mix of documents. Runs the real
+ * {@link DocumentApprovalWorkflowImpl} on the Temporal test server with
+ * time skipping, so a day of uploads and 24-hour review timeouts take
+ * minutes; stub activities return each document's suggestion and
+ * confidence from the mix, and reviewers signal after each document's
+ * review delay, agreeing with the AI.
+ * <p>
+ * The mix is replayed from {@code policy.mix} when given, a CSV of
+ * {@code suggestion,confidence,review_seconds} rows with an empty delay for
+ * documents nobody reviewed, e.g. exported from production with:
+ * <pre>
+ * copy (select ai_suggestion, ai_confidence,
+ *              case when reviewed_by not in ('system_timeout', 'system_policy')
+ *                   then extract(epoch from reviewed_at - created_at) end
+ *       from documents where ai_suggestion is not null) to stdout with csv
+ * </pre>
+ * Otherwise it is generated: 70% approve suggestions, confidence
+ * 0.5 + 0.5 * sqrt(u) capped at 0.99 for uniform u, and log-normal review
+ * delays, with a share of documents left for the timeout.
+ * Settings are system properties:
+ * <ul>
+ *   <li>{@code policy.mix} - CSV mix to replay (generated)</li>
+ *   <li>{@code policy.documents-per-hour} - upload rate (200)</li>
+ *   <li>{@code policy.hours} - hours of uploads (24)</li>
+ *   <li>{@code policy.approve-threshold} / {@code policy.reject-threshold} - policy under test (0.90 / 0.95)</li>
+ *   <li>{@code policy.review-median} - median review delay of the generated mix (2h)</li>
+ *   <li>{@code policy.review-sigma} - log-normal sigma of the review delay (1.0)</li>
+ *   <li>{@code policy.unreviewed} - share of generated documents nobody reviews (0.1)</li>
+ *   <li>{@code policy.step} - simulated time per step (1m), the resolution of the results</li>
+ *   <li>{@code policy.seed} - random seed (42)</li>
+ *   <li>{@code policy.report} - report path (target/policy-report.json)</li>
+ * </ul>
+ */
+public class DecisionPolicyMixSimulation {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DecisionPolicyMixSimulation.class);
+    
+    private static final String TASK_QUEUE = "policy-mix";
+    
+    private static final long MAX_LATENCY_SECONDS = TimeUnit.DAYS.toSeconds(3);
+    
+    private final Path mix;
+    private final double documentsPerHour;
+    private final int hours;
+    private final double approveThreshold;
+    private final double rejectThreshold;
+    private final Duration reviewMedian;
+    private final double reviewSigma;
+    private final double unreviewed;
+    private final Duration step;
+    private final long seed;
+    
+    public DecisionPolicyMixSimulation() {
+        String mixPath = System.getProperty("policy.mix", "");
+        this.mix = mixPath.isBlank() ? null : Paths.get(mixPath);
+        this.documentsPerHour = Double.parseDouble(System.getProperty("policy.documents-per-hour", "200"));
+        this.hours = Integer.getInteger("policy.hours", 24);
+        this.approveThreshold = Double.parseDouble(System.getProperty("policy.approve-threshold", "0.90"));
+        this.rejectThreshold = Double.parseDouble(System.getProperty("policy.reject-threshold", "0.95"));
+        this.reviewMedian = DurationStyle.detectAndParse(System.getProperty("policy.review-median", "2h"));
+        this.reviewSigma = Double.parseDouble(System.getProperty("policy.review-sigma", "1.0"));
+        this.unreviewed = Double.parseDouble(System.getProperty("policy.unreviewed", "0.1"));
+        this.step = DurationStyle.detectAndParse(System.getProperty("policy.step", "1m"));
+        this.seed = Long.getLong("policy.seed", 42);
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Path report = Paths.get(System.getProperty("policy.report", "target/policy-report.json"));
+        new DecisionPolicyMixSimulation().run(report);
+        // gRPC leaves non-daemon threads behind
+        System.exit(0);
+    }
+    
+    public void run(Path report) throws Exception {
+        List<MixDocument> documents = arrivals(mix != null ? readMix(mix) : generateMix());
+        DecisionPolicy policy = new DecisionPolicy("mix", Map.of("approve", approveThreshold, "reject", rejectThreshold));
+        policy.validate();
+        
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("humanReview", simulate("human-review", DecisionPolicy.HUMAN_REVIEW, documents));
+        results.put("policy", simulate("policy", policy, documents));
+        writeReport(report, documents.size(), results);
+    }
+    
+    private Map<String, Object> simulate(String name, DecisionPolicy policy, List<MixDocument> documents)
+            throws InterruptedException {
+        TestWorkflowEnvironment environment = TestWorkflowEnvironment.newInstance();
+        MixActivities activities = new MixActivities(policy, documents, environment);
+        Worker worker = environment.newWorker(TASK_QUEUE);
+        worker.registerWorkflowImplementationTypes(DocumentApprovalWorkflowImpl.class);
+        worker.registerActivitiesImplementations(activities);
+        environment.start();
+        
+        WorkflowClient client = environment.getWorkflowClient();
+        long origin = environment.currentTimeMillis();
+        Histogram latency = new Histogram(MAX_LATENCY_SECONDS, 3);
+        Histogram openDuringUploads = new Histogram(documents.size() + 1L, 3);
+        int peakOpen = 0;
+        int openAtEndOfUploads = 0;
+        int started = 0;
+        int signalled = 0;
+        List<MixDocument> byReview = new ArrayList<>(documents);
+        byReview.removeIf(document -> document.reviewAfterMillis < 0);
+        byReview.sort((a, b) -> Long.compare(a.arrivalMillis + a.reviewAfterMillis, b.arrivalMillis + b.reviewAfterMillis));
+        long uploadsEnd = TimeUnit.HOURS.toMillis(hours);
+        
+        try {
+            // Uploads, then a day and a step for the last review timeouts
+            long end = uploadsEnd + TimeUnit.HOURS.toMillis(24) + step.toMillis();
+            for (long now = 0; now <= end && activities.decided.size() < documents.size(); now += step.toMillis()) {
+                while (started < documents.size() && documents.get(started).arrivalMillis <= now) {
+                    MixDocument document = documents.get(started++);
+                    DocumentApprovalWorkflow workflow = client.newWorkflowStub(DocumentApprovalWorkflow.class,
+                        WorkflowOptions.newBuilder().setTaskQueue(TASK_QUEUE).setWorkflowId(document.id).build());
+                    WorkflowClient.start(workflow::processDocument, document.id);
+                }
+                while (signalled < byReview.size()
+                        && byReview.get(signalled).arrivalMillis + byReview.get(signalled).reviewAfterMillis <= now) {
+                    MixDocument document = byReview.get(signalled++);
+                    if (!activities.decided.containsKey(document.id)) {
+                        activities.reviewed.add(document.id);
+                        DocumentApprovalWorkflow workflow = client.newWorkflowStub(DocumentApprovalWorkflow.class, document.id);
+                        if ("approve".equals(document.suggestion)) {
+                            workflow.approve("Replayed review", "reviewer");
+                        } else {
+                            workflow.reject("Replayed review", "reviewer");
+                        }
+                    }
+                }
+                awaitQuiescence(activities, started);
+                int open = started - activities.decided.size();
+                peakOpen = Math.max(peakOpen, open);
+                if (now < uploadsEnd) {
+                    openDuringUploads.recordValue(open);
+                    openAtEndOfUploads = open;
+                }
+                environment.sleep(step);
+            }
+            
+            for (MixDocument document : documents) {
+                Long decidedAt = activities.decided.get(document.id);
+                if (decidedAt != null) {
+                    long seconds = TimeUnit.MILLISECONDS.toSeconds(decidedAt - origin - document.arrivalMillis);
+                    latency.recordValue(Math.max(0, Math.min(seconds, MAX_LATENCY_SECONDS)));
+                }
+            }
+        } finally {
+            environment.close();
+        }
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("policyVersion", policy.getVersion());
+        result.put("documents", documents.size());
+        result.put("undecided", documents.size() - activities.decided.size());
+        result.put("decidedByPolicy", activities.byPolicy.get());
+        result.put("decidedByTimeout", activities.byTimeout.get());
+        result.put("decidedByReviewer", activities.byReviewer.get());
+        Map<String, Object> open = new LinkedHashMap<>();
+        open.put("meanDuringUploads", openDuringUploads.getMean());
+        open.put("atEndOfUploads", openAtEndOfUploads);
+        open.put("peak", peakOpen);
+        result.put("openWorkflows", open);
+        Map<String, Object> decision = new LinkedHashMap<>();
+        decision.put("p50Minutes", latency.getValueAtPercentile(50) / 60.0);
+        decision.put("p90Minutes", latency.getValueAtPercentile(90) / 60.0);
+        decision.put("p99Minutes", latency.getValueAtPercentile(99) / 60.0);
+        decision.put("maxMinutes", latency.getMaxValue() / 60.0);
+        decision.put("meanMinutes", latency.getMean() / 60.0);
+        result.put("uploadToDecision", decision);
+        logger.info("{}: {}", name, result);
+        return result;
+    }
+    
+    /**
+     * Waits until every started workflow has been evaluated, and every one
+     * decided by the policy or a reviewer so far has been finalized, so
+     * skipping time can't race them.
+     */
+    private static void awaitQuiescence(MixActivities activities, int started) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+        while (System.nanoTime() < deadline) {
+            activities.reviewed.removeIf(activities.decided::containsKey);
+            if (activities.evaluated.size() >= started && activities.automatic.isEmpty()
+                    && activities.reviewed.isEmpty()) {
+                return;
+            }
+            Thread.sleep(1);
+        }
+        logger.warn("Workflows still busy after a minute; skipping time anyway");
+    }
+    
+    private List<MixDocument> arrivals(List<MixDocument> documents) {
+        // Poisson arrivals at the configured rate over the upload window
+        Random random = new Random(seed);
+        double meanGapMillis = TimeUnit.HOURS.toMillis(1) / documentsPerHour;
+        long uploadsEnd = TimeUnit.HOURS.toMillis(hours);
+        List<MixDocument> arrived = new ArrayList<>();
+        double at = 0;
+        for (int i = 0; ; i++) {
+            at += -Math.log(1 - random.nextDouble()) * meanGapMillis;
+            if (at >= uploadsEnd) {
+                break;
+            }
+            MixDocument template = documents.get(i % documents.size());
+            arrived.add(new MixDocument("mix-" + i, template.suggestion, template.confidence,
+                template.reviewAfterMillis, (long) at));
+        }
+        return arrived;
+    }
+    
+    private List<MixDocument> generateMix() {
+        Random random = new Random(seed + 1);
+        List<MixDocument> documents = new ArrayList<>();
+        int count = (int) Math.max(1, documentsPerHour * hours);
+        for (int i = 0; i < count; i++) {
+            String suggestion = random.nextDouble() < 0.7 ? "approve" : "reject";
+            double confidence = Math.min(0.99, 0.5 + 0.5 * Math.sqrt(random.nextDouble()));
+            long review = random.nextDouble() < unreviewed ? -1
+                : (long) (reviewMedian.toMillis() * Math.exp(reviewSigma * random.nextGaussian()));
+            documents.add(new MixDocument(null, suggestion, confidence, review, 0));
+        }
+        return documents;
+    }
+    
+    private static List<MixDocument> readMix(Path path) throws IOException {
+        List<MixDocument> documents = new ArrayList<>();
+        for (String line : Files.readAllLines(path)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] fields = line.split(",", -1);
+            long review = fields.length > 2 && !fields[2].isBlank()
+                ? Math.round(Double.parseDouble(fields[2]) * 1000) : -1;
+            documents.add(new MixDocument(null, fields[0].trim(), Double.parseDouble(fields[1]), review, 0));
+        }
+        if (documents.isEmpty()) {
+            throw new IllegalArgumentException("Mix " + path + " has no documents");
+        }
+        return documents;
+    }
+    
+    private void writeReport(Path path, int documents, Map<String, Object> results) throws IOException {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("mix", mix != null ? mix.toString() : "generated");
+        config.put("documents", documents);
+        config.put("documentsPerHour", documentsPerHour);
+        config.put("hours", hours);
+        config.put("approveThreshold", approveThreshold);
+        config.put("rejectThreshold", rejectThreshold);
+        if (mix == null) {
+            config.put("reviewMedianMinutes", reviewMedian.toMinutes());
+            config.put("reviewSigma", reviewSigma);
+            config.put("unreviewed", unreviewed);
+        }
+        config.put("stepSeconds", step.getSeconds());
+        
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("config", config);
+        report.putAll(results);
+        
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+        logger.info("Policy report written to {}", path.toAbsolutePath());
+    }
+    
+    private static final class MixDocument {
+        
+        final String id;
+        final String suggestion;
+        final double confidence;
+        final long reviewAfterMillis; // negative: nobody reviews it
+        final long arrivalMillis;
+        
+        MixDocument(String id, String suggestion, double confidence, long reviewAfterMillis, long arrivalMillis) {
+            this.id = id;
+            this.suggestion = suggestion;
+            this.confidence = confidence;
+            this.reviewAfterMillis = reviewAfterMillis;
+            this.arrivalMillis = arrivalMillis;
+        }
+    }
+    
+    /** Returns each document's analysis from the mix and records when and how it was decided. */
+    private static final class MixActivities implements DocumentActivities {
+        
+        final Set<String> evaluated = ConcurrentHashMap.newKeySet();
+        final Set<String> automatic = ConcurrentHashMap.newKeySet(); // decided by the policy, not yet finalized
+        final Set<String> reviewed = ConcurrentHashMap.newKeySet(); // signalled, not yet finalized
+        final Map<String, Long> decided = new ConcurrentHashMap<>();
+        final AtomicInteger byPolicy = new AtomicInteger();
+        final AtomicInteger byTimeout = new AtomicInteger();
+        final AtomicInteger byReviewer = new AtomicInteger();
+        
+        private final DecisionPolicy policy;
+        private final Map<String, MixDocument> documents = new ConcurrentHashMap<>();
+        private final TestWorkflowEnvironment environment;
+        
+        MixActivities(DecisionPolicy policy, List<MixDocument> documents, TestWorkflowEnvironment environment) {
+            this.policy = policy;
+            this.environment = environment;
+            documents.forEach(document -> this.documents.put(document.id, document));
+        }
+        
+        @Override
+        public AIAnalysisResult analyzeDocumentWithAI(String documentId) {
+            MixDocument document = documents.get(documentId);
+            return new AIAnalysisResult(document.suggestion, document.confidence, "Replayed analysis");
+        }
+        
+        @Override
+        public void updateDocumentWithAISuggestion(String documentId, AIAnalysisResult aiResult) {
+        }
+        
+        @Override
+        public PolicyDecision evaluateDecisionPolicy(String documentId, AIAnalysisResult aiResult) {
+            PolicyDecision decision = policy.evaluate(aiResult);
+            if (decision.isAutomatic() && !decided.containsKey(documentId)) {
+                automatic.add(documentId);
+            }
+            evaluated.add(documentId);
+            return decision;
+        }
+        
+        @Override
+        public void finalizeDocumentDecision(String documentId, DocumentApprovalWorkflow.ApprovalResult approvalResult) {
+            if (decided.putIfAbsent(documentId, environment.currentTimeMillis()) == null) {
+                switch (DocumentApprovalWorkflow.DecidedBy.of(approvalResult.getReviewedBy())) {
+                    case POLICY -> byPolicy.incrementAndGet();
+                    case TIMEOUT -> byTimeout.incrementAndGet();
+                    default -> byReviewer.incrementAndGet();
+                }
+            }
+            automatic.remove(documentId);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.docflow.benchmarks.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TCP proxy that delivers every chunk in either direction {@code delay}
+ * after it was read, as a slow network or an overloaded Temporal frontend
+ * would. Chunks are pipelined, so only latency is added, not a throughput
+ * limit; each gRPC call takes at least twice the delay.
+ */
+public class DelayingProxy implements AutoCloseable {
+    
+    private static final byte[] END = new byte[0];
+    
+    private final ServerSocket serverSocket;
+    private final int targetPort;
+    private final long delayNanos;
+    private final ExecutorService threads = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "delaying-proxy");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private record Chunk(byte[] data, long dueNanos) {}
+    
+    public DelayingProxy(int targetPort, Duration delay) throws IOException {
+        this.serverSocket = new ServerSocket(0);
+        this.targetPort = targetPort;
+        this.delayNanos = delay.toNanos();
+        threads.execute(this::accept);
+    }
+    
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+    
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket client = serverSocket.accept();
+                Socket target = new Socket();
+                target.connect(new InetSocketAddress("localhost", targetPort));
+                client.setTcpNoDelay(true);
+                target.setTcpNoDelay(true);
+                pipe(client, target);
+                pipe(target, client);
+            } catch (IOException e) {
+                // Closed, or the target refused; the client sees its socket close
+            }
+        }
+    }
+    
+    /** Reads {@code from} on one thread and writes each chunk to {@code to} once due on another. */
+    private void pipe(Socket from, Socket to) {
+        BlockingQueue<Chunk> chunks = new LinkedBlockingQueue<>();
+        threads.execute(() -> {
+            byte[] buffer = new byte[64 * 1024];
+            try (InputStream in = from.getInputStream()) {
+                int read;
+                while ((read = in.read(buffer)) >= 0) {
+                    chunks.add(new Chunk(Arrays.copyOf(buffer, read), System.nanoTime() + delayNanos));
+                }
+            } catch (IOException e) {
+                // Connection closed
+            }
+            chunks.add(new Chunk(END, System.nanoTime() + delayNanos));
+        });
+        threads.execute(() -> {
+            try (OutputStream out = to.getOutputStream()) {
+                while (true) {
+                    Chunk chunk = chunks.take();
+                    long wait = chunk.dueNanos() - System.nanoTime();
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+                    if (chunk.data() == END) {
+                        break;
+                    }
+                    out.write(chunk.data());
+                    out.flush();
+                }
+            } catch (IOException e) {
+                // Connection closed
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            closeQuietly(from);
+            closeQuietly(to);
+        });
+    }
+    
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        threads.shutdownNow();
+    }
+}
@@ -0,0 +1,541 @@
+package com.docflow.benchmarks.load;
+
+import com.docflow.DocFlowApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.temporal.client.WorkflowClient;
+import io.temporal.common.WorkflowExecutionHistory;
+import io.temporal.testserver.TestServer;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end load test. Starts Postgres in a container, the Temporal test
+ * server and the backend (prod profile, so Flyway builds the schema), then
+ * drives the upload, list, approve and workflow-status endpoints from a
+ * fixed number of closed-loop users. Latencies are recorded per operation
+ * and written as a JSON report; {@link LoadReportComparison} diffs two of
+ * them.
+ * <p>
+ * Settings are system properties:
+ * <ul>
+ *   <li>{@code load.users} - concurrent users (default 16)</li>
+ *   <li>{@code load.warmup}, {@code load.duration} - phase lengths (10s, 60s)</li>
+ *   <li>{@code load.mix} - upload,list,status,approve weights (20,50,20,10)</li>
+ *   <li>{@code load.file-bytes} - size of each uploaded text file (16384)</li>
+ *   <li>{@code load.approve-after} - minimum age of an upload before it is
+ *       approved, so its workflow is waiting for review (5s)</li>
+ *   <li>{@code load.history-samples} - uploads whose workflow history size
+ *       is sampled after the run (50)</li>
+ *   <li>{@code load.report} - report path (target/load-report.json)</li>
+ *   <li>{@code load.commit} - label for the report (git HEAD)</li>
+ *   <li>{@code load.postgres-image} - container image (postgres:16-alpine)</li>
+ *   <li>{@code load.jdbc-url} - existing, empty database to use instead of a
+ *       container (no Docker); {@code load.jdbc-user} and
+ *       {@code load.jdbc-password} as needed</li>
+ *   <li>{@code load.temporal-delay} - delay added each way between the
+ *       backend and Temporal, as by a slow frontend (0)</li>
+ * </ul>
+ * Other {@code -D} options starting with {@code docflow.}, {@code temporal.}
+ * or {@code spring.} are passed to the backend.
+ */
+public class LoadHarness {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LoadHarness.class);
+    
+    static final String[] OPERATIONS = {"upload", "list", "status", "approve"};
+    
+    private static final String[] WORDS = {
+        "invoice", "payment", "total", "amount", "agreement", "signed", "order", "delivery",
+        "customer", "account", "reference", "the", "of", "and", "within", "days"
+    };
+    
+    // Values above the highest trackable latency are clamped
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+    
+    private final int users;
+    private final Duration warmup;
+    private final Duration duration;
+    private final int[] mix;
+    private final int fileBytes;
+    private final Duration approveAfter;
+    private final int historySamples;
+    private final Duration temporalDelay;
+    
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Recorder> recorders = new LinkedHashMap<>();
+    private final Map<String, AtomicLong> errors = new LinkedHashMap<>();
+    private final AtomicLong skippedApprovals = new AtomicLong();
+    private final AtomicLong alreadyDecided = new AtomicLong();
+    private final AtomicLong uploadSequence = new AtomicLong();
+    private final ConcurrentLinkedQueue<Upload> awaitingApproval = new ConcurrentLinkedQueue<>();
+    private final List<String> uploadedIds = new CopyOnWriteArrayList<>();
+    
+    private String baseUrl;
+    
+    private record Upload(String id, long uploadedAtNanos) {}
+    
+    public LoadHarness() {
+        this.users = Integer.getInteger("load.users", 16);
+        this.warmup = DurationStyle.detectAndParse(System.getProperty("load.warmup", "10s"));
+        this.duration = DurationStyle.detectAndParse(System.getProperty("load.duration", "60s"));
+        this.mix = parseMix(System.getProperty("load.mix", "20,50,20,10"));
+        this.fileBytes = Integer.getInteger("load.file-bytes", 16384);
+        this.approveAfter = DurationStyle.detectAndParse(System.getProperty("load.approve-after", "5s"));
+        this.historySamples = Integer.getInteger("load.history-samples", 50);
+        this.temporalDelay = DurationStyle.detectAndParse(System.getProperty("load.temporal-delay", "0s"));
+        for (String operation : OPERATIONS) {
+            recorders.put(operation, new Recorder(MAX_LATENCY_MICROS, 3));
+            errors.put(operation, new AtomicLong());
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Path report = Paths.get(System.getProperty("load.report", "target/load-report.json"));
+        int status = 0;
+        try {
+            new LoadHarness().run(report);
+        } catch (Exception e) {
+            logger.error("Load test failed", e);
+            status = 1;
+        }
+        // Testcontainers and gRPC leave non-daemon threads behind
+        System.exit(status);
+    }
+    
+    public void run(Path report) throws Exception {
+        String image = System.getProperty("load.postgres-image", "postgres:16-alpine");
+        String jdbcUrl = System.getProperty("load.jdbc-url");
+        Path uploadDir = Files.createTempDirectory("docflow-load-");
+        int temporalPort = freePort();
+        
+        try (PostgreSQLContainer<?> postgres = jdbcUrl == null ? new PostgreSQLContainer<>(image) : null;
+             TestServer.PortBoundTestServer temporal = TestServer.createPortBoundServer(temporalPort);
+             DelayingProxy slowFrontend = temporalDelay.isZero() ? null : new DelayingProxy(temporalPort, temporalDelay)) {
+            Map<String, Object> properties = new HashMap<>();
+            properties.put("server.port", 0);
+            if (postgres != null) {
+                postgres.start();
+                logger.info("Postgres {} started", image);
+                properties.put("spring.datasource.url", postgres.getJdbcUrl() + "&reWriteBatchedInserts=true");
+                properties.put("spring.datasource.username", postgres.getUsername());
+                properties.put("spring.datasource.password", postgres.getPassword());
+            } else {
+                properties.put("spring.datasource.url", jdbcUrl);
+                properties.put("spring.datasource.username", System.getProperty("load.jdbc-user", "postgres"));
+                properties.put("spring.datasource.password", System.getProperty("load.jdbc-password", ""));
+            }
+            logger.info("Temporal test server on port {} started, {} added each way", temporalPort, temporalDelay);
+            properties.put("temporal.host", "localhost");
+            properties.put("temporal.port", slowFrontend != null ? slowFrontend.port() : temporalPort);
+            properties.put("file.upload.dir", uploadDir.resolve("uploads").toString());
+            properties.put("file.archive.dir", uploadDir.resolve("archive").toString());
+            // No collector runs next to the harness
+            properties.put("management.tracing.sampling.probability", 0.0);
+            properties.put("docflow.archive.enabled", false);
+            // All users share one address; measure capacity, not the per-client rate limit
+            properties.put("docflow.admission.client.rate", 0);
+            properties.put("management.metrics.distribution.percentiles.docflow.decision.time", "0.5,0.9,0.99");
+            properties.put("management.metrics.distribution.percentiles.docflow.outbox.dispatch.lag", "0.5,0.9,0.99");
+            System.getProperties().forEach((key, value) -> {
+                String name = key.toString();
+                if (name.startsWith("docflow.") || name.startsWith("temporal.") || name.startsWith("spring.")) {
+                    properties.put(name, value);
+                }
+            });
+            
+            // As command-line arguments, so they win over application.properties
+            String[] arguments = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+            try (ConfigurableApplicationContext application = new SpringApplicationBuilder(DocFlowApplication.class)
+                    .profiles("prod")
+                    .run(arguments)) {
+                baseUrl = "http://localhost:" + application.getEnvironment().getProperty("local.server.port")
+                    + "/api/documents";
+                
+                logger.info("Warming up for {} with {} users", warmup, users);
+                drive(warmup);
+                recorders.values().forEach(Recorder::reset);
+                errors.values().forEach(count -> count.set(0));
+                skippedApprovals.set(0);
+                alreadyDecided.set(0);
+                
+                logger.info("Measuring for {} with {} users", duration, users);
+                Instant startedAt = Instant.now();
+                long elapsedNanos = drive(duration);
+                
+                writeReport(report, startedAt, elapsedNanos, properties,
+                    application.getBean(MeterRegistry.class), application.getBean(WorkflowClient.class));
+            }
+        } finally {
+            FileSystemUtils.deleteRecursively(uploadDir);
+        }
+    }
+    
+    /** Runs the users until the phase ends; returns its actual length. */
+    private long drive(Duration phase) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(users);
+        long start = System.nanoTime();
+        for (int i = 0; i < users; i++) {
+            executor.execute(() -> {
+                while (running.get()) {
+                    step(pickOperation());
+                }
+            });
+        }
+        Thread.sleep(phase.toMillis());
+        running.set(false);
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        return System.nanoTime() - start;
+    }
+    
+    private String pickOperation() {
+        int total = 0;
+        for (int weight : mix) {
+            total += weight;
+        }
+        int pick = ThreadLocalRandom.current().nextInt(total);
+        for (int i = 0; i < mix.length; i++) {
+            pick -= mix[i];
+            if (pick < 0) {
+                return OPERATIONS[i];
+            }
+        }
+        return OPERATIONS[0];
+    }
+    
+    private void step(String operation) {
+        HttpRequest request = switch (operation) {
+            case "upload" -> uploadRequest();
+            case "list" -> get("?limit=50");
+            case "status" -> uploadedIds.isEmpty() ? null
+                : get("/" + uploadedIds.get(ThreadLocalRandom.current().nextInt(uploadedIds.size()))
+                    + "/workflow-status");
+            case "approve" -> approveRequest();
+            default -> throw new IllegalArgumentException(operation);
+        };
+        if (request == null) {
+            if ("approve".equals(operation)) {
+                skippedApprovals.incrementAndGet();
+            }
+            return;
+        }
+        
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+            recorders.get(operation).recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+            if (response.statusCode() / 100 != 2) {
+                errors.get(operation).incrementAndGet();
+            } else if ("upload".equals(operation)) {
+                String id = objectMapper.readTree(response.body()).path("id").asText();
+                uploadedIds.add(id);
+                awaitingApproval.add(new Upload(id, System.nanoTime()));
+            }
+        } catch (IOException e) {
+            errors.get(operation).incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private HttpRequest uploadRequest() {
+        long sequence = uploadSequence.incrementAndGet();
+        // Distinct content, so every upload is analyzed rather than deduplicated
+        StringBuilder text = new StringBuilder(fileBytes + 32).append("load ").append(sequence).append('\n');
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (text.length() < fileBytes) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/upload/stream?filename=load-" + sequence + ".txt"))
+            .header("Content-Type", "text/plain")
+            .timeout(Duration.ofSeconds(30))
+            .POST(HttpRequest.BodyPublishers.ofString(text.toString(), StandardCharsets.UTF_8))
+            .build();
+    }
+    
+    /**
+     * Approves the oldest upload once it is old enough and still pending;
+     * null when there is none. Uploads the decision policy already
+     * finalized are counted and dropped.
+     */
+    private HttpRequest approveRequest() {
+        Upload upload;
+        while ((upload = awaitingApproval.peek()) != null
+                && System.nanoTime() - upload.uploadedAtNanos() >= approveAfter.toNanos()) {
+            if (awaitingApproval.remove(upload) && isPending(upload.id())) {
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/" + upload.id() + "/approve"))
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(30))
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"reviewedBy\":\"load-test\",\"reviewerNotes\":\"Approved by load test\"}"))
+                    .build();
+            }
+        }
+        return null;
+    }
+    
+    /** Unmeasured lookup; a failed one counts as pending so the approval is still attempted. */
+    private boolean isPending(String id) {
+        try {
+            HttpResponse<byte[]> response = httpClient.send(get("/" + id), HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() == 200
+                    && !"pending".equals(objectMapper.readTree(response.body()).path("status").asText())) {
+                alreadyDecided.incrementAndGet();
+                return false;
+            }
+        } catch (IOException e) {
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return true;
+    }
+    
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(Duration.ofSeconds(30))
+            .GET()
+            .build();
+    }
+    
+    private void writeReport(Path path, Instant startedAt, long elapsedNanos,
+                             Map<String, Object> properties, MeterRegistry meterRegistry,
+                             WorkflowClient workflowClient)
+            throws IOException, InterruptedException {
+        double seconds = elapsedNanos / 1e9;
+        Map<String, Object> operations = new LinkedHashMap<>();
+        recorders.forEach((operation, recorder) -> {
+            Histogram histogram = recorder.getIntervalHistogram();
+            Map<String, Object> latency = new LinkedHashMap<>();
+            latency.put("mean", histogram.getMean() / 1000.0);
+            latency.put("p50", histogram.getValueAtPercentile(50) / 1000.0);
+            latency.put("p90", histogram.getValueAtPercentile(90) / 1000.0);
+            latency.put("p99", histogram.getValueAtPercentile(99) / 1000.0);
+            latency.put("p999", histogram.getValueAtPercentile(99.9) / 1000.0);
+            latency.put("max", histogram.getMaxValue() / 1000.0);
+            
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("count", histogram.getTotalCount());
+            summary.put("errors", errors.get(operation).get());
+            summary.put("throughputPerSecond", histogram.getTotalCount() / seconds);
+            summary.put("latencyMs", latency);
+            operations.put(operation, summary);
+        });
+        
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("users", users);
+        config.put("warmupSeconds", warmup.toSeconds());
+        config.put("durationSeconds", duration.toSeconds());
+        config.put("mix", mix);
+        config.put("fileBytes", fileBytes);
+        config.put("approveAfterSeconds", approveAfter.toSeconds());
+        config.put("historySamples", historySamples);
+        config.put("temporalDelayMs", temporalDelay.toMillis());
+        config.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        config.put("javaVersion", System.getProperty("java.version"));
+        // Overrides that affect results; connection details and paths differ per run
+        Map<String, Object> overrides = new TreeMap<>(properties);
+        overrides.keySet().removeIf(name -> name.startsWith("spring.datasource.") || name.startsWith("file.")
+            || name.equals("server.port") || name.equals("temporal.port"));
+        config.put("backendProperties", overrides);
+        
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("commit", System.getProperty("load.commit", gitHead()));
+        report.put("startedAt", startedAt.toString());
+        report.put("elapsedSeconds", seconds);
+        report.put("config", config);
+        report.put("operations", operations);
+        report.put("skippedApprovals", skippedApprovals.get());
+        report.put("alreadyDecided", alreadyDecided.get());
+        // One workflow per pending document
+        JsonNode stats = fetchStats();
+        report.put("openWorkflows", stats == null ? null : stats.path("statusCounts").path("pending").asLong());
+        report.put("decisions", decisionLatencies(meterRegistry));
+        report.put("dispatchLag", dispatchLag(meterRegistry));
+        report.put("history", historySizes(workflowClient));
+        report.put("serverStats", stats);
+        
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+        logger.info("Load report written to {}", path.toAbsolutePath());
+        operations.forEach((operation, summary) -> logger.info("{}: {}", operation, summary));
+    }
+    
+    /**
+     * Upload-to-decision latency by who decided (human, policy, timeout) and
+     * outcome, e.g. "policy.approved", from the backend's own timer. Covers
+     * the warm-up as well.
+     */
+    private static Map<String, Object> decisionLatencies(MeterRegistry meterRegistry) {
+        Map<String, Object> decisions = new TreeMap<>();
+        for (Timer timer : meterRegistry.find("docflow.decision.time").timers()) {
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("count", snapshot.count());
+            summary.put("meanMs", snapshot.mean(TimeUnit.MILLISECONDS));
+            for (ValueAtPercentile value : snapshot.percentileValues()) {
+                summary.put("p" + Math.round(value.percentile() * 100) + "Ms", value.value(TimeUnit.MILLISECONDS));
+            }
+            summary.put("maxMs", snapshot.max(TimeUnit.MILLISECONDS));
+            decisions.put(timer.getId().getTag("decidedBy") + "." + timer.getId().getTag("status"), summary);
+        }
+        return decisions;
+    }
+    
+    /**
+     * Upload-to-workflow-start latency per priority lane, from the outbox
+     * dispatcher's timer. Uploads return before the start, so a slow
+     * Temporal frontend shows up here rather than in upload latency.
+     */
+    private static Map<String, Object> dispatchLag(MeterRegistry meterRegistry) {
+        Map<String, Object> lag = new TreeMap<>();
+        for (Timer timer : meterRegistry.find("docflow.outbox.dispatch.lag").timers()) {
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            if (snapshot.count() == 0) {
+                continue;
+            }
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("count", snapshot.count());
+            summary.put("meanMs", snapshot.mean(TimeUnit.MILLISECONDS));
+            for (ValueAtPercentile value : snapshot.percentileValues()) {
+                summary.put("p" + Math.round(value.percentile() * 100) + "Ms", value.value(TimeUnit.MILLISECONDS));
+            }
+            summary.put("maxMs", snapshot.max(TimeUnit.MILLISECONDS));
+            lag.put(timer.getId().getTag("priority"), summary);
+        }
+        return lag;
+    }
+    
+    /**
+     * Size of the workflow histories of evenly spaced uploads, as stored by
+     * the Temporal server, so data converter changes show up in the report.
+     */
+    private Map<String, Object> historySizes(WorkflowClient workflowClient)
+            throws IOException, InterruptedException {
+        List<String> ids = new ArrayList<>(uploadedIds);
+        int samples = Math.min(historySamples, ids.size());
+        long totalBytes = 0;
+        long maxBytes = 0;
+        long totalEvents = 0;
+        int sampled = 0;
+        for (int i = 0; i < samples; i++) {
+            String id = ids.get(i * ids.size() / samples);
+            HttpResponse<byte[]> response = httpClient.send(get("/" + id), HttpResponse.BodyHandlers.ofByteArray());
+            String workflowId = response.statusCode() == 200
+                ? objectMapper.readTree(response.body()).path("workflowId").asText(null) : null;
+            if (workflowId == null) {
+                continue;
+            }
+            WorkflowExecutionHistory history;
+            try {
+                history = workflowClient.fetchHistory(workflowId);
+            } catch (StatusRuntimeException e) {
+                if (e.getStatus().getCode() != Status.Code.NOT_FOUND) {
+                    throw e;
+                }
+                // Still in the outbox, e.g. behind a slow Temporal frontend
+                continue;
+            }
+            long bytes = history.getHistory().getSerializedSize();
+            totalBytes += bytes;
+            maxBytes = Math.max(maxBytes, bytes);
+            totalEvents += history.getEvents().size();
+            sampled++;
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("sampled", sampled);
+        summary.put("meanBytes", sampled == 0 ? 0 : totalBytes / sampled);
+        summary.put("maxBytes", maxBytes);
+        summary.put("meanEvents", sampled == 0 ? 0 : (double) totalEvents / sampled);
+        return summary;
+    }
+    
+    /** The dashboard counters after the run, e.g. how many documents were finalized. */
+    private JsonNode fetchStats() throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = httpClient.send(get("/stats"), HttpResponse.BodyHandlers.ofByteArray());
+        return response.statusCode() == 200 ? objectMapper.readTree(response.body()) : null;
+    }
+    
+    private static String gitHead() {
+        try {
+            Process git = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").start();
+            try (InputStream out = git.getInputStream()) {
+                String head = new String(out.readAllBytes(), StandardCharsets.UTF_8).trim();
+                return git.waitFor() == 0 && !head.isEmpty() ? head : "unknown";
+            }
+        } catch (IOException | InterruptedException e) {
+            return "unknown";
+        }
+    }
+    
+    private static int[] parseMix(String mix) {
+        String[] parts = mix.split(",");
+        if (parts.length != OPERATIONS.length) {
+            throw new IllegalArgumentException(
+                "load.mix needs " + OPERATIONS.length + " weights (upload,list,status,approve): " + mix);
+        }
+        int[] weights = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            weights[i] = Integer.parseInt(parts[i].trim());
+        }
+        return weights;
+    }
+    
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.docflow.benchmarks.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Compares two {@link LoadHarness} reports, typically from two commits, and
+ * exits with status 1 when the candidate regresses by more than the
+ * threshold: higher p50/p99 latency, lower throughput or a higher error rate.
+ * <p>
+ * Usage: {@code LoadReportComparison baseline.json candidate.json [thresholdPercent]}
+ * (default 10).
+ */
+public class LoadReportComparison {
+    
+    private static final String[] LATENCIES = {"p50", "p99"};
+    
+    // Latencies below this are too noisy to judge in percent
+    private static final double MIN_LATENCY_MS = 1.0;
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: LoadReportComparison <baseline.json> <candidate.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode baseline = objectMapper.readTree(new File(args[0]));
+        JsonNode candidate = objectMapper.readTree(new File(args[1]));
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) / 100 : 0.10;
+        
+        System.out.printf("Baseline %s vs candidate %s (threshold %.0f%%)%n",
+            baseline.path("commit").asText(), candidate.path("commit").asText(), threshold * 100);
+        System.out.printf("%-10s %-12s %12s %12s %9s%n", "operation", "metric", "baseline", "candidate", "change");
+        
+        int regressions = 0;
+        for (String operation : LoadHarness.OPERATIONS) {
+            JsonNode before = baseline.path("operations").path(operation);
+            JsonNode after = candidate.path("operations").path(operation);
+            if (before.path("count").asLong() == 0 || after.path("count").asLong() == 0) {
+                continue;
+            }
+            
+            double beforeThroughput = before.path("throughputPerSecond").asDouble();
+            double afterThroughput = after.path("throughputPerSecond").asDouble();
+            if (print(operation, "throughput", beforeThroughput, afterThroughput,
+                    afterThroughput < beforeThroughput * (1 - threshold))) {
+                regressions++;
+            }
+            
+            for (String percentile : LATENCIES) {
+                double beforeLatency = before.path("latencyMs").path(percentile).asDouble();
+                double afterLatency = after.path("latencyMs").path(percentile).asDouble();
+                boolean regressed = afterLatency > MIN_LATENCY_MS
+                    && afterLatency > beforeLatency * (1 + threshold);
+                if (print(operation, percentile + " ms", beforeLatency, afterLatency, regressed)) {
+                    regressions++;
+                }
+            }
+            
+            double beforeErrors = before.path("errors").asDouble() / before.path("count").asDouble();
+            double afterErrors = after.path("errors").asDouble() / after.path("count").asDouble();
+            // Absolute: a rise of one percentage point fails regardless of threshold
+            if (print(operation, "error rate", beforeErrors, afterErrors, afterErrors > beforeErrors + 0.01)) {
+                regressions++;
+            }
+        }
+        
+        if (regressions > 0) {
+            System.out.println(regressions + " regression(s)");
+            System.exit(1);
+        }
+        System.out.println("No regressions");
+    }
+    
+    private static boolean print(String operation, String metric, double before, double after, boolean regressed) {
+        String change = before == 0 ? "n/a" : String.format("%+.1f%%", (after - before) / before * 100);
+        System.out.printf("%-10s %-12s %12.3f %12.3f %9s%s%n",
+            operation, metric, before, after, change, regressed ? "  REGRESSION" : "");
+        return regressed;
+    }
+}
@@ -0,0 +1,413 @@
+package com.docflow.benchmarks.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PENDING-queue and id-lookup latency on the monthly partitioned documents
+ * table against the same rows in an unpartitioned copy. The partitioned
+ * schema is built by the backend's Flyway migrations; the unpartitioned one
+ * has the same columns and indexes with {@code id} as primary key. Rows are
+ * spread over the configured months, and only recent ones are still
+ * PENDING, as in production. Each query runs the SQL the repository
+ * methods translate to:
+ * <ul>
+ *   <li>{@code pendingFirstPage} - {@code findFirstPageByStatus(PENDING)}</li>
+ *   <li>{@code pendingNextPage} - {@code findPageByStatusAfter}, after a random PENDING row</li>
+ *   <li>{@code pendingOldest} - {@code findWorkflowRefsByFilter(PENDING)} without filters</li>
+ *   <li>{@code lookupById} - {@code findStatusById} for a random document; by
+ *       {@code DocumentRepository.BY_ID} on the partitioned table</li>
+ * </ul>
+ * The layouts alternate within each round. Per query and layout the report
+ * gives latency percentiles and the shared buffers one execution touches.
+ * Settings are system properties:
+ * <ul>
+ *   <li>{@code partition.rows} - documents (10000000)</li>
+ *   <li>{@code partition.months} - months the documents span (12)</li>
+ *   <li>{@code partition.pending-days} - age below which documents can be PENDING (14)</li>
+ *   <li>{@code partition.pending-share} - share of those still PENDING (0.3)</li>
+ *   <li>{@code partition.page-size} - rows per page (20)</li>
+ *   <li>{@code partition.samples} - measured executions per query and layout (2000)</li>
+ *   <li>{@code partition.warmup} - unmeasured executions per query and layout (200)</li>
+ *   <li>{@code partition.reuse} - keep the rows of an earlier run with the same settings (false)</li>
+ *   <li>{@code partition.jdbc-url} - existing database to use instead of a
+ *       container (no Docker); {@code partition.jdbc-user} and
+ *       {@code partition.jdbc-password} as needed</li>
+ *   <li>{@code partition.flyway-locations} - migrations (classpath:db/migration)</li>
+ *   <li>{@code partition.report} - report path (target/partition-report.json)</li>
+ * </ul>
+ */
+public class PartitionQueueBenchmark {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PartitionQueueBenchmark.class);
+    
+    private static final String PARTITIONED = "bench_partitioned";
+    private static final String UNPARTITIONED = "bench_unpartitioned";
+    
+    private static final int LOAD_BATCH = 1_000_000;
+    
+    private static final long MAX_LATENCY_MICROS = TimeUnit.SECONDS.toMicros(10);
+    
+    private static final String VIEW_COLUMNS = "id, filename, content_type, file_size, status, ai_suggestion, "
+        + "ai_confidence, ai_reasoning, reviewer_notes, reviewed_by, reviewed_at, workflow_id, priority, "
+        + "uploaded_by, created_at, updated_at";
+    
+    private static final String ORDER = " order by created_at desc, id desc fetch first ? rows only";
+    
+    private final long rows;
+    private final int months;
+    private final int pendingDays;
+    private final double pendingShare;
+    private final int pageSize;
+    private final int samples;
+    private final int warmup;
+    private final boolean reuse;
+    private final String flywayLocations;
+    
+    private List<String> ids;
+    private List<Object[]> pendingCursors;
+    
+    public PartitionQueueBenchmark() {
+        this.rows = Long.getLong("partition.rows", 10_000_000);
+        this.months = Integer.getInteger("partition.months", 12);
+        this.pendingDays = Integer.getInteger("partition.pending-days", 14);
+        this.pendingShare = Double.parseDouble(System.getProperty("partition.pending-share", "0.3"));
+        this.pageSize = Integer.getInteger("partition.page-size", 20);
+        this.samples = Integer.getInteger("partition.samples", 2000);
+        this.warmup = Integer.getInteger("partition.warmup", 200);
+        this.reuse = Boolean.getBoolean("partition.reuse");
+        this.flywayLocations = System.getProperty("partition.flyway-locations", "classpath:db/migration");
+    }
+    
+    public static void main(String[] args) {
+        Path report = Paths.get(System.getProperty("partition.report", "target/partition-report.json"));
+        int status = 0;
+        try {
+            new PartitionQueueBenchmark().run(report);
+        } catch (Exception e) {
+            logger.error("Partition benchmark failed", e);
+            status = 1;
+        }
+        // Testcontainers leaves non-daemon threads behind
+        System.exit(status);
+    }
+    
+    public void run(Path report) throws Exception {
+        String image = System.getProperty("partition.postgres-image", "postgres:16-alpine");
+        String jdbcUrl = System.getProperty("partition.jdbc-url");
+        try (PostgreSQLContainer<?> postgres = jdbcUrl == null ? new PostgreSQLContainer<>(image) : null) {
+            String url;
+            String user;
+            String password;
+            if (postgres != null) {
+                postgres.start();
+                logger.info("Postgres {} started", image);
+                url = postgres.getJdbcUrl();
+                user = postgres.getUsername();
+                password = postgres.getPassword();
+            } else {
+                url = jdbcUrl;
+                user = System.getProperty("partition.jdbc-user", "postgres");
+                password = System.getProperty("partition.jdbc-password", "");
+            }
+            
+            try (Connection partitioned = DriverManager.getConnection(url, user, password);
+                 Connection unpartitioned = DriverManager.getConnection(url, user, password)) {
+                if (!reuse || !loaded(partitioned)) {
+                    load(url, user, password, partitioned);
+                }
+                partitioned.setSchema(PARTITIONED);
+                unpartitioned.setSchema(UNPARTITIONED);
+                sampleInputs(partitioned);
+                
+                Map<String, Object> results = new LinkedHashMap<>();
+                Map<String, Object> sizes = new LinkedHashMap<>();
+                sizes.put("partitioned", size(partitioned, PARTITIONED));
+                sizes.put("unpartitioned", size(unpartitioned, UNPARTITIONED));
+                results.put("sizes", sizes);
+                results.put("queries", measure(partitioned, unpartitioned));
+                writeReport(report, results);
+            }
+        }
+    }
+    
+    private boolean loaded(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("select count(*) from pg_namespace where nspname = '"
+                 + UNPARTITIONED + "'")) {
+            result.next();
+            if (result.getInt(1) == 0) {
+                return false;
+            }
+        }
+        long found = queryForLong(connection, "select count(*) from " + UNPARTITIONED + ".documents");
+        logger.info("Found {} documents from an earlier run", found);
+        return found == rows;
+    }
+    
+    private void load(String url, String user, String password, Connection connection) throws SQLException {
+        execute(connection, "drop schema if exists " + PARTITIONED + " cascade");
+        execute(connection, "drop schema if exists " + UNPARTITIONED + " cascade");
+        Flyway.configure()
+            .dataSource(url, user, password)
+            .schemas(PARTITIONED)
+            .locations(flywayLocations)
+            .load()
+            .migrate();
+        
+        connection.setSchema(PARTITIONED);
+        execute(connection, "select docflow_create_document_partition(month::date) from generate_series("
+            + "date_trunc('month', now()) - make_interval(months => " + months + "), date_trunc('month', now()), "
+            + "interval '1 month') as month");
+        long start = System.nanoTime();
+        for (long loaded = 0; loaded < rows; loaded += LOAD_BATCH) {
+            long batch = Math.min(LOAD_BATCH, rows - loaded);
+            execute(connection, "insert into documents (id, filename, content_type, file_size, file_path, status, "
+                + "ai_suggestion, ai_confidence, workflow_id, created_at, updated_at) "
+                + "select id, id || '.pdf', 'application/pdf', 100000, '/uploads/' || id, "
+                + "case when created_at > now() - make_interval(days => " + pendingDays + ") "
+                + "and random() < " + pendingShare + " then 'PENDING' "
+                + "when random() < 0.8 then 'APPROVED' else 'REJECTED' end, "
+                + "'approve', random(), 'document-approval-' || id, created_at, created_at "
+                + "from (select gen_random_uuid()::text as id, "
+                + "now() - random() * make_interval(months => " + months + ") as created_at "
+                + "from generate_series(1, " + batch + ")) generated");
+            logger.info("Loaded {} of {} documents", loaded + batch, rows);
+        }
+        execute(connection, "insert into document_keys (id, created_at) select id, created_at from documents");
+        
+        execute(connection, "create schema " + UNPARTITIONED);
+        execute(connection, "create table " + UNPARTITIONED + ".documents (like " + PARTITIONED
+            + ".documents including defaults including constraints, primary key (id))");
+        List<String> indexes = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("select indexdef from pg_indexes where schemaname = '"
+                 + PARTITIONED + "' and tablename = 'documents' and indexname <> 'documents_pkey'")) {
+            while (result.next()) {
+                indexes.add(result.getString(1)
+                    .replace(" ON ONLY " + PARTITIONED + ".", " ON " + UNPARTITIONED + ".")
+                    .replace(" ON " + PARTITIONED + ".", " ON " + UNPARTITIONED + "."));
+            }
+        }
+        execute(connection, "insert into " + UNPARTITIONED + ".documents select * from " + PARTITIONED + ".documents");
+        for (String index : indexes) {
+            execute(connection, index);
+        }
+        execute(connection, "vacuum analyze " + PARTITIONED + ".documents");
+        execute(connection, "vacuum analyze " + PARTITIONED + ".document_keys");
+        execute(connection, "vacuum analyze " + UNPARTITIONED + ".documents");
+        logger.info("Both layouts loaded in {}s", TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start));
+    }
+    
+    private void sampleInputs(Connection connection) throws SQLException {
+        ids = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("select id from document_keys order by random() limit "
+                 + (samples + warmup))) {
+            while (result.next()) {
+                ids.add(result.getString(1));
+            }
+        }
+        // Cursors into the first few pages, where reviewers page
+        pendingCursors = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("select created_at, id from (select created_at, id from "
+                 + "documents where status = 'PENDING' order by created_at desc, id desc limit " + pageSize * 50
+                 + ") recent order by random() limit " + (samples + warmup))) {
+            while (result.next()) {
+                pendingCursors.add(new Object[] {result.getTimestamp(1), result.getString(2)});
+            }
+        }
+        logger.info("Sampled {} ids and {} PENDING cursors", ids.size(), pendingCursors.size());
+    }
+    
+    private Map<String, Object> measure(Connection partitioned, Connection unpartitioned) throws SQLException {
+        List<Query> queries = List.of(
+            new Query("pendingFirstPage",
+                "select " + VIEW_COLUMNS + " from documents where status = ?" + ORDER,
+                "select " + VIEW_COLUMNS + " from documents where status = ?" + ORDER,
+                (statement, i, partitionedLayout) -> {
+                    statement.setString(1, "PENDING");
+                    statement.setInt(2, pageSize);
+                }),
+            new Query("pendingNextPage",
+                "select " + VIEW_COLUMNS + " from documents where status = ? and "
+                    + "(created_at < ? or (created_at = ? and id < ?))" + ORDER,
+                "select " + VIEW_COLUMNS + " from documents where status = ? and "
+                    + "(created_at < ? or (created_at = ? and id < ?))" + ORDER,
+                (statement, i, partitionedLayout) -> {
+                    Object[] cursor = pendingCursors.get(i % pendingCursors.size());
+                    statement.setString(1, "PENDING");
+                    statement.setTimestamp(2, (Timestamp) cursor[0]);
+                    statement.setTimestamp(3, (Timestamp) cursor[0]);
+                    statement.setString(4, (String) cursor[1]);
+                    statement.setInt(5, pageSize);
+                }),
+            new Query("pendingOldest",
+                "select id, workflow_id from documents where status = ? order by created_at, id fetch first ? rows only",
+                "select id, workflow_id from documents where status = ? order by created_at, id fetch first ? rows only",
+                (statement, i, partitionedLayout) -> {
+                    statement.setString(1, "PENDING");
+                    statement.setInt(2, pageSize);
+                }),
+            new Query("lookupById",
+                "select status from documents where id = ? "
+                    + "and created_at = (select k.created_at from document_keys k where k.id = ?)",
+                "select status from documents where id = ?",
+                (statement, i, partitionedLayout) -> {
+                    String id = ids.get(i % ids.size());
+                    statement.setString(1, id);
+                    if (partitionedLayout) {
+                        statement.setString(2, id);
+                    }
+                }));
+        
+        Map<String, Object> results = new LinkedHashMap<>();
+        for (Query query : queries) {
+            try (PreparedStatement onPartitioned = partitioned.prepareStatement(query.partitionedSql());
+                 PreparedStatement onUnpartitioned = unpartitioned.prepareStatement(query.unpartitionedSql())) {
+                Histogram partitionedLatency = new Histogram(MAX_LATENCY_MICROS, 3);
+                Histogram unpartitionedLatency = new Histogram(MAX_LATENCY_MICROS, 3);
+                for (int i = 0; i < warmup + samples; i++) {
+                    boolean measured = i >= warmup;
+                    // Alternate which layout goes first, so neither always runs on a warmer cache
+                    if (i % 2 == 0) {
+                        time(onPartitioned, query, i, true, measured ? partitionedLatency : null);
+                        time(onUnpartitioned, query, i, false, measured ? unpartitionedLatency : null);
+                    } else {
+                        time(onUnpartitioned, query, i, false, measured ? unpartitionedLatency : null);
+                        time(onPartitioned, query, i, true, measured ? partitionedLatency : null);
+                    }
+                }
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("partitioned", stats(partitionedLatency,
+                    buffers(partitioned, query.partitionedSql(), query, true)));
+                result.put("unpartitioned", stats(unpartitionedLatency,
+                    buffers(unpartitioned, query.unpartitionedSql(), query, false)));
+                results.put(query.name(), result);
+                logger.info("{}: {}", query.name(), result);
+            }
+        }
+        return results;
+    }
+    
+    private static void time(PreparedStatement statement, Query query, int i, boolean partitionedLayout,
+                             Histogram latency) throws SQLException {
+        query.binder().bind(statement, i, partitionedLayout);
+        long start = System.nanoTime();
+        try (ResultSet result = statement.executeQuery()) {
+            while (result.next()) {
+                // Read every row, as the repository would
+            }
+        }
+        if (latency != null) {
+            latency.recordValue(Math.min(MAX_LATENCY_MICROS, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start)));
+        }
+    }
+    
+    /** Shared buffers (hit or read) of one execution, from its plan. */
+    private static long buffers(Connection connection, String sql, Query query, boolean partitionedLayout)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "explain (analyze, buffers, format json) " + sql)) {
+            query.binder().bind(statement, 0, partitionedLayout);
+            try (ResultSet result = statement.executeQuery()) {
+                result.next();
+                JsonNode plan = new ObjectMapper().readTree(result.getString(1)).get(0).get("Plan");
+                return plan.path("Shared Hit Blocks").asLong() + plan.path("Shared Read Blocks").asLong();
+            } catch (IOException e) {
+                throw new IllegalStateException("Unreadable plan", e);
+            }
+        }
+    }
+    
+    private static Map<String, Object> stats(Histogram latency, long buffers) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("p50Ms", latency.getValueAtPercentile(50) / 1000.0);
+        stats.put("p95Ms", latency.getValueAtPercentile(95) / 1000.0);
+        stats.put("p99Ms", latency.getValueAtPercentile(99) / 1000.0);
+        stats.put("maxMs", latency.getMaxValue() / 1000.0);
+        stats.put("sharedBuffers", buffers);
+        return stats;
+    }
+    
+    private static Map<String, Object> size(Connection connection, String schema) throws SQLException {
+        Map<String, Object> size = new LinkedHashMap<>();
+        size.put("documents", queryForLong(connection, "select count(*) from documents"));
+        size.put("pending", queryForLong(connection, "select count(*) from documents where status = 'PENDING'"));
+        size.put("partitions", queryForLong(connection, "select count(*) from pg_partition_tree('" + schema
+            + ".documents') where isleaf"));
+        size.put("totalMb", queryForLong(connection, "select coalesce((select sum(pg_total_relation_size(relid)) "
+            + "from pg_partition_tree('" + schema + ".documents')), pg_total_relation_size('" + schema
+            + ".documents'))") / (1024 * 1024));
+        // The partitioned layout also needs document_keys for lookups by id
+        size.put("documentKeysMb", queryForLong(connection, "select coalesce(pg_total_relation_size(to_regclass('"
+            + schema + ".document_keys')), 0)") / (1024 * 1024));
+        return size;
+    }
+    
+    private static long queryForLong(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(sql)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+    
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+    
+    private void writeReport(Path path, Map<String, Object> results) throws IOException {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("rows", rows);
+        config.put("months", months);
+        config.put("pendingDays", pendingDays);
+        config.put("pendingShare", pendingShare);
+        config.put("pageSize", pageSize);
+        config.put("samples", samples);
+        config.put("warmup", warmup);
+        
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("config", config);
+        report.putAll(results);
+        
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+        logger.info("Partition report written to {}", path.toAbsolutePath());
+    }
+    
+    @FunctionalInterface
+    private interface Binder {
+        void bind(PreparedStatement statement, int i, boolean partitioned) throws SQLException;
+    }
+    
+    private record Query(String name, String partitionedSql, String unpartitionedSql, Binder binder) {}
+}
@@ -0,0 +1,441 @@
+package com.docflow.benchmarks.load;
+
+import com.docflow.analysis.AnalysisScheduler;
+import com.docflow.model.Document.DocumentPriority;
+import com.docflow.service.DocumentPriorityPolicy;
+import com.docflow.workflow.AIAnalysisResult;
+import com.docflow.workflow.DocumentActivities;
+import com.docflow.workflow.DocumentApprovalWorkflow;
+import com.docflow.workflow.DocumentApprovalWorkflowImpl;
+import com.docflow.workflow.PolicyDecision;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.temporal.activity.Activity;
+import io.temporal.activity.ActivityExecutionContext;
+import io.temporal.activity.ActivityInfo;
+import io.temporal.client.ActivityCompletionClient;
+import io.temporal.client.ActivityNotExistsException;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.testing.TestEnvironmentOptions;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.worker.Worker;
+import io.temporal.worker.WorkerFactory;
+import io.temporal.worker.WorkerOptions;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end latency of each priority lane while one uploader floods the
+ * bulk lane. Runs the real {@link DocumentApprovalWorkflowImpl} on the
+ * in-process Temporal test server, with an AI worker per lane sized like
+ * the backend's, and stub activities that take the backend's asynchronous
+ * analysis path through {@link AnalysisScheduler}, with a fixed simulated
+ * analysis time in place of the engine. The flood arrives at once; urgent
+ * and normal documents trickle in from several uploaders for the whole run,
+ * and a second, smaller flood shares the normal lane with them.
+ * <p>
+ * The same arrivals run twice: first as before the analysis queue was
+ * bounded (unbounded lanes, attempts time out after 30s while still queued
+ * and are retried while the first copy keeps its place), then with the
+ * bounded lanes and attempt timeout the backend ships. Besides per-lane
+ * latency from upload to decision, each run reports activity attempts,
+ * analyses run more than once per document, attempts dropped from the queue
+ * once timed out, and completions that arrived after their attempt was gone.
+ * Settings are system properties:
+ * <ul>
+ *   <li>{@code flood.threads} - reader threads (8)</li>
+ *   <li>{@code flood.service-time} - simulated analysis time per document (400ms)</li>
+ *   <li>{@code flood.ai-slots} - AI activity slots split between the lanes (50)</li>
+ *   <li>{@code flood.capacity} - analysis queue capacity of the bounded run (400)</li>
+ *   <li>{@code flood.timeout} - AI attempt timeout of the bounded run (5m)</li>
+ *   <li>{@code flood.baseline-timeout} - AI attempt timeout of the unbounded run (30s)</li>
+ *   <li>{@code flood.bulk} - bulk documents from the flooding uploader (3000)</li>
+ *   <li>{@code flood.normal-flood} - normal documents from a second importer (300)</li>
+ *   <li>{@code flood.urgent-rate} / {@code flood.normal-rate} - trickle per second (1 / 2)</li>
+ *   <li>{@code flood.uploaders} - uploaders sharing the trickle (10)</li>
+ *   <li>{@code flood.duration} - how long the trickle runs (120s)</li>
+ *   <li>{@code flood.max-wait} - how long a run may take to drain before it is cut off (10m)</li>
+ *   <li>{@code flood.report} - report path (target/flood-report.json)</li>
+ * </ul>
+ * Lane weights come from the {@code docflow.priority.weight.*} defaults.
+ * The defaults keep analysis, not the test server, the bottleneck: the
+ * server starts and advances a few dozen workflows per second, so a faster
+ * service time mostly measures the server.
+ */
+public class PriorityFloodSimulation {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PriorityFloodSimulation.class);
+    
+    private static final String TASK_QUEUE = "flood";
+    private static final String AI_TASK_QUEUE = "flood-ai";
+    
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(30);
+    
+    // Without a deadline the scheduler never drops a queued attempt
+    private static final Duration NO_DEADLINE = Duration.ofDays(1);
+    
+    private final int threads;
+    private final Duration serviceTime;
+    private final int aiSlots;
+    private final int capacity;
+    private final Duration timeout;
+    private final Duration baselineTimeout;
+    private final int bulk;
+    private final int normalFlood;
+    private final double urgentRate;
+    private final double normalRate;
+    private final int uploaders;
+    private final Duration duration;
+    private final Duration maxWait;
+    private final DocumentPriorityPolicy policy = new DocumentPriorityPolicy("contract,agreement", "bulk", 6, 3, 1);
+    
+    public PriorityFloodSimulation() {
+        this.threads = Integer.getInteger("flood.threads", 8);
+        this.serviceTime = DurationStyle.detectAndParse(System.getProperty("flood.service-time", "400ms"));
+        this.aiSlots = Integer.getInteger("flood.ai-slots", 50);
+        this.capacity = Integer.getInteger("flood.capacity", 400);
+        this.timeout = DurationStyle.detectAndParse(System.getProperty("flood.timeout", "5m"));
+        this.baselineTimeout = DurationStyle.detectAndParse(System.getProperty("flood.baseline-timeout", "30s"));
+        this.bulk = Integer.getInteger("flood.bulk", 3000);
+        this.normalFlood = Integer.getInteger("flood.normal-flood", 300);
+        this.urgentRate = Double.parseDouble(System.getProperty("flood.urgent-rate", "1"));
+        this.normalRate = Double.parseDouble(System.getProperty("flood.normal-rate", "2"));
+        this.uploaders = Integer.getInteger("flood.uploaders", 10);
+        this.duration = DurationStyle.detectAndParse(System.getProperty("flood.duration", "120s"));
+        this.maxWait = DurationStyle.detectAndParse(System.getProperty("flood.max-wait", "10m"));
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Path report = Paths.get(System.getProperty("flood.report", "target/flood-report.json"));
+        new PriorityFloodSimulation().run(report);
+        // gRPC leaves non-daemon threads behind
+        System.exit(0);
+    }
+    
+    public void run(Path report) throws Exception {
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("unbounded", simulate(false));
+        results.put("bounded", simulate(true));
+        writeReport(report, results);
+    }
+    
+    private Map<String, Object> simulate(boolean bounded) throws Exception {
+        String run = bounded ? "bounded" : "unbounded";
+        TestWorkflowEnvironment environment = TestWorkflowEnvironment.newInstance(TestEnvironmentOptions.newBuilder()
+            .setUseTimeskipping(false)
+            .build());
+        ExecutorService readers = Executors.newFixedThreadPool(threads);
+        ExecutorService starters = Executors.newFixedThreadPool(32);
+        ScheduledExecutorService arrivals = Executors.newScheduledThreadPool(2);
+        AnalysisScheduler scheduler = new AnalysisScheduler(readers, threads, bounded ? capacity : 0,
+            policy::weight, new SimpleMeterRegistry());
+        FloodActivities activities = new FloodActivities(scheduler, bounded,
+            environment.getWorkflowClient().newActivityCompletionClient());
+        Duration aiTimeout = bounded ? timeout : baselineTimeout;
+        
+        WorkerFactory factory = WorkerFactory.newInstance(environment.getWorkflowClient());
+        Worker worker = factory.newWorker(TASK_QUEUE, WorkerOptions.newBuilder()
+            .setMaxConcurrentWorkflowTaskPollers(8)
+            .setMaxConcurrentActivityTaskPollers(8)
+            .build());
+        worker.registerWorkflowImplementationFactory(DocumentApprovalWorkflow.class,
+            () -> new DocumentApprovalWorkflowImpl(AI_TASK_QUEUE, aiTimeout));
+        worker.registerActivitiesImplementations(activities);
+        for (DocumentPriority priority : DocumentPriority.values()) {
+            // Slots split between the lanes as TemporalConfig splits them
+            double share = (double) policy.weight(priority) / policy.totalWeight();
+            Worker aiWorker = factory.newWorker(
+                DocumentApprovalWorkflow.aiTaskQueue(AI_TASK_QUEUE, priority.name().toLowerCase()),
+                WorkerOptions.newBuilder()
+                    .setMaxConcurrentActivityExecutionSize(Math.max(1, (int) Math.round(aiSlots * share)))
+                    .build());
+            aiWorker.registerActivitiesImplementations(activities);
+        }
+        factory.start();
+        
+        Histogram urgent = new Histogram(MAX_LATENCY_MICROS, 3);
+        Histogram normalTrickle = new Histogram(MAX_LATENCY_MICROS, 3);
+        Histogram normalFlooded = new Histogram(MAX_LATENCY_MICROS, 3);
+        Histogram bulkFlooded = new Histogram(MAX_LATENCY_MICROS, 3);
+        Semaphore inFlight = new Semaphore(256);
+        AtomicInteger documentIds = new AtomicInteger();
+        AtomicInteger maxQueued = new AtomicInteger();
+        
+        long start = System.nanoTime();
+        try {
+            WorkflowClient client = environment.getWorkflowClient();
+            Submitter submit = (priority, uploader, histogram) -> {
+                String documentId = run + "-" + documentIds.incrementAndGet();
+                activities.documents.put(documentId, new FloodDocument(priority, uploader, histogram));
+                inFlight.acquireUninterruptibly();
+                starters.execute(() -> {
+                    try {
+                        DocumentApprovalWorkflow workflow = client.newWorkflowStub(DocumentApprovalWorkflow.class,
+                            WorkflowOptions.newBuilder()
+                                .setTaskQueue(TASK_QUEUE)
+                                .setWorkflowId(documentId)
+                                .setMemo(Map.of(DocumentApprovalWorkflow.PRIORITY_MEMO, priority.name().toLowerCase()))
+                                .build());
+                        WorkflowClient.start(workflow::processDocument, documentId);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            };
+            
+            arrivals.scheduleAtFixedRate(() -> maxQueued.accumulateAndGet(scheduler.queued(), Math::max),
+                0, 100, TimeUnit.MILLISECONDS);
+            arrivals.execute(() -> {
+                for (int i = 0; i < bulk; i++) {
+                    submit.accept(DocumentPriority.BULK, "importer", bulkFlooded);
+                }
+                for (int i = 0; i < normalFlood; i++) {
+                    submit.accept(DocumentPriority.NORMAL, "importer-2", normalFlooded);
+                }
+            });
+            scheduleTrickle(arrivals, urgentRate, index ->
+                submit.accept(DocumentPriority.URGENT, "user-" + index % uploaders, urgent));
+            scheduleTrickle(arrivals, normalRate, index ->
+                submit.accept(DocumentPriority.NORMAL, "user-" + index % uploaders, normalTrickle));
+            
+            Thread.sleep(duration.toMillis());
+            arrivals.shutdown();
+            arrivals.awaitTermination(1, TimeUnit.MINUTES);
+            starters.shutdown();
+            starters.awaitTermination(1, TimeUnit.MINUTES);
+            
+            long cutoff = System.nanoTime() + maxWait.toNanos();
+            long lastLogged = System.nanoTime();
+            while (activities.decided.get() < activities.documents.size() && System.nanoTime() < cutoff) {
+                Thread.sleep(100);
+                if (System.nanoTime() - lastLogged > TimeUnit.SECONDS.toNanos(10)) {
+                    logger.info("{}: {} of {} documents decided, {} analyses queued", run,
+                        activities.decided.get(), activities.documents.size(), scheduler.queued());
+                    lastLogged = System.nanoTime();
+                }
+            }
+        } finally {
+            arrivals.shutdownNow();
+            starters.shutdownNow();
+            factory.shutdownNow();
+            readers.shutdownNow();
+            environment.close();
+        }
+        
+        int documents = activities.documents.size();
+        long analyses = 0;
+        int analyzedMoreThanOnce = 0;
+        for (FloodDocument document : activities.documents.values()) {
+            analyses += document.analyses.get();
+            if (document.analyses.get() > 1) {
+                analyzedMoreThanOnce++;
+            }
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        result.put("aiTimeoutMs", aiTimeout.toMillis());
+        result.put("documents", documents);
+        result.put("undecided", documents - activities.decided.get());
+        result.put("urgent", summary(urgent));
+        result.put("normalTrickle", summary(normalTrickle));
+        result.put("normalFlood", summary(normalFlooded));
+        result.put("bulkFlood", summary(bulkFlooded));
+        result.put("attempts", activities.attempts.get());
+        result.put("analyses", analyses);
+        result.put("documentsAnalyzedMoreThanOnce", analyzedMoreThanOnce);
+        result.put("droppedTimedOut", activities.dropped.get());
+        result.put("rejectedLaneFull", activities.rejected.get());
+        result.put("lateCompletions", activities.late.get());
+        result.put("maxQueued", maxQueued.get());
+        logger.info("{}: urgent p99 {} ms, normal trickle p99 {} ms, {} attempts and {} analyses for {} documents, "
+                + "{} late completions, {} undecided",
+            run, urgent.getValueAtPercentile(99) / 1000, normalTrickle.getValueAtPercentile(99) / 1000,
+            activities.attempts.get(), analyses, documents, activities.late.get(),
+            documents - activities.decided.get());
+        return result;
+    }
+    
+    private void scheduleTrickle(ScheduledExecutorService arrivals, double perSecond, IndexedTask task) {
+        if (perSecond <= 0) {
+            return;
+        }
+        long periodMicros = Math.max(1, Math.round(1_000_000 / perSecond));
+        int[] index = {0};
+        arrivals.scheduleAtFixedRate(() -> task.run(index[0]++), 0, periodMicros, TimeUnit.MICROSECONDS);
+    }
+    
+    private static Map<String, Object> summary(Histogram histogram) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", histogram.getTotalCount());
+        summary.put("p50Ms", histogram.getValueAtPercentile(50) / 1000.0);
+        summary.put("p99Ms", histogram.getValueAtPercentile(99) / 1000.0);
+        summary.put("maxMs", histogram.getMaxValue() / 1000.0);
+        return summary;
+    }
+    
+    private void writeReport(Path path, Map<String, Object> results) throws IOException {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("threads", threads);
+        config.put("serviceTimeMs", serviceTime.toMillis());
+        config.put("aiSlots", aiSlots);
+        config.put("capacity", capacity);
+        config.put("timeoutMs", timeout.toMillis());
+        config.put("baselineTimeoutMs", baselineTimeout.toMillis());
+        config.put("bulk", bulk);
+        config.put("normalFlood", normalFlood);
+        config.put("urgentRate", urgentRate);
+        config.put("normalRate", normalRate);
+        config.put("uploaders", uploaders);
+        config.put("durationMs", duration.toMillis());
+        Map<String, Object> weights = new LinkedHashMap<>();
+        for (DocumentPriority priority : DocumentPriority.values()) {
+            weights.put(priority.name().toLowerCase(), policy.weight(priority));
+        }
+        config.put("weights", weights);
+        
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("config", config);
+        report.putAll(results);
+        
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+        logger.info("Flood report written to {}", path.toAbsolutePath());
+    }
+    
+    private static final class FloodDocument {
+        
+        final DocumentPriority priority;
+        final String uploader;
+        final Histogram histogram;
+        final long uploadedNanos = System.nanoTime();
+        final AtomicInteger analyses = new AtomicInteger();
+        
+        FloodDocument(DocumentPriority priority, String uploader, Histogram histogram) {
+            this.priority = priority;
+            this.uploader = uploader;
+            this.histogram = histogram;
+        }
+    }
+    
+    /**
+     * Analysis as DocumentActivitiesImpl runs it asynchronously; the other
+     * activities only record when the document was decided.
+     */
+    private final class FloodActivities implements DocumentActivities {
+        
+        final Map<String, FloodDocument> documents = new ConcurrentHashMap<>();
+        final AtomicLong attempts = new AtomicLong();
+        final AtomicLong dropped = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final AtomicLong late = new AtomicLong();
+        final AtomicInteger decided = new AtomicInteger();
+        
+        private final AnalysisScheduler scheduler;
+        private final boolean bounded;
+        private final ActivityCompletionClient completionClient;
+        
+        FloodActivities(AnalysisScheduler scheduler, boolean bounded, ActivityCompletionClient completionClient) {
+            this.scheduler = scheduler;
+            this.bounded = bounded;
+            this.completionClient = completionClient;
+        }
+        
+        @Override
+        public AIAnalysisResult analyzeDocumentWithAI(String documentId) {
+            attempts.incrementAndGet();
+            FloodDocument document = documents.get(documentId);
+            ActivityExecutionContext context = Activity.getExecutionContext();
+            ActivityInfo info = context.getInfo();
+            byte[] taskToken = info.getTaskToken();
+            Duration remaining = bounded
+                ? Duration.ofMillis(info.getStartedTimestamp() + info.getStartToCloseTimeout().toMillis()
+                    - System.currentTimeMillis())
+                : NO_DEADLINE;
+            
+            CompletableFuture<AIAnalysisResult> analysis;
+            try {
+                analysis = scheduler.submit(document.priority, document.uploader, remaining, () -> {
+                    // Holds the reader thread for as long as reading and scoring a file would
+                    LockSupport.parkNanos(serviceTime.toNanos());
+                    document.analyses.incrementAndGet();
+                    return new AIAnalysisResult("approve", 0.95, "Simulated analysis");
+                });
+            } catch (RejectedExecutionException e) {
+                rejected.incrementAndGet();
+                throw e;
+            }
+            context.doNotCompleteOnReturn();
+            analysis.whenComplete((result, error) -> {
+                if (error instanceof TimeoutException) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                try {
+                    if (error != null) {
+                        completionClient.completeExceptionally(taskToken, new RuntimeException(error));
+                    } else {
+                        completionClient.complete(taskToken, result);
+                    }
+                } catch (ActivityNotExistsException e) {
+                    late.incrementAndGet();
+                }
+            });
+            return null;
+        }
+        
+        @Override
+        public void updateDocumentWithAISuggestion(String documentId, AIAnalysisResult aiResult) {
+        }
+        
+        @Override
+        public PolicyDecision evaluateDecisionPolicy(String documentId, AIAnalysisResult aiResult) {
+            return new PolicyDecision(DocumentApprovalWorkflow.APPROVED, "flood", "Simulated policy");
+        }
+        
+        @Override
+        public void finalizeDocumentDecision(String documentId, DocumentApprovalWorkflow.ApprovalResult approvalResult) {
+            FloodDocument document = documents.get(documentId);
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - document.uploadedNanos);
+            synchronized (document.histogram) {
+                document.histogram.recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+            }
+            decided.incrementAndGet();
+        }
+    }
+    
+    @FunctionalInterface
+    private interface Submitter {
+        void accept(DocumentPriority priority, String uploader, Histogram histogram);
+    }
+    
+    @FunctionalInterface
+    private interface IndexedTask {
+        void run(int index);
+    }
+}
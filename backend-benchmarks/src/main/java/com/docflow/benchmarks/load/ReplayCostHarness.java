@@ -0,0 +1,351 @@
+package com.docflow.benchmarks.load;
+
+import com.docflow.workflow.AIAnalysisResult;
+import com.docflow.workflow.DocumentActivities;
+import com.docflow.workflow.DocumentApprovalWorkflow;
+import com.docflow.workflow.DocumentApprovalWorkflowImpl;
+import com.docflow.workflow.PolicyDecision;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.testing.TestEnvironmentOptions;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.worker.Worker;
+import io.temporal.worker.WorkerFactory;
+import io.temporal.worker.WorkerFactoryOptions;
+import io.temporal.worker.WorkerOptions;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replay cost of approval workflows that wait for a reviewer. Runs the real
+ * {@link DocumentApprovalWorkflowImpl} against the in-process Temporal test
+ * server with stub activities, grows the number of open workflows through
+ * the configured scales, and at each one measures:
+ * <ul>
+ *   <li>signal-to-finalize latency for warm workflows (the most recently
+ *       started, still in the worker's cache) and for evicted ones (the
+ *       oldest, which replay their whole history on the signal)</li>
+ *   <li>heap in use after a full GC, which includes the test server's own
+ *       state for every workflow</li>
+ * </ul>
+ * After the last scale the worker factory, and with it the workflow cache,
+ * is shut down; the heap and threads that releases give the worker's cost
+ * per cached workflow.
+ * Settings are system properties:
+ * <ul>
+ *   <li>{@code replay.open-workflows} - scales (10000,100000,1000000)</li>
+ *   <li>{@code replay.cache-size} - workflow cache size and workflow threads (1000)</li>
+ *   <li>{@code replay.sticky-timeout} - sticky queue schedule-to-start timeout (5s)</li>
+ *   <li>{@code replay.samples} - signals per phase and scale (200)</li>
+ *   <li>{@code replay.start-concurrency} - concurrent workflow starts (64)</li>
+ *   <li>{@code replay.pollers} - workflow and activity task pollers (8)</li>
+ *   <li>{@code replay.report} - report path (target/replay-report.json)</li>
+ * </ul>
+ * The test server keeps every history on the same heap, so the largest
+ * scale needs a correspondingly large {@code -Xmx}.
+ */
+public class ReplayCostHarness {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReplayCostHarness.class);
+    
+    private static final String TASK_QUEUE = "replay-cost";
+    
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+    
+    private final long[] scales;
+    private final int cacheSize;
+    private final Duration stickyTimeout;
+    private final int samples;
+    private final int startConcurrency;
+    private final int pollers;
+    
+    private final ReplayActivities activities = new ReplayActivities();
+    private final boolean[] signalled;
+    
+    private TestWorkflowEnvironment environment;
+    private WorkerFactory workerFactory;
+    private int started;
+    
+    public ReplayCostHarness() {
+        String[] parts = System.getProperty("replay.open-workflows", "10000,100000,1000000").split(",");
+        this.scales = new long[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            scales[i] = Long.parseLong(parts[i].trim());
+        }
+        this.cacheSize = Integer.getInteger("replay.cache-size", 1000);
+        this.stickyTimeout = DurationStyle.detectAndParse(System.getProperty("replay.sticky-timeout", "5s"));
+        this.samples = Integer.getInteger("replay.samples", 200);
+        this.startConcurrency = Integer.getInteger("replay.start-concurrency", 64);
+        this.pollers = Integer.getInteger("replay.pollers", 8);
+        long largest = 0;
+        for (long scale : scales) {
+            largest = Math.max(largest, scale);
+        }
+        // Signalled workflows complete; the sample count per phase is small
+        // next to the scales, so the open count stays close to each scale
+        this.signalled = new boolean[Math.toIntExact(largest)];
+        if (samples > cacheSize) {
+            logger.warn("replay.samples ({}) exceeds replay.cache-size ({}); some warm signals will replay",
+                samples, cacheSize);
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Path report = Paths.get(System.getProperty("replay.report", "target/replay-report.json"));
+        new ReplayCostHarness().run(report);
+        // gRPC leaves non-daemon threads behind
+        System.exit(0);
+    }
+    
+    public void run(Path report) throws Exception {
+        environment = TestWorkflowEnvironment.newInstance(TestEnvironmentOptions.newBuilder()
+            // Real time, so waiting workflows don't skip ahead to their review timeout
+            .setUseTimeskipping(false)
+            .build());
+        try {
+            workerFactory = newWorkerFactory();
+            List<Map<String, Object>> results = new ArrayList<>();
+            for (long scale : scales) {
+                results.add(measure(Math.toIntExact(scale)));
+            }
+            writeReport(report, results, cacheFootprint());
+        } finally {
+            workerFactory.shutdownNow();
+            environment.close();
+        }
+    }
+    
+    private WorkerFactory newWorkerFactory() {
+        WorkerFactory factory = WorkerFactory.newInstance(environment.getWorkflowClient(),
+            WorkerFactoryOptions.newBuilder()
+                .setWorkflowCacheSize(cacheSize)
+                .setMaxWorkflowThreadCount(cacheSize)
+                .build());
+        Worker worker = factory.newWorker(TASK_QUEUE, WorkerOptions.newBuilder()
+            .setMaxConcurrentWorkflowTaskPollers(pollers)
+            .setMaxConcurrentActivityTaskPollers(pollers)
+            .setStickyQueueScheduleToStartTimeout(stickyTimeout)
+            .build());
+        worker.registerWorkflowImplementationTypes(DocumentApprovalWorkflowImpl.class);
+        worker.registerActivitiesImplementations(activities);
+        factory.start();
+        return factory;
+    }
+    
+    private Map<String, Object> measure(int openWorkflows) throws Exception {
+        Instant startedAt = Instant.now();
+        startUpTo(openWorkflows);
+        Duration startTime = Duration.between(startedAt, Instant.now());
+        logger.info("{} workflows waiting for review after {}", openWorkflows, startTime);
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("openWorkflows", openWorkflows);
+        result.put("startSeconds", startTime.toMillis() / 1000.0);
+        
+        // Most recent first: the cache is LRU
+        List<Integer> warm = new ArrayList<>();
+        for (int i = openWorkflows - 1; i >= 0 && warm.size() < samples; i--) {
+            if (!signalled[i]) {
+                warm.add(i);
+            }
+        }
+        result.put("warm", signalToFinalize(warm));
+        
+        List<Integer> evicted = new ArrayList<>();
+        for (int i = 0; i < openWorkflows - cacheSize && evicted.size() < samples; i++) {
+            if (!signalled[i]) {
+                evicted.add(i);
+            }
+        }
+        result.put("evicted", signalToFinalize(evicted));
+        
+        result.put("heapUsedBytes", usedHeapAfterGc());
+        logger.info("{} open workflows: {}", openWorkflows, result);
+        return result;
+    }
+    
+    /** Starts workflows until {@code target} have reached the review wait. */
+    private void startUpTo(int target) throws InterruptedException {
+        WorkflowClient client = environment.getWorkflowClient();
+        ExecutorService executor = Executors.newFixedThreadPool(startConcurrency);
+        Semaphore inFlight = new Semaphore(startConcurrency * 4);
+        long waitingBefore = activities.waiting.get();
+        for (int i = started; i < target; i++) {
+            String documentId = documentId(i);
+            inFlight.acquire();
+            executor.execute(() -> {
+                try {
+                    DocumentApprovalWorkflow workflow = client.newWorkflowStub(DocumentApprovalWorkflow.class,
+                        WorkflowOptions.newBuilder().setTaskQueue(TASK_QUEUE).setWorkflowId(documentId).build());
+                    WorkflowClient.start(workflow::processDocument, documentId);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.HOURS);
+        
+        long expected = waitingBefore + (target - started);
+        started = target;
+        long lastLogged = System.nanoTime();
+        while (activities.waiting.get() < expected) {
+            Thread.sleep(100);
+            if (System.nanoTime() - lastLogged > TimeUnit.SECONDS.toNanos(10)) {
+                logger.info("{} of {} workflows waiting", activities.waiting.get(), expected);
+                lastLogged = System.nanoTime();
+            }
+        }
+    }
+    
+    /** Signals the workflows one at a time and times each until its finalize activity runs. */
+    private Map<String, Object> signalToFinalize(List<Integer> workflows) throws Exception {
+        WorkflowClient client = environment.getWorkflowClient();
+        Histogram histogram = new Histogram(MAX_LATENCY_MICROS, 3);
+        for (int i : workflows) {
+            String documentId = documentId(i);
+            CompletableFuture<Long> finalized = new CompletableFuture<>();
+            activities.finalized.put(documentId, finalized);
+            long start = System.nanoTime();
+            client.newWorkflowStub(DocumentApprovalWorkflow.class, documentId)
+                .approve("Approved by replay benchmark", "replay");
+            long micros = TimeUnit.NANOSECONDS.toMicros(finalized.get(1, TimeUnit.MINUTES) - start);
+            histogram.recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+            signalled[i] = true;
+        }
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("count", histogram.getTotalCount());
+        latency.put("meanMs", histogram.getMean() / 1000.0);
+        latency.put("p50Ms", histogram.getValueAtPercentile(50) / 1000.0);
+        latency.put("p90Ms", histogram.getValueAtPercentile(90) / 1000.0);
+        latency.put("p99Ms", histogram.getValueAtPercentile(99) / 1000.0);
+        latency.put("maxMs", histogram.getMaxValue() / 1000.0);
+        return latency;
+    }
+    
+    /**
+     * Heap and threads released by shutting down the worker factory, which
+     * drops its workflow cache; the server's state is unaffected.
+     */
+    private Map<String, Object> cacheFootprint() throws InterruptedException {
+        // Signalled workflows completed and left the cache
+        int cachedWorkflows = Math.min(cacheSize, started - signalledCount());
+        long heapBefore = usedHeapAfterGc();
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+        
+        workerFactory.shutdownNow();
+        workerFactory.awaitTermination(1, TimeUnit.MINUTES);
+        
+        long released = heapBefore - usedHeapAfterGc();
+        int threadsReleased = threadsBefore - ManagementFactory.getThreadMXBean().getThreadCount();
+        
+        Map<String, Object> footprint = new LinkedHashMap<>();
+        footprint.put("cachedWorkflows", cachedWorkflows);
+        footprint.put("heapBytes", released);
+        footprint.put("heapBytesPerWorkflow", cachedWorkflows > 0 ? released / cachedWorkflows : 0);
+        footprint.put("threadsReleased", threadsReleased);
+        return footprint;
+    }
+    
+    private int signalledCount() {
+        int count = 0;
+        for (boolean done : signalled) {
+            if (done) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    private static long usedHeapAfterGc() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+    
+    private void writeReport(Path path, List<Map<String, Object>> results, Map<String, Object> cache)
+            throws IOException {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("cacheSize", cacheSize);
+        config.put("stickyTimeoutMs", stickyTimeout.toMillis());
+        config.put("samples", samples);
+        config.put("pollers", pollers);
+        config.put("maxHeapBytes", Runtime.getRuntime().maxMemory());
+        config.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        config.put("javaVersion", System.getProperty("java.version"));
+        
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("config", config);
+        report.put("scales", results);
+        report.put("cache", cache);
+        
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+        logger.info("Replay report written to {}", path.toAbsolutePath());
+    }
+    
+    private static String documentId(int index) {
+        return "replay-" + index;
+    }
+    
+    /**
+     * Leaves every document to a reviewer and records when each one is
+     * finalized; no database is involved.
+     */
+    static class ReplayActivities implements DocumentActivities {
+        
+        final AtomicLong waiting = new AtomicLong();
+        final Map<String, CompletableFuture<Long>> finalized = new ConcurrentHashMap<>();
+        
+        @Override
+        public AIAnalysisResult analyzeDocumentWithAI(String documentId) {
+            return new AIAnalysisResult("approve", 0.72,
+                "Document contains standard business content (invoice, payment, total)");
+        }
+        
+        @Override
+        public void updateDocumentWithAISuggestion(String documentId, AIAnalysisResult aiResult) {
+        }
+        
+        @Override
+        public PolicyDecision evaluateDecisionPolicy(String documentId, AIAnalysisResult aiResult) {
+            waiting.incrementAndGet();
+            return new PolicyDecision(null, "1", "confidence below threshold");
+        }
+        
+        @Override
+        public void finalizeDocumentDecision(String documentId, DocumentApprovalWorkflow.ApprovalResult approvalResult) {
+            CompletableFuture<Long> future = finalized.remove(documentId);
+            if (future != null) {
+                future.complete(System.nanoTime());
+            }
+        }
+    }
+}
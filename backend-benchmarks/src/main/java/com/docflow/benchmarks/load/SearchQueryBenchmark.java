@@ -0,0 +1,313 @@
+package com.docflow.benchmarks.load;
+
+import com.docflow.dto.DocumentSearchCursor;
+import com.docflow.dto.DocumentSearchHit;
+import com.docflow.dto.DocumentSearchQuery;
+import com.docflow.repository.DocumentSearchRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Search latency at millions of indexed documents. Fills
+ * {@code document_search}, built by the backend's Flyway migrations, with
+ * generated documents, then runs a mix of searches through
+ * {@link DocumentSearchRepository} the way {@code DocumentSearchService}
+ * does: the first page is the hits plus the facet counts, a next page is the
+ * hits after the first page's cursor. The ranking and counting caps default
+ * to the backend's.
+ * <p>
+ * Each document's text is 40 words drawn from a 2000-word vocabulary with a
+ * skewed distribution, plus a reference number shared by few documents:
+ * {@code term10} is in about a quarter of the documents, {@code term100} in
+ * about 5%, a reference number in a handful. Only documents from the last two
+ * weeks can still be PENDING.
+ * Settings are system properties:
+ * <ul>
+ *   <li>{@code search.rows} - indexed documents (3000000)</li>
+ *   <li>{@code search.page-size} - hits per page (50)</li>
+ *   <li>{@code search.samples} - measured searches per query and page (200)</li>
+ *   <li>{@code search.warmup} - unmeasured searches per query (20)</li>
+ *   <li>{@code search.max-ranked-hits} - most recent matches a full-text search ranks (1000)</li>
+ *   <li>{@code search.max-facet-rows} - matches counted for the facets (10000)</li>
+ *   <li>{@code search.reuse} - keep the rows of an earlier run with the same settings (false)</li>
+ *   <li>{@code search.jdbc-url} - existing database to use instead of a
+ *       container (no Docker); {@code search.jdbc-user} and
+ *       {@code search.jdbc-password} as needed</li>
+ *   <li>{@code search.flyway-locations} - migrations (classpath:db/migration)</li>
+ *   <li>{@code search.report} - report path (target/search-report.json)</li>
+ * </ul>
+ */
+public class SearchQueryBenchmark {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SearchQueryBenchmark.class);
+    
+    private static final String SCHEMA = "bench_search";
+    
+    private static final int LOAD_BATCH = 500_000;
+    
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+    
+    private final long rows;
+    private final int pageSize;
+    private final int samples;
+    private final int warmup;
+    private final int maxRankedHits;
+    private final int maxFacetRows;
+    private final boolean reuse;
+    private final String flywayLocations;
+    
+    private JdbcTemplate jdbcTemplate;
+    private DocumentSearchRepository searchRepository;
+    
+    public SearchQueryBenchmark() {
+        this.rows = Long.getLong("search.rows", 3_000_000);
+        this.pageSize = Integer.getInteger("search.page-size", 50);
+        this.samples = Integer.getInteger("search.samples", 200);
+        this.warmup = Integer.getInteger("search.warmup", 20);
+        this.maxRankedHits = Integer.getInteger("search.max-ranked-hits", 1000);
+        this.maxFacetRows = Integer.getInteger("search.max-facet-rows", 10000);
+        this.reuse = Boolean.getBoolean("search.reuse");
+        this.flywayLocations = System.getProperty("search.flyway-locations", "classpath:db/migration");
+    }
+    
+    public static void main(String[] args) {
+        Path report = Paths.get(System.getProperty("search.report", "target/search-report.json"));
+        int status = 0;
+        try {
+            new SearchQueryBenchmark().run(report);
+        } catch (Exception e) {
+            logger.error("Search benchmark failed", e);
+            status = 1;
+        }
+        // Testcontainers leaves non-daemon threads behind
+        System.exit(status);
+    }
+    
+    public void run(Path report) throws Exception {
+        String image = System.getProperty("search.postgres-image", "postgres:16-alpine");
+        String jdbcUrl = System.getProperty("search.jdbc-url");
+        try (PostgreSQLContainer<?> postgres = jdbcUrl == null ? new PostgreSQLContainer<>(image) : null) {
+            String url;
+            String user;
+            String password;
+            if (postgres != null) {
+                postgres.start();
+                logger.info("Postgres {} started", image);
+                url = postgres.getJdbcUrl();
+                user = postgres.getUsername();
+                password = postgres.getPassword();
+            } else {
+                url = jdbcUrl;
+                user = System.getProperty("search.jdbc-user", "postgres");
+                password = System.getProperty("search.jdbc-password", "");
+            }
+            
+            // One connection, so connection setup is not measured
+            String schemaUrl = url + (url.contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA;
+            SingleConnectionDataSource dataSource = new SingleConnectionDataSource(schemaUrl, user, password, true);
+            try {
+                jdbcTemplate = new JdbcTemplate(dataSource);
+                searchRepository = new DocumentSearchRepository(jdbcTemplate);
+                if (!reuse || !loaded()) {
+                    load(url, user, password);
+                }
+                
+                Map<String, Object> results = new LinkedHashMap<>();
+                results.put("sizes", sizes());
+                results.put("queries", measure());
+                writeReport(report, results);
+            } finally {
+                dataSource.destroy();
+            }
+        }
+    }
+    
+    private boolean loaded() {
+        Integer schemas = jdbcTemplate.queryForObject(
+            "select count(*) from pg_namespace where nspname = ?", Integer.class, SCHEMA);
+        if (schemas == null || schemas == 0) {
+            return false;
+        }
+        Long found = jdbcTemplate.queryForObject("select count(*) from document_search", Long.class);
+        logger.info("Found {} indexed documents from an earlier run", found);
+        return found != null && found == rows;
+    }
+    
+    private void load(String url, String user, String password) {
+        jdbcTemplate.execute("drop schema if exists " + SCHEMA + " cascade");
+        Flyway.configure()
+            .dataSource(url, user, password)
+            .schemas(SCHEMA)
+            .locations(flywayLocations)
+            .load()
+            .migrate();
+        
+        long start = System.nanoTime();
+        for (long loaded = 0; loaded < rows; loaded += LOAD_BATCH) {
+            long batch = Math.min(LOAD_BATCH, rows - loaded);
+            // The text subquery refers to n, so it runs once per row
+            jdbcTemplate.execute("insert into document_search (document_id, created_at, updated_at, version, "
+                + "filename, status, ai_suggestion, ai_confidence, ai_reasoning, reviewed_by, reviewed_at, content) "
+                + "select gen_random_uuid()::text, created_at, created_at, 0, 'scan-' || n || '.pdf', status, "
+                + "suggestion, confidence, case when suggestion is not null then 'Totals and line items checked' end, "
+                + "case when status <> 'PENDING' then 'reviewer-' || n % 50 end, "
+                + "case when status <> 'PENDING' then created_at + interval '1 day' end, "
+                + "(select string_agg('term' || floor(power(random(), 4) * 2000)::int, ' ') "
+                + "from generate_series(1, 40 + n % 1)) || ' ref' || floor(random() * " + rows / 3 + ")::int "
+                + "from (select n, created_at, "
+                + "case when created_at > now() - interval '14 days' and random() < 0.3 then 'PENDING' "
+                + "when random() < 0.8 then 'APPROVED' else 'REJECTED' end as status, "
+                + "case when random() < 0.9 then (case when random() < 0.7 then 'approve' else 'reject' end) end "
+                + "as suggestion, random() as confidence "
+                + "from (select n, now() - random() * interval '365 days' as created_at "
+                + "from generate_series(" + (loaded + 1) + ", " + (loaded + batch) + ") n) generated) documents");
+            logger.info("Indexed {} of {} documents", loaded + batch, rows);
+        }
+        jdbcTemplate.execute("vacuum analyze document_search");
+        logger.info("Loaded in {}s", TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start));
+    }
+    
+    private Map<String, Object> sizes() {
+        Map<String, Object> sizes = new LinkedHashMap<>();
+        sizes.put("documents", jdbcTemplate.queryForObject("select count(*) from document_search", Long.class));
+        sizes.put("tableMb", jdbcTemplate.queryForObject(
+            "select pg_table_size('document_search') / (1024 * 1024)", Long.class));
+        sizes.put("indexesMb", jdbcTemplate.queryForObject(
+            "select pg_indexes_size('document_search') / (1024 * 1024)", Long.class));
+        return sizes;
+    }
+    
+    private Map<String, Object> measure() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Supplier<DocumentSearchQuery>> queries = new LinkedHashMap<>();
+        queries.put("recent", DocumentSearchQuery::new);
+        queries.put("pending", () -> query(null, "pending", null, null));
+        queries.put("reviewerAndConfidence", () -> {
+            DocumentSearchQuery query = query(null, null, null, "reviewer-" + random(50));
+            query.setMinConfidence(0.9);
+            return query;
+        });
+        queries.put("lastWeekOfAMonth", () -> {
+            DocumentSearchQuery query = new DocumentSearchQuery();
+            LocalDateTime to = now.minusDays(random(330));
+            query.setFrom(to.minusDays(7));
+            query.setTo(to);
+            return query;
+        });
+        queries.put("referenceNumber", () -> query("ref" + random(rows / 3), null, null, null));
+        queries.put("filename", () -> query("scan " + (random(rows) + 1), null, null, null));
+        queries.put("term100", () -> query("term100", null, null, null));
+        queries.put("term10", () -> query("term10", null, null, null));
+        queries.put("term10RejectedApproved", () -> query("term10", "approved", "reject", null));
+        
+        Map<String, Object> results = new LinkedHashMap<>();
+        for (Map.Entry<String, Supplier<DocumentSearchQuery>> entry : queries.entrySet()) {
+            Histogram firstPage = new Histogram(MAX_LATENCY_MICROS, 3);
+            Histogram nextPage = new Histogram(MAX_LATENCY_MICROS, 3);
+            long hits = 0;
+            int capped = 0;
+            for (int i = 0; i < warmup + samples; i++) {
+                boolean measured = i >= warmup;
+                DocumentSearchQuery query = entry.getValue().get();
+                
+                long start = System.nanoTime();
+                List<DocumentSearchHit> page = searchRepository.search(query, null, pageSize + 1, maxRankedHits);
+                DocumentSearchRepository.SearchFacets facets = searchRepository.countFacets(query, maxFacetRows);
+                long firstNanos = System.nanoTime() - start;
+                
+                long nextNanos = -1;
+                if (page.size() > pageSize) {
+                    DocumentSearchHit last = page.get(pageSize - 1);
+                    DocumentSearchCursor after = new DocumentSearchCursor(last.getRank(), last.getCreatedAt(),
+                        last.getId());
+                    start = System.nanoTime();
+                    searchRepository.search(query, after, pageSize + 1, maxRankedHits);
+                    nextNanos = System.nanoTime() - start;
+                }
+                if (measured) {
+                    record(firstPage, firstNanos);
+                    if (nextNanos >= 0) {
+                        record(nextPage, nextNanos);
+                    }
+                    hits += Math.min(maxFacetRows,
+                        facets.statusCounts().values().stream().mapToLong(Long::longValue).sum());
+                    capped += facets.capped() ? 1 : 0;
+                }
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("meanHits", hits / samples);
+            result.put("cappedShare", (double) capped / samples);
+            result.put("firstPage", stats(firstPage));
+            result.put("nextPage", stats(nextPage));
+            results.put(entry.getKey(), result);
+            logger.info("{}: {}", entry.getKey(), result);
+        }
+        return results;
+    }
+    
+    private static DocumentSearchQuery query(String q, String status, String aiSuggestion, String reviewedBy) {
+        DocumentSearchQuery query = new DocumentSearchQuery();
+        query.setQ(q);
+        query.setStatus(status);
+        query.setAiSuggestion(aiSuggestion);
+        query.setReviewedBy(reviewedBy);
+        return query;
+    }
+    
+    private static long random(long bound) {
+        return ThreadLocalRandom.current().nextLong(bound);
+    }
+    
+    private static void record(Histogram histogram, long nanos) {
+        histogram.recordValue(Math.min(MAX_LATENCY_MICROS, TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+    
+    private static Map<String, Object> stats(Histogram latency) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("count", latency.getTotalCount());
+        stats.put("p50Ms", latency.getValueAtPercentile(50) / 1000.0);
+        stats.put("p95Ms", latency.getValueAtPercentile(95) / 1000.0);
+        stats.put("p99Ms", latency.getValueAtPercentile(99) / 1000.0);
+        stats.put("maxMs", latency.getMaxValue() / 1000.0);
+        return stats;
+    }
+    
+    private void writeReport(Path path, Map<String, Object> results) throws IOException {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("rows", rows);
+        config.put("pageSize", pageSize);
+        config.put("samples", samples);
+        config.put("warmup", warmup);
+        config.put("maxRankedHits", maxRankedHits);
+        config.put("maxFacetRows", maxFacetRows);
+        
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("config", config);
+        report.putAll(results);
+        
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+        logger.info("Search report written to {}", path.toAbsolutePath());
+    }
+}
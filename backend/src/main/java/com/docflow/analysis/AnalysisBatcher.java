@@ -0,0 +1,107 @@
+package com.docflow.analysis;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Collects chunks from concurrent analyses and scores them together with one
+ * {@link AnalysisEngine#scoreBatch} call once {@code maxBatchSize} chunks are
+ * waiting or the oldest has waited {@code linger}, whichever comes first.
+ */
+class AnalysisBatcher {
+    
+    private final AnalysisEngine engine;
+    private final Executor executor;
+    private final int maxBatchSize;
+    private final Duration linger;
+    private final DistributionSummary batchSizes;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+        new CustomizableThreadFactory("analysis-batcher-"));
+    
+    private final Object lock = new Object();
+    private List<PendingChunk> pending = new ArrayList<>();
+    
+    AnalysisBatcher(AnalysisEngine engine, Executor executor, int maxBatchSize, Duration linger,
+                    DistributionSummary batchSizes) {
+        this.engine = engine;
+        this.executor = executor;
+        this.maxBatchSize = maxBatchSize;
+        this.linger = linger;
+        this.batchSizes = batchSizes;
+    }
+    
+    CompletableFuture<ChunkScore> submit(String text) {
+        PendingChunk chunk = new PendingChunk(text, new CompletableFuture<>());
+        List<PendingChunk> ready = null;
+        synchronized (lock) {
+            pending.add(chunk);
+            if (pending.size() >= maxBatchSize) {
+                ready = pending;
+                pending = new ArrayList<>();
+            } else if (pending.size() == 1) {
+                // First chunk of a new batch starts the linger timer. A stale
+                // timer from an earlier full batch can only flush early.
+                scheduler.schedule(this::flushLingering, linger.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+        if (ready != null) {
+            dispatch(ready);
+        }
+        return chunk.result;
+    }
+    
+    void shutdown() {
+        scheduler.shutdown();
+    }
+    
+    private void flushLingering() {
+        List<PendingChunk> ready;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            ready = pending;
+            pending = new ArrayList<>();
+        }
+        dispatch(ready);
+    }
+    
+    private void dispatch(List<PendingChunk> batch) {
+        batchSizes.record(batch.size());
+        executor.execute(() -> {
+            try {
+                List<String> texts = batch.stream().map(c -> c.text).collect(Collectors.toList());
+                List<ChunkScore> scores = engine.scoreBatch(texts);
+                if (scores.size() != batch.size()) {
+                    throw new IllegalStateException(
+                        "Engine returned " + scores.size() + " scores for " + batch.size() + " chunks");
+                }
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).result.complete(scores.get(i));
+                }
+            } catch (Throwable t) {
+                batch.forEach(c -> c.result.completeExceptionally(t));
+            }
+        });
+    }
+    
+    private static class PendingChunk {
+        private final String text;
+        private final CompletableFuture<ChunkScore> result;
+        
+        PendingChunk(String text, CompletableFuture<ChunkScore> result) {
+            this.text = text;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.docflow.analysis;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * SPI for document scoring backends. {@link AnalysisService} handles reading,
+ * chunking and parallelism; an engine only scores one chunk of text at a time
+ * and must be safe to call from several threads.
+ */
+public interface AnalysisEngine {
+    
+    /** Name used to select the engine via {@code docflow.analysis.engine}. */
+    String getName();
+    
+    /** Maximum chunks this engine may score concurrently, across all documents. */
+    int getMaxConcurrency();
+    
+    ChunkScore scoreChunk(String text);
+    
+    /**
+     * Scores several chunks in one call, returning scores in input order.
+     * Remote engines should override this; per-call overhead is where batching
+     * pays off.
+     */
+    default List<ChunkScore> scoreBatch(List<String> texts) {
+        return texts.stream().map(this::scoreChunk).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,270 @@
+package com.docflow.analysis;
+
+import com.docflow.model.Document.DocumentPriority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Queues document analyses in front of the reader executor and releases at
+ * most {@code concurrency} at a time, so waiting work is ordered here rather
+ * than in the executor's FIFO queue. Lanes are served by smooth weighted
+ * round-robin, so each gets capacity in proportion to its weight while it
+ * has work, and uploaders within a lane take turns, so one large import
+ * cannot hold back everyone else's documents.
+ * <p>
+ * Each lane holds at most its weight's share of {@code capacity} documents;
+ * submitting to a full lane blocks the caller, so an activity using async
+ * completion keeps its worker slot and the worker stops polling its task
+ * queue until the lane drains. Every document carries the time left to its
+ * caller, and one still waiting when that has passed is dropped unrun: the
+ * activity attempt it would complete has timed out and is being retried.
+ */
+public class AnalysisScheduler {
+    
+    // Uploads without an uploader share one turn
+    private static final String ANONYMOUS = "";
+    
+    private final Executor executor;
+    private final int concurrency;
+    private final Map<DocumentPriority, Lane> lanes = new EnumMap<>(DocumentPriority.class);
+    private final Object lock = new Object();
+    private int running;
+    
+    /**
+     * @param capacity documents waiting across all lanes, shared by weight;
+     *                 zero or less for unbounded lanes
+     */
+    public AnalysisScheduler(Executor executor, int concurrency, int capacity,
+                             Function<DocumentPriority, Integer> weights, MeterRegistry meterRegistry) {
+        this.executor = executor;
+        this.concurrency = concurrency;
+        int totalWeight = 0;
+        for (DocumentPriority priority : DocumentPriority.values()) {
+            totalWeight += weights.apply(priority);
+        }
+        for (DocumentPriority priority : DocumentPriority.values()) {
+            int weight = weights.apply(priority);
+            int laneCapacity = capacity > 0
+                ? Math.max(1, (int) Math.round((double) capacity * weight / totalWeight))
+                : Integer.MAX_VALUE;
+            Lane lane = new Lane(weight, laneCapacity, Timer.builder("docflow.analysis.queue.wait")
+                .description("Time a document waited for an analysis slot")
+                .tag("priority", priority.name().toLowerCase())
+                .publishPercentileHistogram()
+                .register(meterRegistry), Counter.builder("docflow.analysis.queue.expired")
+                .description("Documents dropped unrun because their activity attempt timed out while they waited")
+                .tag("priority", priority.name().toLowerCase())
+                .register(meterRegistry));
+            Gauge.builder("docflow.analysis.queue.depth", lane, l -> l.size)
+                .description("Documents waiting for an analysis slot")
+                .tag("priority", priority.name().toLowerCase())
+                .register(meterRegistry);
+            Gauge.builder("docflow.analysis.queue.uploaders", lane, l -> l.uploaderCount)
+                .description("Uploaders with documents waiting for an analysis slot")
+                .tag("priority", priority.name().toLowerCase())
+                .register(meterRegistry);
+            lanes.put(priority, lane);
+        }
+    }
+    
+    /**
+     * Queues {@code work}, waiting while its lane is full. The returned future
+     * fails with a {@link TimeoutException} if the work is still waiting when
+     * {@code timeout} has passed; the lane staying full that long fails the
+     * call with a {@link RejectedExecutionException}.
+     */
+    public <T> CompletableFuture<T> submit(DocumentPriority priority, String uploader, Duration timeout,
+                                           Supplier<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        DocumentPriority lanePriority = priority != null ? priority : DocumentPriority.NORMAL;
+        Lane lane = lanes.get(lanePriority);
+        long now = System.nanoTime();
+        long deadline = now + Math.max(0, timeout.toNanos());
+        Task task = new Task(lane, now, deadline, () -> {
+            try {
+                result.complete(work.get());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        }, result);
+        synchronized (lock) {
+            try {
+                while (lane.size >= lane.capacity) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new RejectedExecutionException(
+                            "Analysis lane " + lanePriority + " stayed full for " + timeout.toMillis() + " ms");
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for room in the analysis queue", e);
+            }
+            lane.add(uploader != null ? uploader : ANONYMOUS, task);
+        }
+        dispatch();
+        return result;
+    }
+    
+    /** Documents each lane holds at most; {@link Integer#MAX_VALUE} when unbounded. */
+    public int capacity(DocumentPriority priority) {
+        return lanes.get(priority).capacity;
+    }
+    
+    /** Documents waiting for a slot, across all lanes. */
+    public int queued() {
+        int queued = 0;
+        for (Lane lane : lanes.values()) {
+            queued += lane.size;
+        }
+        return queued;
+    }
+    
+    private void dispatch() {
+        while (true) {
+            Task task;
+            boolean expired;
+            synchronized (lock) {
+                if (running >= concurrency || (task = next()) == null) {
+                    return;
+                }
+                expired = System.nanoTime() - task.deadlineNanos >= 0;
+                if (!expired) {
+                    running++;
+                }
+            }
+            if (expired) {
+                task.lane.expired.increment();
+                task.result.completeExceptionally(new TimeoutException(
+                    "Analysis attempt timed out after waiting "
+                        + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - task.enqueuedNanos) + " ms"));
+                continue;
+            }
+            try {
+                executor.execute(() -> run(task));
+            } catch (RejectedExecutionException e) {
+                synchronized (lock) {
+                    running--;
+                }
+                task.result.completeExceptionally(e);
+            }
+        }
+    }
+    
+    private void run(Task task) {
+        try {
+            task.lane.waitTimer.record(System.nanoTime() - task.enqueuedNanos, TimeUnit.NANOSECONDS);
+            task.work.run();
+        } finally {
+            synchronized (lock) {
+                running--;
+            }
+            dispatch();
+        }
+    }
+    
+    /** Smooth weighted round-robin over the lanes that have work; caller holds the lock. */
+    private Task next() {
+        Lane selected = null;
+        int totalWeight = 0;
+        for (Lane lane : lanes.values()) {
+            if (lane.size == 0) {
+                continue;
+            }
+            lane.current += lane.weight;
+            totalWeight += lane.weight;
+            if (selected == null || lane.current > selected.current) {
+                selected = lane;
+            }
+        }
+        if (selected == null) {
+            return null;
+        }
+        selected.current -= totalWeight;
+        if (selected.size == selected.capacity) {
+            // Room for a submitter blocked on this lane
+            lock.notifyAll();
+        }
+        return selected.poll();
+    }
+    
+    private static final class Task {
+        final Lane lane;
+        final long enqueuedNanos;
+        final long deadlineNanos;
+        final Runnable work;
+        final CompletableFuture<?> result;
+        
+        Task(Lane lane, long enqueuedNanos, long deadlineNanos, Runnable work, CompletableFuture<?> result) {
+            this.lane = lane;
+            this.enqueuedNanos = enqueuedNanos;
+            this.deadlineNanos = deadlineNanos;
+            this.work = work;
+            this.result = result;
+        }
+    }
+    
+    /** Waiting tasks of one priority, per uploader; guarded by the scheduler's lock. */
+    private static final class Lane {
+        final int weight;
+        final int capacity;
+        final Timer waitTimer;
+        final Counter expired;
+        final Map<String, ArrayDeque<Task>> byUploader = new HashMap<>();
+        // Uploaders with waiting tasks, in turn order
+        final ArrayDeque<String> uploaders = new ArrayDeque<>();
+        // Written under the lock, read by the gauges
+        volatile int size;
+        volatile int uploaderCount;
+        int current;
+        
+        Lane(int weight, int capacity, Timer waitTimer, Counter expired) {
+            this.weight = weight;
+            this.capacity = capacity;
+            this.waitTimer = waitTimer;
+            this.expired = expired;
+        }
+        
+        void add(String uploader, Task task) {
+            byUploader.computeIfAbsent(uploader, key -> {
+                uploaders.addLast(key);
+                return new ArrayDeque<>();
+            }).addLast(task);
+            size++;
+            uploaderCount = uploaders.size();
+        }
+        
+        Task poll() {
+            String uploader = uploaders.pollFirst();
+            ArrayDeque<Task> tasks = byUploader.get(uploader);
+            Task task = tasks.pollFirst();
+            if (tasks.isEmpty()) {
+                byUploader.remove(uploader);
+            } else {
+                uploaders.addLast(uploader);
+            }
+            uploaderCount = uploaders.size();
+            if (--size == 0) {
+                // An idle lane doesn't bank credit for its next burst
+                current = 0;
+            }
+            return task;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.docflow.analysis;
+
+import com.docflow.model.Document.DocumentPriority;
+import com.docflow.workflow.AIAnalysisResult;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+/**
+ * Runs document analysis on the configured {@link AnalysisEngine}. The file is
+ * streamed in chunks which are scored in parallel on a shared fork-join pool;
+ * a per-engine semaphore caps chunks in flight, which bounds both load on the
+ * engine and the text held in memory. With batching enabled, chunks from all
+ * concurrent analyses are micro-batched into one engine call.
+ */
+@Service
+@Observed(name = "docflow.service")
+public class AnalysisService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisService.class);
+    
+    // Filename terms are a strong hint (e.g. "invoice-2024.pdf")
+    private static final double FILENAME_WEIGHT = 3.0;
+    
+    // Risk indicators outweigh business vocabulary
+    private static final double REJECT_WEIGHT = 2.0;
+    
+    private static final int MAX_TERMS_IN_REASONING = 5;
+    
+    private final AnalysisEngine engine;
+    private final Semaphore enginePermits;
+    private final ForkJoinPool analysisPool;
+    private final AnalysisScheduler analysisScheduler;
+    private final AnalysisBatcher batcher; // null when batching is disabled
+    private final Timer analysisTimer;
+    
+    @Value("${docflow.analysis.chunk-chars:65536}")
+    private int chunkChars;
+    
+    public AnalysisService(List<AnalysisEngine> engines,
+                           ForkJoinPool analysisPool,
+                           AnalysisScheduler analysisScheduler,
+                           MeterRegistry meterRegistry,
+                           @Value("${docflow.analysis.engine:keyword}") String engineName,
+                           @Value("${docflow.analysis.batch.enabled:true}") boolean batchingEnabled,
+                           @Value("${docflow.analysis.batch.max-size:32}") int maxBatchSize,
+                           @Value("${docflow.analysis.batch.linger:20ms}") Duration batchLinger) {
+        Map<String, AnalysisEngine> byName = engines.stream()
+            .collect(Collectors.toMap(AnalysisEngine::getName, e -> e));
+        this.engine = byName.get(engineName);
+        if (engine == null) {
+            throw new IllegalStateException(
+                "Unknown analysis engine '" + engineName + "', available: " + byName.keySet());
+        }
+        this.enginePermits = new Semaphore(engine.getMaxConcurrency());
+        this.analysisPool = analysisPool;
+        this.analysisScheduler = analysisScheduler;
+        this.analysisTimer = Timer.builder("docflow.analysis.duration")
+            .description("End-to-end analysis of one document, including waits for engine capacity")
+            .tag("engine", engine.getName())
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        // A batch can never hold more chunks than the engine allows in flight;
+        // a larger size would make every batch wait out the full linger.
+        int batchSize = Math.min(maxBatchSize, engine.getMaxConcurrency());
+        this.batcher = batchingEnabled
+            ? new AnalysisBatcher(engine, analysisPool, batchSize, batchLinger,
+                DistributionSummary.builder("docflow.analysis.batch.size")
+                    .description("Chunks scored per engine call")
+                    .register(meterRegistry))
+            : null;
+        logger.info("Using analysis engine: {} (max concurrency {}, batching {})", 
+                   engineName, engine.getMaxConcurrency(), 
+                   batchingEnabled ? batchSize + " / " + batchLinger.toMillis() + "ms" : "off");
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (batcher != null) {
+            batcher.shutdown();
+        }
+    }
+    
+    public String getEngineName() {
+        return engine.getName();
+    }
+    
+    /**
+     * Runs {@link #analyze} on the reader pool so callers, such as an activity
+     * using async completion, don't hold their thread while chunks wait to be
+     * batched and scored. Waiting documents are started by priority and
+     * uploader, and dropped if not started within {@code timeout}; a full
+     * queue blocks the caller. See {@link AnalysisScheduler}.
+     */
+    public CompletableFuture<AIAnalysisResult> analyzeAsync(String filename, String filePath, String contentType,
+                                                            DocumentPriority priority, String uploadedBy,
+                                                            Duration timeout) {
+        return analysisScheduler.submit(priority, uploadedBy, timeout, () -> {
+            try {
+                return analyze(filename, filePath, contentType);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read " + filePath, e);
+            }
+        });
+    }
+    
+    public AIAnalysisResult analyze(String filename, String filePath, String contentType) throws IOException {
+        Timer.Sample sample = Timer.start();
+        try {
+            return score(filename, filePath, contentType);
+        } finally {
+            sample.stop(analysisTimer);
+        }
+    }
+    
+    private AIAnalysisResult score(String filename, String filePath, String contentType) throws IOException {
+        List<CompletableFuture<ChunkScore>> pending = new ArrayList<>();
+        pending.add(submit(filename.replaceAll("[^\\p{L}]+", " ")));
+        
+        Path path = filePath != null ? Paths.get(filePath) : null;
+        int chunks = 0;
+        if (path != null && isText(contentType, filename) && Files.isReadable(path)) {
+            try (TextChunker chunker = new TextChunker(path, chunkChars)) {
+                String chunk;
+                while ((chunk = chunker.next()) != null) {
+                    pending.add(submit(chunk));
+                    chunks++;
+                }
+            }
+        }
+        
+        ChunkScore filenameScore = pending.get(0).join().scaled(FILENAME_WEIGHT);
+        ChunkScore total = pending.subList(1, pending.size()).stream()
+            .map(CompletableFuture::join)
+            .reduce(filenameScore, ChunkScore::plus);
+        
+        logger.debug("Scored {} ({} chunks) with {}: {}", filename, chunks, engine.getName(), total);
+        
+        return toResult(total);
+    }
+    
+    private CompletableFuture<ChunkScore> submit(String text) {
+        try {
+            // Blocks the reader when the engine is saturated, so at most
+            // maxConcurrency chunks are held in memory per engine
+            enginePermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for analysis capacity", e);
+        }
+        if (batcher != null) {
+            return batcher.submit(text).whenComplete((score, error) -> enginePermits.release());
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return engine.scoreChunk(text);
+            } finally {
+                enginePermits.release();
+            }
+        }, analysisPool);
+    }
+    
+    private AIAnalysisResult toResult(ChunkScore score) {
+        double approve = score.getApproveScore();
+        double reject = score.getRejectScore() * REJECT_WEIGHT;
+        double evidence = approve + reject;
+        
+        if (evidence == 0) {
+            return new AIAnalysisResult("reject", 0.5,
+                "No recognizable business or risk indicators found; requires human review");
+        }
+        
+        boolean rejects = reject >= approve;
+        // Share of the winning side (0.5-1), discounted when there is little evidence
+        double dominance = Math.max(approve, reject) / evidence;
+        double certainty = 1 - Math.exp(-evidence / 2.0);
+        double confidence = Math.min(0.99, 0.5 + (dominance - 0.5) * certainty);
+        
+        String reasoning = rejects
+            ? "Document contains risk indicators (" + describe(score.getRejectTerms()) + ") that suggest rejection"
+            : "Document contains standard business content (" + describe(score.getApproveTerms()) + ")";
+        
+        return new AIAnalysisResult(rejects ? "reject" : "approve", confidence, reasoning);
+    }
+    
+    private static String describe(Set<String> terms) {
+        return terms.stream().limit(MAX_TERMS_IN_REASONING).collect(Collectors.joining(", "));
+    }
+    
+    /** Whether the file can be read as plain text for analysis or indexing. */
+    public static boolean isText(String contentType, String filename) {
+        if (contentType != null) {
+            String type = contentType.toLowerCase();
+            if (type.startsWith("text/") || type.contains("json") || type.contains("xml") || type.contains("csv")) {
+                return true;
+            }
+        }
+        String name = filename.toLowerCase();
+        return name.endsWith(".txt") || name.endsWith(".md") || name.endsWith(".csv") 
+            || name.endsWith(".json") || name.endsWith(".xml");
+    }
+}
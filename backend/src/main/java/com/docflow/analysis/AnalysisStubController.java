@@ -0,0 +1,51 @@
+package com.docflow.analysis;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local stand-in for a model server, used with the {@code http} engine when
+ * running offline. Scores with the keyword model after an optional fixed delay
+ * per call, which simulates inference cost and makes batching measurable.
+ */
+@RestController
+@ConditionalOnProperty(name = "docflow.analysis.stub.enabled", havingValue = "true")
+public class AnalysisStubController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisStubController.class);
+    
+    private final KeywordAnalysisEngine keywordEngine;
+    
+    @Value("${docflow.analysis.stub.latency-ms:0}")
+    private long latencyMs;
+    
+    public AnalysisStubController(KeywordAnalysisEngine keywordEngine) {
+        this.keywordEngine = keywordEngine;
+        logger.info("Analysis stub server enabled at /internal/analysis/score");
+    }
+    
+    @PostMapping("/internal/analysis/score")
+    public ChunkScore score(@RequestBody Map<String, String> request) throws InterruptedException {
+        if (latencyMs > 0) {
+            Thread.sleep(latencyMs);
+        }
+        return keywordEngine.scoreChunk(request.getOrDefault("text", ""));
+    }
+    
+    @PostMapping("/internal/analysis/score/batch")
+    public List<ChunkScore> scoreBatch(@RequestBody Map<String, List<String>> request) 
+            throws InterruptedException {
+        if (latencyMs > 0) {
+            Thread.sleep(latencyMs);
+        }
+        return keywordEngine.scoreBatch(request.getOrDefault("texts", List.of()));
+    }
+}
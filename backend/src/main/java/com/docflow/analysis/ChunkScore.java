@@ -0,0 +1,40 @@
+package com.docflow.analysis;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Evidence found in one chunk of text: weighted hits for business
+ * (approve) and risk (reject) indicators, plus the terms that matched.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChunkScore {
+    
+    private double approveScore;
+    private double rejectScore;
+    private Set<String> approveTerms = new TreeSet<>();
+    private Set<String> rejectTerms = new TreeSet<>();
+    
+    public static ChunkScore empty() {
+        return new ChunkScore(0, 0, new TreeSet<>(), new TreeSet<>());
+    }
+    
+    public ChunkScore plus(ChunkScore other) {
+        Set<String> approve = new TreeSet<>(approveTerms);
+        approve.addAll(other.approveTerms);
+        Set<String> reject = new TreeSet<>(rejectTerms);
+        reject.addAll(other.rejectTerms);
+        return new ChunkScore(approveScore + other.approveScore, rejectScore + other.rejectScore,
+                              approve, reject);
+    }
+    
+    public ChunkScore scaled(double factor) {
+        return new ChunkScore(approveScore * factor, rejectScore * factor, approveTerms, rejectTerms);
+    }
+}
@@ -0,0 +1,90 @@
+package com.docflow.analysis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Engine that delegates chunk scoring to a model server over HTTP. The server
+ * receives {@code {"text": ...}} and answers with a {@link ChunkScore} as JSON;
+ * batches go to {@code <url>/batch} as {@code {"texts": [...]}} and come back
+ * as a JSON array in the same order.
+ * For offline runs, {@link AnalysisStubController} provides a local stand-in.
+ */
+@Component
+public class HttpAnalysisEngine implements AnalysisEngine {
+    
+    public static final String NAME = "http";
+    
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    
+    @Value("${docflow.analysis.engines.http.url:http://localhost:8081/internal/analysis/score}")
+    private String url;
+    
+    @Value("${docflow.analysis.engines.http.max-concurrency:16}")
+    private int maxConcurrency;
+    
+    @Value("${docflow.analysis.engines.http.timeout:30s}")
+    private Duration timeout;
+    
+    public HttpAnalysisEngine(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    }
+    
+    @Override
+    public String getName() {
+        return NAME;
+    }
+    
+    @Override
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+    
+    @Override
+    public ChunkScore scoreChunk(String text) {
+        return post(url, Map.of("text", text), ChunkScore.class);
+    }
+    
+    @Override
+    public List<ChunkScore> scoreBatch(List<String> texts) {
+        ChunkScore[] scores = post(url + "/batch", Map.of("texts", texts), ChunkScore[].class);
+        return Arrays.asList(scores);
+    }
+    
+    private <T> T post(String target, Object body, Class<T> responseType) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(target))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+            
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Analysis server returned " + response.statusCode());
+            }
+            return objectMapper.readValue(response.body(), responseType);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Analysis server call failed: " + target, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calling analysis server", e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.docflow.analysis;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Default in-process engine: a keyword model over lowercase word tokens.
+ * Business-document vocabulary counts towards approval, fraud and malware
+ * vocabulary towards rejection.
+ */
+@Component
+public class KeywordAnalysisEngine implements AnalysisEngine {
+    
+    public static final String NAME = "keyword";
+    
+    private static final Map<String, Boolean> TERMS = new HashMap<>();
+    
+    private static final int MAX_TERM_LENGTH;
+    
+    static {
+        for (String term : new String[] {
+                "contract", "agreement", "invoice", "proposal", "receipt", "purchase",
+                "order", "quotation", "quote", "statement", "signature", "signed",
+                "terms", "payment", "amount", "total", "vat", "tax", "party", "parties"}) {
+            TERMS.put(term, Boolean.TRUE);
+        }
+        for (String term : new String[] {
+                "suspicious", "fraud", "fraudulent", "malware", "virus", "phishing",
+                "ransomware", "trojan", "exploit", "password", "bitcoin", "scam",
+                "counterfeit", "forged", "unverified"}) {
+            TERMS.put(term, Boolean.FALSE);
+        }
+        MAX_TERM_LENGTH = TERMS.keySet().stream().mapToInt(String::length).max().orElse(0);
+    }
+    
+    @Value("${docflow.analysis.engines.keyword.max-concurrency:64}")
+    private int maxConcurrency;
+    
+    @Override
+    public String getName() {
+        return NAME;
+    }
+    
+    @Override
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+    
+    @Override
+    public ChunkScore scoreChunk(String text) {
+        double approve = 0;
+        double reject = 0;
+        Set<String> approveTerms = new TreeSet<>();
+        Set<String> rejectTerms = new TreeSet<>();
+        
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean letter = i < length && Character.isLetter(text.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                // Tokens longer than any term can't match; skip the allocation
+                if (i - start <= MAX_TERM_LENGTH) {
+                    String token = text.substring(start, i).toLowerCase();
+                    Boolean approves = TERMS.get(token);
+                    if (approves == Boolean.TRUE) {
+                        approve++;
+                        approveTerms.add(token);
+                    } else if (approves == Boolean.FALSE) {
+                        reject++;
+                        rejectTerms.add(token);
+                    }
+                }
+                start = -1;
+            }
+        }
+        
+        return new ChunkScore(approve, reject, approveTerms, rejectTerms);
+    }
+}
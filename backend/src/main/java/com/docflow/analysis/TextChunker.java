@@ -0,0 +1,69 @@
+package com.docflow.analysis;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Streams a file as UTF-8 text in chunks of roughly {@code chunkSize}
+ * characters. Chunks end on whitespace where possible so words are not split,
+ * and only one chunk is held in memory at a time.
+ */
+class TextChunker implements Closeable {
+    
+    private final BufferedReader reader;
+    private final char[] buffer;
+    private int carry; // chars at the start of buffer left over from the previous chunk
+    private boolean eof;
+    
+    TextChunker(Path file, int chunkSize) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE)));
+        this.buffer = new char[chunkSize];
+    }
+    
+    /** Returns the next chunk, or {@code null} once the file is exhausted. */
+    String next() throws IOException {
+        int filled = carry;
+        while (!eof && filled < buffer.length) {
+            int read = reader.read(buffer, filled, buffer.length - filled);
+            if (read == -1) {
+                eof = true;
+            } else {
+                filled += read;
+            }
+        }
+        if (filled == 0) {
+            return null;
+        }
+        
+        int end = filled;
+        if (!eof) {
+            int lastSpace = filled - 1;
+            while (lastSpace > 0 && !Character.isWhitespace(buffer[lastSpace])) {
+                lastSpace--;
+            }
+            if (lastSpace > 0) {
+                end = lastSpace + 1;
+            }
+        }
+        
+        String chunk = new String(buffer, 0, end);
+        carry = filled - end;
+        System.arraycopy(buffer, end, buffer, 0, carry);
+        return chunk;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,59 @@
+package com.docflow.config;
+
+import com.docflow.analysis.AnalysisScheduler;
+import com.docflow.service.DocumentPriorityPolicy;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+public class AnalysisConfig {
+    
+    @Value("${docflow.analysis.parallelism:0}")
+    private int parallelism;
+    
+    @Value("${docflow.analysis.reader-threads:8}")
+    private int readerThreads;
+    
+    @Value("${docflow.analysis.queue.capacity:400}")
+    private int queueCapacity;
+    
+    /**
+     * Pool that scores document chunks in parallel. Defaults to one thread per
+     * available processor.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool analysisPool() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(threads);
+    }
+    
+    /**
+     * Threads that stream documents into the chunk scorer and wait for their
+     * results, off the Temporal activity slots.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService analysisReaderExecutor() {
+        return Executors.newFixedThreadPool(readerThreads, new CustomizableThreadFactory("analysis-reader-"));
+    }
+    
+    /**
+     * Hands waiting analyses to the reader threads by priority lane and
+     * uploader, never more than there are threads. Lanes hold at most
+     * {@code docflow.analysis.queue.capacity} documents between them.
+     */
+    @Bean
+    public AnalysisScheduler analysisScheduler(@Qualifier("analysisReaderExecutor") ExecutorService analysisReaderExecutor,
+                                               DocumentPriorityPolicy priorityPolicy,
+                                               MeterRegistry meterRegistry) {
+        return new AnalysisScheduler(analysisReaderExecutor, readerThreads, queueCapacity,
+                                     priorityPolicy::weight, meterRegistry);
+    }
+}
@@ -0,0 +1,49 @@
+package com.docflow.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+    
+    public static final String DOCUMENTS = "documents";
+    public static final String WORKFLOW_STATUS = "workflowStatus";
+    
+    @Value("${docflow.cache.documents.max-size:10000}")
+    private long documentsMaxSize;
+    
+    @Value("${docflow.cache.documents.ttl:30s}")
+    private Duration documentsTtl;
+    
+    @Value("${docflow.cache.workflow-status.max-size:10000}")
+    private long workflowStatusMaxSize;
+    
+    @Value("${docflow.cache.workflow-status.ttl:5s}")
+    private Duration workflowStatusTtl;
+    
+    /**
+     * Bounded caches with per-cache size and TTL. Stats are recorded so the
+     * actuator publishes cache.gets (hit/miss) and cache.evictions.
+     */
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(DOCUMENTS, Caffeine.newBuilder()
+            .maximumSize(documentsMaxSize)
+            .expireAfterWrite(documentsTtl)
+            .recordStats()
+            .build());
+        cacheManager.registerCustomCache(WORKFLOW_STATUS, Caffeine.newBuilder()
+            .maximumSize(workflowStatusMaxSize)
+            .expireAfterWrite(workflowStatusTtl)
+            .recordStats()
+            .build());
+        return cacheManager;
+    }
+}
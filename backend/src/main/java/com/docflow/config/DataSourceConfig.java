@@ -0,0 +1,115 @@
+package com.docflow.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Separate Hikari pools for reads and writes, enabled with
+ * {@code docflow.datasource.split-pools}. Both connect with the
+ * {@code spring.datasource.*} settings; pool sizing comes from
+ * {@code docflow.datasource.read.hikari.*} and {@code docflow.datasource.write.hikari.*}.
+ * <p>
+ * When {@code docflow.datasource.replicas.urls} lists read replicas, read-only
+ * transactions are balanced across them (pools sized by
+ * {@code docflow.datasource.replica.hikari.*}), falling back to the primary's
+ * read pool when no replica is within {@code docflow.datasource.replicas.max-staleness}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "docflow.datasource.split-pools", havingValue = "true")
+public class DataSourceConfig {
+    
+    @Value("${docflow.datasource.replicas.urls:}")
+    private List<String> replicaUrls;
+    
+    @Value("${docflow.datasource.replicas.max-staleness:5s}")
+    private Duration maxStaleness;
+    
+    @Value("${docflow.datasource.replicas.lag-check-interval:2s}")
+    private Duration lagCheckInterval;
+    
+    private ReplicaDataSource replicaDataSource;
+    
+    @PreDestroy
+    public void closeReplicas() {
+        if (replicaDataSource != null) {
+            replicaDataSource.close();
+        }
+    }
+    
+    @Bean
+    @ConfigurationProperties("docflow.datasource.read.hikari")
+    public HikariDataSource readDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+    
+    @Bean
+    @ConfigurationProperties("docflow.datasource.write.hikari")
+    public HikariDataSource writeDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+    
+    @Bean
+    @ConfigurationProperties("docflow.datasource.replica.hikari")
+    public HikariConfig replicaHikariConfig() {
+        return new HikariConfig();
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("readDataSource") DataSource readDataSource,
+                                 @Qualifier("writeDataSource") DataSource writeDataSource,
+                                 HikariConfig replicaHikariConfig,
+                                 DataSourceProperties properties,
+                                 MeterRegistry meterRegistry) {
+        List<String> urls = replicaUrls.stream().map(String::trim).filter(url -> !url.isEmpty()).toList();
+        DataSource replicas = readDataSource;
+        if (!urls.isEmpty()) {
+            replicaDataSource = replicaDataSource(urls, replicaHikariConfig, properties, readDataSource, meterRegistry);
+            replicas = replicaDataSource;
+        }
+        
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource();
+        routing.setTargetDataSources(Map.of(
+            ReadWriteRoutingDataSource.Route.READ, replicas,
+            ReadWriteRoutingDataSource.Route.PRIMARY_READ, readDataSource,
+            ReadWriteRoutingDataSource.Route.WRITE, writeDataSource
+        ));
+        routing.setDefaultTargetDataSource(writeDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+    
+    private ReplicaDataSource replicaDataSource(List<String> urls, HikariConfig template, 
+                                                DataSourceProperties properties,
+                                                DataSource primary, MeterRegistry meterRegistry) {
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            template.copyStateTo(config);
+            config.setJdbcUrl(urls.get(i));
+            config.setUsername(properties.determineUsername());
+            config.setPassword(properties.determinePassword());
+            config.setReadOnly(true);
+            config.setPoolName("docflow-replica-" + i);
+            pools.add(new HikariDataSource(config));
+        }
+        return new ReplicaDataSource(pools, primary, maxStaleness, lagCheckInterval, meterRegistry);
+    }
+}
@@ -0,0 +1,60 @@
+package com.docflow.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class ExecutorConfig {
+    
+    @Value("${docflow.workflow-client.parallelism:16}")
+    private int workflowClientParallelism;
+    
+    @Value("${docflow.events.sse.fan-out-threads:4}")
+    private int eventFanOutThreads;
+    
+    /**
+     * Bounded executor for fanning out blocking Temporal client RPCs (workflow
+     * starts, signals) so bulk operations don't run them one at a time. In
+     * virtual-thread mode each call gets its own virtual thread and only the
+     * number of in-flight calls is limited.
+     */
+    @Bean
+    public Executor workflowClientExecutor(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("workflow-client-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(workflowClientParallelism);
+            return executor;
+        }
+        return Executors.newFixedThreadPool(
+            workflowClientParallelism,
+            new CustomizableThreadFactory("workflow-client-")
+        );
+    }
+    
+    /**
+     * Executor that writes document events to SSE subscribers, keeping slow
+     * clients off the publishing activity thread.
+     */
+    @Bean
+    public Executor eventFanOutExecutor(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("event-fan-out-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(eventFanOutThreads);
+            return executor;
+        }
+        return Executors.newFixedThreadPool(
+            eventFanOutThreads,
+            new CustomizableThreadFactory("event-fan-out-")
+        );
+    }
+}
@@ -0,0 +1,22 @@
+package com.docflow.config;
+
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.aop.ObservedAspect;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Turns {@code @Observed} on services and JDBC repositories into timers
+ * ({@code docflow.service}, {@code docflow.repository}, tagged with class and
+ * method) and trace spans. HTTP endpoints and Spring Data repositories are
+ * timed by Spring Boot ({@code http.server.requests},
+ * {@code spring.data.repository.invocations}).
+ */
+@Configuration
+public class ObservabilityConfig {
+    
+    @Bean
+    public ObservedAspect observedAspect(ObservationRegistry observationRegistry) {
+        return new ObservedAspect(observationRegistry);
+    }
+}
@@ -0,0 +1,41 @@
+package com.docflow.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Routes read-only transactions to the read pool (or replicas) and everything
+ * else to the write pool. Must sit behind a LazyConnectionDataSourceProxy: the
+ * read-only flag is only known once the transaction has begun, after the
+ * transaction manager has asked for a connection.
+ * <p>
+ * Code that needs to read its own writes wraps the read in
+ * {@link #usePrimary}, which keeps read-only transactions on the primary.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    
+    public enum Route { READ, PRIMARY_READ, WRITE }
+    
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = ThreadLocal.withInitial(() -> false);
+    
+    /** Runs {@code action} with reads routed to the primary database. */
+    public static <T> T usePrimary(Supplier<T> action) {
+        boolean previous = PRIMARY_ONLY.get();
+        PRIMARY_ONLY.set(true);
+        try {
+            return action.get();
+        } finally {
+            PRIMARY_ONLY.set(previous);
+        }
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Route.WRITE;
+        }
+        return PRIMARY_ONLY.get() ? Route.PRIMARY_READ : Route.READ;
+    }
+}
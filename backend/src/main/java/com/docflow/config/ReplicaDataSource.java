@@ -0,0 +1,162 @@
+package com.docflow.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Round-robins connections across read replicas, skipping replicas that are
+ * unreachable or lag the primary by more than the staleness bound. Lag is
+ * sampled in the background; when no replica qualifies, connections come
+ * from the primary's read pool.
+ */
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaDataSource.class);
+    
+    private static final String PRIMARY_LSN_QUERY = "select pg_current_wal_lsn()::text";
+    
+    // Zero when the replica has replayed up to the primary's current WAL
+    // position, so an idle primary doesn't make a caught-up replica look
+    // stale; null (unknown) when it is not streaming from the primary, as a
+    // disconnected replica has replayed all it received and would look
+    // current. Reading pg_stat_wal_receiver needs pg_read_all_stats.
+    private static final String LAG_QUERY =
+        "select case when not pg_is_in_recovery() then 0 " +
+        "when not exists (select 1 from pg_stat_wal_receiver where status = 'streaming') then null " +
+        "when pg_last_wal_replay_lsn() >= ?::pg_lsn then 0 " +
+        "else extract(epoch from now() - pg_last_xact_replay_timestamp()) end";
+    
+    private final List<Replica> replicas;
+    private final DataSource primary;
+    private final double maxStalenessSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService lagChecker;
+    private final Counter primaryFallbacks;
+    
+    public ReplicaDataSource(List<HikariDataSource> replicaPools, DataSource primary,
+                             Duration maxStaleness, Duration lagCheckInterval, MeterRegistry meterRegistry) {
+        this.replicas = replicaPools.stream().map(Replica::new).toList();
+        this.primary = primary;
+        this.maxStalenessSeconds = maxStaleness.toMillis() / 1000.0;
+        this.primaryFallbacks = Counter.builder("docflow.datasource.replica.fallbacks")
+            .description("Read connections served by the primary because no replica qualified")
+            .register(meterRegistry);
+        for (Replica replica : replicas) {
+            Gauge.builder("docflow.datasource.replica.lag", replica, r -> r.lagSeconds)
+                .description("Replication lag in seconds, as last sampled")
+                .baseUnit("seconds")
+                .tag("replica", replica.pool.getPoolName())
+                .register(meterRegistry);
+        }
+        checkLag();
+        this.lagChecker = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("replica-lag-"));
+        this.lagChecker.scheduleWithFixedDelay(this::checkLag, 
+            lagCheckInterval.toMillis(), lagCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        int count = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), count);
+        for (int i = 0; i < count; i++) {
+            Replica replica = replicas.get((start + i) % count);
+            if (replica.isEligible(maxStalenessSeconds)) {
+                try {
+                    return replica.pool.getConnection();
+                } catch (SQLException e) {
+                    replica.healthy = false;
+                    logger.warn("Replica {} unavailable: {}", replica.pool.getPoolName(), e.getMessage());
+                }
+            }
+        }
+        primaryFallbacks.increment();
+        return primary.getConnection();
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica connections use the configured credentials");
+    }
+    
+    @Override
+    public void close() {
+        lagChecker.shutdownNow();
+        replicas.forEach(r -> r.pool.close());
+    }
+    
+    private void checkLag() {
+        // Sampled before the replicas, so a replica that has replayed this
+        // far had every write committed before the check
+        String primaryLsn = primaryLsn();
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(LAG_QUERY)) {
+                statement.setString(1, primaryLsn);
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    double lag = rs.getDouble(1);
+                    replica.lagSeconds = rs.wasNull() ? Double.POSITIVE_INFINITY : lag;
+                }
+                if (!replica.healthy) {
+                    logger.info("Replica {} available, lag {}s", replica.pool.getPoolName(), replica.lagSeconds);
+                }
+                replica.healthy = true;
+            } catch (SQLException e) {
+                // Logged once per outage rather than on every check
+                if (replica.healthy || !replica.checked) {
+                    logger.warn("Lag check failed for replica {}: {}", replica.pool.getPoolName(), e.getMessage());
+                }
+                replica.healthy = false;
+            }
+            replica.checked = true;
+        }
+    }
+    
+    /** The primary's current WAL position, or null when it can't be read. */
+    private String primaryLsn() {
+        try (Connection connection = primary.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(PRIMARY_LSN_QUERY)) {
+            rs.next();
+            return rs.getString(1);
+        } catch (SQLException e) {
+            logger.warn("Could not read the primary's WAL position: {}", e.getMessage());
+            return null;
+        }
+    }
+    
+    private static class Replica {
+        final HikariDataSource pool;
+        volatile boolean healthy;
+        volatile boolean checked;
+        volatile double lagSeconds;
+        
+        Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+        
+        boolean isEligible(double maxStalenessSeconds) {
+            return healthy && lagSeconds <= maxStalenessSeconds;
+        }
+    }
+}
@@ -1,21 +1,52 @@
 package com.docflow.config;
 
+import com.docflow.model.Document.DocumentPriority;
+import com.docflow.service.DocumentPriorityPolicy;
+import com.docflow.workflow.ActivityObservationInterceptor;
+import com.docflow.workflow.CompactPayloadConverter;
+import com.docflow.workflow.CompressionPayloadCodec;
 import com.docflow.workflow.DocumentActivitiesImpl;
+import com.docflow.workflow.DocumentApprovalWorkflow;
 import com.docflow.workflow.DocumentApprovalWorkflowImpl;
+import com.docflow.workflow.PayloadReferenceCodec;
+import com.docflow.workflow.TracingContextPropagator;
+import com.uber.m3.tally.RootScopeBuilder;
+import com.uber.m3.tally.Scope;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.temporal.client.ActivityCompletionClient;
 import io.temporal.client.WorkflowClient;
 import io.temporal.client.WorkflowClientOptions;
+import io.temporal.common.converter.CodecDataConverter;
+import io.temporal.common.converter.DataConverter;
+import io.temporal.common.converter.DefaultDataConverter;
+import io.temporal.common.converter.PayloadConverter;
+import io.temporal.common.reporter.MicrometerClientStatsReporter;
+import io.temporal.payload.codec.PayloadCodec;
 import io.temporal.serviceclient.WorkflowServiceStubs;
 import io.temporal.serviceclient.WorkflowServiceStubsOptions;
 import io.temporal.worker.Worker;
 import io.temporal.worker.WorkerFactory;
+import io.temporal.worker.WorkerFactoryOptions;
+import io.temporal.worker.WorkerOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Lazy;
+import org.springframework.core.env.Environment;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 @Configuration
 public class TemporalConfig {
     
+    private static final Logger logger = LoggerFactory.getLogger(TemporalConfig.class);
+    
     @Value("${temporal.host:localhost}")
     private String temporalHost;
     
@@ -28,51 +59,235 @@ public class TemporalConfig {
     @Value("${temporal.task-queue:docflow-task-queue}")
     private String taskQueue;
     
+    @Value("${temporal.ai-task-queue:docflow-ai-task-queue}")
+    private String aiTaskQueue;
+    
+    // Main worker: workflows plus the short DB-bound activities
+    @Value("${temporal.worker.workflow-pollers:2}")
+    private int workflowPollers;
+    
+    @Value("${temporal.worker.activity-pollers:2}")
+    private int activityPollers;
+    
+    @Value("${temporal.worker.max-concurrent-workflow-tasks:200}")
+    private int maxConcurrentWorkflowTasks;
+    
+    @Value("${temporal.worker.max-concurrent-activities:200}")
+    private int maxConcurrentActivities;
+    
+    // Workflows kept in memory between tasks; each one blocked in
+    // Workflow.await also holds a workflow thread
+    @Value("${temporal.worker.workflow-cache-size:600}")
+    private int workflowCacheSize;
+    
+    @Value("${temporal.worker.max-workflow-threads:600}")
+    private int maxWorkflowThreads;
+    
+    @Value("${temporal.worker.sticky-schedule-to-start-timeout:5s}")
+    private Duration stickyScheduleToStartTimeout;
+    
+    @Value("${temporal.worker.activities-per-second:0}")
+    private double activitiesPerSecond;
+    
+    @Value("${temporal.worker.task-queue-activities-per-second:0}")
+    private double taskQueueActivitiesPerSecond;
+    
+    // AI workers: only analyzeDocumentWithAI, on one task queue per priority
+    // lane; slots and rate limits are split between lanes by weight
+    @Value("${temporal.ai-worker.enabled:true}")
+    private boolean aiWorkerEnabled;
+    
+    @Value("${temporal.ai-worker.activity-pollers:2}")
+    private int aiActivityPollers;
+    
+    @Value("${temporal.ai-worker.max-concurrent-activities:50}")
+    private int aiMaxConcurrentActivities;
+    
+    @Value("${temporal.ai-worker.activities-per-second:0}")
+    private double aiActivitiesPerSecond;
+    
+    @Value("${temporal.ai-worker.task-queue-activities-per-second:0}")
+    private double aiTaskQueueActivitiesPerSecond;
+    
+    // Start-to-close timeout of one analysis attempt, including its wait in
+    // the worker's analysis queue (docflow.analysis.queue.capacity)
+    @Value("${temporal.ai-activity.timeout:5m}")
+    private Duration aiActivityTimeout;
+    
+    @Value("${temporal.worker.virtual-threads.max-concurrent-activities:10000}")
+    private int virtualMaxConcurrentActivities;
+    
+    @Value("${temporal.metrics.report-interval:10s}")
+    private Duration metricsReportInterval;
+    
+    @Value("${temporal.payloads.compact:true}")
+    private boolean compactPayloads;
+    
+    @Value("${temporal.payloads.compression-threshold:1KB}")
+    private DataSize compressionThreshold;
+    
     @Bean
-    public WorkflowServiceStubs workflowServiceStubs() {
+    public WorkflowServiceStubs workflowServiceStubs(MeterRegistry meterRegistry) {
+        // SDK metrics (poll, schedule-to-start, sticky cache...) go to the same registry
+        Scope metricsScope = new RootScopeBuilder()
+            .reporter(new MicrometerClientStatsReporter(meterRegistry))
+            .reportEvery(com.uber.m3.util.Duration.ofMillis(metricsReportInterval.toMillis()));
         return WorkflowServiceStubs.newServiceStubs(
             WorkflowServiceStubsOptions.newBuilder()
                 .setTarget(temporalHost + ":" + temporalPort)
+                .setMetricsScope(metricsScope)
                 .build()
         );
     }
     
+    /**
+     * Serializes workflow and activity payloads for the client and workers:
+     * the workflow's own types in a compact binary form, then compression of
+     * large payloads, then payloads still above the reference threshold moved
+     * to Postgres. Every stage decodes by encoding, so existing JSON
+     * histories keep replaying.
+     */
+    @Bean
+    public DataConverter dataConverter(PayloadReferenceCodec payloadReferenceCodec) {
+        return newDataConverter(compactPayloads, compressionThreshold.toBytes(), payloadReferenceCodec);
+    }
+    
+    /**
+     * The converter chain of {@link #dataConverter}; {@code outerCodecs} run
+     * after compression when encoding. Replay tests build it without the
+     * Postgres reference stage.
+     */
+    public static DataConverter newDataConverter(boolean compact, long compressionThreshold, PayloadCodec... outerCodecs) {
+        PayloadConverter[] standard = DefaultDataConverter.STANDARD_PAYLOAD_CONVERTERS;
+        PayloadConverter[] converters = new PayloadConverter[standard.length + 1];
+        converters[0] = new CompactPayloadConverter(compact);
+        System.arraycopy(standard, 0, converters, 1, standard.length);
+        // Encoding applies the codecs last to first, decoding first to last
+        List<PayloadCodec> codecs = new ArrayList<>(List.of(outerCodecs));
+        codecs.add(new CompressionPayloadCodec(compressionThreshold));
+        return new CodecDataConverter(new DefaultDataConverter(converters), codecs);
+    }
+    
     @Bean
-    public WorkflowClient workflowClient(WorkflowServiceStubs serviceStubs) {
+    public WorkflowClient workflowClient(WorkflowServiceStubs serviceStubs, 
+                                         DataConverter dataConverter,
+                                         TracingContextPropagator tracingContextPropagator) {
         return WorkflowClient.newInstance(
             serviceStubs,
             WorkflowClientOptions.newBuilder()
                 .setNamespace(namespace)
+                .setDataConverter(dataConverter)
+                .setContextPropagators(List.of(tracingContextPropagator))
                 .build()
         );
     }
     
+    @Bean
+    public ActivityCompletionClient activityCompletionClient(WorkflowClient workflowClient) {
+        return workflowClient.newActivityCompletionClient();
+    }
+    
     @Bean
     public String taskQueue() {
         return taskQueue;
     }
     
-    @Bean
-    @Lazy
+    /**
+     * Starts the Temporal workers with the application context. Nodes that only
+     * serve the API set {@code temporal.worker.enabled=false}; nodes started with
+     * the {@code worker} profile run workers without a web tier.
+     */
+    @Bean(initMethod = "start", destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "temporal.worker.enabled", havingValue = "true", matchIfMissing = true)
     public WorkerFactory workerFactory(
             WorkflowClient workflowClient,
-            DocumentActivitiesImpl documentActivities) {
+            DocumentActivitiesImpl documentActivities,
+            ActivityObservationInterceptor activityObservationInterceptor,
+            DocumentPriorityPolicy priorityPolicy,
+            Environment environment) {
+        
+        // Virtual-thread mode needs Java 21 and spring.threads.virtual.enabled=true.
+        // Activities then no longer pin a platform thread while blocked on JDBC
+        // or the AI call, so the slot limit is the only concurrency ceiling.
+        boolean virtualThreads = Threading.VIRTUAL.isActive(environment);
         
-        WorkerFactory factory = WorkerFactory.newInstance(workflowClient);
+        // With fewer threads than cache entries the SDK evicts waiting
+        // workflows to free threads, so the effective cache is the smaller
+        if (!virtualThreads && workflowCacheSize > maxWorkflowThreads) {
+            logger.warn("temporal.worker.workflow-cache-size ({}) exceeds temporal.worker.max-workflow-threads ({}); "
+                + "at most {} workflows stay cached", workflowCacheSize, maxWorkflowThreads, maxWorkflowThreads);
+        }
         
-        Worker worker = factory.newWorker(taskQueue);
+        WorkerFactory factory = WorkerFactory.newInstance(
+            workflowClient,
+            WorkerFactoryOptions.newBuilder()
+                .setWorkflowCacheSize(workflowCacheSize)
+                .setMaxWorkflowThreadCount(maxWorkflowThreads)
+                .setUsingVirtualWorkflowThreads(virtualThreads)
+                .setWorkerInterceptors(activityObservationInterceptor)
+                .build()
+        );
         
-        // Register workflow implementation
-        worker.registerWorkflowImplementationTypes(DocumentApprovalWorkflowImpl.class);
+        Worker worker = factory.newWorker(taskQueue, workerOptions(
+            virtualThreads,
+            activityPollers,
+            maxConcurrentActivities,
+            activitiesPerSecond,
+            taskQueueActivitiesPerSecond
+        ).setMaxConcurrentWorkflowTaskPollers(workflowPollers)
+            .setMaxConcurrentWorkflowTaskExecutionSize(maxConcurrentWorkflowTasks)
+            .setStickyQueueScheduleToStartTimeout(stickyScheduleToStartTimeout)
+            .build());
+        
+        // Register workflow implementation; it schedules AI analysis on the AI queue
+        worker.registerWorkflowImplementationFactory(
+            DocumentApprovalWorkflow.class,
+            () -> new DocumentApprovalWorkflowImpl(aiTaskQueue, aiActivityTimeout)
+        );
         
         // Register activities
         worker.registerActivitiesImplementations(documentActivities);
         
-        // Start worker
-        factory.start();
+        StringBuilder queues = new StringBuilder(taskQueue);
+        if (aiWorkerEnabled) {
+            for (DocumentPriority priority : DocumentPriority.values()) {
+                double share = (double) priorityPolicy.weight(priority) / priorityPolicy.totalWeight();
+                String laneQueue = DocumentApprovalWorkflow.aiTaskQueue(aiTaskQueue, priority.name().toLowerCase());
+                Worker aiWorker = factory.newWorker(laneQueue, workerOptions(
+                    virtualThreads,
+                    aiActivityPollers,
+                    Math.max(1, (int) Math.round(aiMaxConcurrentActivities * share)),
+                    aiActivitiesPerSecond * share,
+                    aiTaskQueueActivitiesPerSecond * share
+                ).build());
+                aiWorker.registerActivitiesImplementations(documentActivities);
+                queues.append(", ").append(laneQueue);
+            }
+        }
         
-        System.out.println("Temporal worker started for task queue: " + taskQueue);
+        logger.info("Temporal workers configured for task queues: {}{}", queues,
+            virtualThreads ? " (virtual threads)" : "");
         
         return factory;
     }
+    
+    private WorkerOptions.Builder workerOptions(boolean virtualThreads,
+                                                int pollers,
+                                                int maxActivities,
+                                                double perWorkerRate,
+                                                double perQueueRate) {
+        WorkerOptions.Builder options = WorkerOptions.newBuilder()
+            .setMaxConcurrentActivityTaskPollers(pollers)
+            .setMaxConcurrentActivityExecutionSize(
+                virtualThreads ? virtualMaxConcurrentActivities : maxActivities)
+            .setUsingVirtualThreads(virtualThreads);
+        // Zero means unlimited, matching the SDK defaults
+        if (perWorkerRate > 0) {
+            options.setMaxWorkerActivitiesPerSecond(perWorkerRate);
+        }
+        if (perQueueRate > 0) {
+            options.setMaxTaskQueueActivitiesPerSecond(perQueueRate);
+        }
+        return options;
+    }
 }
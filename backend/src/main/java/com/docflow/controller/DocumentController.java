@@ -1,65 +1,200 @@
 package com.docflow.controller;
 
 import com.docflow.dto.ApprovalDecisionRequest;
+import com.docflow.dto.BatchUploadResponse;
+import com.docflow.dto.BulkDecisionRequest;
+import com.docflow.dto.BulkDecisionResponse;
+import com.docflow.dto.DocumentPageResponse;
 import com.docflow.dto.DocumentResponse;
+import com.docflow.dto.DocumentSearchQuery;
+import com.docflow.dto.DocumentSearchResponse;
+import com.docflow.dto.DocumentStatsResponse;
+import com.docflow.model.Document.DocumentPriority;
+import com.docflow.service.DocumentEventStream;
+import com.docflow.service.DocumentPriorityPolicy;
 import com.docflow.service.DocumentService;
+import com.docflow.service.DocumentStatsService;
+import com.docflow.service.UploadAdmission;
 import com.docflow.workflow.DocumentApprovalWorkflow;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/documents")
-@CrossOrigin(origins = "http://localhost:51732")
+@CrossOrigin(origins = "http://localhost:51732", exposedHeaders = HttpHeaders.RETRY_AFTER)
 public class DocumentController {
     
     private static final Logger logger = LoggerFactory.getLogger(DocumentController.class);
     
     private final DocumentService documentService;
+    private final DocumentEventStream documentEventStream;
+    private final DocumentStatsService documentStatsService;
+    private final UploadAdmission uploadAdmission;
     
-    public DocumentController(DocumentService documentService) {
+    public DocumentController(DocumentService documentService, 
+                              DocumentEventStream documentEventStream,
+                              DocumentStatsService documentStatsService,
+                              UploadAdmission uploadAdmission) {
         this.documentService = documentService;
+        this.documentEventStream = documentEventStream;
+        this.documentStatsService = documentStatsService;
+        this.uploadAdmission = uploadAdmission;
     }
     
     @PostMapping("/upload")
     public ResponseEntity<DocumentResponse> uploadDocument(
-            @RequestParam("file") MultipartFile file) {
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String priority,
+            @RequestParam(required = false) String uploadedBy,
+            HttpServletRequest request) {
+        DocumentPriority requestedPriority;
         try {
+            requestedPriority = DocumentPriorityPolicy.parse(priority);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid priority: {}", priority);
+            return ResponseEntity.badRequest().build();
+        }
+        try (UploadAdmission.Ticket ticket = uploadAdmission.admit(clientOf(request))) {
+            if (!ticket.isAdmitted()) {
+                return tooManyRequests(ticket);
+            }
             logger.info("Received upload request for file: {}", file.getOriginalFilename());
-            DocumentResponse response = documentService.uploadDocument(file);
+            DocumentResponse response = documentService.uploadDocument(file, requestedPriority, uploadedBy);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("Error uploading document", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    @PostMapping("/upload/stream")
+    public ResponseEntity<DocumentResponse> uploadDocumentStream(
+            @RequestParam("filename") String filename,
+            @RequestParam(required = false) String priority,
+            @RequestParam(required = false) String uploadedBy,
+            HttpServletRequest request) {
+        DocumentPriority requestedPriority;
+        try {
+            requestedPriority = DocumentPriorityPolicy.parse(priority);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid priority: {}", priority);
+            return ResponseEntity.badRequest().build();
+        }
+        try (UploadAdmission.Ticket ticket = uploadAdmission.admit(clientOf(request))) {
+            if (!ticket.isAdmitted()) {
+                return tooManyRequests(ticket);
+            }
+            logger.info("Received streaming upload request for file: {}", filename);
+            long contentLength = request.getContentLengthLong();
+            if (contentLength > documentService.getMaxUploadBytes()) {
+                return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+            }
+            DocumentResponse response = documentService.uploadDocumentStream(
+                ticket.body(request.getInputStream()), filename, request.getContentType(), requestedPriority, uploadedBy);
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            logger.error("Rejected streaming upload: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
         } catch (Exception e) {
             logger.error("Error uploading document", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
+    @PostMapping("/upload/batch")
+    public ResponseEntity<BatchUploadResponse> uploadDocuments(
+            @RequestParam(value = "files", required = false) List<MultipartFile> files,
+            @RequestParam(value = "archive", required = false) MultipartFile archive,
+            @RequestParam(required = false) String priority,
+            @RequestParam(required = false) String uploadedBy,
+            HttpServletRequest request) {
+        try (UploadAdmission.Ticket ticket = archive != null && !archive.isEmpty()
+                ? uploadAdmission.admitArchive(clientOf(request), archive.getSize())
+                : uploadAdmission.admitBatch(clientOf(request), files != null ? files.size() : 0)) {
+            if (!ticket.isAdmitted()) {
+                return tooManyRequests(ticket);
+            }
+            DocumentPriority requestedPriority = DocumentPriorityPolicy.parse(priority);
+            BatchUploadResponse response;
+            if (archive != null && !archive.isEmpty()) {
+                logger.info("Received batch upload request for archive: {}", archive.getOriginalFilename());
+                try (InputStream in = archive.getInputStream()) {
+                    response = documentService.uploadArchive(in, requestedPriority, uploadedBy);
+                }
+            } else if (files != null && !files.isEmpty()) {
+                logger.info("Received batch upload request for {} files", files.size());
+                response = documentService.uploadDocuments(files, requestedPriority, uploadedBy);
+            } else {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            logger.error("Rejected batch upload: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            logger.error("Error uploading batch", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     @GetMapping
-    public ResponseEntity<List<DocumentResponse>> getAllDocuments() {
-        logger.info("Fetching all documents");
-        List<DocumentResponse> documents = documentService.getAllDocuments();
-        return ResponseEntity.ok(documents);
+    public ResponseEntity<DocumentPageResponse> getAllDocuments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        logger.info("Fetching documents page (limit: {})", limit);
+        try {
+            DocumentPageResponse page = documentService.getAllDocuments(cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid cursor: {}", cursor);
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<DocumentResponse>> getDocumentsByStatus(
-            @PathVariable String status) {
-        logger.info("Fetching documents with status: {}", status);
+    public ResponseEntity<DocumentPageResponse> getDocumentsByStatus(
+            @PathVariable String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        logger.info("Fetching documents with status: {} (limit: {})", status, limit);
+        try {
+            DocumentPageResponse page = documentService.getDocumentsByStatus(status, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid status or cursor: {} / {}", status, cursor);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/search")
+    public ResponseEntity<DocumentSearchResponse> searchDocuments(@ModelAttribute DocumentSearchQuery query) {
+        logger.info("Searching documents: {}", query);
         try {
-            List<DocumentResponse> documents = documentService.getDocumentsByStatus(status);
-            return ResponseEntity.ok(documents);
+            return ResponseEntity.ok(documentService.searchDocuments(query));
         } catch (IllegalArgumentException e) {
-            logger.error("Invalid status: {}", status);
+            logger.error("Invalid search query: {}", e.getMessage());
             return ResponseEntity.badRequest().build();
         }
     }
     
+    @GetMapping("/stats")
+    public ResponseEntity<DocumentStatsResponse> getStats() {
+        logger.info("Fetching document statistics");
+        return ResponseEntity.ok(documentStatsService.getStats());
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<DocumentResponse> getDocumentById(@PathVariable String id) {
         logger.info("Fetching document with id: {}", id);
@@ -102,6 +237,22 @@ public class DocumentController {
         }
     }
     
+    @PostMapping("/decisions/bulk")
+    public ResponseEntity<BulkDecisionResponse> decideDocuments(
+            @RequestBody BulkDecisionRequest request) {
+        logger.info("Bulk {} request from {}", request.getDecision(), request.getReviewedBy());
+        try {
+            BulkDecisionResponse response = documentService.decideDocuments(request);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid bulk decision request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (RuntimeException e) {
+            logger.error("Error applying bulk decision", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     @GetMapping("/{id}/workflow-status")
     public ResponseEntity<DocumentApprovalWorkflow.WorkflowStatus> getWorkflowStatus(
             @PathVariable String id) {
@@ -115,6 +266,21 @@ public class DocumentController {
         }
     }
     
+    /**
+     * Streams document changes (AI suggestion stored, decision finalized) as
+     * Server-Sent Events, for one document or for all of them.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents(@RequestParam(required = false) String documentId) {
+        logger.info("Opening event stream for {}", documentId != null ? documentId : "all documents");
+        try {
+            return ResponseEntity.ok(documentEventStream.subscribe(documentId));
+        } catch (IllegalStateException e) {
+            logger.warn("Rejecting event stream: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+    
     @GetMapping("/health")
     public ResponseEntity<Map<String, String>> health() {
         return ResponseEntity.ok(Map.of(
@@ -122,4 +288,17 @@ public class DocumentController {
             "service", "DocFlow API"
         ));
     }
+    
+    // Uploads are rate limited per client address; uploadedBy is whatever
+    // the client claims, so keying on it would let a client pick its bucket
+    private static String clientOf(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
+    
+    private static <T> ResponseEntity<T> tooManyRequests(UploadAdmission.Ticket ticket) {
+        logger.debug("Refused upload ({}), retry after {}s", ticket.getRejection(), ticket.getRetryAfterSeconds());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ticket.getRetryAfterSeconds()))
+            .build();
+    }
 }
@@ -0,0 +1,25 @@
+package com.docflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchUploadItemResult {
+    
+    private String filename;
+    private String documentId;
+    private String workflowId;
+    private String status; // "queued" (workflow start pending in the outbox) or "failed"
+    private String error;
+    
+    public static BatchUploadItemResult queued(String filename, String documentId, String workflowId) {
+        return new BatchUploadItemResult(filename, documentId, workflowId, "queued", null);
+    }
+    
+    public static BatchUploadItemResult failed(String filename, String documentId, String error) {
+        return new BatchUploadItemResult(filename, documentId, null, "failed", error);
+    }
+}
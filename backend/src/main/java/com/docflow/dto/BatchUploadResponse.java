@@ -0,0 +1,18 @@
+package com.docflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchUploadResponse {
+    
+    private int succeeded;
+    private int failed;
+    private long elapsedMillis;
+    private List<BatchUploadItemResult> results;
+}
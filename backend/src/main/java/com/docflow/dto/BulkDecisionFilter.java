@@ -0,0 +1,15 @@
+package com.docflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDecisionFilter {
+    
+    private String status = "pending";
+    private String aiSuggestion; // "approve" or "reject", optional
+    private Double minConfidence; // optional, inclusive
+}
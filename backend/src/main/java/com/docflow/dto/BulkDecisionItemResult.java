@@ -0,0 +1,15 @@
+package com.docflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDecisionItemResult {
+    
+    private String documentId;
+    private String status; // "signaled", "not_found", "no_workflow" or "failed"
+    private String error;
+}
@@ -0,0 +1,23 @@
+package com.docflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Applies one decision to many documents, selected either by explicit
+ * {@code ids} or by a {@code filter}. When both are given, {@code ids} wins.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDecisionRequest {
+    
+    private String decision; // "approved" or "rejected"
+    private List<String> ids;
+    private BulkDecisionFilter filter;
+    private String reviewerNotes;
+    private String reviewedBy;
+}
@@ -0,0 +1,44 @@
+package com.docflow.dto;
+
+import com.docflow.model.Document.DocumentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A change to a document, pushed to SSE subscribers and used to invalidate
+ * caches. Carries enough state for clients to update without refetching.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentEvent {
+    
+    public static final String AI_SUGGESTED = "ai-suggested";
+    public static final String FINALIZED = "finalized";
+    // Internal only: the document changed through a path that doesn't emit its own event
+    public static final String INVALIDATED = "invalidated";
+    
+    private String type;
+    private String documentId;
+    private String status;
+    private String aiSuggestion;
+    private Double aiConfidence;
+    private LocalDateTime occurredAt;
+    
+    public static DocumentEvent aiSuggested(String documentId, String aiSuggestion, Double aiConfidence) {
+        return new DocumentEvent(AI_SUGGESTED, documentId, "pending", aiSuggestion, aiConfidence, 
+                                 LocalDateTime.now());
+    }
+    
+    public static DocumentEvent finalized(String documentId, DocumentStatus status) {
+        return new DocumentEvent(FINALIZED, documentId, status.name().toLowerCase(), null, null, 
+                                 LocalDateTime.now());
+    }
+    
+    public static DocumentEvent invalidated(String documentId) {
+        return new DocumentEvent(INVALIDATED, documentId, null, null, null, LocalDateTime.now());
+    }
+}
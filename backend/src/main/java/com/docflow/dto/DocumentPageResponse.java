@@ -0,0 +1,16 @@
+package com.docflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentPageResponse {
+    
+    private List<DocumentResponse> items;
+    private String nextCursor; // null when there are no more rows
+}
@@ -1,6 +1,7 @@
 package com.docflow.dto;
 
 import com.docflow.model.Document;
+import com.docflow.repository.DocumentView;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -24,6 +25,8 @@ public class DocumentResponse {
     private String reviewedBy;
     private LocalDateTime reviewedAt;
     private String workflowId;
+    private String priority;
+    private String uploadedBy;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
@@ -41,8 +44,31 @@ public class DocumentResponse {
         response.setReviewedBy(document.getReviewedBy());
         response.setReviewedAt(document.getReviewedAt());
         response.setWorkflowId(document.getWorkflowId());
+        response.setPriority(document.getPriority().name().toLowerCase());
+        response.setUploadedBy(document.getUploadedBy());
         response.setCreatedAt(document.getCreatedAt());
         response.setUpdatedAt(document.getUpdatedAt());
         return response;
     }
+    
+    public static DocumentResponse fromView(DocumentView view) {
+        DocumentResponse response = new DocumentResponse();
+        response.setId(view.getId());
+        response.setFilename(view.getFilename());
+        response.setContentType(view.getContentType());
+        response.setFileSize(view.getFileSize());
+        response.setStatus(view.getStatus().name().toLowerCase());
+        response.setAiSuggestion(view.getAiSuggestion());
+        response.setAiConfidence(view.getAiConfidence());
+        response.setAiReasoning(view.getAiReasoning());
+        response.setReviewerNotes(view.getReviewerNotes());
+        response.setReviewedBy(view.getReviewedBy());
+        response.setReviewedAt(view.getReviewedAt());
+        response.setWorkflowId(view.getWorkflowId());
+        response.setPriority(view.getPriority().name().toLowerCase());
+        response.setUploadedBy(view.getUploadedBy());
+        response.setCreatedAt(view.getCreatedAt());
+        response.setUpdatedAt(view.getUpdatedAt());
+        return response;
+    }
 }
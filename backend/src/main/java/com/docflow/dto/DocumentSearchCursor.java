@@ -0,0 +1,48 @@
+package com.docflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for search results: the {@code (rank, createdAt, id)}
+ * of the last hit returned, encoded as URL-safe base64. {@code rank} is null
+ * for metadata-only searches, which are ordered by recency alone.
+ */
+@Data
+@AllArgsConstructor
+public class DocumentSearchCursor {
+    
+    private static final String SEPARATOR = "|";
+    
+    private Double rank;
+    private LocalDateTime createdAt;
+    private String id;
+    
+    public String encode() {
+        String raw = (rank != null ? rank.toString() : "") + SEPARATOR + createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static DocumentSearchCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            if (parts.length < 3) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return new DocumentSearchCursor(
+                parts[0].isEmpty() ? null : Double.valueOf(parts[0]),
+                LocalDateTime.parse(parts[1]),
+                parts[2]
+            );
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
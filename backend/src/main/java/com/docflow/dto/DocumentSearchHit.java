@@ -0,0 +1,23 @@
+package com.docflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentSearchHit {
+    
+    private String id;
+    private String filename;
+    private String status;
+    private String aiSuggestion;
+    private Double aiConfidence;
+    private String reviewedBy;
+    private LocalDateTime reviewedAt;
+    private LocalDateTime createdAt;
+    private Double rank; // only for full-text queries
+}
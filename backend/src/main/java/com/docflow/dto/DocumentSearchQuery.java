@@ -0,0 +1,30 @@
+package com.docflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentSearchQuery {
+    
+    private String q; // full-text query, web search syntax; optional
+    private String status;
+    private String aiSuggestion;
+    private String reviewedBy;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from; // createdAt, inclusive
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to; // createdAt, exclusive
+    
+    private Double minConfidence;
+    private Double maxConfidence;
+    private String cursor; // nextCursor of the previous page; null for the first
+    private int limit = 50;
+}
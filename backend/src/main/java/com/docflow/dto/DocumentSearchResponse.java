@@ -0,0 +1,22 @@
+package com.docflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentSearchResponse {
+    
+    private List<DocumentSearchHit> items;
+    // Total and facet counts come with the first page only; null on later pages
+    private Long total;
+    private Boolean totalCapped; // counting stopped at docflow.search.max-facet-rows; more may match
+    private Map<String, Long> statusCounts;
+    private Map<String, Long> aiSuggestionCounts; // "none" for documents not yet analyzed
+    private String nextCursor; // null on the last page
+}
@@ -0,0 +1,25 @@
+package com.docflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentStatsResponse {
+    
+    private long total;
+    private Map<String, Long> statusCounts;
+    private Map<String, Long> aiSuggestionCounts;
+    private Double averageConfidence; // null until a document has been analyzed
+    private long humanDecisions; // of documents with an AI suggestion
+    private long aiAgreements; // human decisions matching the AI suggestion
+    private Double aiAgreementRate;
+    private long timeoutDecisions;
+    private long policyDecisions; // taken by the auto-decision policy
+    private Double averageSecondsToDecision;
+    private Map<String, Long> timeToDecision; // count per upper bound, in order; "inf" is open
+}
@@ -0,0 +1,39 @@
+package com.docflow.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A finalized {@link Document} moved out of the hot {@code documents} table
+ * after the retention window. The row is kept as the JSON of its API
+ * representation, so lookups can serve it without the original schema.
+ */
+@Entity
+@Table(name = "document_archive")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedDocument {
+    
+    @Id
+    private String id;
+    
+    @Column(length = 64)
+    private String contentHash;
+    
+    @Column(nullable = false)
+    private String filePath;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+    
+    @Column(nullable = false, columnDefinition = "text")
+    private String data; // DocumentResponse JSON
+}
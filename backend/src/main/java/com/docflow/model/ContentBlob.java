@@ -0,0 +1,48 @@
+package com.docflow.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A file stored once by content hash and shared by every {@link Document}
+ * uploaded with the same bytes. Also caches the AI analysis for that content
+ * so duplicate uploads don't repeat it.
+ */
+@Entity
+@Table(name = "content_blobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContentBlob {
+    
+    @Id
+    @Column(length = 64)
+    private String contentHash; // SHA-256, hex
+    
+    @Column(nullable = false)
+    private String filePath;
+    
+    @Column(nullable = false)
+    private Long size;
+    
+    @Column(nullable = false)
+    private Long refCount; // number of documents pointing at this blob
+    
+    @Column
+    private String aiSuggestion;
+    
+    @Column
+    private Double aiConfidence;
+    
+    @Column(length = 1000)
+    private String aiReasoning;
+    
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -4,13 +4,17 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "documents")
+@Table(name = "documents", indexes = {
+    @Index(name = "idx_documents_created_at_id", columnList = "createdAt DESC, id DESC"),
+    @Index(name = "idx_documents_status_created_at_id", columnList = "status, createdAt DESC, id DESC")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -32,6 +36,9 @@ public class Document {
     @Column(nullable = false)
     private String filePath;
     
+    @Column(length = 64)
+    private String contentHash; // SHA-256 of the stored bytes, hex
+    
     @Column(nullable = false)
     @Enumerated(EnumType.STRING)
     private DocumentStatus status = DocumentStatus.PENDING;
@@ -57,6 +64,14 @@ public class Document {
     @Column
     private String workflowId; // Temporal workflow ID
     
+    @Column(nullable = false, length = 16)
+    @Enumerated(EnumType.STRING)
+    @ColumnDefault("'NORMAL'")
+    private DocumentPriority priority = DocumentPriority.NORMAL;
+    
+    @Column
+    private String uploadedBy; // optional; analysis is shared fairly between uploaders
+    
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -65,9 +80,25 @@ public class Document {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
     
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version = 0L;
+    
     public enum DocumentStatus {
         PENDING,
         APPROVED,
         REJECTED
     }
+    
+    /**
+     * Scheduling lane for analysis, most urgent first. The outbox stores the
+     * ordinal, so new values go where they belong in this order only together
+     * with a migration.
+     */
+    public enum DocumentPriority {
+        URGENT,
+        NORMAL,
+        BULK
+    }
 }
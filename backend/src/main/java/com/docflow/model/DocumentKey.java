@@ -0,0 +1,28 @@
+package com.docflow.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * The partition key of a live document, by id. Written with the document
+ * and removed when it is archived; the primary key is what keeps document
+ * ids unique across partitions. Queries by id read {@code createdAt} here so
+ * Postgres prunes {@code documents} to one partition.
+ */
+@Entity
+@Table(name = "document_keys")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentKey {
+    
+    @Id
+    private String id;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,85 @@
+package com.docflow.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.GeneratedColumn;
+
+import java.time.LocalDateTime;
+
+/**
+ * Search index row for a {@link Document}: the searchable fields, extracted
+ * file text where available, and a weighted tsvector Postgres maintains from
+ * them. Written only through {@code DocumentSearchRepository}. The GIN index
+ * on the vector is created by the Flyway migration.
+ */
+@Entity
+@Table(name = "document_search", indexes = {
+    @Index(name = "idx_document_search_created_at", columnList = "createdAt DESC, documentId DESC"),
+    @Index(name = "idx_document_search_status_created_at", columnList = "status, createdAt DESC"),
+    @Index(name = "idx_document_search_ai_suggestion_confidence", columnList = "aiSuggestion, aiConfidence"),
+    @Index(name = "idx_document_search_reviewed_by", columnList = "reviewedBy")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentSearchEntry {
+    
+    // Filename and reviewer match exactly (filename split on punctuation so
+    // "invoice-2024.pdf" finds "invoice"); prose is stemmed. Keep in sync
+    // with the Flyway migration.
+    public static final String SEARCH_VECTOR =
+        "setweight(to_tsvector('simple', regexp_replace(coalesce(filename, ''), '[^[:alnum:]]+', ' ', 'g')), 'A') || " +
+        "setweight(to_tsvector('english', coalesce(ai_reasoning, '')), 'B') || " +
+        "setweight(to_tsvector('simple', coalesce(reviewed_by, '')), 'B') || " +
+        "setweight(to_tsvector('english', coalesce(reviewer_notes, '')), 'C') || " +
+        "setweight(to_tsvector('english', coalesce(content, '')), 'D')";
+    
+    @Id
+    private String documentId;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt; // of the indexed document version
+    
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version; // of the indexed document; orders concurrent index writes
+    
+    @Column(nullable = false)
+    private String filename;
+    
+    @Column(nullable = false)
+    private String status;
+    
+    @Column
+    private String aiSuggestion;
+    
+    @Column
+    private Double aiConfidence;
+    
+    @Column(length = 1000)
+    private String aiReasoning;
+    
+    @Column(length = 1000)
+    private String reviewerNotes;
+    
+    @Column
+    private String reviewedBy;
+    
+    @Column
+    private LocalDateTime reviewedAt;
+    
+    @Column(columnDefinition = "text")
+    private String content; // extracted file text, truncated
+    
+    // Declared as a generated column rather than spelled out in the column
+    // definition, so schema validation compares just the type
+    @Column(insertable = false, updatable = false, columnDefinition = "tsvector")
+    @GeneratedColumn(SEARCH_VECTOR)
+    private String searchVector;
+}
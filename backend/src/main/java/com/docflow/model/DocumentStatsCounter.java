@@ -0,0 +1,42 @@
+package com.docflow.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * One shard of a dashboard counter. Each counter is split over several rows
+ * so concurrent transitions rarely update the same row; its value is the sum
+ * of its shards. Written only through {@code DocumentStatsRepository}.
+ */
+@Entity
+@Table(name = "document_stats")
+@IdClass(DocumentStatsCounter.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentStatsCounter {
+    
+    @Id
+    @Column(length = 64)
+    private String metric;
+    
+    @Id
+    private Integer shard;
+    
+    @Column(nullable = false)
+    private Long amount;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+        
+        private String metric;
+        private Integer shard;
+    }
+}
@@ -0,0 +1,57 @@
+package com.docflow.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * A workflow start that is owed for a newly uploaded {@link Document}. Written
+ * in the same transaction as the document and deleted once the workflow has
+ * been started, so a crash at any point leaves either both or neither.
+ */
+@Entity
+@Table(name = "workflow_outbox", indexes = {
+    @Index(name = "idx_workflow_outbox_next_attempt_at", columnList = "nextAttemptAt"),
+    @Index(name = "idx_workflow_outbox_priority_next_attempt_at", columnList = "priority, nextAttemptAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkflowOutboxEntry {
+    
+    @Id
+    @Column(length = 36)
+    private String documentId;
+    
+    @Column(nullable = false)
+    private String workflowId;
+    
+    @Column(nullable = false)
+    private Integer attempts;
+    
+    // Due time; also pushed forward while a dispatcher holds the entry
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+    
+    @Column(length = 1000)
+    private String lastError;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    // W3C traceparent of the upload, so the workflow continues its trace
+    @Column(length = 55)
+    private String traceParent;
+    
+    // Ordinal of Document.DocumentPriority; lower values are started first
+    @Column(nullable = false)
+    @ColumnDefault("1")
+    @JdbcTypeCode(SqlTypes.SMALLINT)
+    private Integer priority;
+}
@@ -0,0 +1,35 @@
+package com.docflow.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A Temporal payload too large to keep in workflow history. History holds
+ * only the id (see {@code PayloadReferenceCodec}); the row must outlive every
+ * history that refers to it. Equal payloads share a row.
+ */
+@Entity
+@Table(name = "workflow_payloads", indexes = {
+    @Index(name = "idx_workflow_payloads_created_at", columnList = "createdAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkflowPayload {
+    
+    // SHA-256 of data, hex; older rows have a random UUID
+    @Id
+    @Column(length = 64)
+    private String id;
+    
+    // Serialized io.temporal.api.common.v1.Payload, metadata included
+    @Column(nullable = false)
+    private byte[] data;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,22 @@
+package com.docflow.repository;
+
+import com.docflow.model.ContentBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface ContentBlobRepository extends JpaRepository<ContentBlob, String> {
+    
+    @Transactional
+    @Modifying
+    @Query("update ContentBlob b set b.aiSuggestion = :suggestion, b.aiConfidence = :confidence, " +
+           "b.aiReasoning = :reasoning where b.contentHash = :hash")
+    int recordAnalysis(@Param("hash") String contentHash,
+                       @Param("suggestion") String suggestion,
+                       @Param("confidence") Double confidence,
+                       @Param("reasoning") String reasoning);
+}
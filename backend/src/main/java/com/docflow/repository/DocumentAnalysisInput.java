@@ -0,0 +1,22 @@
+package com.docflow.repository;
+
+import com.docflow.model.Document.DocumentPriority;
+
+/**
+ * The few columns the AI analysis activity needs, read without loading the
+ * full entity.
+ */
+public interface DocumentAnalysisInput {
+    
+    String getFilename();
+    
+    String getFilePath();
+    
+    String getContentType();
+    
+    String getContentHash();
+    
+    DocumentPriority getPriority();
+    
+    String getUploadedBy();
+}
@@ -0,0 +1,165 @@
+package com.docflow.repository;
+
+import com.docflow.model.Document;
+import com.docflow.model.Document.DocumentPriority;
+import com.docflow.model.Document.DocumentStatus;
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * JDBC access for moving finalized documents from {@code documents} into
+ * {@code document_archive}. The individual steps must run in one transaction,
+ * which the caller provides.
+ */
+@Repository
+@Observed(name = "docflow.repository")
+public class DocumentArchiveRepository {
+    
+    private static final String SELECT_ARCHIVABLE =
+        "select id, filename, content_type, file_size, file_path, content_hash, status, ai_suggestion, " +
+        "ai_confidence, ai_reasoning, reviewer_notes, reviewed_by, reviewed_at, workflow_id, " +
+        "priority, uploaded_by, created_at, updated_at, version from documents " +
+        "where status in ('APPROVED', 'REJECTED') and created_at < ? " +
+        "order by created_at limit ? for update skip locked";
+    
+    private static final String INSERT_ARCHIVED =
+        "insert into document_archive (id, content_hash, file_path, created_at, archived_at, data) " +
+        "values (?, ?, ?, ?, ?, ?)";
+    
+    private static final String DELETE_DOCUMENT =
+        "delete from documents where id = ? and created_at = ?";
+    
+    private static final String DELETE_KEY =
+        "delete from document_keys where id = ?";
+    
+    // Search covers live documents only
+    private static final String DELETE_SEARCH_ENTRY =
+        "delete from document_search where document_id = ?";
+    
+    private static final String RELEASE_BLOB =
+        "update content_blobs set ref_count = ref_count - ? where content_hash = ?";
+    
+    private static final String SELECT_UNREFERENCED_BLOB =
+        "select file_path from content_blobs where content_hash = ? and ref_count <= 0";
+    
+    private static final String DELETE_BLOB =
+        "delete from content_blobs where content_hash = ? and ref_count <= 0";
+    
+    private static final RowMapper<Document> DOCUMENT_MAPPER = (rs, rowNum) -> {
+        Document document = new Document();
+        document.setId(rs.getString("id"));
+        document.setFilename(rs.getString("filename"));
+        document.setContentType(rs.getString("content_type"));
+        document.setFileSize(rs.getLong("file_size"));
+        document.setFilePath(rs.getString("file_path"));
+        document.setContentHash(rs.getString("content_hash"));
+        document.setStatus(DocumentStatus.valueOf(rs.getString("status")));
+        document.setAiSuggestion(rs.getString("ai_suggestion"));
+        document.setAiConfidence(rs.getObject("ai_confidence", Double.class));
+        document.setAiReasoning(rs.getString("ai_reasoning"));
+        document.setReviewerNotes(rs.getString("reviewer_notes"));
+        document.setReviewedBy(rs.getString("reviewed_by"));
+        Timestamp reviewedAt = rs.getTimestamp("reviewed_at");
+        document.setReviewedAt(reviewedAt != null ? reviewedAt.toLocalDateTime() : null);
+        document.setWorkflowId(rs.getString("workflow_id"));
+        document.setPriority(DocumentPriority.valueOf(rs.getString("priority")));
+        document.setUploadedBy(rs.getString("uploaded_by"));
+        document.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        document.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
+        document.setVersion(rs.getLong("version"));
+        return document;
+    };
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public DocumentArchiveRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    /** Locks up to {@code limit} finalized documents created before {@code cutoff}. */
+    public List<Document> lockArchivable(LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.query(SELECT_ARCHIVABLE, DOCUMENT_MAPPER, Timestamp.valueOf(cutoff), limit);
+    }
+    
+    /** Inserts archive rows, with {@code data} holding each document's JSON in the same order. */
+    public void insertArchived(List<Document> documents, List<String> data, LocalDateTime archivedAt) {
+        Timestamp archived = Timestamp.valueOf(archivedAt);
+        jdbcTemplate.batchUpdate(INSERT_ARCHIVED, indexes(documents.size()), documents.size(), (ps, i) -> {
+            Document document = documents.get(i);
+            ps.setString(1, document.getId());
+            ps.setString(2, document.getContentHash());
+            ps.setString(3, document.getFilePath());
+            ps.setTimestamp(4, Timestamp.valueOf(document.getCreatedAt()));
+            ps.setTimestamp(5, archived);
+            ps.setString(6, data.get(i));
+        });
+    }
+    
+    public void deleteDocuments(List<Document> documents) {
+        // created_at is the partition key, so including it prunes to one partition
+        jdbcTemplate.batchUpdate(DELETE_DOCUMENT, documents, documents.size(), (ps, document) -> {
+            ps.setString(1, document.getId());
+            ps.setTimestamp(2, Timestamp.valueOf(document.getCreatedAt()));
+        });
+        jdbcTemplate.batchUpdate(DELETE_KEY, documents, documents.size(),
+            (ps, document) -> ps.setString(1, document.getId()));
+        jdbcTemplate.batchUpdate(DELETE_SEARCH_ENTRY, documents, documents.size(),
+            (ps, document) -> ps.setString(1, document.getId()));
+    }
+    
+    /**
+     * Drops the archived documents' references to their blobs and deletes
+     * blobs no longer referenced by any live document.
+     *
+     * @return file paths of the deleted blobs, by content hash
+     */
+    public Map<String, String> releaseBlobs(List<Document> documents) {
+        // Sorted by hash so concurrent transactions lock blob rows in the same order
+        Map<String, Integer> counts = new TreeMap<>();
+        for (Document document : documents) {
+            if (document.getContentHash() != null) {
+                counts.merge(document.getContentHash(), 1, Integer::sum);
+            }
+        }
+        
+        Map<String, String> released = new TreeMap<>();
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            jdbcTemplate.update(RELEASE_BLOB, entry.getValue(), entry.getKey());
+            List<String> paths = jdbcTemplate.queryForList(SELECT_UNREFERENCED_BLOB, String.class, entry.getKey());
+            if (!paths.isEmpty()) {
+                jdbcTemplate.update(DELETE_BLOB, entry.getKey());
+                released.put(entry.getKey(), paths.get(0));
+            }
+        }
+        return released;
+    }
+    
+    public boolean isBlobReferenced(String contentHash) {
+        Integer count = jdbcTemplate.queryForObject(
+            "select count(*) from content_blobs where content_hash = ?", Integer.class, contentHash);
+        return count != null && count > 0;
+    }
+    
+    public Optional<String> findData(String id) {
+        return jdbcTemplate.queryForList("select data from document_archive where id = ?", String.class, id)
+            .stream().findFirst();
+    }
+    
+    private static List<Integer> indexes(int size) {
+        List<Integer> indexes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            indexes.add(i);
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,116 @@
+package com.docflow.repository;
+
+import com.docflow.model.Document;
+import com.docflow.workflow.TracingContextPropagator;
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * JDBC batch writer for new documents. Callers assign ids, workflow ids and
+ * timestamps up front so each document is a single insert, and the
+ * {@code content_blobs} reference counts are bumped once per distinct hash.
+ * Each document gets a {@code document_keys} row and a {@code workflow_outbox}
+ * entry in the same transaction, and the dashboard counters are bumped with it.
+ */
+@Repository
+@Observed(name = "docflow.repository")
+public class DocumentBatchRepository {
+    
+    private static final int BATCH_SIZE = 500;
+    
+    // Fails the batch on an id already in use in any partition
+    private static final String INSERT_KEY =
+        "insert into document_keys (id, created_at) values (?, ?)";
+    
+    private static final String INSERT_DOCUMENT =
+        "insert into documents (id, filename, content_type, file_size, file_path, content_hash, " +
+        "status, workflow_id, priority, uploaded_by, created_at, updated_at, version) " +
+        "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    
+    private static final String INSERT_OUTBOX =
+        "insert into workflow_outbox (document_id, workflow_id, attempts, next_attempt_at, created_at, " +
+        "trace_parent, priority) values (?, ?, 0, ?, ?, ?, ?)";
+    
+    private static final String ACQUIRE_BLOB =
+        "insert into content_blobs (content_hash, file_path, size, ref_count, created_at) " +
+        "values (?, ?, ?, ?, now()) " +
+        "on conflict (content_hash) do update set ref_count = content_blobs.ref_count + excluded.ref_count";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final DocumentStatsRepository statsRepository;
+    private final TracingContextPropagator tracing;
+    
+    public DocumentBatchRepository(JdbcTemplate jdbcTemplate, 
+                                   DocumentStatsRepository statsRepository,
+                                   TracingContextPropagator tracing) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.statsRepository = statsRepository;
+        this.tracing = tracing;
+    }
+    
+    @Transactional
+    public void insertAll(List<Document> documents) {
+        if (documents.isEmpty()) {
+            return;
+        }
+        
+        jdbcTemplate.batchUpdate(INSERT_KEY, documents, BATCH_SIZE, (ps, document) -> {
+            ps.setString(1, document.getId());
+            ps.setTimestamp(2, Timestamp.valueOf(document.getCreatedAt()));
+        });
+        
+        jdbcTemplate.batchUpdate(INSERT_DOCUMENT, documents, BATCH_SIZE, (ps, document) -> {
+            ps.setString(1, document.getId());
+            ps.setString(2, document.getFilename());
+            ps.setString(3, document.getContentType());
+            ps.setLong(4, document.getFileSize());
+            ps.setString(5, document.getFilePath());
+            ps.setString(6, document.getContentHash());
+            ps.setString(7, document.getStatus().name());
+            ps.setString(8, document.getWorkflowId());
+            ps.setString(9, document.getPriority().name());
+            ps.setString(10, document.getUploadedBy());
+            ps.setTimestamp(11, Timestamp.valueOf(document.getCreatedAt()));
+            ps.setTimestamp(12, Timestamp.valueOf(document.getUpdatedAt()));
+        });
+        
+        String traceParent = tracing.currentTraceParent();
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX, documents, BATCH_SIZE, (ps, document) -> {
+            ps.setString(1, document.getId());
+            ps.setString(2, document.getWorkflowId());
+            ps.setTimestamp(3, Timestamp.valueOf(document.getCreatedAt()));
+            ps.setTimestamp(4, Timestamp.valueOf(document.getCreatedAt()));
+            ps.setString(5, traceParent);
+            ps.setInt(6, document.getPriority().ordinal());
+        });
+        
+        statsRepository.recordUploads(documents.size());
+        
+        // Sorted by hash so concurrent batches lock blob rows in the same order
+        Map<String, List<Document>> byHash = new TreeMap<>();
+        for (Document document : documents) {
+            if (document.getContentHash() != null) {
+                byHash.computeIfAbsent(document.getContentHash(), hash -> new ArrayList<>()).add(document);
+            }
+        }
+        
+        if (byHash.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(ACQUIRE_BLOB, new ArrayList<>(byHash.values()), BATCH_SIZE, (ps, group) -> {
+            Document first = group.get(0);
+            ps.setString(1, first.getContentHash());
+            ps.setString(2, first.getFilePath());
+            ps.setLong(3, first.getFileSize());
+            ps.setLong(4, group.size());
+        });
+    }
+}
@@ -2,17 +2,127 @@ package com.docflow.repository;
 
 import com.docflow.model.Document;
 import com.docflow.model.Document.DocumentStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+// Read-only by default so queries can use the read pool; writes opt out
 @Repository
+@Transactional(readOnly = true)
 public interface DocumentRepository extends JpaRepository<Document, String> {
     
+    String VIEW_COLUMNS = "d.id as id, d.filename as filename, d.contentType as contentType, " +
+        "d.fileSize as fileSize, d.status as status, d.aiSuggestion as aiSuggestion, " +
+        "d.aiConfidence as aiConfidence, d.aiReasoning as aiReasoning, " +
+        "d.reviewerNotes as reviewerNotes, d.reviewedBy as reviewedBy, " +
+        "d.reviewedAt as reviewedAt, d.workflowId as workflowId, " +
+        "d.priority as priority, d.uploadedBy as uploadedBy, " +
+        "d.createdAt as createdAt, d.updatedAt as updatedAt";
+    
+    String KEYSET_AFTER = "(d.createdAt < :createdAt or (d.createdAt = :createdAt and d.id < :id))";
+    
+    String KEYSET_ORDER = " order by d.createdAt desc, d.id desc";
+    
+    // Lookups by id also match the partition key from document_keys, so only
+    // the document's own partition is read
+    String BY_ID = "d.id = :id and d.createdAt = (select k.createdAt from DocumentKey k where k.id = :id)";
+    
+    @Override
+    @Query("select d from Document d where " + BY_ID)
+    Optional<Document> findById(@Param("id") String id);
+    
     List<Document> findByStatus(DocumentStatus status);
     
-    List<Document> findByOrderByCreatedAtDesc();
+    // Keyset pagination on (createdAt, id): each page seeks past the last row
+    // of the previous one instead of using OFFSET, so cost stays per-page.
+    
+    @Query("select " + VIEW_COLUMNS + " from Document d" + KEYSET_ORDER)
+    List<DocumentView> findFirstPage(Limit limit);
+    
+    @Query("select " + VIEW_COLUMNS + " from Document d where " + KEYSET_AFTER + KEYSET_ORDER)
+    List<DocumentView> findPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") String id,
+                                     Limit limit);
+    
+    @Query("select " + VIEW_COLUMNS + " from Document d where d.status = :status" + KEYSET_ORDER)
+    List<DocumentView> findFirstPageByStatus(@Param("status") DocumentStatus status, Limit limit);
+    
+    @Query("select " + VIEW_COLUMNS + " from Document d where d.status = :status and " +
+           KEYSET_AFTER + KEYSET_ORDER)
+    List<DocumentView> findPageByStatusAfter(@Param("status") DocumentStatus status,
+                                             @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") String id,
+                                             Limit limit);
+    
+    @Query("select d.id as id, d.workflowId as workflowId from DocumentKey k " +
+           "join Document d on d.id = k.id and d.createdAt = k.createdAt where k.id in :ids")
+    List<DocumentWorkflowRef> findWorkflowRefsByIdIn(@Param("ids") Collection<String> ids);
+    
+    @Query("select d.id as id, d.workflowId as workflowId from Document d " +
+           "where d.status = :status " +
+           "and (:aiSuggestion is null or d.aiSuggestion = :aiSuggestion) " +
+           "and (:minConfidence is null or d.aiConfidence >= :minConfidence) " +
+           "order by d.createdAt, d.id")
+    List<DocumentWorkflowRef> findWorkflowRefsByFilter(@Param("status") DocumentStatus status,
+                                                      @Param("aiSuggestion") String aiSuggestion,
+                                                      @Param("minConfidence") Double minConfidence,
+                                                      Limit limit);
+    
+    @Query("select d.filename as filename, d.filePath as filePath, d.contentType as contentType, " +
+           "d.contentHash as contentHash, d.priority as priority, d.uploadedBy as uploadedBy " +
+           "from Document d where " + BY_ID)
+    Optional<DocumentAnalysisInput> findAnalysisInputById(@Param("id") String id);
+    
+    @Query("select d.status from Document d where " + BY_ID)
+    Optional<DocumentStatus> findStatusById(@Param("id") String id);
+    
+    // Locks the row so the caller's counter update sees the values it replaces
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select d.aiSuggestion as aiSuggestion, d.aiConfidence as aiConfidence, " +
+           "d.createdAt as createdAt from Document d where " + BY_ID)
+    Optional<DocumentStatsInput> lockStatsInputById(@Param("id") String id);
+    
+    // Targeted partial updates for the workflow activities: no read-before-write
+    // and only the touched columns are written. Each is guarded by the status
+    // it expects and returns the rows changed, so a late or repeated write is
+    // seen by the caller. The version is bumped so an entity loaded before
+    // the update fails its optimistic-lock check if it is saved.
+    
+    @Transactional
+    @Modifying
+    @Query("update Document d set d.aiSuggestion = :suggestion, d.aiConfidence = :confidence, " +
+           "d.aiReasoning = :reasoning, d.updatedAt = :now, d.version = d.version + 1 " +
+           "where " + BY_ID + " and d.status = :expectedStatus")
+    int updateAiSuggestion(@Param("id") String id,
+                           @Param("expectedStatus") DocumentStatus expectedStatus,
+                           @Param("suggestion") String suggestion,
+                           @Param("confidence") Double confidence,
+                           @Param("reasoning") String reasoning,
+                           @Param("now") LocalDateTime now);
     
-    List<Document> findByStatusOrderByCreatedAtDesc(DocumentStatus status);
+    @Transactional
+    @Modifying
+    @Query("update Document d set d.status = :status, d.reviewerNotes = :reviewerNotes, " +
+           "d.reviewedBy = :reviewedBy, d.reviewedAt = :now, d.updatedAt = :now, " +
+           "d.version = d.version + 1 " +
+           "where " + BY_ID + " and d.status = :expectedStatus")
+    int transitionStatus(@Param("id") String id,
+                         @Param("expectedStatus") DocumentStatus expectedStatus,
+                         @Param("status") DocumentStatus status,
+                         @Param("reviewerNotes") String reviewerNotes,
+                         @Param("reviewedBy") String reviewedBy,
+                         @Param("now") LocalDateTime now);
 }
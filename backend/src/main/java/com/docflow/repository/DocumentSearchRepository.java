@@ -0,0 +1,270 @@
+package com.docflow.repository;
+
+import com.docflow.dto.DocumentSearchCursor;
+import com.docflow.dto.DocumentSearchHit;
+import com.docflow.dto.DocumentSearchQuery;
+import com.docflow.model.Document.DocumentStatus;
+import io.micrometer.observation.annotation.Observed;
+import org.postgresql.PGStatement;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC access to the {@code document_search} index. Rows are copied from
+ * {@code documents} with insert-select upserts that only ever move a row
+ * forward to a newer document version, so indexers on several nodes can run
+ * in any order. Searches page by keyset, like the document listings.
+ */
+@Repository
+@Observed(name = "docflow.repository")
+public class DocumentSearchRepository {
+    
+    private static final String COLUMNS =
+        "document_id, created_at, updated_at, version, filename, status, ai_suggestion, ai_confidence, " +
+        "ai_reasoning, reviewer_notes, reviewed_by, reviewed_at, content";
+    
+    private static final String SOURCE_COLUMNS =
+        "d.id, d.created_at, d.updated_at, d.version, d.filename, d.status, d.ai_suggestion, d.ai_confidence, " +
+        "d.ai_reasoning, d.reviewer_notes, d.reviewed_by, d.reviewed_at";
+    
+    // Keeps previously extracted content when none is supplied. Every update
+    // of a document bumps its version, so the guard orders writes from any
+    // node; the same version may be written again to add content.
+    private static final String ON_CONFLICT =
+        " on conflict (document_id) do update set updated_at = excluded.updated_at, version = excluded.version, " +
+        "status = excluded.status, ai_suggestion = excluded.ai_suggestion, " +
+        "ai_confidence = excluded.ai_confidence, ai_reasoning = excluded.ai_reasoning, " +
+        "reviewer_notes = excluded.reviewer_notes, reviewed_by = excluded.reviewed_by, " +
+        "reviewed_at = excluded.reviewed_at, content = coalesce(excluded.content, document_search.content) " +
+        "where document_search.version <= excluded.version";
+    
+    // The document's partition key comes from document_keys, so one partition is read
+    private static final String UPSERT_ONE =
+        "insert into document_search (" + COLUMNS + ") " +
+        "select " + SOURCE_COLUMNS + ", cast(? as text) from document_keys k " +
+        "join documents d on d.id = k.id and d.created_at = k.created_at where k.id = ?" + ON_CONFLICT;
+    
+    private static final String NEXT_SOURCES =
+        "select d.id, d.created_at, d.filename, d.file_path, d.content_type from documents d " +
+        "where (d.created_at, d.id) > (?, ?) order by d.created_at, d.id limit ?";
+    
+    private static final String DELETE_ORPHANS =
+        "delete from document_search s where not exists " +
+        "(select 1 from documents d where d.id = s.document_id and d.created_at = s.created_at)";
+    
+    private static final String HIT_COLUMNS =
+        "s.document_id, s.filename, s.status, s.ai_suggestion, s.ai_confidence, s.reviewed_by, " +
+        "s.reviewed_at, s.created_at";
+    
+    // Either configuration may match: stemmed prose or exact filename/reviewer
+    // terms. Written out wherever it is used: the planner only estimates the
+    // match, and uses the GIN index for rare terms, when it sees the query.
+    private static final String TS_QUERY =
+        "(websearch_to_tsquery('english', ?) || websearch_to_tsquery('simple', ?))";
+    
+    private static final String RANK = "ts_rank_cd(s.search_vector, " + TS_QUERY + ")";
+    
+    private static final RowMapper<DocumentSearchHit> HIT_MAPPER = (rs, rowNum) -> {
+        Timestamp reviewedAt = rs.getTimestamp("reviewed_at");
+        return new DocumentSearchHit(
+            rs.getString("document_id"),
+            rs.getString("filename"),
+            rs.getString("status").toLowerCase(),
+            rs.getString("ai_suggestion"),
+            rs.getObject("ai_confidence", Double.class),
+            rs.getString("reviewed_by"),
+            reviewedAt != null ? reviewedAt.toLocalDateTime() : null,
+            rs.getTimestamp("created_at").toLocalDateTime(),
+            rs.getMetaData().getColumnCount() > 8 ? rs.getDouble("rank") : null
+        );
+    };
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public DocumentSearchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    /** Indexes the document's current row; {@code content} null keeps the indexed text. */
+    public void upsert(String documentId, String content) {
+        jdbcTemplate.update(UPSERT_ONE, content, documentId);
+    }
+    
+    /** Indexes several documents in one JDBC batch; {@code contents} is parallel to {@code documentIds}. */
+    public void upsertAll(List<String> documentIds, List<String> contents) {
+        List<Object[]> args = new ArrayList<>(documentIds.size());
+        for (int i = 0; i < documentIds.size(); i++) {
+            args.add(new Object[] { contents.get(i), documentIds.get(i) });
+        }
+        jdbcTemplate.batchUpdate(UPSERT_ONE, args);
+    }
+    
+    /** The next documents after the given key in (createdAt, id) order, for a rebuild. */
+    public List<IndexSource> findSourcesAfter(LocalDateTime createdAt, String id, int limit) {
+        return jdbcTemplate.query(NEXT_SOURCES,
+            (rs, rowNum) -> new IndexSource(
+                rs.getString("id"),
+                rs.getTimestamp("created_at").toLocalDateTime(),
+                rs.getString("filename"),
+                rs.getString("file_path"),
+                rs.getString("content_type")),
+            Timestamp.valueOf(createdAt), id, limit);
+    }
+    
+    public int deleteOrphans() {
+        return jdbcTemplate.update(DELETE_ORPHANS);
+    }
+    
+    /**
+     * One page of hits after {@code after}, or the first page when null.
+     * Metadata searches are ordered by recency. Full-text searches rank the
+     * {@code maxRanked} most recent matches by relevance, then recency, so a
+     * common term does not rank every document that contains it.
+     */
+    @Transactional(readOnly = true)
+    public List<DocumentSearchHit> search(DocumentSearchQuery query, DocumentSearchCursor after, int limit,
+                                          int maxRanked) {
+        List<Object> args = new ArrayList<>();
+        boolean fullText = hasText(query.getQ());
+        if (after != null && (after.getRank() != null) != fullText) {
+            throw new IllegalArgumentException("Cursor does not belong to this query");
+        }
+        StringBuilder sql = new StringBuilder("select ").append(HIT_COLUMNS);
+        if (fullText) {
+            sql.append(", ").append(RANK).append(" as rank from (select ").append(HIT_COLUMNS)
+                .append(", s.search_vector from document_search s");
+            addQueryText(args, query);
+            appendFilter(sql, args, query);
+            sql.append(" order by s.created_at desc, s.document_id desc limit ?) s where true");
+            args.add(maxRanked);
+        } else {
+            sql.append(" from document_search s");
+            appendFilter(sql, args, query);
+        }
+        if (after != null) {
+            // Row comparison, so the (created_at, document_id) index can seek
+            if (fullText) {
+                sql.append(" and (").append(RANK).append(", s.created_at, s.document_id) < (cast(? as real), ?, ?)");
+                addQueryText(args, query);
+                args.add(after.getRank());
+            } else {
+                sql.append(" and (s.created_at, s.document_id) < (?, ?)");
+            }
+            args.add(Timestamp.valueOf(after.getCreatedAt()));
+            args.add(after.getId());
+        }
+        sql.append(fullText
+            ? " order by rank desc, s.created_at desc, s.document_id desc"
+            : " order by s.created_at desc, s.document_id desc");
+        sql.append(" limit ?");
+        args.add(limit);
+        return jdbcTemplate.query(customPlan(sql.toString(), args), HIT_MAPPER);
+    }
+    
+    /**
+     * Counts matching documents by status and by AI suggestion in one pass
+     * over at most {@code maxCounted} matches. When that many are counted,
+     * the counts are capped: more documents may match.
+     */
+    @Transactional(readOnly = true)
+    public SearchFacets countFacets(DocumentSearchQuery query, int maxCounted) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("select status, ai_suggestion, grouping(status) as by_suggestion, " +
+            "count(*) as hits from (select s.status, s.ai_suggestion from document_search s");
+        appendFilter(sql, args, query);
+        sql.append(" limit ?) s group by grouping sets ((status), (ai_suggestion)) order by hits desc");
+        args.add(maxCounted);
+        
+        Map<String, Long> statusCounts = new LinkedHashMap<>();
+        Map<String, Long> aiSuggestionCounts = new LinkedHashMap<>();
+        jdbcTemplate.query(customPlan(sql.toString(), args), (RowCallbackHandler) rs -> {
+            if (rs.getInt("by_suggestion") == 0) {
+                statusCounts.put(rs.getString("status").toLowerCase(), rs.getLong("hits"));
+            } else {
+                String suggestion = rs.getString("ai_suggestion");
+                aiSuggestionCounts.put(suggestion != null ? suggestion.toLowerCase() : "none", rs.getLong("hits"));
+            }
+        });
+        long total = statusCounts.values().stream().mapToLong(Long::longValue).sum();
+        return new SearchFacets(statusCounts, aiSuggestionCounts, total >= maxCounted);
+    }
+    
+    private static void appendFilter(StringBuilder sql, List<Object> args, DocumentSearchQuery query) {
+        sql.append(" where true");
+        if (hasText(query.getQ())) {
+            sql.append(" and s.search_vector @@ ").append(TS_QUERY);
+            addQueryText(args, query);
+        }
+        if (hasText(query.getStatus())) {
+            sql.append(" and s.status = ?");
+            args.add(DocumentStatus.valueOf(query.getStatus().toUpperCase()).name());
+        }
+        if (hasText(query.getAiSuggestion())) {
+            sql.append(" and s.ai_suggestion = ?");
+            args.add(query.getAiSuggestion());
+        }
+        if (hasText(query.getReviewedBy())) {
+            sql.append(" and s.reviewed_by = ?");
+            args.add(query.getReviewedBy());
+        }
+        if (query.getFrom() != null) {
+            sql.append(" and s.created_at >= ?");
+            args.add(Timestamp.valueOf(query.getFrom()));
+        }
+        if (query.getTo() != null) {
+            sql.append(" and s.created_at < ?");
+            args.add(Timestamp.valueOf(query.getTo()));
+        }
+        if (query.getMinConfidence() != null) {
+            sql.append(" and s.ai_confidence >= ?");
+            args.add(query.getMinConfidence());
+        }
+        if (query.getMaxConfidence() != null) {
+            sql.append(" and s.ai_confidence <= ?");
+            args.add(query.getMaxConfidence());
+        }
+    }
+    
+    /**
+     * Runs {@code sql} as an unnamed statement, so it is planned for each
+     * search's own values. A cached generic plan cannot tell a rare term from
+     * a common one, or a selective filter from a broad one.
+     */
+    private static PreparedStatementCreator customPlan(String sql, List<Object> args) {
+        return connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.unwrap(PGStatement.class).setPrepareThreshold(0);
+            new ArgumentPreparedStatementSetter(args.toArray()).setValues(statement);
+            return statement;
+        };
+    }
+    
+    /** Binds the query text for one use of {@link #TS_QUERY}. */
+    private static void addQueryText(List<Object> args, DocumentSearchQuery query) {
+        args.add(query.getQ());
+        args.add(query.getQ());
+    }
+    
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+    
+    public record SearchFacets(Map<String, Long> statusCounts, Map<String, Long> aiSuggestionCounts,
+                               boolean capped) {}
+    
+    public record IndexSource(String id, LocalDateTime createdAt, String filename,
+                              String filePath, String contentType) {}
+}
@@ -0,0 +1,16 @@
+package com.docflow.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns the dashboard counters are derived from, read when a document's
+ * AI suggestion or status changes.
+ */
+public interface DocumentStatsInput {
+    
+    String getAiSuggestion();
+    
+    Double getAiConfidence();
+    
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,172 @@
+package com.docflow.repository;
+
+import com.docflow.model.Document.DocumentStatus;
+import com.docflow.workflow.DocumentApprovalWorkflow.DecidedBy;
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Incrementally maintained dashboard counters in {@code document_stats}.
+ * Every document write that changes a counter adds its deltas in the same
+ * transaction, so the counters always agree with the committed documents,
+ * and reading them sums a fixed number of rows regardless of table size.
+ * <p>
+ * Counters cover archived documents too: archival moves a document but does
+ * not change its status.
+ */
+@Repository
+@Observed(name = "docflow.repository")
+public class DocumentStatsRepository {
+    
+    public static final String STATUS_PREFIX = "status.";
+    public static final String AI_SUGGESTION_PREFIX = "ai.suggestion.";
+    public static final String AI_CONFIDENCE_MICROS = "ai.confidence.micros";
+    public static final String AI_ANALYZED = "ai.analyzed";
+    public static final String DECISIONS_HUMAN = "decision.human";
+    public static final String DECISIONS_AGREED = "decision.agreed";
+    public static final String DECISIONS_TIMEOUT = "decision.timeout";
+    public static final String DECISIONS_POLICY = "decision.policy";
+    public static final String DECISION_SECONDS = "decision.seconds";
+    public static final String DECISION_BUCKET_PREFIX = "decision.le.";
+    
+    /** Upper bounds of the time-to-decision histogram; the last bucket is open. */
+    public static final Map<String, Duration> DECISION_BUCKETS = bucketBounds();
+    
+    private static final String INCREMENT =
+        "insert into document_stats (metric, shard, amount) values (?, ?, ?) " +
+        "on conflict (metric, shard) do update set amount = document_stats.amount + excluded.amount";
+    
+    private static final String TOTALS =
+        "select metric, sum(amount) as total from document_stats group by metric";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Value("${docflow.stats.shards:16}")
+    private int shards;
+    
+    public DocumentStatsRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    /** New PENDING documents; called in the transaction that inserts them. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordUploads(int count) {
+        increment(Map.of(STATUS_PREFIX + DocumentStatus.PENDING.name(), (long) count));
+    }
+    
+    /**
+     * An AI suggestion replacing {@code previous}'s; called in the transaction
+     * that writes it, with the row locked.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAnalysis(DocumentStatsInput previous, String suggestion, Double confidence) {
+        Map<String, Long> deltas = new HashMap<>();
+        if (previous.getAiSuggestion() != null) {
+            add(deltas, AI_SUGGESTION_PREFIX + previous.getAiSuggestion(), -1);
+            add(deltas, AI_ANALYZED, -1);
+            add(deltas, AI_CONFIDENCE_MICROS, -micros(previous.getAiConfidence()));
+        }
+        if (suggestion != null) {
+            add(deltas, AI_SUGGESTION_PREFIX + suggestion, 1);
+            add(deltas, AI_ANALYZED, 1);
+            add(deltas, AI_CONFIDENCE_MICROS, micros(confidence));
+        }
+        increment(deltas);
+    }
+    
+    /** A PENDING document finalized; called in the transaction that transitions it. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDecision(DocumentStatsInput document, DocumentStatus status,
+                               Duration timeToDecision, DecidedBy decidedBy) {
+        Map<String, Long> deltas = new HashMap<>();
+        add(deltas, STATUS_PREFIX + DocumentStatus.PENDING.name(), -1);
+        add(deltas, STATUS_PREFIX + status.name(), 1);
+        if (decidedBy == DecidedBy.TIMEOUT) {
+            add(deltas, DECISIONS_TIMEOUT, 1);
+        } else if (decidedBy == DecidedBy.POLICY) {
+            add(deltas, DECISIONS_POLICY, 1);
+        } else if (document.getAiSuggestion() != null) {
+            add(deltas, DECISIONS_HUMAN, 1);
+            if (agrees(document.getAiSuggestion(), status)) {
+                add(deltas, DECISIONS_AGREED, 1);
+            }
+        }
+        long seconds = Math.max(0, timeToDecision.getSeconds());
+        add(deltas, DECISION_SECONDS, seconds);
+        add(deltas, DECISION_BUCKET_PREFIX + bucketFor(timeToDecision), 1);
+        increment(deltas);
+    }
+    
+    /** Current value of every counter. */
+    @Transactional(readOnly = true)
+    public Map<String, Long> totals() {
+        Map<String, Long> totals = new HashMap<>();
+        jdbcTemplate.query(TOTALS, (RowCallbackHandler) rs -> totals.put(rs.getString("metric"), rs.getLong("total")));
+        return totals;
+    }
+    
+    private void increment(Map<String, Long> deltas) {
+        // One shard per transaction, metrics in a fixed order: transactions on
+        // the same shard lock rows in the same order and cannot deadlock
+        int shard = ThreadLocalRandom.current().nextInt(shards);
+        List<Object[]> args = new ArrayList<>();
+        new TreeMap<>(deltas).forEach((metric, delta) -> {
+            if (delta != 0) {
+                args.add(new Object[] { metric, shard, delta });
+            }
+        });
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(INCREMENT, args);
+        }
+    }
+    
+    private static void add(Map<String, Long> deltas, String metric, long delta) {
+        deltas.merge(metric, delta, Long::sum);
+    }
+    
+    private static long micros(Double confidence) {
+        return confidence != null ? Math.round(confidence * 1_000_000) : 0;
+    }
+    
+    private static boolean agrees(String aiSuggestion, DocumentStatus status) {
+        return aiSuggestion.startsWith("approve") ? status == DocumentStatus.APPROVED
+            : aiSuggestion.startsWith("reject") && status == DocumentStatus.REJECTED;
+    }
+    
+    private static String bucketFor(Duration timeToDecision) {
+        for (Map.Entry<String, Duration> bucket : DECISION_BUCKETS.entrySet()) {
+            if (bucket.getValue() == null || timeToDecision.compareTo(bucket.getValue()) <= 0) {
+                return bucket.getKey();
+            }
+        }
+        throw new IllegalStateException("Histogram has no open bucket");
+    }
+    
+    private static Map<String, Duration> bucketBounds() {
+        Map<String, Duration> bounds = new LinkedHashMap<>();
+        bounds.put("1m", Duration.ofMinutes(1));
+        bounds.put("5m", Duration.ofMinutes(5));
+        bounds.put("15m", Duration.ofMinutes(15));
+        bounds.put("1h", Duration.ofHours(1));
+        bounds.put("4h", Duration.ofHours(4));
+        bounds.put("1d", Duration.ofDays(1));
+        bounds.put("7d", Duration.ofDays(7));
+        bounds.put("inf", null);
+        return Collections.unmodifiableMap(bounds);
+    }
+}
@@ -0,0 +1,46 @@
+package com.docflow.repository;
+
+import com.docflow.model.Document.DocumentPriority;
+import com.docflow.model.Document.DocumentStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Closed projection over {@code documents} used by the listing endpoints.
+ * Rows are read as tuples, so Hibernate never hydrates or dirty-tracks a
+ * {@link com.docflow.model.Document} entity for them.
+ */
+public interface DocumentView {
+    
+    String getId();
+    
+    String getFilename();
+    
+    String getContentType();
+    
+    Long getFileSize();
+    
+    DocumentStatus getStatus();
+    
+    String getAiSuggestion();
+    
+    Double getAiConfidence();
+    
+    String getAiReasoning();
+    
+    String getReviewerNotes();
+    
+    String getReviewedBy();
+    
+    LocalDateTime getReviewedAt();
+    
+    String getWorkflowId();
+    
+    DocumentPriority getPriority();
+    
+    String getUploadedBy();
+    
+    LocalDateTime getCreatedAt();
+    
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,12 @@
+package com.docflow.repository;
+
+/**
+ * Minimal projection for signalling a document's workflow without loading
+ * the entity.
+ */
+public interface DocumentWorkflowRef {
+    
+    String getId();
+    
+    String getWorkflowId();
+}
@@ -0,0 +1,50 @@
+package com.docflow.repository;
+
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JDBC access to {@code workflow_payloads}. Reads are not marked read-only:
+ * a payload is read back moments after it is written, so it must come from
+ * the primary rather than a replica.
+ */
+@Repository
+@Observed(name = "docflow.repository")
+public class WorkflowPayloadRepository {
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public WorkflowPayloadRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    /**
+     * Stores a payload under its content hash. Storing it again is a no-op,
+     * except that a row older than {@code refreshAfter} has its
+     * {@code created_at} renewed, as a new history now refers to it.
+     */
+    public void insert(String id, byte[] data, Duration refreshAfter) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("insert into workflow_payloads (id, data, created_at) values (?, ?, ?) "
+                + "on conflict (id) do update set created_at = excluded.created_at "
+                + "where workflow_payloads.created_at < ?",
+            id, data, Timestamp.valueOf(now), Timestamp.valueOf(now.minus(refreshAfter)));
+    }
+    
+    public Optional<byte[]> findData(String id) {
+        List<byte[]> data = jdbcTemplate.query("select data from workflow_payloads where id = ?",
+            (rs, rowNum) -> rs.getBytes("data"), id);
+        return data.stream().findFirst();
+    }
+    
+    public int deleteCreatedBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("delete from workflow_payloads where created_at < ?", Timestamp.valueOf(cutoff));
+    }
+}
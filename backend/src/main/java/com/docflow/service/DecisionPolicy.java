@@ -0,0 +1,57 @@
+package com.docflow.service;
+
+import com.docflow.workflow.AIAnalysisResult;
+import com.docflow.workflow.DocumentApprovalWorkflow;
+import com.docflow.workflow.PolicyDecision;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Versioned rules for deciding documents without a human: an AI suggestion
+ * is applied directly when its confidence reaches the threshold configured
+ * for that suggestion. Lower confidences, and suggestions without a
+ * threshold, go to human review.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DecisionPolicy {
+    
+    /** Review everything, e.g. when the policy is switched off. */
+    public static final DecisionPolicy HUMAN_REVIEW = new DecisionPolicy("none", Map.of());
+    
+    private String version;
+    private Map<String, Double> thresholds; // suggestion ("approve"/"reject") -> minimum confidence
+    
+    public void validate() {
+        if (version == null || version.isBlank()) {
+            throw new IllegalArgumentException("Decision policy has no version");
+        }
+        if (thresholds == null) {
+            throw new IllegalArgumentException("Decision policy " + version + " has no thresholds");
+        }
+        thresholds.forEach((suggestion, threshold) -> {
+            if (threshold == null || threshold < 0 || threshold > 1) {
+                throw new IllegalArgumentException(
+                    "Decision policy " + version + ": threshold for '" + suggestion + "' must be in [0, 1]");
+            }
+        });
+    }
+    
+    public PolicyDecision evaluate(AIAnalysisResult aiResult) {
+        Double threshold = thresholds.get(aiResult.getSuggestion());
+        Double confidence = aiResult.getConfidence();
+        if (threshold == null || confidence == null || confidence < threshold) {
+            return new PolicyDecision(null, version, threshold == null
+                ? "No auto-decision rule for '" + aiResult.getSuggestion() + "'"
+                : String.format("Confidence %.2f below %.2f", confidence == null ? 0.0 : confidence, threshold));
+        }
+        String decision = DocumentApprovalWorkflow.decisionFor(aiResult.getSuggestion());
+        return new PolicyDecision(decision, version, String.format(
+            "Auto-%s by decision policy %s (confidence %.2f >= %.2f). %s",
+            decision, version, confidence, threshold, aiResult.getReasoning()));
+    }
+}
@@ -0,0 +1,143 @@
+package com.docflow.service;
+
+import com.docflow.workflow.AIAnalysisResult;
+import com.docflow.workflow.PolicyDecision;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the current {@link DecisionPolicy}, loaded from
+ * {@code docflow.decision-policy.location}. A file location is checked for
+ * changes every {@code reload-interval} and swapped in without a restart; a
+ * file that fails to parse or validate is logged and the previous policy
+ * stays active. Other locations (e.g. the classpath) are read once.
+ * Workflows only see the policy through an activity result, so a reload
+ * never affects replay. Off by default: every document waits for a reviewer
+ * until the policy is enabled.
+ */
+@Service
+public class DecisionPolicyService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DecisionPolicyService.class);
+    
+    private final ResourceLoader resourceLoader;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Counter reloadFailures;
+    private ScheduledExecutorService reloader;
+    
+    private volatile DecisionPolicy policy = DecisionPolicy.HUMAN_REVIEW;
+    private long checkedModified; // of the policy file, as last read by the reloader
+    
+    @Value("${docflow.decision-policy.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${docflow.decision-policy.location:file:config/decision-policy.json}")
+    private String location;
+    
+    @Value("${docflow.decision-policy.reload-interval:10s}")
+    private Duration reloadInterval;
+    
+    public DecisionPolicyService(ResourceLoader resourceLoader,
+                                 ObjectMapper objectMapper,
+                                 MeterRegistry meterRegistry) {
+        this.resourceLoader = resourceLoader;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.reloadFailures = Counter.builder("docflow.decision.policy.reload.failures")
+            .description("Policy files that could not be loaded; the previous policy stayed active")
+            .register(meterRegistry);
+    }
+    
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            logger.info("Auto-decision policy disabled; all documents go to human review");
+            return;
+        }
+        // A broken policy at startup fails fast rather than silently reviewing everything
+        Resource resource = resourceLoader.getResource(location);
+        if (resource.isFile()) {
+            checkedModified = resource.lastModified();
+        }
+        policy = load(resource);
+        logger.info("Loaded decision policy {} from {}: {}", policy.getVersion(), location, policy.getThresholds());
+        
+        if (!resource.isFile()) {
+            logger.warn("Decision policy location {} is not a file; changes need a restart", location);
+        } else {
+            reloader = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("decision-policy-"));
+            reloader.scheduleWithFixedDelay(() -> reload(resource),
+                reloadInterval.toMillis(), reloadInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+    
+    public DecisionPolicy getPolicy() {
+        return policy;
+    }
+    
+    public PolicyDecision evaluate(AIAnalysisResult aiResult) {
+        DecisionPolicy current = policy;
+        PolicyDecision decision = current.evaluate(aiResult);
+        Counter.builder("docflow.decision.policy.evaluations")
+            .description("AI analyses checked against the auto-decision policy")
+            .tags("outcome", decision.isAutomatic() ? decision.getDecision() : "review",
+                  "version", current.getVersion())
+            .register(meterRegistry)
+            .increment();
+        return decision;
+    }
+    
+    private void reload(Resource resource) {
+        try {
+            // Taken before reading, so an edit during the read is picked up
+            // next time; a broken file is reported once, not on every check
+            long modified = resource.lastModified();
+            if (modified == checkedModified) {
+                return;
+            }
+            checkedModified = modified;
+            DecisionPolicy reloaded = load(resource);
+            DecisionPolicy previous = policy;
+            policy = reloaded;
+            logger.info("Reloaded decision policy {} (was {}): {}", 
+                       reloaded.getVersion(), previous.getVersion(), reloaded.getThresholds());
+        } catch (IOException | RuntimeException e) {
+            reloadFailures.increment();
+            logger.error("Failed to reload decision policy from {}; keeping {}", location, policy.getVersion(), e);
+        }
+    }
+    
+    private DecisionPolicy load(Resource resource) throws IOException {
+        DecisionPolicy loaded;
+        try (InputStream in = resource.getInputStream()) {
+            loaded = objectMapper.readValue(in, DecisionPolicy.class);
+        }
+        loaded.validate();
+        return loaded;
+    }
+}
@@ -0,0 +1,193 @@
+package com.docflow.service;
+
+import com.docflow.dto.DocumentResponse;
+import com.docflow.model.Document;
+import com.docflow.repository.DocumentArchiveRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot/cold archival of finalized documents. When enabled, a background job
+ * moves APPROVED/REJECTED documents older than the retention window from
+ * {@code documents} into {@code document_archive} in batches, and moves blobs
+ * no live document references to the cold file tier. With partition
+ * management on (Postgres, prod profile) it also creates upcoming monthly
+ * partitions of {@code documents} and drops old ones archival has emptied.
+ * <p>
+ * Archived documents stay readable through {@link #findArchived}.
+ */
+@Service
+public class DocumentArchiveService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DocumentArchiveService.class);
+    
+    private final DocumentArchiveRepository archiveRepository;
+    private final FileStorageService fileStorageService;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Counter archived;
+    private ScheduledExecutorService scheduler;
+    
+    @Value("${docflow.archive.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${docflow.archive.retention:90d}")
+    private Duration retention;
+    
+    @Value("${docflow.archive.interval:1h}")
+    private Duration interval;
+    
+    @Value("${docflow.archive.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${docflow.archive.manage-partitions:false}")
+    private boolean managePartitions;
+    
+    @Value("${docflow.archive.partitions-ahead:3}")
+    private int partitionsAhead;
+    
+    public DocumentArchiveService(DocumentArchiveRepository archiveRepository,
+                                  FileStorageService fileStorageService,
+                                  TransactionTemplate transactionTemplate,
+                                  JdbcTemplate jdbcTemplate,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry) {
+        this.archiveRepository = archiveRepository;
+        this.fileStorageService = fileStorageService;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.archived = Counter.builder("docflow.archive.documents")
+            .description("Documents moved to the archive")
+            .register(meterRegistry);
+    }
+    
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("document-archiver-"));
+        scheduler.scheduleWithFixedDelay(this::run, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+        logger.info("Archiving finalized documents older than {} every {}", retention, interval);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+    
+    public Optional<DocumentResponse> findArchived(String id) {
+        return archiveRepository.findData(id).map(data -> {
+            try {
+                return objectMapper.readValue(data, DocumentResponse.class);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Corrupt archive entry for document " + id, e);
+            }
+        });
+    }
+    
+    private void run() {
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+            int total = 0;
+            int moved;
+            do {
+                moved = archiveBatch(cutoff);
+                total += moved;
+            } while (moved == batchSize && !Thread.currentThread().isInterrupted());
+            if (total > 0) {
+                logger.info("Archived {} documents created before {}", total, cutoff);
+            }
+            if (managePartitions) {
+                jdbcTemplate.queryForObject("select docflow_maintain_document_partitions(?, ?)", Object.class,
+                    partitionsAhead, Timestamp.valueOf(cutoff));
+            }
+        } catch (RuntimeException e) {
+            logger.error("Document archival failed", e);
+        }
+    }
+    
+    private int archiveBatch(LocalDateTime cutoff) {
+        ArchivedBatch batch = transactionTemplate.execute(status -> {
+            List<Document> documents = archiveRepository.lockArchivable(cutoff, batchSize);
+            if (documents.isEmpty()) {
+                return new ArchivedBatch(0, List.of(), Map.of());
+            }
+            List<String> data = new ArrayList<>(documents.size());
+            List<String> ownedFiles = new ArrayList<>();
+            for (Document document : documents) {
+                data.add(toJson(DocumentResponse.fromDocument(document)));
+                if (document.getContentHash() == null) {
+                    // Uploaded before deduplication; the file is not shared
+                    ownedFiles.add(document.getFilePath());
+                }
+            }
+            archiveRepository.insertArchived(documents, data, LocalDateTime.now());
+            archiveRepository.deleteDocuments(documents);
+            return new ArchivedBatch(documents.size(), ownedFiles, archiveRepository.releaseBlobs(documents));
+        });
+        
+        // Files move after commit: a crash in between leaves a file in the
+        // hot tier, never a live document without its file
+        batch.ownedFiles().forEach(this::moveToColdTier);
+        batch.releasedBlobs().forEach((hash, path) -> {
+            moveToColdTier(path);
+            // The same content may have been uploaded again while it was moving
+            if (archiveRepository.isBlobReferenced(hash)) {
+                try {
+                    fileStorageService.restoreFromColdTier(path);
+                } catch (IOException e) {
+                    logger.error("Failed to restore re-uploaded blob {}", hash, e);
+                }
+            }
+        });
+        archived.increment(batch.count());
+        return batch.count();
+    }
+    
+    private void moveToColdTier(String filePath) {
+        try {
+            fileStorageService.moveToColdTier(filePath);
+        } catch (IOException e) {
+            // The row is archived either way; the file just stays on the hot tier
+            logger.error("Failed to move {} to cold tier", filePath, e);
+        }
+    }
+    
+    private String toJson(DocumentResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize document " + response.getId(), e);
+        }
+    }
+    
+    private record ArchivedBatch(int count, List<String> ownedFiles, Map<String, String> releasedBlobs) {}
+}
@@ -0,0 +1,68 @@
+package com.docflow.service;
+
+import com.docflow.config.CacheConfig;
+import com.docflow.dto.DocumentEvent;
+import com.docflow.dto.DocumentResponse;
+import com.docflow.workflow.DocumentApprovalWorkflow;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for document lookups and workflow-status queries, which
+ * resolve workflow ids before signals. Entries are evicted on every
+ * {@link DocumentEvent}, including events relayed from other nodes; writers
+ * that don't emit their own event call {@link #evict}.
+ */
+@Component
+public class DocumentCache {
+    
+    private final Cache documents;
+    private final Cache workflowStatus;
+    private final DocumentEventBus eventBus;
+    private final ReadYourWritesTracker readYourWrites;
+    
+    // Taking the tracker here also makes it subscribe to events before the
+    // cache does, so a reload after an eviction already sees the document as
+    // recently written
+    public DocumentCache(CacheManager cacheManager, DocumentEventBus eventBus,
+                         ReadYourWritesTracker readYourWrites) {
+        this.documents = cacheManager.getCache(CacheConfig.DOCUMENTS);
+        this.workflowStatus = cacheManager.getCache(CacheConfig.WORKFLOW_STATUS);
+        this.eventBus = eventBus;
+        this.readYourWrites = readYourWrites;
+        eventBus.subscribe(event -> evictLocal(event.getDocumentId()));
+    }
+    
+    public DocumentResponse getDocument(String id, Supplier<DocumentResponse> loader) {
+        return readThrough(documents, id, () -> readYourWrites.read(id, loader), DocumentResponse.class);
+    }
+    
+    public DocumentApprovalWorkflow.WorkflowStatus getWorkflowStatus(
+            String id, Supplier<DocumentApprovalWorkflow.WorkflowStatus> loader) {
+        return readThrough(workflowStatus, id, loader, DocumentApprovalWorkflow.WorkflowStatus.class);
+    }
+    
+    /** Evicts a document here and, when events are relayed, on other nodes. */
+    public void evict(String id) {
+        eventBus.publish(DocumentEvent.invalidated(id));
+    }
+    
+    public void evictLocal(String id) {
+        documents.evict(id);
+        workflowStatus.evict(id);
+    }
+    
+    private static <T> T readThrough(Cache cache, String id, Supplier<T> loader, Class<T> type) {
+        T cached = cache.get(id, type);
+        if (cached != null) {
+            return cached;
+        }
+        // Failed loads throw and are not cached
+        T loaded = loader.get();
+        cache.put(id, loaded);
+        return loaded;
+    }
+}
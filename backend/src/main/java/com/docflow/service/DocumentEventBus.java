@@ -0,0 +1,52 @@
+package com.docflow.service;
+
+import com.docflow.dto.DocumentEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process bus for {@link DocumentEvent}s. Listeners run synchronously on
+ * the publishing thread, so they must be cheap and hand real work off. When
+ * {@link PostgresDocumentEventRelay} is enabled, published events are also
+ * relayed to the other nodes, which deliver them through {@link #deliver}.
+ */
+@Component
+public class DocumentEventBus {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DocumentEventBus.class);
+    
+    private final List<Consumer<DocumentEvent>> listeners = new CopyOnWriteArrayList<>();
+    private final ObjectProvider<PostgresDocumentEventRelay> relay;
+    
+    public DocumentEventBus(ObjectProvider<PostgresDocumentEventRelay> relay) {
+        this.relay = relay;
+    }
+    
+    /** Registers a listener; the returned handle removes it again. */
+    public Runnable subscribe(Consumer<DocumentEvent> listener) {
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+    
+    public void publish(DocumentEvent event) {
+        deliver(event);
+        relay.ifAvailable(r -> r.send(event));
+    }
+    
+    /** Delivers an event to local listeners only. */
+    public void deliver(DocumentEvent event) {
+        for (Consumer<DocumentEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (Exception e) {
+                logger.warn("Document event listener failed for {}: {}", event.getDocumentId(), e.getMessage());
+            }
+        }
+    }
+}
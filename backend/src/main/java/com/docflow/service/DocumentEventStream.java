@@ -0,0 +1,146 @@
+package com.docflow.service;
+
+import com.docflow.dto.DocumentEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pushes document events to Server-Sent Events subscribers. Emitters are
+ * async requests, so an idle subscriber holds a socket but no thread. Events
+ * are fanned out on a separate executor so publishers (activities) never
+ * block on slow clients, and a periodic heartbeat keeps proxies from closing
+ * idle streams and prunes disconnected clients.
+ */
+@Service
+public class DocumentEventStream {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DocumentEventStream.class);
+    
+    // Keyed by document id; ALL_DOCUMENTS holds subscribers to every document
+    private static final String ALL_DOCUMENTS = "*";
+    
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Executor eventFanOutExecutor;
+    private final ScheduledExecutorService heartbeat;
+    
+    @Value("${docflow.events.sse.timeout:30m}")
+    private Duration timeout;
+    
+    @Value("${docflow.events.sse.max-subscribers:10000}")
+    private int maxSubscribers;
+    
+    public DocumentEventStream(DocumentEventBus eventBus,
+                               @Qualifier("eventFanOutExecutor") Executor eventFanOutExecutor,
+                               MeterRegistry meterRegistry,
+                               @Value("${docflow.events.sse.heartbeat:25s}") Duration heartbeatInterval) {
+        this.eventFanOutExecutor = eventFanOutExecutor;
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("sse-heartbeat-"));
+        this.heartbeat.scheduleAtFixedRate(this::sendHeartbeat, 
+            heartbeatInterval.toMillis(), heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+        eventBus.subscribe(this::onEvent);
+        Gauge.builder("docflow.events.sse.subscribers", subscriberCount, AtomicInteger::get)
+            .description("Open Server-Sent Events subscriptions")
+            .register(meterRegistry);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        subscribers.values().forEach(set -> set.forEach(s -> s.emitter.complete()));
+    }
+    
+    /**
+     * Opens a stream of events for one document, or for all documents when
+     * {@code documentId} is null.
+     *
+     * @throws IllegalStateException if this node is at its subscriber limit
+     */
+    public SseEmitter subscribe(String documentId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new IllegalStateException("Too many event subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(documentId != null ? documentId : ALL_DOCUMENTS, emitter);
+        subscribers.compute(subscriber.key, (key, set) -> {
+            Set<Subscriber> target = set != null ? set : ConcurrentHashMap.newKeySet();
+            target.add(subscriber);
+            return target;
+        });
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        return emitter;
+    }
+    
+    private void onEvent(DocumentEvent event) {
+        if (DocumentEvent.INVALIDATED.equals(event.getType()) || subscriberCount.get() == 0) {
+            return;
+        }
+        eventFanOutExecutor.execute(() -> {
+            // Builders are single-use, so each send gets its own
+            Supplier<SseEmitter.SseEventBuilder> message = () -> SseEmitter.event()
+                .id(event.getDocumentId())
+                .name(event.getType())
+                .data(event);
+            sendAll(subscribers.get(event.getDocumentId()), message);
+            sendAll(subscribers.get(ALL_DOCUMENTS), message);
+        });
+    }
+    
+    private void sendHeartbeat() {
+        if (subscriberCount.get() == 0) {
+            return;
+        }
+        eventFanOutExecutor.execute(() -> subscribers.values().forEach(
+            set -> sendAll(set, () -> SseEmitter.event().comment("heartbeat"))));
+    }
+    
+    private void sendAll(Set<Subscriber> targets, Supplier<SseEmitter.SseEventBuilder> message) {
+        if (targets != null) {
+            targets.forEach(subscriber -> send(subscriber, message.get()));
+        }
+    }
+    
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.key, (key, set) -> {
+            if (set.remove(subscriber)) {
+                subscriberCount.decrementAndGet();
+            }
+            return set.isEmpty() ? null : set;
+        });
+    }
+    
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the container reports it via onError/onCompletion too
+            remove(subscriber);
+            logger.debug("Dropping event subscriber: {}", e.getMessage());
+        }
+    }
+    
+    private record Subscriber(String key, SseEmitter emitter) {}
+}
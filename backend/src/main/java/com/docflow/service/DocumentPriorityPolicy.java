@@ -0,0 +1,82 @@
+package com.docflow.service;
+
+import com.docflow.model.Document.DocumentPriority;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Assigns each upload a {@link DocumentPriority} and holds the weights the
+ * lanes share analysis capacity by. An explicit priority wins; otherwise
+ * batch and archive uploads are bulk, and single uploads whose filename
+ * names an urgent category (contracts and agreements by default) are
+ * urgent. Weights divide capacity rather than rank strictly, so a flood in
+ * one lane slows the others without starving them.
+ */
+@Component
+public class DocumentPriorityPolicy {
+    
+    private final Set<String> urgentTerms;
+    private final DocumentPriority batchPriority;
+    private final Map<DocumentPriority, Integer> weights = new EnumMap<>(DocumentPriority.class);
+    
+    public DocumentPriorityPolicy(@Value("${docflow.priority.urgent-terms:contract,agreement}") String urgentTerms,
+                                  @Value("${docflow.priority.batch-priority:bulk}") String batchPriority,
+                                  @Value("${docflow.priority.weight.urgent:6}") int urgentWeight,
+                                  @Value("${docflow.priority.weight.normal:3}") int normalWeight,
+                                  @Value("${docflow.priority.weight.bulk:1}") int bulkWeight) {
+        this.urgentTerms = Arrays.stream(urgentTerms.split(","))
+            .map(term -> term.trim().toLowerCase(Locale.ROOT))
+            .filter(term -> !term.isEmpty())
+            .collect(Collectors.toSet());
+        this.batchPriority = parse(batchPriority);
+        weights.put(DocumentPriority.URGENT, urgentWeight);
+        weights.put(DocumentPriority.NORMAL, normalWeight);
+        weights.put(DocumentPriority.BULK, bulkWeight);
+        weights.forEach((priority, weight) -> {
+            if (weight < 1) {
+                throw new IllegalStateException("docflow.priority.weight."
+                    + priority.name().toLowerCase() + " must be at least 1");
+            }
+        });
+    }
+    
+    /** Null for a missing value; IllegalArgumentException for an unknown one. */
+    public static DocumentPriority parse(String priority) {
+        if (priority == null || priority.isBlank()) {
+            return null;
+        }
+        return DocumentPriority.valueOf(priority.trim().toUpperCase(Locale.ROOT));
+    }
+    
+    public DocumentPriority classify(DocumentPriority requested, String filename, boolean batch) {
+        if (requested != null) {
+            return requested;
+        }
+        if (batch) {
+            return batchPriority;
+        }
+        if (filename != null) {
+            for (String term : filename.toLowerCase(Locale.ROOT).split("[^\\p{L}]+")) {
+                if (urgentTerms.contains(term)) {
+                    return DocumentPriority.URGENT;
+                }
+            }
+        }
+        return DocumentPriority.NORMAL;
+    }
+    
+    public int weight(DocumentPriority priority) {
+        return weights.get(priority);
+    }
+    
+    public int totalWeight() {
+        return weights.values().stream().mapToInt(Integer::intValue).sum();
+    }
+}
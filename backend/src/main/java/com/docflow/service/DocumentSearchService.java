@@ -0,0 +1,220 @@
+package com.docflow.service;
+
+import com.docflow.analysis.AnalysisService;
+import com.docflow.dto.DocumentSearchCursor;
+import com.docflow.dto.DocumentSearchHit;
+import com.docflow.dto.DocumentSearchQuery;
+import com.docflow.dto.DocumentSearchResponse;
+import com.docflow.repository.DocumentSearchRepository;
+import com.docflow.repository.DocumentSearchRepository.IndexSource;
+import com.docflow.repository.DocumentSearchRepository.SearchFacets;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Full-text and metadata search over documents, backed by the
+ * {@code document_search} table and its GIN-indexed tsvector.
+ * <p>
+ * The index is maintained incrementally: uploads index the document with its
+ * extracted text, and the workflow activities re-index metadata after the AI
+ * suggestion and the final decision. Indexing runs on a small background pool
+ * so it never fails or slows the write it follows; {@link #rebuild} repairs
+ * anything missed.
+ */
+@Service
+@Observed(name = "docflow.service")
+public class DocumentSearchService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DocumentSearchService.class);
+    
+    private final DocumentSearchRepository searchRepository;
+    private final ThreadPoolExecutor indexExecutor;
+    private final Counter indexFailures;
+    private final Timer searchTimer;
+    
+    @Value("${docflow.search.max-content-chars:100000}")
+    private int maxContentChars;
+    
+    @Value("${docflow.search.max-limit:200}")
+    private int maxLimit;
+    
+    @Value("${docflow.search.max-ranked-hits:1000}")
+    private int maxRankedHits;
+    
+    @Value("${docflow.search.max-facet-rows:10000}")
+    private int maxFacetRows;
+    
+    @Value("${docflow.search.rebuild-batch-size:1000}")
+    private int rebuildBatchSize;
+    
+    public DocumentSearchService(DocumentSearchRepository searchRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${docflow.search.index-threads:2}") int indexThreads,
+                                 @Value("${docflow.search.index-queue-capacity:10000}") int queueCapacity) {
+        this.searchRepository = searchRepository;
+        // A full queue makes the caller index inline rather than drop updates
+        this.indexExecutor = new ThreadPoolExecutor(indexThreads, indexThreads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("search-indexer-"),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+        this.indexFailures = Counter.builder("docflow.search.index.failures")
+            .description("Documents that could not be indexed for search")
+            .register(meterRegistry);
+        this.searchTimer = Timer.builder("docflow.search.query")
+            .description("Search query latency, including facet counts")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        meterRegistry.gauge("docflow.search.index.queue", indexExecutor, e -> e.getQueue().size());
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        indexExecutor.shutdown();
+    }
+    
+    /** Queues a newly stored document for indexing, including its file text. */
+    public void indexAsync(String documentId, String filename, String filePath, String contentType) {
+        indexExecutor.execute(() -> index(documentId, () -> extractContent(filename, filePath, contentType)));
+    }
+    
+    /** Queues a metadata-only re-index, e.g. after the AI suggestion or decision was recorded. */
+    public void reindexAsync(String documentId) {
+        indexExecutor.execute(() -> index(documentId, () -> null));
+    }
+    
+    private void index(String documentId, Supplier<String> content) {
+        try {
+            searchRepository.upsert(documentId, content.get());
+        } catch (RuntimeException e) {
+            indexFailures.increment();
+            logger.error("Failed to index document {} for search", documentId, e);
+        }
+    }
+    
+    /**
+     * One page of hits. The first page also counts the matches by status and
+     * AI suggestion, up to {@code maxFacetRows}; later pages, requested with
+     * the previous page's cursor, only seek to their hits.
+     */
+    public DocumentSearchResponse search(DocumentSearchQuery query) {
+        DocumentSearchCursor after = hasText(query.getCursor()) ? DocumentSearchCursor.decode(query.getCursor()) : null;
+        if (query.getFrom() != null && query.getTo() != null && !query.getFrom().isBefore(query.getTo())) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        int limit = Math.max(1, Math.min(query.getLimit(), maxLimit));
+        
+        return searchTimer.record(() -> {
+            // One extra row tells whether there is a next page
+            List<DocumentSearchHit> rows = searchRepository.search(query, after, limit + 1, maxRankedHits);
+            boolean hasMore = rows.size() > limit;
+            List<DocumentSearchHit> items = hasMore ? rows.subList(0, limit) : rows;
+            String nextCursor = null;
+            if (hasMore) {
+                DocumentSearchHit last = items.get(items.size() - 1);
+                nextCursor = new DocumentSearchCursor(last.getRank(), last.getCreatedAt(), last.getId()).encode();
+            }
+            
+            if (after != null) {
+                return new DocumentSearchResponse(items, null, null, null, null, nextCursor);
+            }
+            SearchFacets facets = searchRepository.countFacets(query, maxFacetRows);
+            long total = facets.statusCounts().values().stream().mapToLong(Long::longValue).sum();
+            return new DocumentSearchResponse(items, total, facets.capped(),
+                facets.statusCounts(), facets.aiSuggestionCounts(), nextCursor);
+        });
+    }
+    
+    /**
+     * Re-indexes every document, re-extracting file text, and removes index
+     * rows whose document no longer exists. Safe to run while the application
+     * is serving traffic.
+     *
+     * @return the number of documents indexed
+     */
+    public long rebuild() {
+        logger.info("Rebuilding search index");
+        long startNanos = System.nanoTime();
+        long indexed = 0;
+        LocalDateTime afterCreatedAt = LocalDateTime.of(1970, 1, 1, 0, 0);
+        String afterId = "";
+        
+        List<IndexSource> batch;
+        do {
+            batch = searchRepository.findSourcesAfter(afterCreatedAt, afterId, rebuildBatchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            List<String> ids = new ArrayList<>(batch.size());
+            List<String> contents = new ArrayList<>(batch.size());
+            for (IndexSource source : batch) {
+                ids.add(source.id());
+                contents.add(extractContent(source.filename(), source.filePath(), source.contentType()));
+            }
+            searchRepository.upsertAll(ids, contents);
+            indexed += batch.size();
+            
+            IndexSource last = batch.get(batch.size() - 1);
+            afterCreatedAt = last.createdAt();
+            afterId = last.id();
+            if (indexed % (rebuildBatchSize * 100L) == 0) {
+                logger.info("Indexed {} documents", indexed);
+            }
+        } while (batch.size() == rebuildBatchSize);
+        
+        int removed = searchRepository.deleteOrphans();
+        logger.info("Search index rebuilt: {} documents indexed, {} stale entries removed in {} ms",
+                   indexed, removed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        return indexed;
+    }
+    
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+    
+    /** Reads up to {@code maxContentChars} of a text file; null for binary or missing files. */
+    private String extractContent(String filename, String filePath, String contentType) {
+        if (filePath == null || filename == null || !AnalysisService.isText(contentType, filename)) {
+            return null;
+        }
+        Path path = Paths.get(filePath);
+        if (!Files.isReadable(path)) {
+            return null;
+        }
+        // Malformed bytes are replaced rather than failing the whole document
+        try (Reader reader = new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8)) {
+            char[] buffer = new char[maxContentChars];
+            int length = 0;
+            int read;
+            while (length < buffer.length && (read = reader.read(buffer, length, buffer.length - length)) != -1) {
+                length += read;
+            }
+            // Postgres text cannot hold NUL characters
+            return new String(buffer, 0, length).replace('\0', ' ');
+        } catch (IOException e) {
+            logger.warn("Could not read {} for indexing: {}", filePath, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -1,129 +1,345 @@
 package com.docflow.service;
 
 import com.docflow.dto.ApprovalDecisionRequest;
+import com.docflow.dto.BatchUploadItemResult;
+import com.docflow.dto.BatchUploadResponse;
+import com.docflow.dto.BulkDecisionFilter;
+import com.docflow.dto.BulkDecisionItemResult;
+import com.docflow.dto.BulkDecisionRequest;
+import com.docflow.dto.BulkDecisionResponse;
+import com.docflow.dto.DocumentCursor;
+import com.docflow.dto.DocumentPageResponse;
 import com.docflow.dto.DocumentResponse;
+import com.docflow.dto.DocumentSearchQuery;
+import com.docflow.dto.DocumentSearchResponse;
 import com.docflow.model.Document;
+import com.docflow.model.Document.DocumentPriority;
 import com.docflow.model.Document.DocumentStatus;
+import com.docflow.repository.DocumentBatchRepository;
 import com.docflow.repository.DocumentRepository;
+import com.docflow.repository.DocumentView;
+import com.docflow.repository.DocumentWorkflowRef;
 import com.docflow.workflow.DocumentApprovalWorkflow;
+import io.micrometer.observation.annotation.Observed;
 import io.temporal.client.WorkflowClient;
-import io.temporal.client.WorkflowOptions;
 import io.temporal.client.WorkflowStub;
-import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 @Service
+@Observed(name = "docflow.service")
 public class DocumentService {
     
     private static final Logger logger = LoggerFactory.getLogger(DocumentService.class);
     
+    private static final int MAX_PAGE_SIZE = 200;
+    
     private final DocumentRepository documentRepository;
+    private final DocumentBatchRepository documentBatchRepository;
     private final WorkflowClient workflowClient;
-    private final String taskQueue;
+    private final FileStorageService fileStorageService;
+    private final Executor workflowClientExecutor;
+    private final DocumentCache documentCache;
+    private final ObjectProvider<WorkflowOutboxDispatcher> outboxDispatcher;
+    private final DocumentArchiveService documentArchiveService;
+    private final DocumentSearchService documentSearchService;
+    private final DocumentPriorityPolicy priorityPolicy;
+    
+    @Value("${docflow.batch.max-items:10000}")
+    private int maxBatchItems;
     
-    @Value("${file.upload.dir:./uploads}")
-    private String uploadDir;
+    @Value("${docflow.bulk-decision.max-items:5000}")
+    private int maxBulkDecisionItems;
     
     public DocumentService(DocumentRepository documentRepository, 
+                          DocumentBatchRepository documentBatchRepository,
                           WorkflowClient workflowClient,
-                          String taskQueue) {
+                          FileStorageService fileStorageService,
+                          @Qualifier("workflowClientExecutor") Executor workflowClientExecutor,
+                          DocumentCache documentCache,
+                          ObjectProvider<WorkflowOutboxDispatcher> outboxDispatcher,
+                          DocumentArchiveService documentArchiveService,
+                          DocumentSearchService documentSearchService,
+                          DocumentPriorityPolicy priorityPolicy) {
         this.documentRepository = documentRepository;
+        this.documentBatchRepository = documentBatchRepository;
         this.workflowClient = workflowClient;
-        this.taskQueue = taskQueue;
+        this.fileStorageService = fileStorageService;
+        this.workflowClientExecutor = workflowClientExecutor;
+        this.documentCache = documentCache;
+        this.outboxDispatcher = outboxDispatcher;
+        this.documentArchiveService = documentArchiveService;
+        this.documentSearchService = documentSearchService;
+        this.priorityPolicy = priorityPolicy;
     }
     
-    public DocumentResponse uploadDocument(MultipartFile file) throws IOException {
+    /**
+     * A null {@code priority} is derived from the filename; {@code uploadedBy}
+     * is optional and only used to share analysis fairly between uploaders.
+     */
+    public DocumentResponse uploadDocument(MultipartFile file, DocumentPriority priority,
+                                           String uploadedBy) throws IOException {
         logger.info("Uploading document: {}", file.getOriginalFilename());
         
-        // Create upload directory if it doesn't exist
-        File uploadDirectory = new File(uploadDir);
-        if (!uploadDirectory.exists()) {
-            uploadDirectory.mkdirs();
+        StoredFile stored;
+        try (InputStream in = file.getInputStream()) {
+            stored = fileStorageService.store(in);
         }
         
-        // Generate unique filename
-        String filename = file.getOriginalFilename();
-        String uniqueFilename = UUID.randomUUID().toString() + "_" + filename;
-        String filePath = uploadDir + File.separator + uniqueFilename;
+        return createDocument(file.getOriginalFilename(), file.getContentType(), stored, priority, uploadedBy);
+    }
+    
+    /**
+     * Streams a raw request body to disk without multipart buffering, so the
+     * bytes are written exactly once regardless of file size.
+     */
+    public DocumentResponse uploadDocumentStream(InputStream in, String filename, String contentType,
+                                                 DocumentPriority priority, String uploadedBy) throws IOException {
+        logger.info("Streaming upload of document: {}", filename);
         
-        // Save file to disk
-        File dest = new File(filePath);
-        FileUtils.copyInputStreamToFile(file.getInputStream(), dest);
+        StoredFile stored = fileStorageService.store(in);
         
-        // Create document entity
-        Document document = new Document();
-        document.setFilename(filename);
-        document.setContentType(file.getContentType());
-        document.setFileSize(file.getSize());
-        document.setFilePath(filePath);
-        document.setStatus(DocumentStatus.PENDING);
+        return createDocument(filename, contentType, stored, priority, uploadedBy);
+    }
+    
+    public BatchUploadResponse uploadDocuments(List<MultipartFile> files, DocumentPriority priority,
+                                               String uploadedBy) {
+        if (files.size() > maxBatchItems) {
+            throw new IllegalArgumentException("Batch exceeds " + maxBatchItems + " files");
+        }
+        logger.info("Uploading batch of {} documents", files.size());
         
-        document = documentRepository.save(document);
+        long startNanos = System.nanoTime();
+        List<Document> staged = new ArrayList<>();
+        List<BatchUploadItemResult> results = new ArrayList<>();
         
-        // Start Temporal workflow
-        String workflowId = "document-approval-" + document.getId();
+        for (MultipartFile file : files) {
+            try (InputStream in = file.getInputStream()) {
+                StoredFile stored = fileStorageService.store(in);
+                staged.add(newDocument(file.getOriginalFilename(), file.getContentType(), stored,
+                    priorityPolicy.classify(priority, file.getOriginalFilename(), true), uploadedBy));
+            } catch (IOException | RuntimeException e) {
+                logger.error("Failed to store batch item {}", file.getOriginalFilename(), e);
+                results.add(BatchUploadItemResult.failed(file.getOriginalFilename(), null, e.getMessage()));
+            }
+        }
         
-        WorkflowOptions options = WorkflowOptions.newBuilder()
-            .setWorkflowId(workflowId)
-            .setTaskQueue(taskQueue)
-            .setWorkflowExecutionTimeout(Duration.ofHours(48))
-            .build();
+        return persistAndQueue(staged, results, startNanos);
+    }
+    
+    /**
+     * Ingests every regular file in a zip archive as its own document. Entries
+     * are streamed straight from the archive into the blob store.
+     */
+    public BatchUploadResponse uploadArchive(InputStream archive, DocumentPriority priority,
+                                             String uploadedBy) throws IOException {
+        logger.info("Uploading zip archive");
         
-        DocumentApprovalWorkflow workflow = workflowClient.newWorkflowStub(
-            DocumentApprovalWorkflow.class, 
-            options
-        );
+        long startNanos = System.nanoTime();
+        List<Document> staged = new ArrayList<>();
+        List<BatchUploadItemResult> results = new ArrayList<>();
         
-        // Start workflow asynchronously
-        WorkflowClient.start(workflow::processDocument, document.getId());
+        try (ZipInputStream zip = new ZipInputStream(archive)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                if (staged.size() + results.size() >= maxBatchItems) {
+                    throw new IllegalArgumentException("Archive exceeds " + maxBatchItems + " files");
+                }
+                
+                Path entryName = Paths.get(entry.getName()).getFileName();
+                String filename = entryName != null ? entryName.toString() : entry.getName();
+                try {
+                    StoredFile stored = fileStorageService.store(zip);
+                    String contentType = MediaTypeFactory.getMediaType(filename)
+                        .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                        .toString();
+                    staged.add(newDocument(filename, contentType, stored,
+                        priorityPolicy.classify(priority, filename, true), uploadedBy));
+                } catch (IOException | RuntimeException e) {
+                    logger.error("Failed to store archive entry {}", entry.getName(), e);
+                    results.add(BatchUploadItemResult.failed(filename, null, e.getMessage()));
+                }
+            }
+        }
         
-        // Update document with workflow ID
-        document.setWorkflowId(workflowId);
-        document = documentRepository.save(document);
+        return persistAndQueue(staged, results, startNanos);
+    }
+    
+    private BatchUploadResponse persistAndQueue(List<Document> staged, 
+                                                List<BatchUploadItemResult> results,
+                                                long startNanos) {
+        // One batched insert for all rows and their outbox entries; workflow
+        // ids are already assigned
+        documentBatchRepository.insertAll(staged);
+        wakeUpDispatcher();
+        
+        for (Document document : staged) {
+            index(document);
+            results.add(BatchUploadItemResult.queued(
+                document.getFilename(), document.getId(), document.getWorkflowId()));
+        }
+        
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - startNanos).toMillis();
+        int succeeded = (int) results.stream().filter(r -> "queued".equals(r.getStatus())).count();
+        int failed = results.size() - succeeded;
+        
+        logger.info("Batch upload finished: {} queued, {} failed in {} ms ({} documents/s)",
+                   succeeded, failed, elapsedMillis,
+                   elapsedMillis > 0 ? succeeded * 1000L / elapsedMillis : succeeded);
+        
+        return new BatchUploadResponse(succeeded, failed, elapsedMillis, results);
+    }
+    
+    /**
+     * Persists the document together with its outbox entry; the workflow is
+     * started by {@link WorkflowOutboxDispatcher} after the request returns.
+     */
+    private DocumentResponse createDocument(String filename, String contentType, StoredFile stored,
+                                            DocumentPriority priority, String uploadedBy) {
+        Document document = newDocument(filename, contentType, stored,
+            priorityPolicy.classify(priority, filename, false), uploadedBy);
+        
+        documentBatchRepository.insertAll(List.of(document));
+        wakeUpDispatcher();
+        index(document);
         
         logger.info("Document uploaded successfully: {} with workflow ID: {}", 
-                   document.getId(), workflowId);
+                   document.getId(), document.getWorkflowId());
         
         return DocumentResponse.fromDocument(document);
     }
     
-    public List<DocumentResponse> getAllDocuments() {
-        return documentRepository.findByOrderByCreatedAtDesc()
-            .stream()
-            .map(DocumentResponse::fromDocument)
-            .collect(Collectors.toList());
+    private void wakeUpDispatcher() {
+        outboxDispatcher.ifAvailable(WorkflowOutboxDispatcher::wakeUp);
+    }
+    
+    private void index(Document document) {
+        documentSearchService.indexAsync(
+            document.getId(), document.getFilename(), document.getFilePath(), document.getContentType());
     }
     
-    public List<DocumentResponse> getDocumentsByStatus(String status) {
+    public DocumentSearchResponse searchDocuments(DocumentSearchQuery query) {
+        return documentSearchService.search(query);
+    }
+    
+    /**
+     * Builds a new PENDING document with its id and workflow id assigned
+     * up front, so persisting it takes a single insert.
+     */
+    private Document newDocument(String filename, String contentType, StoredFile stored,
+                                 DocumentPriority priority, String uploadedBy) {
+        String id = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        
+        Document document = new Document();
+        document.setId(id);
+        document.setFilename(filename);
+        document.setContentType(contentType != null ? contentType : "application/octet-stream");
+        document.setFileSize(stored.getSize());
+        document.setFilePath(stored.getFilePath());
+        document.setContentHash(stored.getSha256());
+        document.setStatus(DocumentStatus.PENDING);
+        document.setWorkflowId("document-approval-" + id);
+        document.setPriority(priority);
+        document.setUploadedBy(uploadedBy);
+        document.setCreatedAt(now);
+        document.setUpdatedAt(now);
+        return document;
+    }
+    
+    public long getMaxUploadBytes() {
+        return fileStorageService.getMaxUploadBytes();
+    }
+    
+    public DocumentPageResponse getAllDocuments(String cursor, int limit) {
+        int pageSize = clampPageSize(limit);
+        List<DocumentView> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = documentRepository.findFirstPage(Limit.of(pageSize + 1));
+        } else {
+            DocumentCursor after = DocumentCursor.decode(cursor);
+            rows = documentRepository.findPageAfter(
+                after.getCreatedAt(), after.getId(), Limit.of(pageSize + 1));
+        }
+        return toPage(rows, pageSize);
+    }
+    
+    public DocumentPageResponse getDocumentsByStatus(String status, String cursor, int limit) {
         DocumentStatus documentStatus = DocumentStatus.valueOf(status.toUpperCase());
-        return documentRepository.findByStatusOrderByCreatedAtDesc(documentStatus)
-            .stream()
-            .map(DocumentResponse::fromDocument)
+        int pageSize = clampPageSize(limit);
+        List<DocumentView> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = documentRepository.findFirstPageByStatus(documentStatus, Limit.of(pageSize + 1));
+        } else {
+            DocumentCursor after = DocumentCursor.decode(cursor);
+            rows = documentRepository.findPageByStatusAfter(
+                documentStatus, after.getCreatedAt(), after.getId(), Limit.of(pageSize + 1));
+        }
+        return toPage(rows, pageSize);
+    }
+    
+    private int clampPageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+    
+    /**
+     * Builds a page from rows fetched with one extra element; the extra row
+     * only signals that another page exists and is not returned.
+     */
+    private DocumentPageResponse toPage(List<DocumentView> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<DocumentView> page = hasMore ? rows.subList(0, pageSize) : rows;
+        
+        String nextCursor = null;
+        if (hasMore) {
+            DocumentView last = page.get(page.size() - 1);
+            nextCursor = new DocumentCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        
+        List<DocumentResponse> items = page.stream()
+            .map(DocumentResponse::fromView)
             .collect(Collectors.toList());
+        return new DocumentPageResponse(items, nextCursor);
     }
     
     public DocumentResponse getDocumentById(String id) {
-        Document document = documentRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Document not found: " + id));
-        return DocumentResponse.fromDocument(document);
+        return documentCache.getDocument(id, () -> documentRepository.findById(id)
+            .map(DocumentResponse::fromDocument)
+            .or(() -> documentArchiveService.findArchived(id))
+            .orElseThrow(() -> new RuntimeException("Document not found: " + id)));
     }
     
     public DocumentResponse approveDocument(String id, ApprovalDecisionRequest request) {
         logger.info("Approving document: {} by {}", id, request.getReviewedBy());
         
-        Document document = documentRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Document not found: " + id));
+        DocumentResponse document = getDocumentById(id);
         
         if (document.getWorkflowId() == null) {
             throw new RuntimeException("Document has no associated workflow");
@@ -136,18 +352,18 @@ public class DocumentService {
         );
         
         workflow.approve(request.getReviewerNotes(), request.getReviewedBy());
+        documentCache.evict(id);
         
         logger.info("Approval signal sent for document: {}", id);
         
         // Return updated document (the workflow will update it)
-        return DocumentResponse.fromDocument(document);
+        return document;
     }
     
     public DocumentResponse rejectDocument(String id, ApprovalDecisionRequest request) {
         logger.info("Rejecting document: {} by {}", id, request.getReviewedBy());
         
-        Document document = documentRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Document not found: " + id));
+        DocumentResponse document = getDocumentById(id);
         
         if (document.getWorkflowId() == null) {
             throw new RuntimeException("Document has no associated workflow");
@@ -160,26 +376,111 @@ public class DocumentService {
         );
         
         workflow.reject(request.getReviewerNotes(), request.getReviewedBy());
+        documentCache.evict(id);
         
         logger.info("Rejection signal sent for document: {}", id);
         
         // Return updated document (the workflow will update it)
-        return DocumentResponse.fromDocument(document);
+        return document;
     }
     
-    public DocumentApprovalWorkflow.WorkflowStatus getWorkflowStatus(String id) {
-        Document document = documentRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Document not found: " + id));
+    /**
+     * Applies one decision to many documents: workflow ids are resolved in a
+     * single query and the signals are sent concurrently on the bounded
+     * workflow client executor.
+     */
+    public BulkDecisionResponse decideDocuments(BulkDecisionRequest request) {
+        boolean approve = "approved".equals(request.getDecision());
+        if (!approve && !"rejected".equals(request.getDecision())) {
+            throw new IllegalArgumentException("Invalid decision: " + request.getDecision());
+        }
         
-        if (document.getWorkflowId() == null) {
-            throw new RuntimeException("Document has no associated workflow");
+        long startNanos = System.nanoTime();
+        List<BulkDecisionItemResult> results = new ArrayList<>();
+        List<DocumentWorkflowRef> refs;
+        
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            if (request.getIds().size() > maxBulkDecisionItems) {
+                throw new IllegalArgumentException("Bulk decision exceeds " + maxBulkDecisionItems + " documents");
+            }
+            refs = documentRepository.findWorkflowRefsByIdIn(request.getIds());
+            
+            Set<String> found = refs.stream()
+                .map(DocumentWorkflowRef::getId)
+                .collect(Collectors.toSet());
+            request.getIds().stream()
+                .filter(id -> !found.contains(id))
+                .distinct()
+                .forEach(id -> results.add(new BulkDecisionItemResult(id, "not_found", null)));
+        } else if (request.getFilter() != null) {
+            BulkDecisionFilter filter = request.getFilter();
+            refs = documentRepository.findWorkflowRefsByFilter(
+                DocumentStatus.valueOf(filter.getStatus().toUpperCase()),
+                filter.getAiSuggestion(),
+                filter.getMinConfidence(),
+                Limit.of(maxBulkDecisionItems)
+            );
+        } else {
+            throw new IllegalArgumentException("Either ids or filter is required");
         }
         
-        DocumentApprovalWorkflow workflow = workflowClient.newWorkflowStub(
-            DocumentApprovalWorkflow.class,
-            document.getWorkflowId()
-        );
+        logger.info("Sending bulk {} signal to {} documents by {}", 
+                   request.getDecision(), refs.size(), request.getReviewedBy());
+        
+        List<CompletableFuture<BulkDecisionItemResult>> signals = refs.stream()
+            .map(ref -> CompletableFuture.supplyAsync(
+                () -> signalDecision(ref, approve, request), workflowClientExecutor))
+            .collect(Collectors.toList());
+        for (CompletableFuture<BulkDecisionItemResult> signal : signals) {
+            results.add(signal.join());
+        }
         
-        return workflow.getStatus();
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - startNanos).toMillis();
+        int succeeded = (int) results.stream().filter(r -> "signaled".equals(r.getStatus())).count();
+        
+        logger.info("Bulk decision finished: {} signaled, {} failed in {} ms",
+                   succeeded, results.size() - succeeded, elapsedMillis);
+        
+        return new BulkDecisionResponse(succeeded, results.size() - succeeded, elapsedMillis, results);
+    }
+    
+    private BulkDecisionItemResult signalDecision(DocumentWorkflowRef ref, boolean approve,
+                                                  BulkDecisionRequest request) {
+        if (ref.getWorkflowId() == null) {
+            return new BulkDecisionItemResult(ref.getId(), "no_workflow", null);
+        }
+        try {
+            DocumentApprovalWorkflow workflow = workflowClient.newWorkflowStub(
+                DocumentApprovalWorkflow.class,
+                ref.getWorkflowId()
+            );
+            if (approve) {
+                workflow.approve(request.getReviewerNotes(), request.getReviewedBy());
+            } else {
+                workflow.reject(request.getReviewerNotes(), request.getReviewedBy());
+            }
+            documentCache.evict(ref.getId());
+            return new BulkDecisionItemResult(ref.getId(), "signaled", null);
+        } catch (RuntimeException e) {
+            logger.error("Failed to signal workflow {}", ref.getWorkflowId(), e);
+            return new BulkDecisionItemResult(ref.getId(), "failed", e.getMessage());
+        }
+    }
+    
+    public DocumentApprovalWorkflow.WorkflowStatus getWorkflowStatus(String id) {
+        return documentCache.getWorkflowStatus(id, () -> {
+            DocumentResponse document = getDocumentById(id);
+            
+            if (document.getWorkflowId() == null) {
+                throw new RuntimeException("Document has no associated workflow");
+            }
+            
+            DocumentApprovalWorkflow workflow = workflowClient.newWorkflowStub(
+                DocumentApprovalWorkflow.class,
+                document.getWorkflowId()
+            );
+            
+            return workflow.getStatus();
+        });
     }
 }
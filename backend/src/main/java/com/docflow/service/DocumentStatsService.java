@@ -0,0 +1,87 @@
+package com.docflow.service;
+
+import com.docflow.dto.DocumentStatsResponse;
+import com.docflow.model.Document.DocumentStatus;
+import com.docflow.repository.DocumentStatsRepository;
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.docflow.repository.DocumentStatsRepository.AI_ANALYZED;
+import static com.docflow.repository.DocumentStatsRepository.AI_CONFIDENCE_MICROS;
+import static com.docflow.repository.DocumentStatsRepository.AI_SUGGESTION_PREFIX;
+import static com.docflow.repository.DocumentStatsRepository.DECISIONS_AGREED;
+import static com.docflow.repository.DocumentStatsRepository.DECISIONS_HUMAN;
+import static com.docflow.repository.DocumentStatsRepository.DECISIONS_POLICY;
+import static com.docflow.repository.DocumentStatsRepository.DECISIONS_TIMEOUT;
+import static com.docflow.repository.DocumentStatsRepository.DECISION_BUCKETS;
+import static com.docflow.repository.DocumentStatsRepository.DECISION_BUCKET_PREFIX;
+import static com.docflow.repository.DocumentStatsRepository.DECISION_SECONDS;
+import static com.docflow.repository.DocumentStatsRepository.STATUS_PREFIX;
+
+/**
+ * Dashboard statistics from the counters in {@link DocumentStatsRepository}.
+ * Answering never touches the documents table.
+ */
+@Service
+@Observed(name = "docflow.service")
+public class DocumentStatsService {
+    
+    private final DocumentStatsRepository statsRepository;
+    
+    public DocumentStatsService(DocumentStatsRepository statsRepository) {
+        this.statsRepository = statsRepository;
+    }
+    
+    public DocumentStatsResponse getStats() {
+        Map<String, Long> totals = statsRepository.totals();
+        
+        Map<String, Long> statusCounts = new LinkedHashMap<>();
+        long total = 0;
+        for (DocumentStatus status : DocumentStatus.values()) {
+            long count = totals.getOrDefault(STATUS_PREFIX + status.name(), 0L);
+            statusCounts.put(status.name().toLowerCase(), count);
+            total += count;
+        }
+        
+        Map<String, Long> aiSuggestionCounts = new TreeMap<>();
+        totals.forEach((metric, count) -> {
+            if (metric.startsWith(AI_SUGGESTION_PREFIX)) {
+                aiSuggestionCounts.put(metric.substring(AI_SUGGESTION_PREFIX.length()), count);
+            }
+        });
+        
+        Map<String, Long> timeToDecision = new LinkedHashMap<>();
+        long decisions = 0;
+        for (String bucket : DECISION_BUCKETS.keySet()) {
+            long count = totals.getOrDefault(DECISION_BUCKET_PREFIX + bucket, 0L);
+            timeToDecision.put(bucket, count);
+            decisions += count;
+        }
+        
+        long analyzed = totals.getOrDefault(AI_ANALYZED, 0L);
+        long humanDecisions = totals.getOrDefault(DECISIONS_HUMAN, 0L);
+        long agreements = totals.getOrDefault(DECISIONS_AGREED, 0L);
+        
+        return new DocumentStatsResponse(
+            total,
+            statusCounts,
+            aiSuggestionCounts,
+            ratio(totals.getOrDefault(AI_CONFIDENCE_MICROS, 0L) / 1_000_000.0, analyzed),
+            humanDecisions,
+            agreements,
+            ratio(agreements, humanDecisions),
+            totals.getOrDefault(DECISIONS_TIMEOUT, 0L),
+            totals.getOrDefault(DECISIONS_POLICY, 0L),
+            ratio(totals.getOrDefault(DECISION_SECONDS, 0L), decisions),
+            timeToDecision
+        );
+    }
+    
+    private static Double ratio(double numerator, long denominator) {
+        return denominator == 0 ? null : numerator / denominator;
+    }
+}
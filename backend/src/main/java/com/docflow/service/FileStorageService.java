@@ -0,0 +1,203 @@
+package com.docflow.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.annotation.Observed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Content-addressed blob store under {@code file.upload.dir}. Uploads are
+ * streamed to a temporary file while being hashed with SHA-256, then moved to
+ * {@code blobs/<first two hex chars>/<hash>}. Identical bytes are therefore
+ * stored once; a repeat upload just discards its temporary copy.
+ * <p>
+ * Blobs that only archived documents reference are moved to the same relative
+ * path under {@code file.archive.dir}, which can sit on cheaper storage.
+ */
+@Service
+@Observed(name = "docflow.service")
+public class FileStorageService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(FileStorageService.class);
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    @Value("${file.upload.dir:./uploads}")
+    private String uploadDir;
+    
+    @Value("${file.upload.max-size:5GB}")
+    private DataSize maxUploadSize;
+    
+    @Value("${file.archive.dir:./uploads-archive}")
+    private String archiveDir;
+    
+    private final Counter dedupHits;
+    private final Counter dedupMisses;
+    private final Counter bytesSaved;
+    private final Counter bytesUploaded;
+    private final DistributionSummary uploadThroughput;
+    
+    public FileStorageService(MeterRegistry meterRegistry) {
+        this.dedupHits = Counter.builder("docflow.storage.dedup.lookups")
+            .tag("result", "hit")
+            .description("Uploads whose content was already stored")
+            .register(meterRegistry);
+        this.dedupMisses = Counter.builder("docflow.storage.dedup.lookups")
+            .tag("result", "miss")
+            .description("Uploads that created a new blob")
+            .register(meterRegistry);
+        this.bytesSaved = Counter.builder("docflow.storage.dedup.bytes.saved")
+            .baseUnit("bytes")
+            .description("Bytes not written to disk thanks to deduplication")
+            .register(meterRegistry);
+        this.bytesUploaded = Counter.builder("docflow.upload.bytes")
+            .baseUnit("bytes")
+            .description("Bytes received by uploads")
+            .register(meterRegistry);
+        this.uploadThroughput = DistributionSummary.builder("docflow.upload.throughput")
+            .baseUnit("bytes.per.second")
+            .description("Per-upload transfer rate from client to blob store")
+            .publishPercentiles(0.5, 0.95)
+            .register(meterRegistry);
+        Gauge.builder("docflow.storage.dedup.hit.ratio", this, FileStorageService::getDedupHitRatio)
+            .description("Fraction of uploads served by an existing blob")
+            .register(meterRegistry);
+    }
+    
+    public long getMaxUploadBytes() {
+        return maxUploadSize.toBytes();
+    }
+    
+    public double getDedupHitRatio() {
+        double total = dedupHits.count() + dedupMisses.count();
+        return total == 0 ? 0.0 : dedupHits.count() / total;
+    }
+    
+    /** Bytes still available to uploads on the volume holding {@code file.upload.dir}. */
+    public long getUsableUploadSpace() throws IOException {
+        // The directory is created with the first upload
+        Path existing = Paths.get(uploadDir).toAbsolutePath();
+        while (!Files.exists(existing) && existing.getParent() != null) {
+            existing = existing.getParent();
+        }
+        return Files.getFileStore(existing).getUsableSpace();
+    }
+    
+    public StoredFile store(InputStream in) throws IOException {
+        Path tmpDirectory = Paths.get(uploadDir, "tmp");
+        Files.createDirectories(tmpDirectory);
+        Path temp = tmpDirectory.resolve(UUID.randomUUID() + ".part");
+        
+        MessageDigest digest = newSha256();
+        long startNanos = System.nanoTime();
+        long maxBytes = getMaxUploadBytes();
+        long written = 0;
+        byte[] buffer = new byte[BUFFER_SIZE];
+        
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                written += read;
+                if (written > maxBytes) {
+                    throw new IllegalArgumentException(
+                        "File exceeds maximum upload size of " + maxUploadSize);
+                }
+                digest.update(buffer, 0, read);
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    channel.write(chunk);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        
+        long elapsedNanos = Math.max(1, System.nanoTime() - startNanos);
+        bytesUploaded.increment(written);
+        uploadThroughput.record(written * 1_000_000_000.0 / elapsedNanos);
+        
+        String sha256 = HexFormat.of().formatHex(digest.digest());
+        Path target = blobPath(sha256);
+        
+        boolean duplicate = Files.exists(target);
+        if (duplicate) {
+            Files.delete(temp);
+            dedupHits.increment();
+            bytesSaved.increment(written);
+            logger.info("Deduplicated {} bytes against existing blob {}", written, sha256);
+        } else {
+            Files.createDirectories(target.getParent());
+            // A concurrent upload of the same bytes may win the race; replacing
+            // a blob with identical content is harmless.
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            dedupMisses.increment();
+            logger.info("Stored {} bytes as blob {}", written, sha256);
+        }
+        
+        return new StoredFile(target.toString(), written, sha256, duplicate);
+    }
+    
+    /** Moves a stored file to the cold tier; a no-op if it is already gone. */
+    public void moveToColdTier(String filePath) throws IOException {
+        Path source = Paths.get(filePath);
+        if (!Files.exists(source)) {
+            return;
+        }
+        Path target = coldPath(source);
+        Files.createDirectories(target.getParent());
+        // Not atomic across filesystems; falls back to copy and delete
+        Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        logger.info("Moved {} to cold tier", filePath);
+    }
+    
+    /** Copies a file back from the cold tier if it is missing from the upload directory. */
+    public void restoreFromColdTier(String filePath) throws IOException {
+        Path target = Paths.get(filePath);
+        Path source = coldPath(target);
+        if (!Files.exists(target) && Files.exists(source)) {
+            Files.createDirectories(target.getParent());
+            Files.copy(source, target);
+            logger.info("Restored {} from cold tier", filePath);
+        }
+    }
+    
+    private Path coldPath(Path hotPath) {
+        Path root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        Path relative = root.relativize(hotPath.toAbsolutePath().normalize());
+        return Paths.get(archiveDir).resolve(relative);
+    }
+    
+    private Path blobPath(String sha256) {
+        return Paths.get(uploadDir, "blobs", sha256.substring(0, 2), sha256);
+    }
+    
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.docflow.service;
+
+import com.docflow.dto.DocumentEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Relays {@link DocumentEvent}s between nodes with Postgres LISTEN/NOTIFY, so
+ * SSE subscribers on an API node see changes made by activities running on a
+ * separate worker, and API caches are invalidated everywhere.
+ * <p>
+ * Events go out with pg_notify on the pooled connection. A dedicated
+ * connection outside the pool listens, reconnecting after failures. Events are
+ * tagged with this node's id so a node ignores its own notifications, which
+ * it has already delivered locally. NOTIFY is fire-and-forget; a node that is
+ * reconnecting misses events and relies on cache TTLs and client refreshes.
+ */
+@Component
+@ConditionalOnProperty(name = "docflow.events.postgres.enabled", havingValue = "true")
+public class PostgresDocumentEventRelay {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PostgresDocumentEventRelay.class);
+    
+    private final String nodeId = UUID.randomUUID().toString();
+    private final DocumentEventBus eventBus;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private volatile boolean running = true;
+    private Thread listener;
+    
+    @Value("${docflow.events.postgres.channel:docflow_document_events}")
+    private String channel;
+    
+    @Value("${docflow.events.postgres.poll-timeout:10s}")
+    private Duration pollTimeout;
+    
+    @Value("${spring.datasource.url}")
+    private String url;
+    
+    @Value("${spring.datasource.username}")
+    private String username;
+    
+    @Value("${spring.datasource.password}")
+    private String password;
+    
+    public PostgresDocumentEventRelay(@Lazy DocumentEventBus eventBus,
+                                      JdbcTemplate jdbcTemplate,
+                                      ObjectMapper objectMapper) {
+        this.eventBus = eventBus;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+    
+    @PostConstruct
+    public void start() {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalStateException("Invalid notification channel: " + channel);
+        }
+        listener = new Thread(this::listen, "document-event-listener");
+        listener.setDaemon(true);
+        listener.start();
+        logger.info("Relaying document events over Postgres channel {} as node {}", channel, nodeId);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+    
+    public void send(DocumentEvent event) {
+        try {
+            String payload = objectMapper.writeValueAsString(new Envelope(nodeId, event));
+            jdbcTemplate.queryForObject("select pg_notify(?, ?)", Object.class, channel, payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize document event", e);
+        } catch (Exception e) {
+            // The change itself is committed; other nodes fall back to TTLs
+            logger.warn("Failed to relay {} event for {}: {}", event.getType(), event.getDocumentId(), e.getMessage());
+        }
+    }
+    
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                logger.info("Listening for document events on {}", channel);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollTimeout.toMillis());
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        receive(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Document event listener disconnected, retrying: {}", e.getMessage());
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+    
+    private void receive(String payload) {
+        try {
+            Envelope envelope = objectMapper.readValue(payload, Envelope.class);
+            if (!nodeId.equals(envelope.origin())) {
+                eventBus.deliver(envelope.event());
+            }
+        } catch (Exception e) {
+            logger.warn("Ignoring malformed document event: {}", e.getMessage());
+        }
+    }
+    
+    record Envelope(String origin, DocumentEvent event) {}
+}
@@ -0,0 +1,39 @@
+package com.docflow.service;
+
+import com.docflow.config.ReadWriteRoutingDataSource;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Remembers documents changed within the replica staleness bound, on this or
+ * (via relayed events) any other node, so reads of them go to the primary
+ * and a client sees its decision right after making it.
+ */
+@Component
+public class ReadYourWritesTracker {
+    
+    private final Cache<String, Boolean> recentlyWritten;
+    
+    public ReadYourWritesTracker(DocumentEventBus eventBus,
+                                 @Value("${docflow.datasource.replicas.max-staleness:5s}") Duration window,
+                                 @Value("${docflow.datasource.replicas.read-your-writes-max-size:100000}") long maxSize) {
+        this.recentlyWritten = Caffeine.newBuilder()
+            .expireAfterWrite(window)
+            .maximumSize(maxSize)
+            .build();
+        eventBus.subscribe(event -> recentlyWritten.put(event.getDocumentId(), Boolean.TRUE));
+    }
+    
+    /** Runs {@code read} on the primary if the document was changed recently. */
+    public <T> T read(String documentId, Supplier<T> read) {
+        if (recentlyWritten.getIfPresent(documentId) != null) {
+            return ReadWriteRoutingDataSource.usePrimary(read);
+        }
+        return read.get();
+    }
+}
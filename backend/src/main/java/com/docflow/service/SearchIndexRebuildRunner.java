@@ -0,0 +1,45 @@
+package com.docflow.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuild command for the search index: starting the application with
+ * {@code --docflow.search.rebuild=true} re-indexes every document and exits.
+ * Combine with {@code --temporal.worker.enabled=false
+ * --docflow.outbox.dispatcher.enabled=false --spring.main.web-application-type=none}
+ * to run it next to a live deployment.
+ */
+@Component
+@ConditionalOnProperty(name = "docflow.search.rebuild", havingValue = "true")
+public class SearchIndexRebuildRunner implements ApplicationRunner {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexRebuildRunner.class);
+    
+    private final DocumentSearchService searchService;
+    private final ConfigurableApplicationContext context;
+    
+    public SearchIndexRebuildRunner(DocumentSearchService searchService, ConfigurableApplicationContext context) {
+        this.searchService = searchService;
+        this.context = context;
+    }
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        int exitCode = 0;
+        try {
+            searchService.rebuild();
+        } catch (RuntimeException e) {
+            logger.error("Search index rebuild failed", e);
+            exitCode = 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
+}
@@ -0,0 +1,14 @@
+package com.docflow.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class StoredFile {
+    
+    private String filePath;
+    private long size;
+    private String sha256; // lowercase hex digest of the stored bytes
+    private boolean duplicate; // content was already in the blob store
+}
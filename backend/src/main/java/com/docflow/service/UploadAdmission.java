@@ -0,0 +1,369 @@
+package com.docflow.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Decides whether an upload is taken now. Each client draws from its own
+ * token bucket, and all uploads share a concurrency limit that adapts in
+ * AIMD fashion: it grows by one for every limit's worth of uploads that
+ * finish within the latency target while at least half the limit is in use,
+ * and shrinks by the backoff ratio when an upload overruns the target (at
+ * most once per target) or {@link UploadLoadMonitor} reports overload. An
+ * upload that finds the limit reached waits up to {@code max-wait} for a
+ * slot, so short bursts are deferred rather than refused. While overloaded,
+ * batch uploads are refused outright; while the upload disk is nearly full,
+ * all uploads are. Refusals carry the time after which a retry is worth it.
+ * <p>
+ * A batch costs one token and one slot per item, up to the burst size and
+ * half the limit, and its latency is compared with the target per item.
+ * Latency is server time: time spent waiting for a streamed request body
+ * to arrive is left out, so slow clients don't shrink the limit.
+ */
+@Component
+public class UploadAdmission {
+    
+    public enum Rejection {
+        CLIENT_RATE,
+        CONCURRENCY,
+        OVERLOAD,
+        DISK
+    }
+    
+    private final boolean enabled;
+    private final double clientRate;
+    private final int clientBurst;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyTargetNanos;
+    private final long maxWaitNanos;
+    private final Duration retryAfter;
+    private final Duration diskRetryAfter;
+    private final long archiveItemBytes;
+    private final Cache<String, TokenBucket> buckets = Caffeine.newBuilder()
+        .expireAfterAccess(Duration.ofMinutes(10))
+        .maximumSize(100_000)
+        .build();
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotFreed = lock.newCondition();
+    // Written under the lock, read by the gauges
+    private volatile double limit;
+    private volatile int inFlight;
+    private int waiting;
+    private long lastDecreaseNanos;
+    
+    private volatile boolean overloaded;
+    private volatile boolean diskFull;
+    
+    private final Counter admitted;
+    private final Map<Rejection, Counter> rejected = new EnumMap<>(Rejection.class);
+    private final Timer queueWait;
+    
+    public UploadAdmission(@Value("${docflow.admission.enabled:true}") boolean enabled,
+                           @Value("${docflow.admission.client.rate:10}") double clientRate,
+                           @Value("${docflow.admission.client.burst:50}") int clientBurst,
+                           @Value("${docflow.admission.initial-limit:50}") int initialLimit,
+                           @Value("${docflow.admission.min-limit:4}") int minLimit,
+                           @Value("${docflow.admission.max-limit:200}") int maxLimit,
+                           @Value("${docflow.admission.backoff-ratio:0.9}") double backoffRatio,
+                           @Value("${docflow.admission.latency-target:2s}") Duration latencyTarget,
+                           @Value("${docflow.admission.max-wait:500ms}") Duration maxWait,
+                           @Value("${docflow.admission.retry-after:1s}") Duration retryAfter,
+                           @Value("${docflow.admission.disk-retry-after:60s}") Duration diskRetryAfter,
+                           @Value("${docflow.admission.archive-item-bytes:256KB}") DataSize archiveItemBytes,
+                           MeterRegistry meterRegistry) {
+        if (minLimit < 1 || maxLimit < minLimit || backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalStateException("docflow.admission needs 1 <= min-limit <= max-limit "
+                + "and 0 < backoff-ratio < 1");
+        }
+        this.enabled = enabled;
+        this.clientRate = clientRate;
+        this.clientBurst = Math.max(1, clientBurst);
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTargetNanos = latencyTarget.toNanos();
+        this.maxWaitNanos = maxWait.toNanos();
+        this.retryAfter = retryAfter;
+        this.diskRetryAfter = diskRetryAfter;
+        this.archiveItemBytes = Math.max(1, archiveItemBytes.toBytes());
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        
+        this.admitted = Counter.builder("docflow.admission.decisions")
+            .description("Uploads admitted or refused by admission control")
+            .tag("result", "admitted")
+            .register(meterRegistry);
+        for (Rejection rejection : Rejection.values()) {
+            rejected.put(rejection, Counter.builder("docflow.admission.decisions")
+                .description("Uploads admitted or refused by admission control")
+                .tag("result", rejection.name().toLowerCase().replace('_', '-'))
+                .register(meterRegistry));
+        }
+        this.queueWait = Timer.builder("docflow.admission.queue.wait")
+            .description("Time an admitted upload waited for a concurrency slot")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        Gauge.builder("docflow.admission.limit", this, UploadAdmission::getLimit)
+            .description("Current adaptive limit on concurrent uploads")
+            .register(meterRegistry);
+        Gauge.builder("docflow.admission.in-flight", this, UploadAdmission::getInFlight)
+            .description("Uploads currently admitted")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Admits or refuses a single upload from {@code client}. The returned
+     * ticket must be closed when the upload is done, admitted or not.
+     */
+    public Ticket admit(String client) {
+        return admit(client, false, 1);
+    }
+    
+    /** Admits or refuses a batch of {@code items} uploads from {@code client}. */
+    public Ticket admitBatch(String client, int items) {
+        return admit(client, true, Math.max(1, items));
+    }
+    
+    /**
+     * Admits or refuses an archive of {@code bytes} from {@code client}. Its
+     * entries are only known once unpacked, so it is charged as one item per
+     * {@code archive-item-bytes}.
+     */
+    public Ticket admitArchive(String client, long bytes) {
+        return admitBatch(client, (int) Math.min(Integer.MAX_VALUE, (bytes + archiveItemBytes - 1) / archiveItemBytes));
+    }
+    
+    private Ticket admit(String client, boolean batch, int items) {
+        if (!enabled) {
+            return new Ticket(null, null, 0, items);
+        }
+        if (diskFull) {
+            return reject(Rejection.DISK, diskRetryAfter, items);
+        }
+        if (batch && overloaded) {
+            return reject(Rejection.OVERLOAD, jittered(retryAfter), items);
+        }
+        if (clientRate > 0) {
+            TokenBucket bucket = buckets.get(client != null ? client : "", key -> new TokenBucket(clientBurst));
+            Duration refill = bucket.take(Math.min(items, clientBurst), clientRate, clientBurst);
+            if (refill != null) {
+                return reject(Rejection.CLIENT_RATE, refill, items);
+            }
+        }
+        
+        long start = System.nanoTime();
+        int slots;
+        lock.lock();
+        try {
+            slots = slotsFor(items);
+            if (inFlight + slots > (int) limit) {
+                // Defer a bounded number of uploads briefly; refuse the rest now
+                if (maxWaitNanos <= 0 || waiting >= (int) limit) {
+                    return reject(Rejection.CONCURRENCY, jittered(retryAfter), items);
+                }
+                waiting++;
+                try {
+                    long remaining = maxWaitNanos;
+                    while (inFlight + (slots = slotsFor(items)) > (int) limit) {
+                        if (remaining <= 0) {
+                            return reject(Rejection.CONCURRENCY, jittered(retryAfter), items);
+                        }
+                        remaining = slotFreed.awaitNanos(remaining);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return reject(Rejection.CONCURRENCY, jittered(retryAfter), items);
+                } finally {
+                    waiting--;
+                }
+            }
+            inFlight += slots;
+        } finally {
+            lock.unlock();
+        }
+        long now = System.nanoTime();
+        queueWait.record(now - start, TimeUnit.NANOSECONDS);
+        admitted.increment();
+        return new Ticket(null, null, slots, items);
+    }
+    
+    /** Called by {@link UploadLoadMonitor} with every sample of the node's load. */
+    public void update(boolean overloaded, boolean diskFull) {
+        this.overloaded = overloaded;
+        this.diskFull = diskFull;
+        if (overloaded) {
+            lock.lock();
+            try {
+                decrease(System.nanoTime());
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+    
+    public double getLimit() {
+        return limit;
+    }
+    
+    public int getInFlight() {
+        return inFlight;
+    }
+    
+    public boolean isOverloaded() {
+        return overloaded;
+    }
+    
+    private void release(int slots, long latencyNanos) {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            boolean saturated = inFlight * 2 >= limit;
+            inFlight -= slots;
+            if (latencyNanos > latencyTargetNanos) {
+                if (now - lastDecreaseNanos >= latencyTargetNanos) {
+                    decrease(now);
+                }
+            } else if (saturated && !overloaded) {
+                // One more slot per limit's worth of uploads, as TCP grows its window per round trip
+                limit = Math.min(maxLimit, limit + slots / limit);
+            }
+            slotFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // Caller holds the lock; a batch leaves at least half the limit to single uploads
+    private int slotsFor(int items) {
+        return Math.max(1, Math.min(items, (int) limit / 2));
+    }
+    
+    // Caller holds the lock
+    private void decrease(long now) {
+        limit = Math.max(minLimit, limit * backoffRatio);
+        lastDecreaseNanos = now;
+    }
+    
+    private Ticket reject(Rejection rejection, Duration retryAfter, int items) {
+        rejected.get(rejection).increment();
+        return new Ticket(rejection, retryAfter, 0, items);
+    }
+    
+    // Spread retries so refused clients don't come back in step
+    private static Duration jittered(Duration retryAfter) {
+        return Duration.ofMillis((long) (retryAfter.toMillis() * (1 + ThreadLocalRandom.current().nextDouble())));
+    }
+    
+    /** Outcome of {@link #admit}; closing an admitted ticket frees its slot. */
+    public final class Ticket implements AutoCloseable {
+        
+        private final Rejection rejection;
+        private final Duration retryAfter;
+        private final int items;
+        private final long startNanos = System.nanoTime();
+        private final AtomicLong transferNanos = new AtomicLong();
+        private int slots;
+        
+        private Ticket(Rejection rejection, Duration retryAfter, int slots, int items) {
+            this.rejection = rejection;
+            this.retryAfter = retryAfter;
+            this.slots = slots;
+            this.items = items;
+        }
+        
+        public boolean isAdmitted() {
+            return rejection == null;
+        }
+        
+        /** Null when admitted. */
+        public Rejection getRejection() {
+            return rejection;
+        }
+        
+        /** Whole seconds for a Retry-After header, at least one. */
+        public long getRetryAfterSeconds() {
+            return Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        }
+        
+        /**
+         * Wraps the request body so time spent waiting for it to arrive is
+         * not counted as the upload's latency.
+         */
+        public InputStream body(InputStream in) {
+            return new FilterInputStream(in) {
+                @Override
+                public int read() throws IOException {
+                    long start = System.nanoTime();
+                    try {
+                        return super.read();
+                    } finally {
+                        transferNanos.addAndGet(System.nanoTime() - start);
+                    }
+                }
+                
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    long start = System.nanoTime();
+                    try {
+                        return super.read(b, off, len);
+                    } finally {
+                        transferNanos.addAndGet(System.nanoTime() - start);
+                    }
+                }
+            };
+        }
+        
+        @Override
+        public void close() {
+            if (slots > 0) {
+                long serverNanos = System.nanoTime() - startNanos - transferNanos.get();
+                release(slots, serverNanos / items);
+                slots = 0;
+            }
+        }
+    }
+    
+    /** Tokens refill continuously at the client rate up to the burst size. */
+    private static final class TokenBucket {
+        
+        private double tokens;
+        private long refilledNanos = System.nanoTime();
+        
+        TokenBucket(int burst) {
+            this.tokens = burst;
+        }
+        
+        /** Takes {@code cost} tokens, or returns how long until they are available. */
+        synchronized Duration take(int cost, double rate, int burst) {
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - refilledNanos) / 1e9 * rate);
+            refilledNanos = now;
+            if (tokens >= cost) {
+                tokens -= cost;
+                return null;
+            }
+            return Duration.ofNanos((long) ((cost - tokens) / rate * 1e9));
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.docflow.service;
+
+import com.docflow.analysis.AnalysisScheduler;
+import com.docflow.repository.WorkflowOutboxRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples what uploads put pressure on and tells {@link UploadAdmission}
+ * whether the node is overloaded. The backlog is the documents whose
+ * workflow has not been started plus those queued for analysis on this
+ * node; the pool wait is the mean time to get a database connection since
+ * the previous sample, from the Hikari metrics of every pool. Either above
+ * its bound counts as overload. Free space on the upload volume below its
+ * bound stops uploads altogether, since a full disk fails them all.
+ */
+@Component
+@ConditionalOnProperty(name = "docflow.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class UploadLoadMonitor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UploadLoadMonitor.class);
+    
+    private final UploadAdmission admission;
+    private final AnalysisScheduler analysisScheduler;
+    private final WorkflowOutboxRepository outboxRepository;
+    private final FileStorageService fileStorageService;
+    private final MeterRegistry meterRegistry;
+    private final ScheduledExecutorService scheduler;
+    
+    @Value("${docflow.admission.sample-interval:1s}")
+    private Duration sampleInterval;
+    
+    @Value("${docflow.admission.max-backlog:5000}")
+    private long maxBacklog;
+    
+    @Value("${docflow.admission.max-pool-wait:100ms}")
+    private Duration maxPoolWait;
+    
+    @Value("${docflow.admission.min-free-disk:1GB}")
+    private DataSize minFreeDisk;
+    
+    private volatile long backlog;
+    private volatile double poolWaitNanos;
+    private volatile long freeDiskBytes = Long.MAX_VALUE;
+    private double acquireTotalNanos;
+    private long acquireCount;
+    private boolean wasOverloaded;
+    private boolean wasDiskFull;
+    
+    public UploadLoadMonitor(UploadAdmission admission,
+                             AnalysisScheduler analysisScheduler,
+                             WorkflowOutboxRepository outboxRepository,
+                             FileStorageService fileStorageService,
+                             MeterRegistry meterRegistry) {
+        this.admission = admission;
+        this.analysisScheduler = analysisScheduler;
+        this.outboxRepository = outboxRepository;
+        this.fileStorageService = fileStorageService;
+        this.meterRegistry = meterRegistry;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("upload-load-monitor-"));
+        Gauge.builder("docflow.admission.backlog", this, monitor -> monitor.backlog)
+            .description("Documents waiting for their workflow start or for analysis on this node")
+            .register(meterRegistry);
+        TimeGauge.builder("docflow.admission.pool.wait", this, TimeUnit.NANOSECONDS, monitor -> monitor.poolWaitNanos)
+            .description("Mean database connection wait over the last sample interval")
+            .register(meterRegistry);
+        Gauge.builder("docflow.admission.disk.free", this, monitor -> monitor.freeDiskBytes)
+            .baseUnit("bytes")
+            .description("Usable space on the upload volume")
+            .register(meterRegistry);
+    }
+    
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::sample, 0, sampleInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+    
+    private void sample() {
+        try {
+            long queued = analysisScheduler.queued();
+            try {
+                queued += outboxRepository.countPending();
+            } catch (RuntimeException e) {
+                // A database too slow to count shows up in the pool wait
+                logger.warn("Could not count the workflow outbox: {}", e.getMessage());
+            }
+            backlog = queued;
+            poolWaitNanos = samplePoolWait();
+            try {
+                freeDiskBytes = fileStorageService.getUsableUploadSpace();
+            } catch (Exception e) {
+                logger.warn("Could not read free space of the upload volume: {}", e.getMessage());
+            }
+            
+            boolean overloaded = backlog > maxBacklog || poolWaitNanos > maxPoolWait.toNanos();
+            boolean diskFull = freeDiskBytes < minFreeDisk.toBytes();
+            if (overloaded != wasOverloaded) {
+                logger.info(overloaded
+                    ? "Uploads overloaded (backlog {}, pool wait {} ms); reducing the upload limit"
+                    : "Uploads no longer overloaded (backlog {}, pool wait {} ms)",
+                    backlog, Math.round(poolWaitNanos / 1e6));
+            }
+            if (diskFull != wasDiskFull) {
+                logger.warn(diskFull
+                    ? "Upload volume has {} bytes free; refusing uploads"
+                    : "Upload volume has {} bytes free; accepting uploads again", freeDiskBytes);
+            }
+            wasOverloaded = overloaded;
+            wasDiskFull = diskFull;
+            admission.update(overloaded, diskFull);
+        } catch (RuntimeException e) {
+            logger.error("Upload load sample failed", e);
+        }
+    }
+    
+    private double samplePoolWait() {
+        double totalNanos = 0;
+        long count = 0;
+        for (Timer timer : meterRegistry.find("hikaricp.connections.acquire").timers()) {
+            totalNanos += timer.totalTime(TimeUnit.NANOSECONDS);
+            count += timer.count();
+        }
+        long acquired = count - acquireCount;
+        double waited = totalNanos - acquireTotalNanos;
+        acquireTotalNanos = totalNanos;
+        acquireCount = count;
+        return acquired > 0 ? waited / acquired : 0;
+    }
+}
@@ -0,0 +1,218 @@
+package com.docflow.service;
+
+import com.docflow.model.Document.DocumentPriority;
+import com.docflow.model.WorkflowOutboxEntry;
+import com.docflow.repository.WorkflowOutboxRepository;
+import com.docflow.workflow.DocumentApprovalWorkflow;
+import com.docflow.workflow.TracingContextPropagator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.temporal.api.enums.v1.WorkflowIdReusePolicy;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowExecutionAlreadyStarted;
+import io.temporal.client.WorkflowOptions;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Drains {@code workflow_outbox} and starts the owed workflows, keeping the
+ * Temporal RPC out of the upload request. Entries are claimed in batches and
+ * started in parallel on the workflow client executor, so the batch size
+ * bounds the calls in flight. Failed starts are retried with exponential
+ * backoff, and a batch that fails entirely ends the drain until the next poll
+ * so an unavailable Temporal frontend is not hammered.
+ * <p>
+ * Each workflow carries its document's priority in the
+ * {@link DocumentApprovalWorkflow#PRIORITY_MEMO} memo, which picks the
+ * task queue its AI analysis runs on.
+ * <p>
+ * Workflow ids are fixed per document and duplicates are rejected, so an
+ * entry redelivered after a crash between starting the workflow and deleting
+ * the entry is recognized as already started.
+ */
+@Component
+@ConditionalOnProperty(name = "docflow.outbox.dispatcher.enabled", havingValue = "true", matchIfMissing = true)
+public class WorkflowOutboxDispatcher {
+    
+    private static final Logger logger = LoggerFactory.getLogger(WorkflowOutboxDispatcher.class);
+    
+    private final WorkflowOutboxRepository outboxRepository;
+    private final WorkflowClient workflowClient;
+    private final String taskQueue;
+    private final Executor workflowClientExecutor;
+    private final TracingContextPropagator tracing;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+    private final Counter started;
+    private final Counter duplicates;
+    private final Counter failures;
+    private final Map<DocumentPriority, Timer> dispatchLag = new EnumMap<>(DocumentPriority.class);
+    
+    @Value("${docflow.outbox.batch-size:100}")
+    private int batchSize;
+    
+    @Value("${docflow.outbox.poll-interval:1s}")
+    private Duration pollInterval;
+    
+    @Value("${docflow.outbox.lease:60s}")
+    private Duration lease;
+    
+    @Value("${docflow.outbox.initial-backoff:1s}")
+    private Duration initialBackoff;
+    
+    @Value("${docflow.outbox.max-backoff:5m}")
+    private Duration maxBackoff;
+    
+    public WorkflowOutboxDispatcher(WorkflowOutboxRepository outboxRepository,
+                                    WorkflowClient workflowClient,
+                                    String taskQueue,
+                                    @Qualifier("workflowClientExecutor") Executor workflowClientExecutor,
+                                    TracingContextPropagator tracing,
+                                    MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.workflowClient = workflowClient;
+        this.taskQueue = taskQueue;
+        this.workflowClientExecutor = workflowClientExecutor;
+        this.tracing = tracing;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("outbox-dispatcher-"));
+        this.started = dispatched(meterRegistry, "started");
+        this.duplicates = dispatched(meterRegistry, "duplicate");
+        this.failures = dispatched(meterRegistry, "failed");
+        for (DocumentPriority priority : DocumentPriority.values()) {
+            dispatchLag.put(priority, Timer.builder("docflow.outbox.dispatch.lag")
+                .description("Time from upload until the workflow was started")
+                .tag("priority", priority.name().toLowerCase())
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        }
+    }
+    
+    private static Counter dispatched(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("docflow.outbox.dispatched")
+            .description("Workflow starts attempted from the outbox")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+    
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::drain, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+    
+    /** Drains soon instead of at the next poll; cheap to call after every upload. */
+    public void wakeUp() {
+        if (wakeUpPending.compareAndSet(false, true)) {
+            scheduler.execute(() -> {
+                wakeUpPending.set(false);
+                drain();
+            });
+        }
+    }
+    
+    /** One drain pass, as run on every poll; package-private for tests. */
+    void drain() {
+        try {
+            List<WorkflowOutboxEntry> batch;
+            do {
+                batch = outboxRepository.claimDue(batchSize, lease);
+                if (!batch.isEmpty() && !dispatch(batch)) {
+                    break;
+                }
+            } while (batch.size() == batchSize);
+        } catch (RuntimeException e) {
+            // Entries stay leased and are retried once the lease runs out
+            logger.error("Outbox drain failed", e);
+        }
+    }
+    
+    /** Starts the batch's workflows; returns false if every start failed. */
+    private boolean dispatch(List<WorkflowOutboxEntry> batch) {
+        List<CompletableFuture<RuntimeException>> starts = batch.stream()
+            .map(entry -> CompletableFuture.supplyAsync(
+                // Continues the upload's trace; the workflow and activities inherit it
+                () -> tracing.inSpan("workflow start", entry.getTraceParent(), () -> startWorkflow(entry)),
+                workflowClientExecutor))
+            .collect(Collectors.toList());
+        
+        List<String> done = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < batch.size(); i++) {
+            WorkflowOutboxEntry entry = batch.get(i);
+            RuntimeException error = starts.get(i).join();
+            if (error == null) {
+                done.add(entry.getDocumentId());
+                dispatchLag.get(priorityOf(entry)).record(Duration.between(entry.getCreatedAt(), now));
+            } else {
+                failures.increment();
+                Duration backoff = backoff(entry.getAttempts());
+                logger.warn("Failed to start workflow for document {} (attempt {}), retrying in {}s: {}",
+                           entry.getDocumentId(), entry.getAttempts() + 1, backoff.toSeconds(), error.getMessage());
+                outboxRepository.reschedule(entry.getDocumentId(), backoff, error.getMessage());
+            }
+        }
+        outboxRepository.deleteAll(done);
+        return !done.isEmpty();
+    }
+    
+    private RuntimeException startWorkflow(WorkflowOutboxEntry entry) {
+        WorkflowOptions options = WorkflowOptions.newBuilder()
+            .setWorkflowId(entry.getWorkflowId())
+            .setTaskQueue(taskQueue)
+            .setWorkflowExecutionTimeout(Duration.ofHours(48))
+            .setWorkflowIdReusePolicy(WorkflowIdReusePolicy.WORKFLOW_ID_REUSE_POLICY_REJECT_DUPLICATE)
+            .setMemo(Map.of(DocumentApprovalWorkflow.PRIORITY_MEMO, priorityOf(entry).name().toLowerCase()))
+            .build();
+        
+        DocumentApprovalWorkflow workflow = workflowClient.newWorkflowStub(
+            DocumentApprovalWorkflow.class, 
+            options
+        );
+        
+        try {
+            WorkflowClient.start(workflow::processDocument, entry.getDocumentId());
+            started.increment();
+        } catch (WorkflowExecutionAlreadyStarted e) {
+            // Started by an earlier attempt whose entry was not deleted
+            duplicates.increment();
+        } catch (RuntimeException e) {
+            return e;
+        }
+        return null;
+    }
+    
+    private static DocumentPriority priorityOf(WorkflowOutboxEntry entry) {
+        return DocumentPriority.values()[entry.getPriority()];
+    }
+    
+    private Duration backoff(int attempts) {
+        long millis = initialBackoff.toMillis() << Math.min(attempts, 20);
+        return Duration.ofMillis(Math.min(millis, maxBackoff.toMillis()));
+    }
+}
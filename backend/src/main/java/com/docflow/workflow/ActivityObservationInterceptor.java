@@ -0,0 +1,80 @@
+package com.docflow.workflow;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.temporal.activity.ActivityExecutionContext;
+import io.temporal.activity.ActivityInfo;
+import io.temporal.common.interceptors.ActivityInboundCallsInterceptor;
+import io.temporal.common.interceptors.ActivityInboundCallsInterceptorBase;
+import io.temporal.common.interceptors.WorkerInterceptorBase;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Times every activity attempt and runs it in a span continuing the trace
+ * propagated by {@link TracingContextPropagator}. Queue wait (scheduled until
+ * picked up by a worker) and execution are recorded separately, per activity
+ * type and task queue: a growing wait means too few worker slots, a growing
+ * execution means slow dependencies.
+ * <p>
+ * For activities completed asynchronously, execution ends when the activity
+ * hands off its work; the analysis itself is timed by {@code AnalysisService}.
+ */
+@Component
+public class ActivityObservationInterceptor extends WorkerInterceptorBase {
+    
+    private final MeterRegistry meterRegistry;
+    private final TracingContextPropagator tracing;
+    
+    public ActivityObservationInterceptor(MeterRegistry meterRegistry, TracingContextPropagator tracing) {
+        this.meterRegistry = meterRegistry;
+        this.tracing = tracing;
+    }
+    
+    @Override
+    public ActivityInboundCallsInterceptor interceptActivity(ActivityInboundCallsInterceptor next) {
+        return new ActivityInboundCallsInterceptorBase(next) {
+            
+            private ActivityExecutionContext context;
+            
+            @Override
+            public void init(ActivityExecutionContext context) {
+                this.context = context;
+                super.init(context);
+            }
+            
+            @Override
+            public ActivityOutput execute(ActivityInput input) {
+                ActivityInfo info = context.getInfo();
+                String type = info.getActivityType();
+                String taskQueue = info.getActivityTaskQueue();
+                
+                // Both timestamps come from the Temporal server, so worker clock skew doesn't matter
+                Timer.builder("docflow.activity.queue.wait")
+                    .description("Time an activity attempt waited in its task queue (schedule-to-start)")
+                    .tags("activity", type, "taskQueue", taskQueue)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(Duration.ofMillis(Math.max(0,
+                        info.getStartedTimestamp() - info.getCurrentAttemptScheduledTimestamp())));
+                
+                Timer.Sample sample = Timer.start(meterRegistry);
+                String outcome = "success";
+                try {
+                    return tracing.inSpan("activity " + type,
+                        tracing.decode(input.getHeader().getValues()), () -> super.execute(input));
+                } catch (RuntimeException e) {
+                    outcome = "failure";
+                    throw e;
+                } finally {
+                    sample.stop(Timer.builder("docflow.activity.execution")
+                        .description("Activity attempt execution time")
+                        .tags("activity", type, "taskQueue", taskQueue, "outcome", outcome)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,173 @@
+package com.docflow.workflow;
+
+import com.google.protobuf.ByteString;
+import io.temporal.api.common.v1.Payload;
+import io.temporal.common.converter.DataConverterException;
+import io.temporal.common.converter.EncodingKeys;
+import io.temporal.common.converter.PayloadConverter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Binary encoding of the workflow's own payload types ({@link AIAnalysisResult},
+ * {@link DocumentApprovalWorkflow.ApprovalResult}, {@link PolicyDecision},
+ * {@link DocumentApprovalWorkflow.WorkflowStatus}): fields in a fixed order
+ * without names or JSON quoting. Other values fall through to the standard
+ * converters.
+ * <p>
+ * Decoding is chosen by the payload's encoding, so histories written as JSON
+ * before this converter existed replay unchanged. With {@code encode} off the
+ * converter only reads, which lets workers that predate it be rolled out
+ * first, or be rolled back to.
+ */
+public class CompactPayloadConverter implements PayloadConverter {
+    
+    public static final String ENCODING = "binary/docflow-compact";
+    
+    private static final ByteString ENCODING_BYTES = ByteString.copyFromUtf8(ENCODING);
+    
+    private static final byte FORMAT_VERSION = 1;
+    
+    private static final byte AI_ANALYSIS_RESULT = 1;
+    private static final byte APPROVAL_RESULT = 2;
+    private static final byte POLICY_DECISION = 3;
+    private static final byte WORKFLOW_STATUS = 4;
+    
+    private final boolean encode;
+    
+    public CompactPayloadConverter(boolean encode) {
+        this.encode = encode;
+    }
+    
+    @Override
+    public String getEncodingType() {
+        return ENCODING;
+    }
+    
+    @Override
+    public Optional<Payload> toData(Object value) throws DataConverterException {
+        byte type = typeOf(value);
+        if (!encode || type == 0) {
+            return Optional.empty();
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeByte(type);
+            switch (type) {
+                case AI_ANALYSIS_RESULT -> {
+                    AIAnalysisResult result = (AIAnalysisResult) value;
+                    writeString(out, result.getSuggestion());
+                    writeDouble(out, result.getConfidence());
+                    writeString(out, result.getReasoning());
+                }
+                case APPROVAL_RESULT -> {
+                    DocumentApprovalWorkflow.ApprovalResult result = (DocumentApprovalWorkflow.ApprovalResult) value;
+                    writeString(out, result.getDecision());
+                    writeString(out, result.getReviewerNotes());
+                    writeString(out, result.getReviewedBy());
+                }
+                case POLICY_DECISION -> {
+                    PolicyDecision decision = (PolicyDecision) value;
+                    writeString(out, decision.getDecision());
+                    writeString(out, decision.getPolicyVersion());
+                    writeString(out, decision.getReason());
+                }
+                default -> {
+                    DocumentApprovalWorkflow.WorkflowStatus status = (DocumentApprovalWorkflow.WorkflowStatus) value;
+                    out.writeBoolean(status.isHasDecision());
+                    writeString(out, status.getDecision());
+                }
+            }
+        } catch (IOException e) {
+            throw new DataConverterException(e);
+        }
+        return Optional.of(Payload.newBuilder()
+            .putMetadata(EncodingKeys.METADATA_ENCODING_KEY, ENCODING_BYTES)
+            .setData(ByteString.copyFrom(bytes.toByteArray()))
+            .build());
+    }
+    
+    @Override
+    public <T> T fromData(Payload content, Class<T> valueClass, Type valueType) throws DataConverterException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(content.getData().toByteArray()))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new DataConverterException(
+                    "Unsupported compact payload version " + version, content, new Type[] { valueType });
+            }
+            byte type = in.readByte();
+            Object value = switch (type) {
+                case AI_ANALYSIS_RESULT -> new AIAnalysisResult(readString(in), readDouble(in), readString(in));
+                case APPROVAL_RESULT -> new DocumentApprovalWorkflow.ApprovalResult(
+                    readString(in), readString(in), readString(in));
+                case POLICY_DECISION -> new PolicyDecision(readString(in), readString(in), readString(in));
+                case WORKFLOW_STATUS -> new DocumentApprovalWorkflow.WorkflowStatus(in.readBoolean(), readString(in));
+                default -> throw new DataConverterException(
+                    "Unknown compact payload type " + type, content, new Type[] { valueType });
+            };
+            if (!valueClass.isInstance(value)) {
+                throw new DataConverterException(
+                    "Compact payload holds " + value.getClass().getSimpleName(), content, new Type[] { valueType });
+            }
+            return valueClass.cast(value);
+        } catch (IOException e) {
+            throw new DataConverterException(content, valueClass, e);
+        }
+    }
+    
+    private static byte typeOf(Object value) {
+        if (value instanceof AIAnalysisResult) {
+            return AI_ANALYSIS_RESULT;
+        }
+        if (value instanceof DocumentApprovalWorkflow.ApprovalResult) {
+            return APPROVAL_RESULT;
+        }
+        if (value instanceof PolicyDecision) {
+            return POLICY_DECISION;
+        }
+        if (value instanceof DocumentApprovalWorkflow.WorkflowStatus) {
+            return WORKFLOW_STATUS;
+        }
+        return 0;
+    }
+    
+    // Length-prefixed UTF-8; -1 for null. Not writeUTF, which caps at 64KB.
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private static void writeDouble(DataOutputStream out, Double value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeDouble(value);
+        }
+    }
+    
+    private static Double readDouble(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readDouble() : null;
+    }
+}
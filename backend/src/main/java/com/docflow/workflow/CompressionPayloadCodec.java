@@ -0,0 +1,47 @@
+package com.docflow.workflow;
+
+import io.temporal.api.common.v1.Payload;
+import io.temporal.payload.codec.PayloadCodec;
+import io.temporal.payload.codec.ZlibPayloadCodec;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Zlib-compresses payloads of at least {@code threshold} bytes; smaller ones
+ * would barely shrink and are left as they are. Uses the SDK's zlib encoding,
+ * so compressed payloads are readable by any worker with a zlib codec.
+ * Compressed payloads are always decoded, whatever the threshold.
+ */
+public class CompressionPayloadCodec implements PayloadCodec {
+    
+    private final ZlibPayloadCodec zlib = new ZlibPayloadCodec();
+    private final long threshold; // 0 disables compression
+    
+    public CompressionPayloadCodec(long threshold) {
+        this.threshold = threshold;
+    }
+    
+    @Override
+    public List<Payload> encode(List<Payload> payloads) {
+        if (threshold <= 0) {
+            return payloads;
+        }
+        List<Payload> encoded = new ArrayList<>(payloads.size());
+        for (Payload payload : payloads) {
+            if (payload.getSerializedSize() < threshold) {
+                encoded.add(payload);
+                continue;
+            }
+            Payload compressed = zlib.encode(List.of(payload)).get(0);
+            // Incompressible data (e.g. already compressed) is kept as is
+            encoded.add(compressed.getSerializedSize() < payload.getSerializedSize() ? compressed : payload);
+        }
+        return encoded;
+    }
+    
+    @Override
+    public List<Payload> decode(List<Payload> payloads) {
+        return zlib.decode(payloads);
+    }
+}
@@ -12,6 +12,9 @@ public interface DocumentActivities {
     @ActivityMethod
     void updateDocumentWithAISuggestion(String documentId, AIAnalysisResult aiResult);
     
+    @ActivityMethod
+    PolicyDecision evaluateDecisionPolicy(String documentId, AIAnalysisResult aiResult);
+    
     @ActivityMethod
     void finalizeDocumentDecision(String documentId, DocumentApprovalWorkflow.ApprovalResult approvalResult);
 }
@@ -1,13 +1,40 @@
 package com.docflow.workflow;
 
-import com.docflow.model.Document;
+import com.docflow.analysis.AnalysisService;
+import com.docflow.config.ReadWriteRoutingDataSource;
+import com.docflow.dto.DocumentEvent;
+import com.docflow.model.ContentBlob;
+import com.docflow.model.Document.DocumentStatus;
+import com.docflow.repository.ContentBlobRepository;
+import com.docflow.repository.DocumentAnalysisInput;
 import com.docflow.repository.DocumentRepository;
+import com.docflow.repository.DocumentStatsInput;
+import com.docflow.repository.DocumentStatsRepository;
+import com.docflow.service.DocumentEventBus;
+import com.docflow.service.DecisionPolicyService;
+import com.docflow.service.DocumentSearchService;
+import com.docflow.workflow.DocumentApprovalWorkflow.DecidedBy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.temporal.activity.Activity;
+import io.temporal.activity.ActivityExecutionContext;
+import io.temporal.activity.ActivityInfo;
+import io.temporal.client.ActivityCompletionClient;
+import io.temporal.client.ActivityNotExistsException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Random;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
 
 @Component
 public class DocumentActivitiesImpl implements DocumentActivities {
@@ -15,91 +42,244 @@ public class DocumentActivitiesImpl implements DocumentActivities {
     private static final Logger logger = LoggerFactory.getLogger(DocumentActivitiesImpl.class);
     
     private final DocumentRepository documentRepository;
-    private final Random random = new Random();
+    private final DocumentStatsRepository statsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ContentBlobRepository contentBlobRepository;
+    private final AnalysisService analysisService;
+    private final ActivityCompletionClient activityCompletionClient;
+    private final DocumentEventBus eventBus;
+    private final DocumentSearchService searchService;
+    private final DecisionPolicyService decisionPolicyService;
+    private final Counter reusedAnalyses;
+    private final MeterRegistry meterRegistry;
     
-    public DocumentActivitiesImpl(DocumentRepository documentRepository) {
+    @Value("${docflow.analysis.reuse-duplicates:true}")
+    private boolean reuseDuplicateAnalysis;
+    
+    @Value("${docflow.analysis.async-completion:true}")
+    private boolean asyncCompletion;
+    
+    public DocumentActivitiesImpl(DocumentRepository documentRepository,
+                                  DocumentStatsRepository statsRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  ContentBlobRepository contentBlobRepository,
+                                  AnalysisService analysisService,
+                                  ActivityCompletionClient activityCompletionClient,
+                                  DocumentEventBus eventBus,
+                                  DocumentSearchService searchService,
+                                  DecisionPolicyService decisionPolicyService,
+                                  MeterRegistry meterRegistry) {
         this.documentRepository = documentRepository;
+        this.statsRepository = statsRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.contentBlobRepository = contentBlobRepository;
+        this.analysisService = analysisService;
+        this.activityCompletionClient = activityCompletionClient;
+        this.eventBus = eventBus;
+        this.searchService = searchService;
+        this.decisionPolicyService = decisionPolicyService;
+        this.meterRegistry = meterRegistry;
+        this.reusedAnalyses = Counter.builder("docflow.analysis.reused")
+            .description("AI analyses served from a previous upload of identical content")
+            .register(meterRegistry);
     }
     
     @Override
     public AIAnalysisResult analyzeDocumentWithAI(String documentId) {
         logger.info("Analyzing document with AI: {}", documentId);
         
-        try {
-            // Simulate AI processing time
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
-        Document document = documentRepository.findById(documentId)
+        // Activities read their own (or the upload's) writes, so never from a replica
+        DocumentAnalysisInput document = ReadWriteRoutingDataSource.usePrimary(
+                () -> documentRepository.findAnalysisInputById(documentId))
             .orElseThrow(() -> new RuntimeException("Document not found: " + documentId));
         
-        String filename = document.getFilename().toLowerCase();
-        String suggestion;
-        double confidence;
-        String reasoning;
+        String contentHash = document.getContentHash();
+        if (reuseDuplicateAnalysis && contentHash != null) {
+            Optional<ContentBlob> blob = contentBlobRepository.findById(contentHash);
+            if (blob.isPresent() && blob.get().getAiSuggestion() != null) {
+                ContentBlob analyzed = blob.get();
+                reusedAnalyses.increment();
+                logger.info("Reusing AI analysis of blob {} for document {}", contentHash, documentId);
+                return new AIAnalysisResult(
+                    analyzed.getAiSuggestion(), analyzed.getAiConfidence(), analyzed.getAiReasoning());
+            }
+        }
         
-        // Mock AI logic based on filename patterns
-        if (filename.contains("contract") || filename.contains("agreement") || 
-            filename.contains("invoice") || filename.contains("proposal")) {
-            suggestion = "approve";
-            confidence = 0.85 + (random.nextDouble() * 0.10); // 0.85-0.95
-            reasoning = "Document appears to be a standard business document with proper formatting";
-        } else if (filename.contains("suspicious") || filename.contains("fraud") || 
-                   filename.contains("malware") || filename.contains("virus")) {
-            suggestion = "reject";
-            confidence = 0.90 + (random.nextDouble() * 0.08); // 0.90-0.98
-            reasoning = "Document contains suspicious patterns that require rejection";
-        } else {
-            suggestion = random.nextBoolean() ? "approve" : "reject";
-            confidence = 0.60 + (random.nextDouble() * 0.15); // 0.60-0.75
-            reasoning = "Document requires human review for final decision";
+        if (asyncCompletion) {
+            // Release the activity slot while the document waits in the
+            // analysis batcher; the result is reported via its task token.
+            // A full analysis queue blocks here, holding the slot, so the
+            // worker stops taking analyses it could not start in time.
+            ActivityExecutionContext context = Activity.getExecutionContext();
+            ActivityInfo info = context.getInfo();
+            byte[] taskToken = info.getTaskToken();
+            Duration remaining = Duration.ofMillis(info.getStartedTimestamp()
+                + info.getStartToCloseTimeout().toMillis() - System.currentTimeMillis());
+            
+            CompletableFuture<AIAnalysisResult> analysis = analysisService.analyzeAsync(
+                document.getFilename(), document.getFilePath(), document.getContentType(),
+                document.getPriority(), document.getUploadedBy(), remaining);
+            context.doNotCompleteOnReturn();
+            analysis.whenComplete((result, error) -> complete(documentId, contentHash, taskToken, result, error));
+            return null;
         }
         
-        logger.info("AI Analysis complete for {}: {} (confidence: {:.2f})", 
-                   documentId, suggestion, confidence);
+        AIAnalysisResult result;
+        try {
+            result = analysisService.analyze(
+                document.getFilename(), document.getFilePath(), document.getContentType());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read document " + documentId, e);
+        }
+        recordAnalysis(documentId, contentHash, result);
+        return result;
+    }
+    
+    private void complete(String documentId, String contentHash, byte[] taskToken,
+                          AIAnalysisResult result, Throwable error) {
+        if (error instanceof TimeoutException) {
+            // The attempt timed out while queued; its retry is already scheduled
+            logger.info("Dropped AI analysis of {}: {}", documentId, error.getMessage());
+            return;
+        }
+        try {
+            if (error != null) {
+                throw error;
+            }
+            recordAnalysis(documentId, contentHash, result);
+            activityCompletionClient.complete(taskToken, result);
+        } catch (ActivityNotExistsException e) {
+            // Finished after its attempt timed out; the retry reuses the
+            // analysis just recorded for the content
+            logger.info("AI analysis of {} finished after its activity attempt timed out", documentId);
+        } catch (Throwable t) {
+            logger.error("AI analysis failed for {}", documentId, t);
+            try {
+                activityCompletionClient.completeExceptionally(taskToken,
+                    t instanceof Exception ? (Exception) t : new RuntimeException(t));
+            } catch (ActivityNotExistsException e) {
+                logger.info("AI analysis of {} failed after its activity attempt timed out", documentId);
+            }
+        }
+    }
+    
+    private void recordAnalysis(String documentId, String contentHash, AIAnalysisResult result) {
+        logger.info("AI Analysis complete for {}: {} (confidence: {})", 
+                   documentId, result.getSuggestion(), String.format("%.2f", result.getConfidence()));
         
-        return new AIAnalysisResult(suggestion, confidence, reasoning);
+        if (contentHash != null) {
+            contentBlobRepository.recordAnalysis(
+                contentHash, result.getSuggestion(), result.getConfidence(), result.getReasoning());
+        }
     }
     
     @Override
     public void updateDocumentWithAISuggestion(String documentId, AIAnalysisResult aiResult) {
         logger.info("Updating document {} with AI suggestion", documentId);
         
-        Document document = documentRepository.findById(documentId)
-            .orElseThrow(() -> new RuntimeException("Document not found: " + documentId));
-        
-        document.setAiSuggestion(aiResult.getSuggestion());
-        document.setAiConfidence(aiResult.getConfidence());
-        document.setAiReasoning(aiResult.getReasoning());
-        document.setUpdatedAt(LocalDateTime.now());
+        // The counters move from the replaced suggestion to the new one, so
+        // a retried activity leaves them unchanged. Only a PENDING document
+        // takes a suggestion: one that arrives after the decision (a slow
+        // attempt finishing late) must not overwrite what was decided on.
+        int updated = transactionTemplate.execute(tx -> {
+            DocumentStatsInput previous = documentRepository.lockStatsInputById(documentId)
+                .orElseThrow(() -> new RuntimeException("Document not found: " + documentId));
+            int changed = documentRepository.updateAiSuggestion(
+                documentId,
+                DocumentStatus.PENDING,
+                aiResult.getSuggestion(),
+                aiResult.getConfidence(),
+                aiResult.getReasoning(),
+                LocalDateTime.now()
+            );
+            if (changed == 1) {
+                statsRepository.recordAnalysis(previous, aiResult.getSuggestion(), aiResult.getConfidence());
+            }
+            return changed;
+        });
         
-        documentRepository.save(document);
+        if (updated == 0) {
+            logger.info("Document {} is no longer pending; AI suggestion not recorded", documentId);
+            return;
+        }
+        eventBus.publish(DocumentEvent.aiSuggested(
+            documentId, aiResult.getSuggestion(), aiResult.getConfidence()));
+        searchService.reindexAsync(documentId);
         
         logger.info("Document {} updated with AI suggestion successfully", documentId);
     }
     
+    @Override
+    public PolicyDecision evaluateDecisionPolicy(String documentId, AIAnalysisResult aiResult) {
+        PolicyDecision decision = decisionPolicyService.evaluate(aiResult);
+        logger.info("Decision policy {} for document {}: {} ({})", decision.getPolicyVersion(), documentId,
+                   decision.isAutomatic() ? decision.getDecision() : "human review", decision.getReason());
+        return decision;
+    }
+    
     @Override
     public void finalizeDocumentDecision(String documentId, 
                                         DocumentApprovalWorkflow.ApprovalResult approvalResult) {
         logger.info("Finalizing document {} decision: {}", documentId, approvalResult.getDecision());
         
-        Document document = documentRepository.findById(documentId)
-            .orElseThrow(() -> new RuntimeException("Document not found: " + documentId));
+        DocumentStatus status = toStatus(approvalResult.getDecision());
         
-        document.setStatus(
-            "approved".equals(approvalResult.getDecision()) ? 
-            Document.DocumentStatus.APPROVED : 
-            Document.DocumentStatus.REJECTED
-        );
-        document.setReviewerNotes(approvalResult.getReviewerNotes());
-        document.setReviewedBy(approvalResult.getReviewedBy());
-        document.setReviewedAt(LocalDateTime.now());
-        document.setUpdatedAt(LocalDateTime.now());
+        // Only a PENDING document can be finalized; the guard makes the
+        // transition safe against concurrent or repeated deliveries, and the
+        // counters are updated only by the delivery that performs it.
+        int updated = transactionTemplate.execute(tx -> {
+            LocalDateTime now = LocalDateTime.now();
+            int transitioned = documentRepository.transitionStatus(
+                documentId,
+                DocumentStatus.PENDING,
+                status,
+                approvalResult.getReviewerNotes(),
+                approvalResult.getReviewedBy(),
+                now
+            );
+            if (transitioned == 1) {
+                DocumentStatsInput document = documentRepository.lockStatsInputById(documentId).orElseThrow();
+                DecidedBy decidedBy = DecidedBy.of(approvalResult.getReviewedBy());
+                Duration timeToDecision = Duration.between(document.getCreatedAt(), now);
+                statsRepository.recordDecision(document, status, timeToDecision, decidedBy);
+                Timer.builder("docflow.decision.time")
+                    .description("Time from upload to final decision")
+                    .tags("status", status.name().toLowerCase(), "decidedBy", decidedBy.name().toLowerCase())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(timeToDecision);
+            }
+            return transitioned;
+        });
         
-        documentRepository.save(document);
+        if (updated == 0) {
+            DocumentStatus current = ReadWriteRoutingDataSource.usePrimary(
+                    () -> documentRepository.findStatusById(documentId))
+                .orElseThrow(() -> new RuntimeException("Document not found: " + documentId));
+            if (current != status) {
+                throw new RuntimeException("Document " + documentId + " is already " + current);
+            }
+            // A retried activity whose first attempt already committed
+            logger.info("Document {} was already finalized as {}", documentId, current);
+            return;
+        }
+        eventBus.publish(DocumentEvent.finalized(documentId, status));
+        searchService.reindexAsync(documentId);
         
         logger.info("Document {} finalized as {}", documentId, approvalResult.getDecision());
     }
+    
+    /**
+     * Workflows before the decision policy passed the AI suggestion itself
+     * ("approve"/"reject") on timeout, so both spellings are accepted.
+     */
+    private static DocumentStatus toStatus(String decision) {
+        if (DocumentApprovalWorkflow.APPROVED.equals(decision) || "approve".equals(decision)) {
+            return DocumentStatus.APPROVED;
+        }
+        if (DocumentApprovalWorkflow.REJECTED.equals(decision) || "reject".equals(decision)) {
+            return DocumentStatus.REJECTED;
+        }
+        throw new IllegalArgumentException("Unknown decision: " + decision);
+    }
 }
@@ -8,6 +8,40 @@ import io.temporal.workflow.WorkflowMethod;
 @WorkflowInterface
 public interface DocumentApprovalWorkflow {
     
+    String APPROVED = "approved";
+    String REJECTED = "rejected";
+    
+    /** {@code reviewedBy} of decisions taken automatically when no human decided in time. */
+    String TIMEOUT_REVIEWER = "system_timeout";
+    
+    /** {@code reviewedBy} of decisions taken by the auto-decision policy. */
+    String POLICY_REVIEWER = "system_policy";
+    
+    /** Memo with the document's priority ("urgent", "normal", "bulk"); absent on older workflows. */
+    String PRIORITY_MEMO = "priority";
+    
+    /** AI task queue of a priority lane; normal documents and older workflows use the base queue. */
+    static String aiTaskQueue(String baseQueue, String priority) {
+        return priority == null || "normal".equals(priority) ? baseQueue : baseQueue + "-" + priority;
+    }
+    
+    /** The decision that follows an AI suggestion ("approve" or "reject"). */
+    static String decisionFor(String suggestion) {
+        return "approve".equals(suggestion) ? APPROVED : REJECTED;
+    }
+    
+    /** Who took a decision, from its {@code reviewedBy}. */
+    enum DecidedBy {
+        HUMAN, TIMEOUT, POLICY;
+        
+        public static DecidedBy of(String reviewedBy) {
+            if (TIMEOUT_REVIEWER.equals(reviewedBy)) {
+                return TIMEOUT;
+            }
+            return POLICY_REVIEWER.equals(reviewedBy) ? POLICY : HUMAN;
+        }
+    }
+    
     @WorkflowMethod
     ApprovalResult processDocument(String documentId);
     
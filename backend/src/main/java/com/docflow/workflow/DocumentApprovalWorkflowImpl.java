@@ -1,6 +1,7 @@
 package com.docflow.workflow;
 
 import io.temporal.activity.ActivityOptions;
+import io.temporal.common.RetryOptions;
 import io.temporal.workflow.Workflow;
 import org.slf4j.Logger;
 
@@ -10,6 +11,12 @@ public class DocumentApprovalWorkflowImpl implements DocumentApprovalWorkflow {
     
     private static final Logger logger = Workflow.getLogger(DocumentApprovalWorkflowImpl.class);
     
+    // Workflows started before the decision policy replay without the
+    // policy activity; see Workflow.getVersion
+    private static final String DECISION_POLICY_CHANGE = "decision-policy";
+    
+    public static final Duration DEFAULT_AI_TIMEOUT = Duration.ofMinutes(5);
+    
     private ApprovalResult approvalResult = null;
     
     private final DocumentActivities activities = Workflow.newActivityStub(
@@ -19,13 +26,39 @@ public class DocumentApprovalWorkflowImpl implements DocumentApprovalWorkflow {
             .build()
     );
     
+    // Slow model calls run on a dedicated task queue so they can't starve
+    // the short DB-bound activities above, one queue per priority lane.
+    // The lane comes from the start memo, so replays pick the same queue.
+    // An attempt's timeout covers its wait in the worker's analysis queue;
+    // retries back off so a slow lane is not flooded with repeats.
+    private final DocumentActivities aiActivities;
+    
+    public DocumentApprovalWorkflowImpl() {
+        this(null, DEFAULT_AI_TIMEOUT);
+    }
+    
+    public DocumentApprovalWorkflowImpl(String aiTaskQueue, Duration aiTimeout) {
+        ActivityOptions.Builder aiOptions = ActivityOptions.newBuilder()
+            .setStartToCloseTimeout(aiTimeout)
+            .setRetryOptions(RetryOptions.newBuilder()
+                .setInitialInterval(Duration.ofSeconds(5))
+                .setBackoffCoefficient(2)
+                .setMaximumInterval(Duration.ofMinutes(2))
+                .build());
+        if (aiTaskQueue != null) {
+            String priority = Workflow.getMemo(PRIORITY_MEMO, String.class, String.class);
+            aiOptions.setTaskQueue(DocumentApprovalWorkflow.aiTaskQueue(aiTaskQueue, priority));
+        }
+        this.aiActivities = Workflow.newActivityStub(DocumentActivities.class, aiOptions.build());
+    }
+    
     @Override
     public ApprovalResult processDocument(String documentId) {
         logger.info("Starting approval workflow for document: " + documentId);
         
         // Step 1: Analyze document with mock AI
         logger.info("Analyzing document with AI...");
-        AIAnalysisResult aiResult = activities.analyzeDocumentWithAI(documentId);
+        AIAnalysisResult aiResult = aiActivities.analyzeDocumentWithAI(documentId);
         
         logger.info("AI suggests: " + aiResult.getSuggestion() + 
                    " (confidence: " + aiResult.getConfidence() + ")");
@@ -33,26 +66,40 @@ public class DocumentApprovalWorkflowImpl implements DocumentApprovalWorkflow {
         // Step 2: Update document with AI suggestion
         activities.updateDocumentWithAISuggestion(documentId, aiResult);
         
-        // Step 3: Wait for human decision (with 24-hour timeout)
-        logger.info("Waiting for human approval decision...");
+        // Step 3: Confident suggestions are decided by the policy; the
+        // outcome is recorded in history, so policy reloads can't change it
+        int version = Workflow.getVersion(DECISION_POLICY_CHANGE, Workflow.DEFAULT_VERSION, 1);
+        if (version >= 1) {
+            PolicyDecision policy = activities.evaluateDecisionPolicy(documentId, aiResult);
+            // A reviewer who signalled in the meantime takes precedence
+            if (policy.isAutomatic() && approvalResult == null) {
+                logger.info("Decision policy " + policy.getPolicyVersion() + " decided: " + policy.getDecision());
+                approvalResult = new ApprovalResult(policy.getDecision(), policy.getReason(), POLICY_REVIEWER);
+            }
+        }
         
-        boolean decisionReceived = Workflow.await(
-            Duration.ofHours(24),
-            () -> approvalResult != null
-        );
+        // Step 4: Otherwise wait for human decision (with 24-hour timeout)
+        boolean decisionReceived = version >= 1 && approvalResult != null;
+        if (!decisionReceived) {
+            logger.info("Waiting for human approval decision...");
+            decisionReceived = Workflow.await(
+                Duration.ofHours(24),
+                () -> approvalResult != null
+            );
+        }
         
         if (!decisionReceived) {
             // Timeout - use AI suggestion as fallback
             logger.warn("Human decision timeout - using AI suggestion");
             approvalResult = new ApprovalResult(
-                aiResult.getSuggestion(),
+                DocumentApprovalWorkflow.decisionFor(aiResult.getSuggestion()),
                 "Auto-decided based on AI suggestion (confidence: " + 
                 aiResult.getConfidence() + "). " + aiResult.getReasoning(),
-                "system_timeout"
+                TIMEOUT_REVIEWER
             );
         }
         
-        // Step 4: Finalize decision
+        // Step 5: Finalize decision
         activities.finalizeDocumentDecision(documentId, approvalResult);
         
         logger.info("Workflow complete: " + approvalResult.getDecision());
@@ -62,13 +109,13 @@ public class DocumentApprovalWorkflowImpl implements DocumentApprovalWorkflow {
     @Override
     public void approve(String reviewerNotes, String reviewedBy) {
         logger.info("Received approval signal from " + reviewedBy);
-        this.approvalResult = new ApprovalResult("approved", reviewerNotes, reviewedBy);
+        this.approvalResult = new ApprovalResult(APPROVED, reviewerNotes, reviewedBy);
     }
     
     @Override
     public void reject(String reviewerNotes, String reviewedBy) {
         logger.info("Received rejection signal from " + reviewedBy);
-        this.approvalResult = new ApprovalResult("rejected", reviewerNotes, reviewedBy);
+        this.approvalResult = new ApprovalResult(REJECTED, reviewerNotes, reviewedBy);
     }
     
     @Override
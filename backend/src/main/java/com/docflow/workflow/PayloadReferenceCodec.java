@@ -0,0 +1,175 @@
+package com.docflow.workflow;
+
+import com.docflow.repository.WorkflowPayloadRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.temporal.api.common.v1.Payload;
+import io.temporal.common.converter.EncodingKeys;
+import io.temporal.payload.codec.PayloadCodec;
+import io.temporal.payload.codec.PayloadCodecException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves payloads of at least {@code temporal.payloads.reference-threshold}
+ * into {@code workflow_payloads} and leaves only their id, the SHA-256 of
+ * the payload, in workflow history. Rows are removed after
+ * {@code reference-retention}, which must exceed the longest workflow run
+ * plus the namespace's history retention; a history whose payload has been
+ * removed can no longer be replayed.
+ * <p>
+ * Codecs run on workflow threads, where a slow query holds up the workflow
+ * task. Recently stored and read payloads are therefore kept in memory, so
+ * a payload encoded again on replay, or decoded again after a sticky cache
+ * eviction, doesn't go to Postgres.
+ */
+@Component
+public class PayloadReferenceCodec implements PayloadCodec {
+    
+    public static final String ENCODING = "binary/docflow-reference";
+    
+    private static final Logger logger = LoggerFactory.getLogger(PayloadReferenceCodec.class);
+    
+    private static final ByteString ENCODING_BYTES = ByteString.copyFromUtf8(ENCODING);
+    
+    private static final Duration CACHE_TTL = Duration.ofHours(1);
+    
+    // A row is given a new created_at when stored again at least this long after
+    private static final Duration REFRESH_AFTER = Duration.ofDays(1);
+    
+    private final WorkflowPayloadRepository payloadRepository;
+    private final Counter stored;
+    private Cache<String, byte[]> recent;
+    private ScheduledExecutorService cleaner;
+    
+    @Value("${temporal.payloads.reference-threshold:64KB}")
+    private DataSize threshold; // 0 disables references
+    
+    @Value("${temporal.payloads.reference-retention:60d}")
+    private Duration retention;
+    
+    @Value("${temporal.payloads.reference-cache-size:64MB}")
+    private DataSize cacheSize;
+    
+    public PayloadReferenceCodec(WorkflowPayloadRepository payloadRepository, MeterRegistry meterRegistry) {
+        this.payloadRepository = payloadRepository;
+        this.stored = Counter.builder("docflow.temporal.payloads.referenced")
+            .description("Payloads stored in Postgres instead of workflow history")
+            .register(meterRegistry);
+    }
+    
+    @PostConstruct
+    public void start() {
+        // Content-addressed, so entries never go stale; they expire only so
+        // that a payload still in use has its row's retention renewed
+        recent = Caffeine.newBuilder()
+            .maximumWeight(cacheSize.toBytes())
+            .weigher((String id, byte[] data) -> data.length)
+            .expireAfterWrite(CACHE_TTL)
+            .build();
+        if (threshold.toBytes() <= 0) {
+            return;
+        }
+        cleaner = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("payload-cleaner-"));
+        cleaner.scheduleWithFixedDelay(this::deleteExpired, 1, 60, TimeUnit.MINUTES);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (cleaner != null) {
+            cleaner.shutdownNow();
+        }
+    }
+    
+    @Override
+    public List<Payload> encode(List<Payload> payloads) {
+        long limit = threshold.toBytes();
+        if (limit <= 0) {
+            return payloads;
+        }
+        List<Payload> encoded = new ArrayList<>(payloads.size());
+        for (Payload payload : payloads) {
+            if (payload.getSerializedSize() < limit) {
+                encoded.add(payload);
+                continue;
+            }
+            byte[] data = payload.toByteArray();
+            String id = contentId(data);
+            if (recent.getIfPresent(id) == null) {
+                payloadRepository.insert(id, data, REFRESH_AFTER);
+                recent.put(id, data);
+                stored.increment();
+            }
+            encoded.add(Payload.newBuilder()
+                .putMetadata(EncodingKeys.METADATA_ENCODING_KEY, ENCODING_BYTES)
+                .setData(ByteString.copyFromUtf8(id))
+                .build());
+        }
+        return encoded;
+    }
+    
+    @Override
+    public List<Payload> decode(List<Payload> payloads) {
+        List<Payload> decoded = new ArrayList<>(payloads.size());
+        for (Payload payload : payloads) {
+            if (!ENCODING_BYTES.equals(payload.getMetadataOrDefault(EncodingKeys.METADATA_ENCODING_KEY, null))) {
+                decoded.add(payload);
+                continue;
+            }
+            String id = payload.getData().toString(StandardCharsets.UTF_8);
+            byte[] data = recent.getIfPresent(id);
+            if (data == null) {
+                data = payloadRepository.findData(id)
+                    .orElseThrow(() -> new PayloadCodecException("Referenced payload " + id + " no longer exists"));
+                recent.put(id, data);
+            }
+            try {
+                decoded.add(Payload.parseFrom(data));
+            } catch (InvalidProtocolBufferException e) {
+                throw new PayloadCodecException("Corrupt referenced payload " + id, e);
+            }
+        }
+        return decoded;
+    }
+    
+    private static String contentId(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    private void deleteExpired() {
+        try {
+            int deleted = payloadRepository.deleteCreatedBefore(LocalDateTime.now().minus(retention));
+            if (deleted > 0) {
+                logger.info("Deleted {} referenced workflow payloads older than {}", deleted, retention);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to delete expired workflow payloads", e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.docflow.workflow;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Outcome of the auto-decision policy for one AI analysis. Evaluated in an
+ * activity, so a replayed workflow sees the recorded outcome even after the
+ * policy has been reloaded.
+ */
+public class PolicyDecision {
+    
+    private String decision; // "approved" or "rejected"; null when a human must review
+    private String policyVersion;
+    private String reason;
+    
+    public PolicyDecision() {}
+    
+    public PolicyDecision(String decision, String policyVersion, String reason) {
+        this.decision = decision;
+        this.policyVersion = policyVersion;
+        this.reason = reason;
+    }
+    
+    @JsonIgnore
+    public boolean isAutomatic() {
+        return decision != null;
+    }
+    
+    public String getDecision() {
+        return decision;
+    }
+    
+    public void setDecision(String decision) {
+        this.decision = decision;
+    }
+    
+    public String getPolicyVersion() {
+        return policyVersion;
+    }
+    
+    public void setPolicyVersion(String policyVersion) {
+        this.policyVersion = policyVersion;
+    }
+    
+    public String getReason() {
+        return reason;
+    }
+    
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
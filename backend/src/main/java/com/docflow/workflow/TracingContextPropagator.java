@@ -0,0 +1,126 @@
+package com.docflow.workflow;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import io.temporal.api.common.v1.Payload;
+import io.temporal.common.context.ContextPropagator;
+import io.temporal.common.converter.DataConverter;
+import io.temporal.common.converter.DefaultDataConverter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Carries the W3C trace context through Temporal: from the thread that starts
+ * or signals a workflow, through the workflow, into its activities. Activity
+ * spans are opened by {@link ActivityObservationInterceptor}.
+ * <p>
+ * Workflow code never touches the tracer; it only hands on the headers it
+ * received, which keeps replay deterministic.
+ */
+@Component
+public class TracingContextPropagator implements ContextPropagator {
+    
+    private static final String TRACEPARENT = "traceparent";
+    
+    private static final DataConverter CONVERTER = DefaultDataConverter.STANDARD_INSTANCE;
+    
+    // Headers of the workflow task currently running on this thread
+    private final ThreadLocal<Map<String, String>> workflowContext = new ThreadLocal<>();
+    
+    private final Tracer tracer;
+    private final Propagator propagator;
+    
+    public TracingContextPropagator(ObjectProvider<Tracer> tracer, ObjectProvider<Propagator> propagator) {
+        this.tracer = tracer.getIfAvailable(() -> Tracer.NOOP);
+        this.propagator = propagator.getIfAvailable(() -> Propagator.NOOP);
+    }
+    
+    @Override
+    public String getName() {
+        return "docflow-tracing";
+    }
+    
+    @Override
+    public Object getCurrentContext() {
+        Span span = tracer.currentSpan();
+        if (span == null) {
+            Map<String, String> received = workflowContext.get();
+            return received != null ? received : Map.of();
+        }
+        Map<String, String> headers = new HashMap<>();
+        propagator.inject(span.context(), headers, Map::put);
+        return headers;
+    }
+    
+    @Override
+    public void setCurrentContext(Object context) {
+        @SuppressWarnings("unchecked")
+        Map<String, String> headers = (Map<String, String>) context;
+        workflowContext.set(headers);
+    }
+    
+    @Override
+    public Map<String, Payload> serializeContext(Object context) {
+        @SuppressWarnings("unchecked")
+        Map<String, String> headers = (Map<String, String>) context;
+        Map<String, Payload> serialized = new HashMap<>();
+        headers.forEach((key, value) -> CONVERTER.toPayload(value).ifPresent(p -> serialized.put(key, p)));
+        return serialized;
+    }
+    
+    @Override
+    public Object deserializeContext(Map<String, Payload> context) {
+        Map<String, String> headers = new HashMap<>();
+        for (String field : propagator.fields()) {
+            Payload payload = context.get(field);
+            if (payload != null) {
+                headers.put(field, CONVERTER.fromPayload(payload, String.class, String.class));
+            }
+        }
+        return headers;
+    }
+    
+    /** The current span's {@code traceparent}, for work handed to another thread or process; null if none. */
+    public String currentTraceParent() {
+        Span span = tracer.currentSpan();
+        if (span == null) {
+            return null;
+        }
+        Map<String, String> headers = new HashMap<>();
+        propagator.inject(span.context(), headers, Map::put);
+        return headers.get(TRACEPARENT);
+    }
+    
+    /** Runs {@code action} in a new span that continues the given trace, or starts one. */
+    public <T> T inSpan(String name, String traceParent, Supplier<T> action) {
+        Map<String, String> headers = traceParent != null ? Map.of(TRACEPARENT, traceParent) : Map.of();
+        return inSpan(name, headers, action);
+    }
+    
+    <T> T inSpan(String name, Map<String, String> headers, Supplier<T> action) {
+        Span span = headers.isEmpty()
+            ? tracer.nextSpan().name(name).start()
+            : propagator.extract(headers, Map::get).name(name).start();
+        Tracer.SpanInScope scope = tracer.withSpan(span);
+        try {
+            return action.get();
+        } catch (RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            scope.close();
+            span.end();
+        }
+    }
+    
+    /** Trace headers of an activity task, decoded from its Temporal header. */
+    @SuppressWarnings("unchecked")
+    Map<String, String> decode(Map<String, Payload> header) {
+        return (Map<String, String>) deserializeContext(header);
+    }
+}
@@ -0,0 +1,7 @@
+-- Index writes are ordered by the document's version, which every update
+-- bumps, rather than by updated_at, which comes from the writing node's clock
+alter table document_search add column if not exists version bigint not null default 0;
+
+update document_search s set version = d.version
+from documents d
+where d.id = s.document_id and d.created_at = s.created_at;
@@ -0,0 +1,53 @@
+-- Baseline schema, matching the JPA mappings. Written to be idempotent so it
+-- also applies to databases previously created by ddl-auto=update.
+
+create table if not exists documents (
+    id              varchar(255) not null primary key,
+    filename        varchar(255) not null,
+    content_type    varchar(255) not null,
+    file_size       bigint not null,
+    file_path       varchar(255) not null,
+    content_hash    varchar(64),
+    status          varchar(255) not null check (status in ('PENDING', 'APPROVED', 'REJECTED')),
+    ai_suggestion   varchar(255),
+    ai_confidence   float(53),
+    ai_reasoning    varchar(1000),
+    reviewer_notes  varchar(1000),
+    reviewed_by     varchar(255),
+    reviewed_at     timestamp(6),
+    workflow_id     varchar(255),
+    created_at      timestamp(6) not null,
+    updated_at      timestamp(6) not null,
+    version         bigint default 0 not null
+);
+
+-- Keyset pagination over all documents and per status (findFirstPage,
+-- findPageAfter, findFirstPageByStatus, findPageByStatusAfter); the status
+-- index also serves findWorkflowRefsByFilter
+create index if not exists idx_documents_created_at_id
+    on documents (created_at desc, id desc);
+create index if not exists idx_documents_status_created_at_id
+    on documents (status, created_at desc, id desc);
+
+create table if not exists content_blobs (
+    content_hash    varchar(64) not null primary key,
+    file_path       varchar(255) not null,
+    size            bigint not null,
+    ref_count       bigint not null,
+    ai_suggestion   varchar(255),
+    ai_confidence   float(53),
+    ai_reasoning    varchar(1000),
+    created_at      timestamp(6) not null
+);
+
+create table if not exists workflow_outbox (
+    document_id     varchar(36) not null primary key,
+    workflow_id     varchar(255) not null,
+    attempts        integer not null,
+    next_attempt_at timestamp(6) not null,
+    last_error      varchar(1000),
+    created_at      timestamp(6) not null
+);
+
+create index if not exists idx_workflow_outbox_next_attempt_at
+    on workflow_outbox (next_attempt_at);
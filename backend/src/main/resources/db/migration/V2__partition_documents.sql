@@ -0,0 +1,112 @@
+-- Range-partitions documents by month on created_at, so archival empties
+-- whole old partitions and PENDING queries only touch recent, small indexes.
+-- The primary key must include the partition key; ids stay UUIDs.
+
+alter table documents rename to documents_unpartitioned;
+alter table documents_unpartitioned rename constraint documents_pkey to documents_unpartitioned_pkey;
+alter index idx_documents_created_at_id rename to idx_documents_unpartitioned_created_at_id;
+alter index idx_documents_status_created_at_id rename to idx_documents_unpartitioned_status_created_at_id;
+
+create table documents (
+    id              varchar(255) not null,
+    filename        varchar(255) not null,
+    content_type    varchar(255) not null,
+    file_size       bigint not null,
+    file_path       varchar(255) not null,
+    content_hash    varchar(64),
+    status          varchar(255) not null check (status in ('PENDING', 'APPROVED', 'REJECTED')),
+    ai_suggestion   varchar(255),
+    ai_confidence   float(53),
+    ai_reasoning    varchar(1000),
+    reviewer_notes  varchar(1000),
+    reviewed_by     varchar(255),
+    reviewed_at     timestamp(6),
+    workflow_id     varchar(255),
+    created_at      timestamp(6) not null,
+    updated_at      timestamp(6) not null,
+    version         bigint default 0 not null,
+    primary key (id, created_at)
+) partition by range (created_at);
+
+-- Catches rows outside the managed range rather than failing the insert
+create table documents_default partition of documents default;
+
+create or replace function docflow_create_document_partition(month_start date)
+returns void language plpgsql as $$
+begin
+    execute format(
+        'create table if not exists %I partition of documents for values from (%L) to (%L)',
+        'documents_p' || to_char(month_start, 'YYYYMM'),
+        month_start,
+        (month_start + interval '1 month')::date);
+end
+$$;
+
+-- Called periodically by the archival job: creates partitions for the
+-- current and next months_ahead months, and drops monthly partitions that
+-- end before drop_empty_before and that archival has emptied
+create or replace function docflow_maintain_document_partitions(months_ahead integer, drop_empty_before timestamp)
+returns void language plpgsql as $$
+declare
+    partition_name text;
+    partition_end timestamp;
+    is_empty boolean;
+begin
+    for i in 0..months_ahead loop
+        perform docflow_create_document_partition(
+            (date_trunc('month', now()) + make_interval(months => i))::date);
+    end loop;
+
+    for partition_name in
+        select c.relname
+        from pg_inherits inh
+        join pg_class c on c.oid = inh.inhrelid
+        join pg_class p on p.oid = inh.inhparent
+        where p.relname = 'documents' and c.relname ~ '^documents_p[0-9]{6}$'
+    loop
+        partition_end := to_date(substring(partition_name from 12 for 6), 'YYYYMM') + interval '1 month';
+        if partition_end <= drop_empty_before then
+            execute format('select not exists (select 1 from %I)', partition_name) into is_empty;
+            if is_empty then
+                execute format('drop table %I', partition_name);
+            end if;
+        end if;
+    end loop;
+end
+$$;
+
+select docflow_create_document_partition(month::date)
+from generate_series(
+    date_trunc('month', coalesce((select min(created_at) from documents_unpartitioned), now())),
+    date_trunc('month', now()) + interval '3 months',
+    interval '1 month') as month;
+
+insert into documents (id, filename, content_type, file_size, file_path, content_hash, status,
+                       ai_suggestion, ai_confidence, ai_reasoning, reviewer_notes, reviewed_by,
+                       reviewed_at, workflow_id, created_at, updated_at, version)
+select id, filename, content_type, file_size, file_path, content_hash, status,
+       ai_suggestion, ai_confidence, ai_reasoning, reviewer_notes, reviewed_by,
+       reviewed_at, workflow_id, created_at, updated_at, version
+from documents_unpartitioned;
+
+drop table documents_unpartitioned;
+
+-- Created on the parent, so every partition gets them
+create index idx_documents_created_at_id on documents (created_at desc, id desc);
+create index idx_documents_status_created_at_id on documents (status, created_at desc, id desc);
+-- The review queue only ever looks at PENDING rows; finalized rows stay out
+create index idx_documents_pending_created_at_id on documents (created_at desc, id desc)
+    where status = 'PENDING';
+
+-- Cold storage for archived documents: one compressed JSON value per row,
+-- no secondary indexes
+create table document_archive (
+    id              varchar(255) not null primary key,
+    content_hash    varchar(64),
+    file_path       varchar(255) not null,
+    created_at      timestamp(6) not null,
+    archived_at     timestamp(6) not null,
+    data            text not null
+);
+
+alter table document_archive alter column data set compression lz4;
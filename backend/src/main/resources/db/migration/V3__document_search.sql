@@ -0,0 +1,52 @@
+-- Search index over documents (DocumentSearchService). One row per live
+-- document holding its searchable fields and extracted file text; Postgres
+-- maintains the weighted tsvector. The expression must match
+-- DocumentSearchEntry.SEARCH_VECTOR.
+
+create table if not exists document_search (
+    document_id     varchar(255) not null primary key,
+    created_at      timestamp(6) not null,
+    updated_at      timestamp(6) not null,
+    filename        varchar(255) not null,
+    status          varchar(255) not null,
+    ai_suggestion   varchar(255),
+    ai_confidence   float(53),
+    ai_reasoning    varchar(1000),
+    reviewer_notes  varchar(1000),
+    reviewed_by     varchar(255),
+    reviewed_at     timestamp(6),
+    content         text,
+    search_vector   tsvector generated always as (
+        setweight(to_tsvector('simple', regexp_replace(coalesce(filename, ''), '[^[:alnum:]]+', ' ', 'g')), 'A') ||
+        setweight(to_tsvector('english', coalesce(ai_reasoning, '')), 'B') ||
+        setweight(to_tsvector('simple', coalesce(reviewed_by, '')), 'B') ||
+        setweight(to_tsvector('english', coalesce(reviewer_notes, '')), 'C') ||
+        setweight(to_tsvector('english', coalesce(content, '')), 'D')
+    ) stored
+);
+
+-- Full-text matches
+create index if not exists idx_document_search_vector
+    on document_search using gin (search_vector);
+
+-- Metadata-only searches order by recency; the composite indexes serve the
+-- status and AI suggestion / confidence band filters and their facet counts
+create index if not exists idx_document_search_created_at
+    on document_search (created_at desc, document_id desc);
+create index if not exists idx_document_search_status_created_at
+    on document_search (status, created_at desc);
+create index if not exists idx_document_search_ai_suggestion_confidence
+    on document_search (ai_suggestion, ai_confidence);
+create index if not exists idx_document_search_reviewed_by
+    on document_search (reviewed_by);
+
+-- Metadata for existing documents; file text is filled in by a rebuild
+-- (docflow.search.rebuild=true)
+insert into document_search (document_id, created_at, updated_at, filename, status, ai_suggestion,
+                             ai_confidence, ai_reasoning, reviewer_notes, reviewed_by, reviewed_at)
+select id, created_at, updated_at, filename, status, ai_suggestion,
+       ai_confidence, ai_reasoning, reviewer_notes, reviewed_by, reviewed_at
+from documents
+on conflict (document_id) do nothing;
+
+analyze document_search;
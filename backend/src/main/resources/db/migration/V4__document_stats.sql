@@ -0,0 +1,70 @@
+-- Dashboard counters (DocumentStatsRepository). Each metric is split over
+-- shards that are summed on read; writers add deltas in the transaction
+-- that changes the document.
+
+create table if not exists document_stats (
+    metric  varchar(64) not null,
+    shard   integer not null,
+    amount  bigint not null,
+    primary key (metric, shard)
+);
+
+-- Seed from existing live and archived documents. Metric names and the
+-- histogram bounds must match DocumentStatsRepository.
+with source as (
+    select status, ai_suggestion, ai_confidence, reviewed_by, created_at, reviewed_at
+    from documents
+    union all
+    select upper(data::jsonb ->> 'status'),
+           data::jsonb ->> 'aiSuggestion',
+           (data::jsonb ->> 'aiConfidence')::float8,
+           data::jsonb ->> 'reviewedBy',
+           (data::jsonb ->> 'createdAt')::timestamp,
+           (data::jsonb ->> 'reviewedAt')::timestamp
+    from document_archive
+),
+decided as (
+    select *, greatest(0, extract(epoch from reviewed_at - created_at))::bigint as seconds
+    from source
+    where status <> 'PENDING' and reviewed_at is not null
+),
+metrics (metric, amount) as (
+    select 'status.' || status, count(*) from source group by status
+    union all
+    select 'ai.suggestion.' || ai_suggestion, count(*) from source
+    where ai_suggestion is not null group by ai_suggestion
+    union all
+    select 'ai.analyzed', count(*) from source where ai_suggestion is not null
+    union all
+    select 'ai.confidence.micros', coalesce(sum(round(ai_confidence * 1000000)), 0)::bigint
+    from source where ai_suggestion is not null
+    union all
+    select 'decision.timeout', count(*) from decided where reviewed_by = 'system_timeout'
+    union all
+    select 'decision.human', count(*) from decided
+    where reviewed_by is distinct from 'system_timeout' and ai_suggestion is not null
+    union all
+    select 'decision.agreed', count(*) from decided
+    where reviewed_by is distinct from 'system_timeout'
+      and ((ai_suggestion like 'approve%' and status = 'APPROVED')
+        or (ai_suggestion like 'reject%' and status = 'REJECTED'))
+    union all
+    select 'decision.seconds', coalesce(sum(seconds), 0) from decided
+    union all
+    select 'decision.le.' || bucket, count(*) from (
+        select case
+            when seconds <= 60 then '1m'
+            when seconds <= 300 then '5m'
+            when seconds <= 900 then '15m'
+            when seconds <= 3600 then '1h'
+            when seconds <= 14400 then '4h'
+            when seconds <= 86400 then '1d'
+            when seconds <= 604800 then '7d'
+            else 'inf'
+        end as bucket
+        from decided
+    ) buckets group by bucket
+)
+insert into document_stats (metric, shard, amount)
+select metric, 0, sum(amount) from metrics where amount <> 0 group by metric
+on conflict (metric, shard) do nothing;
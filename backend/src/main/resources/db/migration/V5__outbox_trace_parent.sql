@@ -0,0 +1,3 @@
+-- Trace context of the upload, handed to the workflow when the outbox entry
+-- is dispatched (WorkflowOutboxDispatcher)
+alter table workflow_outbox add column if not exists trace_parent varchar(55);
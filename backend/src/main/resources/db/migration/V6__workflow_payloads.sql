@@ -0,0 +1,9 @@
+-- Temporal payloads above temporal.payloads.reference-threshold; workflow
+-- history only carries their id (PayloadReferenceCodec)
+create table if not exists workflow_payloads (
+    id varchar(36) not null primary key,
+    data bytea not null,
+    created_at timestamp(6) not null
+);
+
+create index if not exists idx_workflow_payloads_created_at on workflow_payloads (created_at);
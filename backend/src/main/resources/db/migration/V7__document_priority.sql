@@ -0,0 +1,10 @@
+-- Analysis priority lane and uploader of each document (DocumentPriorityPolicy)
+alter table documents add column if not exists priority varchar(16) not null default 'NORMAL'
+    check (priority in ('URGENT', 'NORMAL', 'BULK'));
+alter table documents add column if not exists uploaded_by varchar(255);
+
+-- Ordinal of the document's priority; the dispatcher starts lower values first
+alter table workflow_outbox add column if not exists priority smallint not null default 1;
+
+create index if not exists idx_workflow_outbox_priority_next_attempt_at
+    on workflow_outbox (priority, next_attempt_at);
@@ -0,0 +1,3 @@
+-- Referenced payloads are keyed by the SHA-256 of their content, so a
+-- payload encoded again (on replay, or by another workflow) reuses its row
+alter table workflow_payloads alter column id type varchar(64);
@@ -0,0 +1,11 @@
+-- The partitioned documents table can only enforce (id, created_at) as its
+-- key. document_keys keeps ids unique across partitions and maps each id to
+-- its partition key, so lookups by id alone read one partition.
+create table if not exists document_keys (
+    id          varchar(255) not null primary key,
+    created_at  timestamp(6) not null
+);
+
+insert into document_keys (id, created_at)
+select id, created_at from documents
+on conflict (id) do nothing;
@@ -0,0 +1,110 @@
+package com.docflow;
+
+import io.temporal.testserver.TestServer;
+import org.junit.jupiter.api.Assumptions;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Postgres and a Temporal test server shared by the integration tests of one
+ * test JVM, started on first use. Postgres runs in a container; to use an
+ * existing server instead (no Docker), pass {@code -Ddocflow.test.jdbc-url}
+ * and optionally {@code -Ddocflow.test.jdbc-user} / {@code -Ddocflow.test.jdbc-password}.
+ * Without either, the tests are skipped.
+ * <p>
+ * Settings are system properties:
+ * <ul>
+ *   <li>{@code docflow.test.jdbc-url} - existing database, emptied by the tests</li>
+ *   <li>{@code docflow.test.postgres-image} - container image (postgres:16-alpine)</li>
+ * </ul>
+ */
+public final class IntegrationTestEnvironment {
+    
+    private static String jdbcUrl;
+    private static String username;
+    private static String password;
+    private static TestServer.PortBoundTestServer temporal;
+    private static int temporalPort;
+    private static Path fileDir;
+    
+    private IntegrationTestEnvironment() {
+    }
+    
+    /** Starts what is not running yet, or skips the calling test when Postgres is unavailable. */
+    public static synchronized void start() {
+        if (jdbcUrl == null) {
+            startPostgres();
+        }
+        if (temporal == null) {
+            temporalPort = freePort();
+            temporal = TestServer.createPortBoundServer(temporalPort);
+            try {
+                fileDir = Files.createTempDirectory("docflow-test-");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(temporal::close));
+        }
+    }
+    
+    /** Backend properties pointing at the shared services. */
+    public static void register(DynamicPropertyRegistry registry) {
+        start();
+        registry.add("spring.datasource.url", IntegrationTestEnvironment::jdbcUrl);
+        registry.add("spring.datasource.username", IntegrationTestEnvironment::username);
+        registry.add("spring.datasource.password", IntegrationTestEnvironment::password);
+        registry.add("temporal.host", () -> "localhost");
+        registry.add("temporal.port", () -> temporalPort);
+        registry.add("file.upload.dir", () -> fileDir.resolve("uploads").toString());
+        registry.add("file.archive.dir", () -> fileDir.resolve("archive").toString());
+    }
+    
+    public static synchronized String jdbcUrl() {
+        start();
+        return jdbcUrl;
+    }
+    
+    public static synchronized String username() {
+        start();
+        return username;
+    }
+    
+    public static synchronized String password() {
+        start();
+        return password;
+    }
+    
+    private static void startPostgres() {
+        String url = System.getProperty("docflow.test.jdbc-url", "");
+        if (!url.isBlank()) {
+            jdbcUrl = url;
+            username = System.getProperty("docflow.test.jdbc-user", "postgres");
+            password = System.getProperty("docflow.test.jdbc-password", "");
+            return;
+        }
+        Assumptions.assumeTrue(DockerClientFactory.instance().isDockerAvailable(),
+            "Needs Docker or -Ddocflow.test.jdbc-url");
+        PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(
+            System.getProperty("docflow.test.postgres-image", "postgres:16-alpine"));
+        postgres.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(postgres::stop));
+        jdbcUrl = postgres.getJdbcUrl();
+        username = postgres.getUsername();
+        password = postgres.getPassword();
+    }
+    
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.docflow;
+
+import com.docflow.model.Document;
+import com.docflow.model.Document.DocumentPriority;
+import com.docflow.model.Document.DocumentStatus;
+import com.docflow.repository.DocumentBatchRepository;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Base for tests against the backend as deployed: prod profile (Flyway
+ * schema, split pools) on Postgres, with the Temporal test server. The
+ * outbox dispatcher and archival job are off so tests decide when documents
+ * move; statements run through the primary data source are counted per
+ * thread by {@link StatementCounter}.
+ */
+@SpringBootTest(properties = {
+    "docflow.outbox.dispatcher.enabled=false",
+    "docflow.archive.enabled=false",
+    "management.tracing.sampling.probability=0"
+})
+@ActiveProfiles("prod")
+@Import(PostgresIntegrationTest.StatementCounting.class)
+public abstract class PostgresIntegrationTest {
+    
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    protected StatementCounter statementCounter;
+    
+    @Autowired
+    protected DocumentBatchRepository documentBatchRepository;
+    
+    @BeforeAll
+    static void startInfrastructure() {
+        // Skips the class before its context is built when there is no database
+        IntegrationTestEnvironment.start();
+    }
+    
+    @DynamicPropertySource
+    static void infrastructure(DynamicPropertyRegistry registry) {
+        IntegrationTestEnvironment.register(registry);
+    }
+    
+    /** Empties every table that holds document state. */
+    protected void deleteAllDocuments() {
+        jdbcTemplate.execute("truncate documents, document_keys, document_archive, content_blobs, workflow_outbox, "
+            + "document_search, document_stats, workflow_payloads");
+    }
+    
+    /** Inserts a PENDING document the way an upload does, outbox entry included. */
+    protected Document insertPendingDocument(String filename, LocalDateTime createdAt) {
+        Document document = new Document();
+        document.setId(UUID.randomUUID().toString());
+        document.setFilename(filename);
+        document.setContentType("text/plain");
+        document.setFileSize(0L);
+        document.setFilePath("/nonexistent/" + filename);
+        document.setStatus(DocumentStatus.PENDING);
+        document.setWorkflowId("document-approval-" + document.getId());
+        document.setPriority(DocumentPriority.NORMAL);
+        document.setCreatedAt(createdAt);
+        document.setUpdatedAt(createdAt);
+        documentBatchRepository.insertAll(List.of(document));
+        return document;
+    }
+    
+    @TestConfiguration(proxyBeanMethods = false)
+    static class StatementCounting {
+        
+        @Bean
+        StatementCounter statementCounter() {
+            return new StatementCounter();
+        }
+        
+        @Bean
+        static BeanPostProcessor countingDataSource(StatementCounter statementCounter) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                        return ProxyDataSourceBuilder.create(dataSource).listener(statementCounter).build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+    
+    /** Statements executed per thread; a JDBC batch counts once. */
+    public static class StatementCounter implements QueryExecutionListener {
+        
+        private final Map<Thread, AtomicInteger> counts = new ConcurrentHashMap<>();
+        
+        public void reset() {
+            counts.remove(Thread.currentThread());
+        }
+        
+        /** Statements the calling thread executed since its last {@link #reset}. */
+        public int count() {
+            AtomicInteger count = counts.get(Thread.currentThread());
+            return count != null ? count.get() : 0;
+        }
+        
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+        
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            counts.computeIfAbsent(Thread.currentThread(), thread -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+}
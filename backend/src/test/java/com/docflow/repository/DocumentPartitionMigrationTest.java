@@ -0,0 +1,171 @@
+package com.docflow.repository;
+
+import com.docflow.IntegrationTestEnvironment;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the migrations on a database of its own: documents written under the
+ * V1 schema must land in their monthly partitions, and
+ * {@code docflow_maintain_document_partitions} must add months ahead and
+ * drop only old partitions that archival has emptied.
+ */
+class DocumentPartitionMigrationTest {
+    
+    private static final String DATABASE = "docflow_migration_test";
+    
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+    
+    private static JdbcTemplate server;
+    private static JdbcTemplate database;
+    private static String databaseUrl;
+    
+    @BeforeAll
+    static void createDatabase() {
+        IntegrationTestEnvironment.start();
+        server = new JdbcTemplate(dataSource(IntegrationTestEnvironment.jdbcUrl()));
+        server.execute("drop database if exists " + DATABASE);
+        server.execute("create database " + DATABASE);
+        databaseUrl = IntegrationTestEnvironment.jdbcUrl().replaceFirst("/[^/?]+(\\?|$)", "/" + DATABASE + "$1");
+        database = new JdbcTemplate(dataSource(databaseUrl));
+    }
+    
+    @AfterAll
+    static void dropDatabase() {
+        if (server != null) {
+            server.execute("drop database if exists " + DATABASE + " with (force)");
+        }
+    }
+    
+    @BeforeEach
+    void emptySchema() {
+        database.execute("drop schema if exists public cascade");
+        database.execute("create schema public");
+    }
+    
+    @Test
+    void documentsMoveIntoMonthlyPartitionsAndEmptiedOldOnesAreDropped() {
+        migrate("1");
+        LocalDate thisMonth = LocalDate.now().withDayOfMonth(1);
+        LocalDateTime fiveMonthsAgo = thisMonth.minusMonths(5).atTime(9, 30);
+        LocalDateTime fourMonthsAgo = thisMonth.minusMonths(4).atTime(12, 0);
+        LocalDateTime lastMonth = thisMonth.minusMonths(1).plusDays(27).atTime(23, 59);
+        LocalDateTime now = LocalDateTime.now();
+        String archived = insertV1Document(fiveMonthsAgo, "APPROVED");
+        String kept = insertV1Document(fourMonthsAgo, "REJECTED");
+        String recent = insertV1Document(lastMonth, "PENDING");
+        String current = insertV1Document(now, "PENDING");
+        
+        migrate(null);
+        
+        Map<String, String> partitions = database.query("select id, tableoid::regclass::text as partition from documents",
+            rs -> {
+                Map<String, String> byId = new HashMap<>();
+                while (rs.next()) {
+                    byId.put(rs.getString("id"), rs.getString("partition"));
+                }
+                return byId;
+            });
+        assertThat(partitions).containsExactlyInAnyOrderEntriesOf(Map.of(
+            archived, partition(fiveMonthsAgo.toLocalDate()),
+            kept, partition(fourMonthsAgo.toLocalDate()),
+            recent, partition(lastMonth.toLocalDate()),
+            current, partition(now.toLocalDate())));
+        assertThat(count("select count(*) from documents_default")).isZero();
+        assertThat(count("select count(*) from document_keys")).isEqualTo(4);
+        assertThat(partitionNames()).contains(partition(thisMonth.plusMonths(3)));
+        
+        // Archival empties the oldest month; the month after still has a document
+        database.update("delete from documents where id = ?", archived);
+        database.update("delete from document_keys where id = ?", archived);
+        database.queryForList("select docflow_maintain_document_partitions(6, ?)",
+            Timestamp.valueOf(thisMonth.minusMonths(2).atStartOfDay()));
+        
+        List<String> names = partitionNames();
+        assertThat(names).doesNotContain(partition(fiveMonthsAgo.toLocalDate()));
+        assertThat(names).contains(partition(fourMonthsAgo.toLocalDate()), partition(lastMonth.toLocalDate()),
+            partition(thisMonth.plusMonths(6)));
+        assertThat(count("select count(*) from documents")).isEqualTo(3);
+    }
+    
+    @Test
+    void lookupByIdReadsOnlyTheDocumentsPartition() {
+        migrate(null);
+        LocalDate thisMonth = LocalDate.now().withDayOfMonth(1);
+        String id = null;
+        for (int month = 0; month < 4; month++) {
+            LocalDateTime createdAt = thisMonth.minusMonths(month).atTime(10, 0);
+            String documentId = UUID.randomUUID().toString();
+            database.update("insert into document_keys (id, created_at) values (?, ?)", documentId, createdAt);
+            database.update("insert into documents (id, filename, content_type, file_size, file_path, status, "
+                    + "created_at, updated_at) values (?, 'f.txt', 'text/plain', 0, '/f', 'PENDING', ?, ?)",
+                documentId, createdAt, createdAt);
+            id = documentId;
+        }
+        
+        // The shape of DocumentRepository.BY_ID once translated
+        String plan = database.queryForList("explain (analyze, costs off, timing off, summary off) "
+                + "select d.status from documents d where d.id = ? "
+                + "and d.created_at = (select k.created_at from document_keys k where k.id = ?)", String.class, id, id)
+            .stream().collect(Collectors.joining("\n"));
+        
+        long partitionsRead = plan.lines()
+            .filter(line -> line.contains(" on documents_") && !line.contains("never executed"))
+            .count();
+        assertThat(partitionsRead).as(plan).isEqualTo(1);
+    }
+    
+    /** Migrates up to {@code target}, or to the latest version when null. */
+    private static void migrate(String target) {
+        Flyway.configure()
+            .dataSource(databaseUrl, IntegrationTestEnvironment.username(), IntegrationTestEnvironment.password())
+            .locations(System.getProperty("spring.flyway.locations", "classpath:db/migration"))
+            .target(target != null ? target : "latest")
+            .load()
+            .migrate();
+    }
+    
+    private static String insertV1Document(LocalDateTime createdAt, String status) {
+        String id = UUID.randomUUID().toString();
+        database.update("insert into documents (id, filename, content_type, file_size, file_path, status, "
+                + "created_at, updated_at) values (?, ?, 'text/plain', 0, '/nonexistent', ?, ?, ?)",
+            id, id + ".txt", status, createdAt, createdAt);
+        return id;
+    }
+    
+    private static List<String> partitionNames() {
+        return database.queryForList("select c.relname from pg_inherits i join pg_class c on c.oid = i.inhrelid "
+            + "join pg_class p on p.oid = i.inhparent where p.relname = 'documents'", String.class);
+    }
+    
+    private static String partition(LocalDate day) {
+        return "documents_p" + day.format(PARTITION_MONTH);
+    }
+    
+    private long count(String sql) {
+        Long count = database.queryForObject(sql, Long.class);
+        return count != null ? count : 0;
+    }
+    
+    private static DriverManagerDataSource dataSource(String url) {
+        return new DriverManagerDataSource(url, IntegrationTestEnvironment.username(),
+            IntegrationTestEnvironment.password());
+    }
+}
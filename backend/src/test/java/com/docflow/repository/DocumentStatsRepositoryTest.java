@@ -0,0 +1,150 @@
+package com.docflow.repository;
+
+import com.docflow.PostgresIntegrationTest;
+import com.docflow.model.Document.DocumentStatus;
+import com.docflow.workflow.AIAnalysisResult;
+import com.docflow.workflow.DocumentActivitiesImpl;
+import com.docflow.workflow.DocumentApprovalWorkflow;
+import com.docflow.workflow.DocumentApprovalWorkflow.ApprovalResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocumentStatsRepositoryTest extends PostgresIntegrationTest {
+    
+    private static final int DOCUMENTS = 60;
+    
+    @Autowired
+    private DocumentActivitiesImpl activities;
+    
+    @Autowired
+    private DocumentStatsRepository statsRepository;
+    
+    @BeforeEach
+    void setUp() {
+        deleteAllDocuments();
+    }
+    
+    @Test
+    void countersMatchDocumentsAfterConcurrentSuggestionsAndDecisions() throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < DOCUMENTS; i++) {
+            ids.add(insertPendingDocument("doc-" + i + ".txt", LocalDateTime.now().minusMinutes(i * 7L)).getId());
+        }
+        
+        // Per document: two AI attempts with different results, and a decision
+        // delivered twice, as activity retries do; all racing each other
+        List<Runnable> calls = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            String id = ids.get(i);
+            ApprovalResult decision = decision(i);
+            String retriedSuggestion = i % 3 == 0 ? "reject" : "approve";
+            calls.add(() -> activities.updateDocumentWithAISuggestion(id,
+                new AIAnalysisResult("approve", 0.61, "first attempt")));
+            calls.add(() -> activities.updateDocumentWithAISuggestion(id,
+                new AIAnalysisResult(retriedSuggestion, 0.93, "retried attempt")));
+            if (i % 5 != 0) {
+                calls.add(() -> activities.finalizeDocumentDecision(id, decision));
+                calls.add(() -> activities.finalizeDocumentDecision(id, decision));
+            }
+        }
+        Collections.shuffle(calls);
+        
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (Runnable call : calls) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    call.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        Map<String, Long> totals = withoutZeros(statsRepository.totals());
+        assertThat(totals).isEqualTo(expectedFromDocuments());
+    }
+    
+    private static ApprovalResult decision(int i) {
+        return switch (i % 4) {
+            case 0 -> new ApprovalResult(DocumentApprovalWorkflow.APPROVED, null, "alice");
+            case 1 -> new ApprovalResult(DocumentApprovalWorkflow.REJECTED, null, "bob");
+            case 2 -> new ApprovalResult(DocumentApprovalWorkflow.APPROVED, null, DocumentApprovalWorkflow.POLICY_REVIEWER);
+            default -> new ApprovalResult(DocumentApprovalWorkflow.REJECTED, null, DocumentApprovalWorkflow.TIMEOUT_REVIEWER);
+        };
+    }
+    
+    /** The counters recomputed with group by over the documents themselves. */
+    private Map<String, Long> expectedFromDocuments() {
+        Map<String, Long> expected = new HashMap<>();
+        jdbcTemplate.query("select status, count(*) from documents group by status", rs -> {
+            expected.put(DocumentStatsRepository.STATUS_PREFIX + rs.getString(1), rs.getLong(2));
+        });
+        jdbcTemplate.query("select ai_suggestion, count(*), sum(round(ai_confidence * 1000000)) from documents "
+                + "where ai_suggestion is not null group by ai_suggestion", rs -> {
+            expected.put(DocumentStatsRepository.AI_SUGGESTION_PREFIX + rs.getString(1), rs.getLong(2));
+            expected.merge(DocumentStatsRepository.AI_ANALYZED, rs.getLong(2), Long::sum);
+            expected.merge(DocumentStatsRepository.AI_CONFIDENCE_MICROS, rs.getLong(3), Long::sum);
+        });
+        String decided = "from documents where status <> '" + DocumentStatus.PENDING.name() + "'";
+        expected.put(DocumentStatsRepository.DECISIONS_POLICY, count("select count(*) " + decided
+            + " and reviewed_by = ?", DocumentApprovalWorkflow.POLICY_REVIEWER));
+        expected.put(DocumentStatsRepository.DECISIONS_TIMEOUT, count("select count(*) " + decided
+            + " and reviewed_by = ?", DocumentApprovalWorkflow.TIMEOUT_REVIEWER));
+        // Human decisions count only when a suggestion was there to compare with
+        String human = decided + " and reviewed_by not in ('" + DocumentApprovalWorkflow.POLICY_REVIEWER + "', '"
+            + DocumentApprovalWorkflow.TIMEOUT_REVIEWER + "') and ai_suggestion is not null";
+        expected.put(DocumentStatsRepository.DECISIONS_HUMAN, count("select count(*) " + human));
+        expected.put(DocumentStatsRepository.DECISIONS_AGREED, count("select count(*) " + human
+            + " and ((ai_suggestion like 'approve%' and status = 'APPROVED')"
+            + " or (ai_suggestion like 'reject%' and status = 'REJECTED'))"));
+        expected.put(DocumentStatsRepository.DECISION_SECONDS, count("select coalesce(sum(greatest(0, "
+            + "floor(extract(epoch from reviewed_at - created_at)))), 0) " + decided));
+        
+        // Every decision lands in exactly one bucket; which one is checked by their sum
+        Map<String, Long> buckets = new HashMap<>();
+        Map<String, Long> actual = statsRepository.totals();
+        actual.forEach((metric, total) -> {
+            if (metric.startsWith(DocumentStatsRepository.DECISION_BUCKET_PREFIX)) {
+                buckets.put(metric, total);
+            }
+        });
+        assertThat(buckets.values().stream().mapToLong(Long::longValue).sum())
+            .isEqualTo(count("select count(*) " + decided));
+        expected.putAll(buckets);
+        return withoutZeros(expected);
+    }
+    
+    private long count(String sql, Object... args) {
+        Long value = jdbcTemplate.queryForObject(sql, Long.class, args);
+        return value != null ? value : 0;
+    }
+    
+    private static Map<String, Long> withoutZeros(Map<String, Long> totals) {
+        Map<String, Long> result = new HashMap<>(totals);
+        result.values().removeIf(total -> total == 0);
+        return result;
+    }
+}
@@ -0,0 +1,90 @@
+package com.docflow.service;
+
+import com.docflow.PostgresIntegrationTest;
+import com.docflow.dto.DocumentSearchHit;
+import com.docflow.dto.DocumentSearchQuery;
+import com.docflow.dto.DocumentSearchResponse;
+import com.docflow.repository.DocumentSearchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocumentSearchServiceTest extends PostgresIntegrationTest {
+    
+    @Autowired
+    private DocumentSearchService searchService;
+    
+    @Autowired
+    private DocumentSearchRepository searchRepository;
+    
+    @BeforeEach
+    void setUp() {
+        deleteAllDocuments();
+    }
+    
+    @Test
+    void cursorsPageThroughEveryHitOnce() {
+        // Ranks and creation times tie across documents, so the id breaks ties
+        LocalDateTime base = LocalDateTime.now().withNano(0);
+        for (int i = 0; i < 13; i++) {
+            String id = insertPendingDocument("scan-" + i + ".txt", base.minusMinutes(i / 2)).getId();
+            searchRepository.upsert(id, "invoice ".repeat(i % 3 + 1) + "for the quarter");
+        }
+        
+        for (String q : new String[] { "invoice", null }) {
+            DocumentSearchQuery query = new DocumentSearchQuery();
+            query.setQ(q);
+            query.setStatus("pending");
+            List<String> expected = searchRepository.search(query, null, 100, 1000).stream()
+                .map(DocumentSearchHit::getId)
+                .toList();
+            assertThat(expected).hasSize(13);
+            
+            query.setLimit(5);
+            DocumentSearchResponse page = searchService.search(query);
+            assertThat(page.getTotal()).isEqualTo(13);
+            assertThat(page.getTotalCapped()).isFalse();
+            assertThat(page.getStatusCounts()).isEqualTo(Map.of("pending", 13L));
+            assertThat(page.getAiSuggestionCounts()).isEqualTo(Map.of("none", 13L));
+            
+            List<String> paged = new ArrayList<>();
+            page.getItems().forEach(hit -> paged.add(hit.getId()));
+            while (page.getNextCursor() != null) {
+                query.setCursor(page.getNextCursor());
+                page = searchService.search(query);
+                assertThat(page.getTotal()).isNull();
+                assertThat(page.getStatusCounts()).isNull();
+                page.getItems().forEach(hit -> paged.add(hit.getId()));
+            }
+            assertThat(paged).as(q).isEqualTo(expected);
+        }
+    }
+    
+    @Test
+    void indexKeepsTheNewestDocumentVersionWhateverItsClock() {
+        String id = insertPendingDocument("ordered.txt", LocalDateTime.now()).getId();
+        searchRepository.upsert(id, "first text");
+        
+        // Approved on a node whose clock is an hour behind the uploader's
+        jdbcTemplate.update("update documents set status = 'APPROVED', version = version + 1, "
+            + "updated_at = updated_at - interval '1 hour' where id = ?", id);
+        searchRepository.upsert(id, null);
+        assertThat(indexed(id)).isEqualTo(Map.of("status", "APPROVED", "version", 1L, "content", "first text"));
+        
+        // A slow indexer that read the PENDING version writes last
+        jdbcTemplate.update("update documents set status = 'PENDING', version = 0 where id = ?", id);
+        searchRepository.upsert(id, "stale text");
+        assertThat(indexed(id)).isEqualTo(Map.of("status", "APPROVED", "version", 1L, "content", "first text"));
+    }
+    
+    private Map<String, Object> indexed(String id) {
+        return jdbcTemplate.queryForMap("select status, version, content from document_search where document_id = ?", id);
+    }
+}
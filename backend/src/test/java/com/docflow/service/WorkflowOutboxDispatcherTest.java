@@ -0,0 +1,191 @@
+package com.docflow.service;
+
+import com.docflow.PostgresIntegrationTest;
+import com.docflow.repository.WorkflowOutboxRepository;
+import com.docflow.workflow.TracingContextPropagator;
+import io.grpc.Status;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.temporal.api.enums.v1.EventType;
+import io.temporal.api.history.v1.HistoryEvent;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowClientOptions;
+import io.temporal.common.converter.DataConverter;
+import io.temporal.common.interceptors.WorkflowClientCallsInterceptor;
+import io.temporal.common.interceptors.WorkflowClientCallsInterceptorBase;
+import io.temporal.common.interceptors.WorkflowClientInterceptorBase;
+import io.temporal.serviceclient.WorkflowServiceStubs;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Outbox recovery when a dispatcher loses its lease or a start's outcome is
+ * unknown. The dispatchers here start workflows on a task queue without
+ * workers, so the workflows stay at their first task.
+ */
+class WorkflowOutboxDispatcherTest extends PostgresIntegrationTest {
+    
+    private static final String TASK_QUEUE = "outbox-test-queue";
+    
+    @Autowired
+    private WorkflowOutboxRepository outboxRepository;
+    
+    @Autowired
+    private WorkflowClient workflowClient;
+    
+    @Autowired
+    private WorkflowServiceStubs serviceStubs;
+    
+    @Autowired
+    private DataConverter dataConverter;
+    
+    @Autowired
+    private TracingContextPropagator tracing;
+    
+    @BeforeEach
+    void setUp() {
+        deleteAllDocuments();
+    }
+    
+    @Test
+    void leaseExpiringMidBatchStartsEveryWorkflowOnce() throws Exception {
+        List<String> workflowIds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            workflowIds.add(insertPendingDocument("lease-" + i + ".txt", LocalDateTime.now()).getWorkflowId());
+        }
+        
+        // The first dispatcher starts four workflows, then stalls past its lease
+        CountDownLatch stalled = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        AtomicInteger submitted = new AtomicInteger();
+        ExecutorService starts = Executors.newFixedThreadPool(10);
+        Executor stalling = task -> starts.execute(() -> {
+            if (submitted.incrementAndGet() > 4) {
+                stalled.countDown();
+                await(resume);
+            }
+            task.run();
+        });
+        SimpleMeterRegistry slowMetrics = new SimpleMeterRegistry();
+        WorkflowOutboxDispatcher slow = dispatcher(workflowClient, stalling, Duration.ofSeconds(1), slowMetrics);
+        
+        ExecutorService drains = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> slowDrain = drains.submit(slow::drain);
+            assertThat(stalled.await(30, TimeUnit.SECONDS)).isTrue();
+            Thread.sleep(1500);
+            
+            // Another node takes over the expired entries and drains them
+            SimpleMeterRegistry takeoverMetrics = new SimpleMeterRegistry();
+            dispatcher(workflowClient, starts, Duration.ofSeconds(60), takeoverMetrics).drain();
+            assertThat(outboxRepository.countPending()).isZero();
+            
+            resume.countDown();
+            slowDrain.get(30, TimeUnit.SECONDS);
+            
+            assertThat(dispatched(slowMetrics, "started") + dispatched(takeoverMetrics, "started")).isEqualTo(10);
+            assertThat(dispatched(takeoverMetrics, "duplicate")).isEqualTo(4);
+            assertThat(dispatched(slowMetrics, "duplicate")).isEqualTo(6);
+            assertThat(dispatched(slowMetrics, "failed") + dispatched(takeoverMetrics, "failed")).isZero();
+        } finally {
+            resume.countDown();
+            drains.shutdownNow();
+            starts.shutdownNow();
+        }
+        
+        assertThat(outboxRepository.countPending()).isZero();
+        for (String workflowId : workflowIds) {
+            assertThat(startedEvents(workflowId)).as(workflowId).isEqualTo(1);
+        }
+    }
+    
+    @Test
+    void startFailingAfterWorkflowStartedIsRecognizedOnRetry() {
+        String workflowId = insertPendingDocument("unknown-outcome.txt", LocalDateTime.now()).getWorkflowId();
+        
+        // The frontend starts the workflow but the reply is lost, as on a deadline
+        AtomicInteger lostReplies = new AtomicInteger(1);
+        WorkflowClient losingClient = WorkflowClient.newInstance(serviceStubs, WorkflowClientOptions.newBuilder()
+            .setDataConverter(dataConverter)
+            .setInterceptors(new WorkflowClientInterceptorBase() {
+                @Override
+                public WorkflowClientCallsInterceptor workflowClientCallsInterceptor(WorkflowClientCallsInterceptor next) {
+                    return new WorkflowClientCallsInterceptorBase(next) {
+                        @Override
+                        public WorkflowStartOutput start(WorkflowStartInput input) {
+                            WorkflowStartOutput output = super.start(input);
+                            if (lostReplies.getAndDecrement() > 0) {
+                                throw Status.DEADLINE_EXCEEDED.withDescription("reply lost").asRuntimeException();
+                            }
+                            return output;
+                        }
+                    };
+                }
+            })
+            .build());
+        SimpleMeterRegistry metrics = new SimpleMeterRegistry();
+        WorkflowOutboxDispatcher dispatcher = dispatcher(losingClient, Runnable::run, Duration.ofSeconds(60), metrics);
+        
+        dispatcher.drain();
+        assertThat(outboxRepository.countPending()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("select attempts from workflow_outbox", Integer.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("select last_error from workflow_outbox", String.class))
+            .contains(workflowId);
+        
+        // Due again; the rejected duplicate start completes the entry
+        jdbcTemplate.update("update workflow_outbox set next_attempt_at = ?", LocalDateTime.now().minusSeconds(1));
+        dispatcher.drain();
+        
+        assertThat(outboxRepository.countPending()).isZero();
+        assertThat(dispatched(metrics, "failed")).isEqualTo(1);
+        assertThat(dispatched(metrics, "duplicate")).isEqualTo(1);
+        assertThat(dispatched(metrics, "started")).isZero();
+        assertThat(startedEvents(workflowId)).isEqualTo(1);
+    }
+    
+    private WorkflowOutboxDispatcher dispatcher(WorkflowClient client, Executor executor, Duration lease,
+                                                MeterRegistry meterRegistry) {
+        WorkflowOutboxDispatcher dispatcher = new WorkflowOutboxDispatcher(
+            outboxRepository, client, TASK_QUEUE, executor, tracing, meterRegistry);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 100);
+        ReflectionTestUtils.setField(dispatcher, "lease", lease);
+        ReflectionTestUtils.setField(dispatcher, "initialBackoff", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(dispatcher, "maxBackoff", Duration.ofMinutes(5));
+        return dispatcher;
+    }
+    
+    private static double dispatched(MeterRegistry meterRegistry, String result) {
+        return meterRegistry.get("docflow.outbox.dispatched").tag("result", result).counter().count();
+    }
+    
+    private long startedEvents(String workflowId) {
+        List<HistoryEvent> events = workflowClient.fetchHistory(workflowId).getEvents();
+        return events.stream()
+            .filter(event -> event.getEventType() == EventType.EVENT_TYPE_WORKFLOW_EXECUTION_STARTED)
+            .count();
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(60, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
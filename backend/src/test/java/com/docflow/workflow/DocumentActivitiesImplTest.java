@@ -0,0 +1,88 @@
+package com.docflow.workflow;
+
+import com.docflow.PostgresIntegrationTest;
+import com.docflow.model.Document;
+import com.docflow.model.Document.DocumentStatus;
+import com.docflow.repository.DocumentRepository;
+import com.docflow.repository.DocumentStatsRepository;
+import com.docflow.workflow.DocumentApprovalWorkflow.ApprovalResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DocumentActivitiesImplTest extends PostgresIntegrationTest {
+    
+    @Autowired
+    private DocumentActivitiesImpl activities;
+    
+    @Autowired
+    private DocumentRepository documentRepository;
+    
+    @Autowired
+    private DocumentStatsRepository statsRepository;
+    
+    @BeforeEach
+    void setUp() {
+        deleteAllDocuments();
+    }
+    
+    @Test
+    void completedWorkflowTouchesDocumentWithSevenStatements() {
+        Document document = insertPendingDocument("invoice.txt", LocalDateTime.now());
+        String id = document.getId();
+        
+        // Before the partial updates: findById + full-row save in each of the
+        // three activities, i.e. 3 selects and 2 updates of every column
+        statementCounter.reset();
+        documentRepository.findAnalysisInputById(id);
+        assertThat(statementCounter.count()).as("analysis input").isEqualTo(1);
+        
+        statementCounter.reset();
+        activities.updateDocumentWithAISuggestion(id, new AIAnalysisResult("approve", 0.8, "invoice"));
+        assertThat(statementCounter.count()).as("lock, update, counters").isEqualTo(3);
+        
+        statementCounter.reset();
+        activities.finalizeDocumentDecision(id, new ApprovalResult(DocumentApprovalWorkflow.APPROVED, "ok", "alice"));
+        assertThat(statementCounter.count()).as("guarded transition, lock, counters").isEqualTo(3);
+        
+        assertThat(documentRepository.findStatusById(id)).contains(DocumentStatus.APPROVED);
+    }
+    
+    @Test
+    void suggestionArrivingAfterDecisionIsNotRecorded() {
+        String id = insertPendingDocument("contract.txt", LocalDateTime.now()).getId();
+        activities.updateDocumentWithAISuggestion(id, new AIAnalysisResult("approve", 0.7, "first attempt"));
+        activities.finalizeDocumentDecision(id, new ApprovalResult(DocumentApprovalWorkflow.APPROVED, null, "alice"));
+        Map<String, Long> before = statsRepository.totals();
+        
+        // A timed-out analysis attempt completing after the reviewer decided
+        activities.updateDocumentWithAISuggestion(id, new AIAnalysisResult("reject", 0.95, "late attempt"));
+        
+        Document stored = documentRepository.findById(id).orElseThrow();
+        assertThat(stored.getAiSuggestion()).isEqualTo("approve");
+        assertThat(stored.getAiReasoning()).isEqualTo("first attempt");
+        assertThat(stored.getStatus()).isEqualTo(DocumentStatus.APPROVED);
+        assertThat(statsRepository.totals()).isEqualTo(before);
+    }
+    
+    @Test
+    void repeatedFinalizeIsIdempotentAndConflictingOneFails() {
+        String id = insertPendingDocument("order.txt", LocalDateTime.now()).getId();
+        ApprovalResult approve = new ApprovalResult(DocumentApprovalWorkflow.APPROVED, null, "alice");
+        activities.finalizeDocumentDecision(id, approve);
+        long version = documentRepository.findById(id).orElseThrow().getVersion();
+        
+        activities.finalizeDocumentDecision(id, approve);
+        assertThat(documentRepository.findById(id).orElseThrow().getVersion()).isEqualTo(version);
+        
+        assertThatThrownBy(() -> activities.finalizeDocumentDecision(id,
+                new ApprovalResult(DocumentApprovalWorkflow.REJECTED, null, "bob")))
+            .hasMessageContaining("already APPROVED");
+    }
+}
@@ -0,0 +1,102 @@
+package com.docflow.workflow;
+
+import com.docflow.config.TemporalConfig;
+import com.docflow.workflow.DocumentApprovalWorkflow.ApprovalResult;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowClientOptions;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.common.converter.DataConverter;
+import io.temporal.internal.common.WorkflowExecutionHistory;
+import io.temporal.testing.TestEnvironmentOptions;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.testing.WorkflowReplayer;
+import io.temporal.worker.Worker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Replays approval workflow histories with the workers' data converter.
+ * {@code histories/document-approval-json.json} was captured with the plain
+ * JSON converter used before compact payloads; it must keep replaying.
+ */
+class DocumentApprovalWorkflowReplayTest {
+    
+    private static final String TASK_QUEUE = "docflow-task-queue";
+    private static final String AI_TASK_QUEUE = "docflow-ai-task-queue";
+    
+    private TestWorkflowEnvironment environment;
+    
+    @BeforeEach
+    void setUp() {
+        // The reference stage needs Postgres; large payloads stay in history here
+        DataConverter converter = TemporalConfig.newDataConverter(true, 1024);
+        environment = TestWorkflowEnvironment.newInstance(TestEnvironmentOptions.newBuilder()
+            .setWorkflowClientOptions(WorkflowClientOptions.newBuilder()
+                .setDataConverter(converter)
+                .build())
+            .build());
+    }
+    
+    @AfterEach
+    void tearDown() {
+        environment.close();
+    }
+    
+    @Test
+    void historyWrittenWithJsonConverterReplays() throws Exception {
+        WorkflowReplayer.replayWorkflowExecutionFromResource("histories/document-approval-json.json",
+            newWorker("replay-json"));
+    }
+    
+    @Test
+    void historyWrittenWithCompactConverterReplays() throws Exception {
+        Worker worker = newWorker(TASK_QUEUE);
+        StubActivities activities = new StubActivities();
+        worker.registerActivitiesImplementations(activities);
+        environment.newWorker(AI_TASK_QUEUE).registerActivitiesImplementations(activities);
+        Worker replayWorker = newWorker("replay-compact");
+        environment.start();
+        
+        WorkflowClient client = environment.getWorkflowClient();
+        String workflowId = "document-approval-compact";
+        DocumentApprovalWorkflow workflow = client.newWorkflowStub(DocumentApprovalWorkflow.class,
+            WorkflowOptions.newBuilder().setTaskQueue(TASK_QUEUE).setWorkflowId(workflowId).build());
+        ApprovalResult result = workflow.processDocument("5b0e9d2c-41f7-4c3a-8e16-2f9a7d3c6b58");
+        assertThat(result.getReviewedBy()).isEqualTo(DocumentApprovalWorkflow.POLICY_REVIEWER);
+        
+        WorkflowExecutionHistory history = client.fetchHistory(workflowId);
+        WorkflowReplayer.replayWorkflowExecution(history, replayWorker);
+    }
+    
+    private Worker newWorker(String taskQueue) {
+        Worker worker = environment.newWorker(taskQueue);
+        worker.registerWorkflowImplementationFactory(DocumentApprovalWorkflow.class,
+            () -> new DocumentApprovalWorkflowImpl(AI_TASK_QUEUE, DocumentApprovalWorkflowImpl.DEFAULT_AI_TIMEOUT));
+        return worker;
+    }
+    
+    /** Confident analysis with reasoning above the compression threshold, decided by the policy. */
+    private static class StubActivities implements DocumentActivities {
+        
+        @Override
+        public AIAnalysisResult analyzeDocumentWithAI(String documentId) {
+            return new AIAnalysisResult("approve", 0.97, "Line items match the purchase order. ".repeat(40));
+        }
+        
+        @Override
+        public void updateDocumentWithAISuggestion(String documentId, AIAnalysisResult aiResult) {
+        }
+        
+        @Override
+        public PolicyDecision evaluateDecisionPolicy(String documentId, AIAnalysisResult aiResult) {
+            return new PolicyDecision(DocumentApprovalWorkflow.APPROVED, "2", "confidence at least 0.95");
+        }
+        
+        @Override
+        public void finalizeDocumentDecision(String documentId, ApprovalResult approvalResult) {
+        }
+    }
+}
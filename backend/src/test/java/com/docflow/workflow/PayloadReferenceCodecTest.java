@@ -0,0 +1,77 @@
+package com.docflow.workflow;
+
+import com.docflow.PostgresIntegrationTest;
+import com.docflow.repository.WorkflowPayloadRepository;
+import com.google.protobuf.ByteString;
+import io.temporal.api.common.v1.Payload;
+import io.temporal.common.converter.EncodingKeys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PayloadReferenceCodecTest extends PostgresIntegrationTest {
+    
+    @Autowired
+    private PayloadReferenceCodec codec;
+    
+    @Autowired
+    private WorkflowPayloadRepository payloadRepository;
+    
+    @BeforeEach
+    void setUp() {
+        deleteAllDocuments();
+    }
+    
+    @Test
+    void payloadEncodedAgainReusesItsRowWithoutQuerying() {
+        Payload payload = largePayload("analysis of a long contract ");
+        
+        statementCounter.reset();
+        Payload first = codec.encode(List.of(payload)).get(0);
+        assertThat(statementCounter.count()).as("first encode").isEqualTo(1);
+        
+        // As on replay: the same command is encoded again, then its result decoded
+        statementCounter.reset();
+        Payload second = codec.encode(List.of(payload)).get(0);
+        assertThat(codec.decode(List.of(second))).containsExactly(payload);
+        assertThat(statementCounter.count()).as("re-encode and decode").isZero();
+        
+        assertThat(second).isEqualTo(first);
+        assertThat(first.getMetadataOrThrow(EncodingKeys.METADATA_ENCODING_KEY).toStringUtf8())
+            .isEqualTo(PayloadReferenceCodec.ENCODING);
+        assertThat(count()).isEqualTo(1);
+    }
+    
+    @Test
+    void storingAnOldPayloadAgainRenewsItsRetention() {
+        String id = "0".repeat(64);
+        payloadRepository.insert(id, new byte[] {1}, Duration.ofDays(1));
+        LocalDateTime old = LocalDateTime.now().minusDays(50);
+        jdbcTemplate.update("update workflow_payloads set created_at = ? where id = ?", old, id);
+        
+        payloadRepository.insert(id, new byte[] {1}, Duration.ofDays(1));
+        
+        LocalDateTime createdAt = jdbcTemplate.queryForObject(
+            "select created_at from workflow_payloads where id = ?", LocalDateTime.class, id);
+        assertThat(createdAt).isAfter(old.plusDays(49));
+        assertThat(count()).isEqualTo(1);
+    }
+    
+    private long count() {
+        Long count = jdbcTemplate.queryForObject("select count(*) from workflow_payloads", Long.class);
+        return count != null ? count : 0;
+    }
+    
+    private static Payload largePayload(String text) {
+        return Payload.newBuilder()
+            .putMetadata(EncodingKeys.METADATA_ENCODING_KEY, ByteString.copyFromUtf8("json/plain"))
+            .setData(ByteString.copyFromUtf8("\"" + text.repeat(4000) + "\""))
+            .build();
+    }
+}
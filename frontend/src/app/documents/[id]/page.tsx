@@ -38,10 +38,8 @@ export default function DocumentDetail(props: PageProps) {
 
   useEffect(() => {
     load();
-    const iv = setInterval(() => {
-      if (id) api.getWorkflowStatus(id).then(setStatus).catch(() => {});
-    }, 4000);
-    return () => clearInterval(iv);
+    if (!id) return;
+    return api.subscribeToEvents(id, () => load());
   }, [id]);
 
   async function decide(decision: "approved" | "rejected") {
@@ -2,10 +2,11 @@
 
 import { useEffect, useState } from "react";
 import Link from "next/link";
-import { api, type DocumentResponse } from "../lib/api";
+import { api, type DocumentResponse, type DocumentStats } from "../lib/api";
 
 export default function Home() {
   const [documents, setDocuments] = useState<DocumentResponse[]>([]);
+  const [stats, setStats] = useState<DocumentStats | null>(null);
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState<string | null>(null);
   const [selectedFile, setSelectedFile] = useState<File | null>(null);
@@ -15,8 +16,9 @@ export default function Home() {
     try {
       setLoading(true);
       setError(null);
-      const data = await api.listDocuments();
-      setDocuments(data);
+      const [page, latestStats] = await Promise.all([api.listDocuments(), api.getStats()]);
+      setDocuments(page.items);
+      setStats(latestStats);
     } catch (e) {
       const message = e instanceof Error ? e.message : "Failed to load documents";
       setError(message);
@@ -27,6 +29,15 @@ export default function Home() {
 
   useEffect(() => {
     refresh();
+    return api.subscribeToEvents(null, (event) => {
+      setDocuments((docs) => docs.map((d) => d.id !== event.documentId ? d : {
+        ...d,
+        status: event.status,
+        aiSuggestion: event.aiSuggestion ?? d.aiSuggestion,
+        aiConfidence: event.aiConfidence ?? d.aiConfidence,
+      }));
+      api.getStats().then(setStats).catch(() => {});
+    });
   }, []);
 
   async function onUpload(e: React.FormEvent) {
@@ -70,6 +81,29 @@ export default function Home() {
         </form>
       </section>
 
+      {stats && (
+        <section className="rounded border p-4">
+          <h2 className="font-medium mb-3">Overview</h2>
+          <div className="grid grid-cols-2 gap-2 text-sm sm:grid-cols-4">
+            <div>Total: {stats.total}</div>
+            {Object.entries(stats.statusCounts).map(([status, count]) => (
+              <div key={status} className="capitalize">{status}: {count}</div>
+            ))}
+            {stats.averageConfidence != null && (
+              <div>Avg. AI confidence: {Math.round(stats.averageConfidence * 100)}%</div>
+            )}
+            {stats.aiAgreementRate != null && (
+              <div>Reviewers agree with AI: {Math.round(stats.aiAgreementRate * 100)}%</div>
+            )}
+            <div>Timeout decisions: {stats.timeoutDecisions}</div>
+            <div>Auto-decided by policy: {stats.policyDecisions}</div>
+            {stats.averageSecondsToDecision != null && (
+              <div>Avg. time to decision: {Math.round(stats.averageSecondsToDecision / 60)} min</div>
+            )}
+          </div>
+        </section>
+      )}
+
       <section className="rounded border p-4">
         <div className="flex items-center justify-between mb-3">
           <h2 className="font-medium">Documents</h2>
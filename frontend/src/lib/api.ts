@@ -11,10 +11,17 @@ export type DocumentResponse = {
   reviewedBy?: string | null;
   reviewedAt?: string | null;
   workflowId?: string | null;
+  priority?: string; // urgent | normal | bulk
+  uploadedBy?: string | null;
   createdAt: string;
   updatedAt: string;
 };
 
+export type DocumentPage = {
+  items: DocumentResponse[];
+  nextCursor?: string | null;
+};
+
 export type ApprovalDecisionRequest = {
   decision: 'approved' | 'rejected';
   reviewerNotes?: string;
@@ -26,9 +33,36 @@ export type WorkflowStatus = {
   decision?: 'approved' | 'rejected' | null;
 };
 
+export type DocumentEvent = {
+  type: 'ai-suggested' | 'finalized';
+  documentId: string;
+  status: string;
+  aiSuggestion?: string | null;
+  aiConfidence?: number | null;
+  occurredAt: string;
+};
+
+export type DocumentStats = {
+  total: number;
+  statusCounts: Record<string, number>;
+  aiSuggestionCounts: Record<string, number>;
+  averageConfidence?: number | null;
+  humanDecisions: number;
+  aiAgreements: number;
+  aiAgreementRate?: number | null;
+  timeoutDecisions: number;
+  policyDecisions: number; // taken by the auto-decision policy
+  averageSecondsToDecision?: number | null;
+  timeToDecision: Record<string, number>; // count per upper bound
+};
+
 const API_BASE = process.env.NEXT_PUBLIC_API_BASE ?? 'http://localhost:8080';
 
 async function handle<T>(res: Response): Promise<T> {
+  if (res.status === 429) {
+    const retryAfter = res.headers.get('Retry-After') ?? '1';
+    throw new Error(`Server busy, try again in ${retryAfter}s`);
+  }
   if (!res.ok) {
     const text = await res.text().catch(() => '');
     throw new Error(`Request failed ${res.status}: ${text}`);
@@ -47,9 +81,16 @@ export const api = {
     return handle<DocumentResponse>(res);
   },
 
-  async listDocuments(): Promise<DocumentResponse[]> {
-    const res = await fetch(`${API_BASE}/api/documents`);
-    return handle<DocumentResponse[]>(res);
+  async listDocuments(cursor?: string, limit = 50): Promise<DocumentPage> {
+    const params = new URLSearchParams({ limit: String(limit) });
+    if (cursor) params.set('cursor', cursor);
+    const res = await fetch(`${API_BASE}/api/documents?${params}`);
+    return handle<DocumentPage>(res);
+  },
+
+  async getStats(): Promise<DocumentStats> {
+    const res = await fetch(`${API_BASE}/api/documents/stats`);
+    return handle<DocumentStats>(res);
   },
 
   async getDocument(id: string): Promise<DocumentResponse> {
@@ -79,6 +120,16 @@ export const api = {
     const res = await fetch(`${API_BASE}/api/documents/${id}/workflow-status`);
     return handle<WorkflowStatus>(res);
   },
+
+  // Server-sent document changes; returns a function that closes the stream
+  subscribeToEvents(documentId: string | null, onEvent: (event: DocumentEvent) => void): () => void {
+    const query = documentId ? `?documentId=${encodeURIComponent(documentId)}` : '';
+    const source = new EventSource(`${API_BASE}/api/documents/events${query}`);
+    const listener = (e: MessageEvent) => onEvent(JSON.parse(e.data) as DocumentEvent);
+    source.addEventListener('ai-suggested', listener);
+    source.addEventListener('finalized', listener);
+    return () => source.close();
+  },
 };
 
 